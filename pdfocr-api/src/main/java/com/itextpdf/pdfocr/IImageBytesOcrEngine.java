@@ -0,0 +1,50 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link IImageBytesOcrEngine} interface is implemented by
+ * {@link IOcrEngine}s which can read input images passed as byte arrays.
+ * {@link OcrPdfCreator} passes images which are provided in memory to such
+ * engines as is. For other engines the image is written to a temporary
+ * file which is passed to {@link IOcrEngine#doImageOcr(java.io.File)}.
+ */
+public interface IImageBytesOcrEngine {
+
+    /**
+     * Reads data from the provided input image bytes and returns retrieved
+     * data in the same format as {@link IOcrEngine#doImageOcr(java.io.File)}.
+     * Image format is to be detected from the content of the image.
+     *
+     * @param input input image as a byte array
+     * @return {@link java.util.Map} where key is {@link java.lang.Integer}
+     * representing the number of the page and value is
+     * {@link java.util.List} of {@link TextInfo} elements where each
+     * {@link TextInfo} element contains a word or a line and its 4
+     * coordinates(bbox)
+     */
+    Map<Integer, List<TextInfo>> doImageOcr(byte[] input);
+}
@@ -37,6 +37,9 @@ public interface IImageRotationHandler {
     /**
      * Apply rotation to image data.
      * If image is not rotated - does nothing.
+     * Instead of rotating image pixels implementation may set rotation via
+     * {@link ImageData#setRotation(float)}, in this case image is rotated
+     * when it is placed on the page.
      * @param imageData to apply rotation to
      * @return rotated image if rotation flag is set or self if no rotation
      */
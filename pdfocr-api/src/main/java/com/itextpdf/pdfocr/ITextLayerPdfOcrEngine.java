@@ -0,0 +1,49 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr;
+
+import java.io.File;
+
+/**
+ * {@link ITextLayerPdfOcrEngine} interface is implemented by
+ * {@link IOcrEngine}s which can write recognized text directly to a PDF
+ * document, e.g. tesseract with "textonly_pdf" option.
+ * Such a document contains only invisible, already positioned text and is
+ * used by {@link OcrPdfCreator} as a ready text layer if
+ * {@link TextLayerMode#ENGINE_PDF} is selected.
+ */
+public interface ITextLayerPdfOcrEngine {
+
+    /**
+     * Performs OCR of the provided input image and writes recognized text
+     * to a PDF document containing one page per each page of the image.
+     * Each page should contain only invisible text and its page size should
+     * have the same proportions as the image page, as the page is scaled to
+     * the area the image occupies in the result document.
+     *
+     * @param input input image {@link java.io.File}
+     * @param outputFile {@link java.io.File} text-only PDF document should
+     *                   be written to
+     */
+    void createTextLayerPdf(File input, File outputFile);
+}
@@ -38,6 +38,12 @@ public class OcrException extends RuntimeException {
             + "any of provided fonts. Please check provided FontProvider.";
     public static final String CANNOT_CREATE_PDF_DOCUMENT = "Cannot create "
             + "PDF document: {0}";
+    public static final String PDF_DOCUMENT_IS_NOT_IN_STAMPING_MODE =
+            "PDF document must be opened in stamping mode (with both "
+                    + "reader and writer)";
+    public static final String OCR_WAS_INTERRUPTED = "OCR was interrupted";
+    public static final String CANNOT_WRITE_OCR_RESULT =
+            "Cannot write OCR result: {0}";
     private List<String> messageParams;
 
     /**
@@ -22,17 +22,24 @@
  */
 package com.itextpdf.pdfocr;
 
+import com.itextpdf.io.font.FontMetrics;
+import com.itextpdf.io.font.FontProgram;
 import com.itextpdf.io.font.otf.ActualTextIterator;
 import com.itextpdf.io.font.otf.Glyph;
 import com.itextpdf.io.font.otf.GlyphLine;
 import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageTypeDetector;
+import com.itextpdf.io.source.CompressionConstants;
 import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.io.util.StreamUtil;
+import com.itextpdf.kernel.PdfException;
 import com.itextpdf.kernel.counter.event.IMetaInfo;
 import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.font.PdfTrueTypeFont;
 import com.itextpdf.kernel.font.PdfType0Font;
 import com.itextpdf.kernel.font.PdfType1Font;
 import com.itextpdf.kernel.font.PdfType3Font;
+import com.itextpdf.kernel.geom.Matrix;
 import com.itextpdf.kernel.geom.PageSize;
 import com.itextpdf.kernel.geom.Point;
 import com.itextpdf.kernel.geom.Rectangle;
@@ -40,14 +47,25 @@ import com.itextpdf.kernel.pdf.DocumentProperties;
 import com.itextpdf.kernel.pdf.PdfAConformanceLevel;
 import com.itextpdf.kernel.pdf.PdfDocument;
 import com.itextpdf.kernel.pdf.PdfDocumentInfo;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfObject;
 import com.itextpdf.kernel.pdf.PdfOutputIntent;
 import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
 import com.itextpdf.kernel.pdf.PdfString;
 import com.itextpdf.kernel.pdf.PdfViewerPreferences;
 import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.StampingProperties;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
 import com.itextpdf.kernel.pdf.canvas.PdfCanvasConstants.TextRenderingMode;
+import com.itextpdf.kernel.pdf.canvas.parser.EventType;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfCanvasProcessor;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.ImageRenderInfo;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
 import com.itextpdf.kernel.pdf.layer.PdfLayer;
+import com.itextpdf.kernel.pdf.xobject.PdfFormXObject;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
 import com.itextpdf.layout.Canvas;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
@@ -57,13 +75,26 @@ import com.itextpdf.layout.property.TextAlignment;
 import com.itextpdf.pdfa.PdfADocument;
 import com.itextpdf.pdfocr.OcrPdfCreatorMetaInfo.PdfDocumentType;
 import com.itextpdf.pdfocr.events.IThreadLocalMetaInfoAware;
+import com.itextpdf.pdfocr.export.IOcrResultSink;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -89,6 +120,11 @@ public class OcrPdfCreator {
     private static final Logger LOGGER = LoggerFactory
             .getLogger(OcrPdfCreator.class);
 
+    /**
+     * Name of the input image passed in memory used in log messages.
+     */
+    private static final String IN_MEMORY_IMAGE = "<in-memory image>";
+
     /**
      * Indices in array representing bbox.
      */
@@ -169,6 +205,219 @@ public class OcrPdfCreator {
             final PdfWriter pdfWriter,
             final PdfOutputIntent pdfOutputIntent)
             throws OcrException {
+        return createPdfA(inputImages, pdfWriter, pdfOutputIntent,
+                Collections.<IOcrResultSink>emptyList());
+    }
+
+    /**
+     * Performs OCR with set parameters using provided {@link IOcrEngine},
+     * creates PDF/A-3u document using provided
+     * {@link com.itextpdf.kernel.pdf.PdfWriter} and
+     * {@link com.itextpdf.kernel.pdf.PdfOutputIntent} and writes the same
+     * recognized text to all provided {@link IOcrResultSink}s page by page.
+     * Every image is recognized only once. PDF document will be created if
+     * provided {@link com.itextpdf.kernel.pdf.PdfOutputIntent} is null.
+     *
+     * If sinks are provided, {@link TextLayerMode#ENGINE_PDF} is not used
+     * as the text is needed as {@link TextInfo} elements.
+     *
+     * @param inputImages {@link java.util.List} of images to be OCRed
+     * @param pdfWriter the {@link com.itextpdf.kernel.pdf.PdfWriter} object
+     *                  to write final PDF document to
+     * @param pdfOutputIntent {@link com.itextpdf.kernel.pdf.PdfOutputIntent}
+     *                        for PDF/A-3u document
+     * @param sinks {@link java.util.List} of {@link IOcrResultSink}s to write
+     *              recognized text to
+     * @return result PDF/A-3u {@link com.itextpdf.kernel.pdf.PdfDocument}
+     * object
+     * @throws OcrException if it was not possible to read provided or
+     * default font or recognized text cannot be written to a sink
+     */
+    public final PdfDocument createPdfA(final List<File> inputImages,
+            final PdfWriter pdfWriter,
+            final PdfOutputIntent pdfOutputIntent,
+            final List<IOcrResultSink> sinks)
+            throws OcrException {
+        List<ImageInput> imageInputs =
+                new ArrayList<ImageInput>(inputImages.size());
+        for (File inputImage : inputImages) {
+            imageInputs.add(new ImageInput(inputImage, null));
+        }
+        return createPdfFromImages(imageInputs, pdfWriter, pdfOutputIntent,
+                sinks);
+    }
+
+    /**
+     * Performs OCR with set parameters using provided {@link IOcrEngine}
+     * for the input image passed as a byte array and creates PDF/A-3u
+     * document using provided {@link com.itextpdf.kernel.pdf.PdfWriter} and
+     * {@link com.itextpdf.kernel.pdf.PdfOutputIntent}. PDF document will be
+     * created if provided {@link com.itextpdf.kernel.pdf.PdfOutputIntent}
+     * is null.
+     *
+     * Image format is detected from the leading bytes of the image. The
+     * image is placed to the result document directly from memory. If
+     * {@link IOcrEngine} implements {@link IImageBytesOcrEngine}, the image
+     * is OCRed from memory as well, otherwise it is written to a temporary
+     * file for OCR, the same happens if the text layer is created by the
+     * engine (see {@link TextLayerMode#ENGINE_PDF}).
+     *
+     * @param inputImage image to be OCRed as a byte array
+     * @param pdfWriter the {@link com.itextpdf.kernel.pdf.PdfWriter} object
+     *                  to write final PDF document to
+     * @param pdfOutputIntent {@link com.itextpdf.kernel.pdf.PdfOutputIntent}
+     *                        for PDF/A-3u document
+     * @return result PDF/A-3u {@link com.itextpdf.kernel.pdf.PdfDocument}
+     * object
+     * @throws OcrException if it was not possible to read provided or
+     * default font
+     */
+    public final PdfDocument createPdfA(final byte[] inputImage,
+            final PdfWriter pdfWriter,
+            final PdfOutputIntent pdfOutputIntent)
+            throws OcrException {
+        return createPdfFromImages(Collections.<ImageInput>singletonList(
+                new ImageInput(null, inputImage)), pdfWriter,
+                pdfOutputIntent, Collections.<IOcrResultSink>emptyList());
+    }
+
+    /**
+     * Performs OCR with set parameters using provided {@link IOcrEngine}
+     * for the input image read from the stream and creates PDF/A-3u
+     * document using provided {@link com.itextpdf.kernel.pdf.PdfWriter} and
+     * {@link com.itextpdf.kernel.pdf.PdfOutputIntent}.
+     *
+     * The stream is read to the end but is not closed.
+     * See {@link #createPdfA(byte[], PdfWriter, PdfOutputIntent)} for the
+     * details.
+     *
+     * @param inputImage image to be OCRed as {@link java.io.InputStream}
+     * @param pdfWriter the {@link com.itextpdf.kernel.pdf.PdfWriter} object
+     *                  to write final PDF document to
+     * @param pdfOutputIntent {@link com.itextpdf.kernel.pdf.PdfOutputIntent}
+     *                        for PDF/A-3u document
+     * @return result PDF/A-3u {@link com.itextpdf.kernel.pdf.PdfDocument}
+     * object
+     * @throws OcrException if the stream cannot be read or it was not
+     * possible to read provided or default font
+     */
+    public final PdfDocument createPdfA(final InputStream inputImage,
+            final PdfWriter pdfWriter,
+            final PdfOutputIntent pdfOutputIntent)
+            throws OcrException {
+        return createPdfA(readImage(inputImage), pdfWriter, pdfOutputIntent);
+    }
+
+    /**
+     * Performs OCR with set parameters using provided {@link IOcrEngine}
+     * for the input image contained in the remaining bytes of the buffer and
+     * creates PDF/A-3u document using provided
+     * {@link com.itextpdf.kernel.pdf.PdfWriter} and
+     * {@link com.itextpdf.kernel.pdf.PdfOutputIntent}.
+     *
+     * Position of the buffer is not changed.
+     * See {@link #createPdfA(byte[], PdfWriter, PdfOutputIntent)} for the
+     * details.
+     *
+     * @param inputImage image to be OCRed as {@link java.nio.ByteBuffer}
+     * @param pdfWriter the {@link com.itextpdf.kernel.pdf.PdfWriter} object
+     *                  to write final PDF document to
+     * @param pdfOutputIntent {@link com.itextpdf.kernel.pdf.PdfOutputIntent}
+     *                        for PDF/A-3u document
+     * @return result PDF/A-3u {@link com.itextpdf.kernel.pdf.PdfDocument}
+     * object
+     * @throws OcrException if it was not possible to read provided or
+     * default font
+     */
+    public final PdfDocument createPdfA(final ByteBuffer inputImage,
+            final PdfWriter pdfWriter,
+            final PdfOutputIntent pdfOutputIntent)
+            throws OcrException {
+        return createPdfA(readImage(inputImage), pdfWriter, pdfOutputIntent);
+    }
+
+    /**
+     * Performs OCR with set parameters using provided {@link IOcrEngine}
+     * for the input image passed as a byte array and creates PDF using
+     * provided {@link com.itextpdf.kernel.pdf.PdfWriter}.
+     *
+     * See {@link #createPdfA(byte[], PdfWriter, PdfOutputIntent)} for the
+     * details.
+     *
+     * @param inputImage image to be OCRed as a byte array
+     * @param pdfWriter the {@link com.itextpdf.kernel.pdf.PdfWriter} object
+     *                  to write final PDF document to
+     * @return result {@link com.itextpdf.kernel.pdf.PdfDocument} object
+     * @throws OcrException if provided font is incorrect
+     */
+    public final PdfDocument createPdf(final byte[] inputImage,
+            final PdfWriter pdfWriter)
+            throws OcrException {
+        return createPdfA(inputImage, pdfWriter, null);
+    }
+
+    /**
+     * Performs OCR with set parameters using provided {@link IOcrEngine}
+     * for the input image read from the stream and creates PDF using
+     * provided {@link com.itextpdf.kernel.pdf.PdfWriter}.
+     *
+     * See {@link #createPdfA(InputStream, PdfWriter, PdfOutputIntent)} for
+     * the details.
+     *
+     * @param inputImage image to be OCRed as {@link java.io.InputStream}
+     * @param pdfWriter the {@link com.itextpdf.kernel.pdf.PdfWriter} object
+     *                  to write final PDF document to
+     * @return result {@link com.itextpdf.kernel.pdf.PdfDocument} object
+     * @throws OcrException if the stream cannot be read or provided font is
+     * incorrect
+     */
+    public final PdfDocument createPdf(final InputStream inputImage,
+            final PdfWriter pdfWriter)
+            throws OcrException {
+        return createPdfA(inputImage, pdfWriter, null);
+    }
+
+    /**
+     * Performs OCR with set parameters using provided {@link IOcrEngine}
+     * for the input image contained in the remaining bytes of the buffer and
+     * creates PDF using provided {@link com.itextpdf.kernel.pdf.PdfWriter}.
+     *
+     * See {@link #createPdfA(ByteBuffer, PdfWriter, PdfOutputIntent)} for
+     * the details.
+     *
+     * @param inputImage image to be OCRed as {@link java.nio.ByteBuffer}
+     * @param pdfWriter the {@link com.itextpdf.kernel.pdf.PdfWriter} object
+     *                  to write final PDF document to
+     * @return result {@link com.itextpdf.kernel.pdf.PdfDocument} object
+     * @throws OcrException if provided font is incorrect
+     */
+    public final PdfDocument createPdf(final ByteBuffer inputImage,
+            final PdfWriter pdfWriter)
+            throws OcrException {
+        return createPdfA(inputImage, pdfWriter, null);
+    }
+
+    /**
+     * Performs OCR of the input images and creates PDF or PDF/A-3u document,
+     * see {@link #createPdfA(List, PdfWriter, PdfOutputIntent, List)}.
+     *
+     * @param inputImages {@link java.util.List} of images to be OCRed
+     * @param pdfWriter the {@link com.itextpdf.kernel.pdf.PdfWriter} object
+     *                  to write final PDF document to
+     * @param pdfOutputIntent {@link com.itextpdf.kernel.pdf.PdfOutputIntent}
+     *                        for PDF/A-3u document, null for PDF document
+     * @param sinks {@link java.util.List} of {@link IOcrResultSink}s to write
+     *              recognized text to
+     * @return result {@link com.itextpdf.kernel.pdf.PdfDocument} object
+     * @throws OcrException if it was not possible to read provided or
+     * default font or recognized text cannot be written to a sink
+     */
+    private PdfDocument createPdfFromImages(
+            final List<ImageInput> inputImages,
+            final PdfWriter pdfWriter,
+            final PdfOutputIntent pdfOutputIntent,
+            final List<IOcrResultSink> sinks)
+            throws OcrException {
         LOGGER.info(MessageFormatUtil.format(
                 PdfOcrLogMessageConstant.START_OCR_FOR_IMAGES,
                 inputImages.size()));
@@ -183,25 +432,44 @@ public class OcrPdfCreator {
         }
 
         // map contains:
-        // keys: image files
+        // keys: input images
         // values:
         // map pageNumber -> retrieved text data(text and its coordinates)
-        Map<File, Map<Integer, List<TextInfo>>> imagesTextData =
-                new LinkedHashMap<File, Map<Integer, List<TextInfo>>>();
+        Map<ImageInput, Map<Integer, List<TextInfo>>> imagesTextData =
+                new LinkedHashMap<ImageInput, Map<Integer, List<TextInfo>>>();
+        // map contains:
+        // keys: input images
+        // values: text-only PDF documents created by OCR engine
+        Map<ImageInput, File> textLayerPdfs =
+                new LinkedHashMap<ImageInput, File>();
+        final ITextLayerPdfOcrEngine textLayerEngine =
+                getTextLayerPdfOcrEngine(sinks);
         try {
-            for (File inputImage : inputImages) {
-                imagesTextData.put(inputImage,
-                        ocrEngine.doImageOcr(inputImage));
+            try {
+                for (ImageInput inputImage : inputImages) {
+                    if (textLayerEngine == null) {
+                        imagesTextData.put(inputImage,
+                                inputImage.doImageOcr(ocrEngine));
+                    } else {
+                        imagesTextData.put(inputImage,
+                                Collections.<Integer, List<TextInfo>>emptyMap());
+                        textLayerPdfs.put(inputImage, inputImage
+                                .createTextLayerPdf(textLayerEngine));
+                    }
+                }
+            } finally {
+                if (ocrEngine instanceof IThreadLocalMetaInfoAware) {
+                    ((IThreadLocalMetaInfoAware)ocrEngine).setThreadLocalMetaInfo(storedMetaInfo);
+                }
             }
+
+            // create PdfDocument
+            return createPdfDocument(pdfWriter, pdfOutputIntent,
+                    imagesTextData, textLayerPdfs, sinks);
         } finally {
-            if (ocrEngine instanceof IThreadLocalMetaInfoAware) {
-                ((IThreadLocalMetaInfoAware)ocrEngine).setThreadLocalMetaInfo(storedMetaInfo);
-            }
+            // text layers are already copied to the result document
+            deleteFiles(textLayerPdfs.values());
         }
-
-
-        // create PdfDocument
-        return createPdfDocument(pdfWriter, pdfOutputIntent, imagesTextData);
     }
 
     /**
@@ -220,6 +488,208 @@ public class OcrPdfCreator {
         return createPdfA(inputImages, pdfWriter, null);
     }
 
+    /**
+     * Performs OCR with set parameters using provided {@link IOcrEngine},
+     * creates PDF using provided {@link com.itextpdf.kernel.pdf.PdfWriter}
+     * and writes the same recognized text to all provided
+     * {@link IOcrResultSink}s, e.g. to get a searchable PDF and a plain text
+     * file for indexing recognizing every image only once.
+     *
+     * See {@link #createPdfA(List, PdfWriter, PdfOutputIntent, List)} for
+     * the details.
+     *
+     * @param inputImages {@link java.util.List} of images to be OCRed
+     * @param pdfWriter the {@link com.itextpdf.kernel.pdf.PdfWriter} object
+     *                  to write final PDF document to
+     * @param sinks {@link java.util.List} of {@link IOcrResultSink}s to write
+     *              recognized text to
+     * @return result {@link com.itextpdf.kernel.pdf.PdfDocument} object
+     * @throws OcrException if provided font is incorrect or recognized text
+     * cannot be written to a sink
+     */
+    public final PdfDocument createPdf(final List<File> inputImages,
+            final PdfWriter pdfWriter, final List<IOcrResultSink> sinks)
+            throws OcrException {
+        return createPdfA(inputImages, pdfWriter, null, sinks);
+    }
+
+    /**
+     * Performs OCR of the scanned pages of the existing PDF document using
+     * provided {@link IOcrEngine} and adds recognized text to the same pages
+     * as invisible text (unless text color is set in
+     * {@link OcrPdfCreatorProperties}). The document is opened in stamping
+     * mode, so original page content and images are copied to the result
+     * without being re-encoded. If
+     * {@link OcrPdfCreatorProperties#isAppendMode()} is set, recognized text
+     * is written as an incremental update.
+     *
+     * See {@link #ocrPdfDocument(PdfDocument)} for the details.
+     *
+     * @param pdfReader the {@link com.itextpdf.kernel.pdf.PdfReader} object
+     *                  to read the scanned PDF document from
+     * @param pdfWriter the {@link com.itextpdf.kernel.pdf.PdfWriter} object
+     *                  to write final PDF document to
+     * @return result {@link com.itextpdf.kernel.pdf.PdfDocument} object
+     * @throws OcrException if OCR failed or provided font is incorrect
+     */
+    public final PdfDocument createPdf(final PdfReader pdfReader,
+            final PdfWriter pdfWriter)
+            throws OcrException {
+        return createPdf(pdfReader, pdfWriter,
+                Collections.<IOcrResultSink>emptyList());
+    }
+
+    /**
+     * Performs OCR of the scanned pages of the existing PDF document using
+     * provided {@link IOcrEngine}, adds recognized text to the same pages and
+     * writes it to all provided {@link IOcrResultSink}s.
+     *
+     * See {@link #createPdf(PdfReader, PdfWriter)} and
+     * {@link #ocrPdfDocument(PdfDocument, List)} for the details.
+     *
+     * @param pdfReader the {@link com.itextpdf.kernel.pdf.PdfReader} object
+     *                  to read the scanned PDF document from
+     * @param pdfWriter the {@link com.itextpdf.kernel.pdf.PdfWriter} object
+     *                  to write final PDF document to
+     * @param sinks {@link java.util.List} of {@link IOcrResultSink}s to write
+     *              recognized text to
+     * @return result {@link com.itextpdf.kernel.pdf.PdfDocument} object
+     * @throws OcrException if OCR failed, provided font is incorrect or
+     * recognized text cannot be written to a sink
+     */
+    public final PdfDocument createPdf(final PdfReader pdfReader,
+            final PdfWriter pdfWriter, final List<IOcrResultSink> sinks)
+            throws OcrException {
+        StampingProperties stampingProperties = new StampingProperties();
+        stampingProperties.setEventCountingMetaInfo(new PdfOcrMetaInfo());
+        if (ocrPdfCreatorProperties.isAppendMode()) {
+            stampingProperties.useAppendMode();
+        }
+        PdfDocument pdfDocument = new PdfDocument(pdfReader, pdfWriter,
+                stampingProperties);
+        ocrPdfDocument(pdfDocument, sinks);
+        return pdfDocument;
+    }
+
+    /**
+     * Performs OCR of the scanned pages of the provided PDF document and adds
+     * recognized text to the same pages.
+     *
+     * The largest image drawn on each page is extracted as is (without
+     * decoding and re-compressing when its format is supported by
+     * {@link IOcrEngine}, e.g. JPEG) and OCRed. Up to
+     * {@link OcrPdfCreatorProperties#getParallelism()} pages are OCRed
+     * simultaneously, so provided {@link IOcrEngine} should be thread-safe
+     * if parallelism is greater than 1. Recognized text is placed over
+     * the image keeping the original page geometry. Pages without images
+     * are left unchanged. If the document is opened in append mode, only
+     * the objects changed by the text layer are written.
+     *
+     * @param pdfDocument {@link com.itextpdf.kernel.pdf.PdfDocument} opened
+     *                    in stamping mode (with both reader and writer)
+     * @throws OcrException if document is not opened in stamping mode,
+     * if OCR failed or provided font is incorrect
+     */
+    public final void ocrPdfDocument(final PdfDocument pdfDocument)
+            throws OcrException {
+        ocrPdfDocument(pdfDocument, Collections.<IOcrResultSink>emptyList());
+    }
+
+    /**
+     * Performs OCR of the scanned pages of the provided PDF document, adds
+     * recognized text to the same pages and writes it to all provided
+     * {@link IOcrResultSink}s. Page numbers passed to the sinks are the
+     * numbers of the document pages, pages without images are not written.
+     * If sinks are provided, {@link TextLayerMode#ENGINE_PDF} is not used.
+     *
+     * See {@link #ocrPdfDocument(PdfDocument)} for the details.
+     *
+     * @param pdfDocument {@link com.itextpdf.kernel.pdf.PdfDocument} opened
+     *                    in stamping mode (with both reader and writer)
+     * @param sinks {@link java.util.List} of {@link IOcrResultSink}s to write
+     *              recognized text to
+     * @throws OcrException if document is not opened in stamping mode,
+     * if OCR failed, provided font is incorrect or recognized text cannot be
+     * written to a sink
+     */
+    public final void ocrPdfDocument(final PdfDocument pdfDocument,
+            final List<IOcrResultSink> sinks) throws OcrException {
+        if (pdfDocument.getReader() == null
+                || pdfDocument.getWriter() == null) {
+            throw new OcrException(OcrException.CANNOT_CREATE_PDF_DOCUMENT)
+                    .setMessageParams(OcrException
+                            .PDF_DOCUMENT_IS_NOT_IN_STAMPING_MODE);
+        }
+        final boolean createPdfA3u = pdfDocument instanceof PdfADocument;
+        LOGGER.info(MessageFormatUtil.format(
+                PdfOcrLogMessageConstant.START_OCR_FOR_PAGES,
+                pdfDocument.getNumberOfPages()));
+
+        // map contains:
+        // keys: page numbers
+        // values: images extracted from these pages
+        Map<Integer, PageImage> pageImages =
+                new LinkedHashMap<Integer, PageImage>();
+        // map contains:
+        // keys: page numbers
+        // values: text-only PDF documents created by OCR engine
+        Map<Integer, File> textLayerPdfs = new LinkedHashMap<Integer, File>();
+        try {
+            for (int page = 1; page <= pdfDocument.getNumberOfPages(); ++page) {
+                PageImage pageImage = extractPageImage(
+                        pdfDocument.getPage(page), page);
+                if (pageImage != null) {
+                    pageImages.put(page, pageImage);
+                }
+            }
+
+            final PdfDocumentType pdfDocumentType = createPdfA3u
+                    ? PdfDocumentType.PDFA : PdfDocumentType.PDF;
+            final String textLayerName =
+                    ocrPdfCreatorProperties.getTextLayerName();
+            final ITextLayerPdfOcrEngine textLayerEngine =
+                    getTextLayerPdfOcrEngine(sinks);
+            if (textLayerEngine != null) {
+                textLayerPdfs = doPagesTextLayerOcr(pageImages,
+                        pdfDocumentType, textLayerEngine);
+                final PdfLayer textLayer = textLayerName == null
+                        ? null : new PdfLayer(textLayerName, pdfDocument);
+                for (Map.Entry<Integer, File> entry
+                        : textLayerPdfs.entrySet()) {
+                    addTextLayerToPage(pdfDocument.getPage(entry.getKey()),
+                            pageImages.get(entry.getKey()), entry.getValue(),
+                            textLayer);
+                }
+                return;
+            }
+
+            Map<Integer, List<TextInfo>> pagesTextData = doPagesOcr(
+                    pageImages, pdfDocumentType);
+
+            final FontProvider fontProvider = createDocumentFontProvider();
+            final PdfLayer textLayer = textLayerName == null
+                    ? null : new PdfLayer(textLayerName, pdfDocument);
+            startSinks(sinks);
+            for (Map.Entry<Integer, List<TextInfo>> entry
+                    : pagesTextData.entrySet()) {
+                final PageImage pageImage = pageImages.get(entry.getKey());
+                addTextToPage(pdfDocument.getPage(entry.getKey()),
+                        pageImage, entry.getValue(),
+                        textLayer, createPdfA3u, fontProvider);
+                writePageToSinks(sinks, entry.getKey(), pageImage.width,
+                        pageImage.height, entry.getValue());
+            }
+            endSinks(sinks);
+        } finally {
+            for (PageImage pageImage : pageImages.values()) {
+                if (!pageImage.file.delete()) {
+                    pageImage.file.deleteOnExit();
+                }
+            }
+            deleteFiles(textLayerPdfs.values());
+        }
+    }
+
     /**
      * Gets used {@link IOcrEngine}.
      *
@@ -247,14 +717,20 @@ public class OcrPdfCreator {
      * @param pageText text that was found on this image (or on this page)
      * @param imageData input image if it is a single page or its one page if
      *                 this is a multi-page image
+     * @param textLayerPage text-only page created by OCR engine for this
+     *                      image (or for this page), if it is not null, it
+     *                      is placed over the image instead of pageText
      * @param createPdfA3u true if PDF/A3u document is being created
+     * @param fontProvider font provider of the result document
      * @throws OcrException if PDF/A3u document is being created and provided
      * font contains notdef glyphs
      */
     private void addToCanvas(final PdfDocument pdfDocument,
             final Rectangle imageSize,
             final List<TextInfo> pageText, final ImageData imageData,
-            final boolean createPdfA3u) throws OcrException {
+            final PdfFormXObject textLayerPage,
+            final boolean createPdfA3u, final FontProvider fontProvider)
+            throws OcrException {
         final Rectangle rectangleSize =
                 ocrPdfCreatorProperties.getPageSize() == null
                         ? imageSize : ocrPdfCreatorProperties.getPageSize();
@@ -277,14 +753,21 @@ public class OcrPdfCreator {
         // how much the original image size changed
         float multiplier = imageData == null
                 ? 1 : imageSize.getWidth()
-                / PdfCreatorUtil.getPoints(imageData.getWidth());
+                / PdfCreatorUtil.getPoints(
+                        PdfCreatorUtil.getImageWidth(imageData));
         if (layers[1] != null && layers[0] != layers[1]) {
             canvas.beginLayer(layers[1]);
         }
 
         try {
-            addTextToCanvas(imageSize, pageText, canvas, multiplier,
-                    pdfPage.getMediaBox());
+            if (textLayerPage == null) {
+                addTextToCanvas(imageSize, pageText, canvas, multiplier,
+                        pdfPage.getMediaBox(), fontProvider);
+            } else {
+                addTextLayerToCanvas(textLayerPage, getImageRect(imageSize),
+                        imageData == null ? 0 : PdfCreatorUtil
+                                .getClockwiseRotation(imageData), canvas);
+            }
         } catch (OcrException e) {
             LOGGER.error(MessageFormatUtil.format(
                     OcrException.CANNOT_CREATE_PDF_DOCUMENT,
@@ -305,13 +788,30 @@ public class OcrPdfCreator {
      *                  to write final PDF document to
      * @param pdfOutputIntent {@link com.itextpdf.kernel.pdf.PdfOutputIntent}
      *                        for PDF/A-3u document
-     * @param imagesTextData map that contains input image files as keys,
+     * @param imagesTextData map that contains input images as keys,
      *                       and as value: map pageNumber -> text for the page
+     * @param textLayerPdfs map that contains input images as keys,
+     *                      and as value: text-only PDF document created by
+     *                      OCR engine, empty if text layer is created from
+     *                      recognized text
+     * @param sinks {@link java.util.List} of {@link IOcrResultSink}s to write
+     *              recognized text to
      * @return result {@link com.itextpdf.kernel.pdf.PdfDocument} object
      */
     private PdfDocument createPdfDocument(final PdfWriter pdfWriter,
             final PdfOutputIntent pdfOutputIntent,
-            final Map<File, Map<Integer, List<TextInfo>>> imagesTextData) {
+            final Map<ImageInput, Map<Integer, List<TextInfo>>> imagesTextData,
+            final Map<ImageInput, File> textLayerPdfs,
+            final List<IOcrResultSink> sinks) {
+        if (ocrPdfCreatorProperties.isCompactOutput()) {
+            pdfWriter.setCompressionLevel(
+                    CompressionConstants.BEST_COMPRESSION);
+            if (!pdfWriter.isFullCompression()) {
+                LOGGER.warn(PdfOcrLogMessageConstant
+                        .FULL_COMPRESSION_IS_NOT_ENABLED);
+            }
+        }
+
         PdfDocument pdfDocument;
         boolean createPdfA3u = pdfOutputIntent != null;
         if (createPdfA3u) {
@@ -348,10 +848,10 @@ public class OcrPdfCreator {
             info.setTitle(ocrPdfCreatorProperties.getTitle());
         }
 
-        // reset passed font provider
-        ocrPdfCreatorProperties.getFontProvider().reset();
-
-        addDataToPdfDocument(imagesTextData, pdfDocument, createPdfA3u);
+        startSinks(sinks);
+        addDataToPdfDocument(imagesTextData, textLayerPdfs, sinks,
+                pdfDocument, createPdfA3u, createDocumentFontProvider());
+        endSinks(sinks);
 
         return pdfDocument;
     }
@@ -362,28 +862,46 @@ public class OcrPdfCreator {
      * @param imagesTextData map that contains input image
      *                       files as keys, and as value:
      *                       map pageNumber -> text for the page
+     * @param textLayerPdfs map that contains input images as keys,
+     *                      and as value: text-only PDF document created by
+     *                      OCR engine
+     * @param sinks {@link java.util.List} of {@link IOcrResultSink}s to write
+     *              recognized text to
      * @param pdfDocument result {@link com.itextpdf.kernel.pdf.PdfDocument}
      * @param createPdfA3u true if PDF/A3u document is being created
+     * @param fontProvider font provider of the result document
      * @throws OcrException if input image cannot be read or provided font
      * contains NOTDEF glyphs
      */
     private void addDataToPdfDocument(
-            final Map<File, Map<Integer, List<TextInfo>>> imagesTextData,
+            final Map<ImageInput, Map<Integer, List<TextInfo>>> imagesTextData,
+            final Map<ImageInput, File> textLayerPdfs,
+            final List<IOcrResultSink> sinks,
             final PdfDocument pdfDocument,
-            final boolean createPdfA3u) throws OcrException {
-        for (Map.Entry<File, Map<Integer, List<TextInfo>>> entry
+            final boolean createPdfA3u,
+            final FontProvider fontProvider) throws OcrException {
+        for (Map.Entry<ImageInput, Map<Integer, List<TextInfo>>> entry
                 : imagesTextData.entrySet()) {
+            PdfDocument textLayerDocument = null;
             try {
-                File inputImage = entry.getKey();
-                List<ImageData> imageDataList =
-                        PdfCreatorUtil.getImageData(inputImage,
-                                ocrPdfCreatorProperties.getImageRotationHandler());
+                ImageInput inputImage = entry.getKey();
+                if (textLayerPdfs.containsKey(inputImage)) {
+                    textLayerDocument = new PdfDocument(
+                            new PdfReader(textLayerPdfs.get(inputImage)
+                                    .getAbsolutePath()));
+                }
+                List<ImageData> imageDataList = inputImage.getImageData(
+                        ocrPdfCreatorProperties.getImageRotationHandler());
                 LOGGER.info(MessageFormatUtil.format(
                         PdfOcrLogMessageConstant.NUMBER_OF_PAGES_IN_IMAGE,
                         inputImage.toString(), imageDataList.size()));
 
                 Map<Integer, List<TextInfo>> imageTextData = entry.getValue();
-                if (imageTextData.keySet().size() > 0) {
+                if (textLayerDocument != null) {
+                    addTextLayersToPdfDocument(imageDataList,
+                            textLayerDocument, pdfDocument, createPdfA3u,
+                            fontProvider);
+                } else if (imageTextData.keySet().size() > 0) {
                     for (int page = 0; page < imageDataList.size(); ++page) {
                         ImageData imageData = imageDataList.get(page);
                         final Rectangle imageSize =
@@ -393,9 +911,22 @@ public class OcrPdfCreator {
                                         ocrPdfCreatorProperties.getPageSize());
 
                         if (imageTextData.containsKey(page + 1)) {
-                            addToCanvas(pdfDocument, imageSize,
-                                    imageTextData.get(page + 1),
-                                    imageData, createPdfA3u);
+                            final List<TextInfo> pageText =
+                                    imageTextData.get(page + 1);
+                            final float imageWidth =
+                                    PdfCreatorUtil.getImageWidth(imageData);
+                            final float imageHeight =
+                                    PdfCreatorUtil.getImageHeight(imageData);
+                            if (ocrPdfCreatorProperties.isCompactOutput()) {
+                                imageData = PdfCreatorUtil
+                                        .getBilevelImageData(imageData);
+                            }
+                            addToCanvas(pdfDocument, imageSize, pageText,
+                                    imageData, null, createPdfA3u,
+                                    fontProvider);
+                            writePageToSinks(sinks,
+                                    pdfDocument.getNumberOfPages(),
+                                    imageWidth, imageHeight, pageText);
                         }
                     }
                 }
@@ -403,7 +934,48 @@ public class OcrPdfCreator {
                 LOGGER.error(MessageFormatUtil.format(
                         PdfOcrLogMessageConstant.CANNOT_ADD_DATA_TO_PDF_DOCUMENT,
                         e.getMessage()));
+            } finally {
+                if (textLayerDocument != null) {
+                    textLayerDocument.close();
+                }
+            }
+        }
+    }
+
+    /**
+     * Places pages of the input image and text-only pages created by OCR
+     * engine for them to the result PDF document. Pages of the image without
+     * corresponding text-only page are skipped as pages without recognized
+     * text.
+     *
+     * @param imageDataList pages of the input image
+     * @param textLayerDocument text-only PDF document created by OCR engine
+     *                          for the input image
+     * @param pdfDocument result {@link com.itextpdf.kernel.pdf.PdfDocument}
+     * @param createPdfA3u true if PDF/A3u document is being created
+     * @param fontProvider font provider of the result document
+     * @throws IOException if text-only page cannot be copied
+     */
+    private void addTextLayersToPdfDocument(
+            final List<ImageData> imageDataList,
+            final PdfDocument textLayerDocument,
+            final PdfDocument pdfDocument,
+            final boolean createPdfA3u,
+            final FontProvider fontProvider) throws IOException {
+        final int pagesCount = Math.min(imageDataList.size(),
+                textLayerDocument.getNumberOfPages());
+        for (int page = 0; page < pagesCount; ++page) {
+            ImageData imageData = imageDataList.get(page);
+            final Rectangle imageSize = PdfCreatorUtil.calculateImageSize(
+                    imageData, ocrPdfCreatorProperties.getScaleMode(),
+                    ocrPdfCreatorProperties.getPageSize());
+            if (ocrPdfCreatorProperties.isCompactOutput()) {
+                imageData = PdfCreatorUtil.getBilevelImageData(imageData);
             }
+            addToCanvas(pdfDocument, imageSize, null, imageData,
+                    textLayerDocument.getPage(page + 1)
+                            .copyAsFormXObject(pdfDocument),
+                    createPdfA3u, fontProvider);
         }
     }
 
@@ -419,21 +991,106 @@ public class OcrPdfCreator {
             final Rectangle imageSize,
             final PdfCanvas pdfCanvas) {
         if (imageData != null) {
-            if (ocrPdfCreatorProperties.getPageSize() == null) {
-                pdfCanvas.addImage(imageData, imageSize, false);
-            } else {
-                final Point coordinates =
-                        PdfCreatorUtil.calculateImageCoordinates(
-                        ocrPdfCreatorProperties.getPageSize(), imageSize);
-                final Rectangle rect =
-                        new Rectangle(
-                                (float)coordinates.x, (float)coordinates.y,
-                                imageSize.getWidth(), imageSize.getHeight());
+            final Rectangle rect = getImageRect(imageSize);
+            final int rotation =
+                    PdfCreatorUtil.getClockwiseRotation(imageData);
+            if (rotation == 0) {
                 pdfCanvas.addImage(imageData, rect, false);
+            } else {
+                addRotatedImageToCanvas(imageData, rect, rotation, pdfCanvas);
             }
         }
     }
 
+    /**
+     * Gets the area of the page the image is placed to.
+     *
+     * @param imageSize size of the image according to the selected
+     *                  {@link ScaleMode}
+     * @return {@link com.itextpdf.kernel.geom.Rectangle} the image occupies
+     */
+    private Rectangle getImageRect(final Rectangle imageSize) {
+        if (ocrPdfCreatorProperties.getPageSize() == null) {
+            return imageSize;
+        }
+        final Point coordinates = PdfCreatorUtil.calculateImageCoordinates(
+                ocrPdfCreatorProperties.getPageSize(), imageSize);
+        return new Rectangle((float)coordinates.x, (float)coordinates.y,
+                imageSize.getWidth(), imageSize.getHeight());
+    }
+
+    /**
+     * Places text-only page created by OCR engine to canvas, so that the page
+     * fills the given rectangle. If the image was rotated when it was placed
+     * to the page, text-only page is rotated in the same way, as it is
+     * created in the coordinate space of the original image.
+     *
+     * @param textLayerPage text-only page as
+     *                      {@link com.itextpdf.kernel.pdf.xobject.PdfFormXObject}
+     * @param rect rectangle the image occupies
+     * @param rotation clockwise rotation of the image in degrees
+     * @param pdfCanvas canvas to place the text
+     */
+    private static void addTextLayerToCanvas(
+            final PdfFormXObject textLayerPage, final Rectangle rect,
+            final int rotation, final PdfCanvas pdfCanvas) {
+        final Rectangle bbox = textLayerPage.getBBox().toRectangle();
+        // matrix maps unit square to the rect as for the image
+        final float[] m = getImageMatrix(rect, rotation);
+        // bbox of the form is mapped to unit square first
+        final float sx = 1 / bbox.getWidth();
+        final float sy = 1 / bbox.getHeight();
+        final float tx = -bbox.getX() * sx;
+        final float ty = -bbox.getY() * sy;
+        pdfCanvas.addXObject(textLayerPage, m[0] * sx, m[1] * sx,
+                m[2] * sy, m[3] * sy,
+                m[0] * tx + m[2] * ty + m[4],
+                m[1] * tx + m[3] * ty + m[5]);
+    }
+
+    /**
+     * Gets the matrix which maps unit square of the image to the given
+     * rectangle rotating the image clockwise by the given angle.
+     *
+     * @param rect rectangle the rotated image should fill
+     * @param rotation clockwise rotation in degrees: 0, 90, 180 or 270
+     * @return six elements of the transformation matrix
+     */
+    private static float[] getImageMatrix(final Rectangle rect,
+            final int rotation) {
+        final float x = rect.getX();
+        final float y = rect.getY();
+        final float width = rect.getWidth();
+        final float height = rect.getHeight();
+        if (rotation == 90) {
+            return new float[] {0, -height, width, 0, x, y + height};
+        } else if (rotation == 180) {
+            return new float[] {-width, 0, 0, -height, x + width, y + height};
+        } else if (rotation == 270) {
+            return new float[] {0, height, -width, 0, x + width, y};
+        } else {
+            return new float[] {width, 0, 0, height, x, y};
+        }
+    }
+
+    /**
+     * Places image rotated clockwise by the given angle to canvas, so that
+     * the rotated image fills the given rectangle. Image bytes are embedded
+     * as is, rotation is applied by the image transformation matrix.
+     *
+     * @param imageData input image as {@link com.itextpdf.io.image.ImageData}
+     * @param rect rectangle the rotated image should fill
+     * @param rotation clockwise rotation in degrees: 90, 180 or 270
+     * @param pdfCanvas canvas to place the image
+     */
+    private static void addRotatedImageToCanvas(final ImageData imageData,
+            final Rectangle rect, final int rotation,
+            final PdfCanvas pdfCanvas) {
+        final float[] m = getImageMatrix(rect, rotation);
+        pdfCanvas.addImage(imageData, m[0], m[1], m[2], m[3], m[4], m[5],
+                false);
+    }
+
     /**
      * Places retrieved text to canvas to a separate layer.
      *
@@ -443,6 +1100,7 @@ public class OcrPdfCreator {
      * @param pdfCanvas canvas to place the text
      * @param multiplier coefficient to adjust text placing on canvas
      * @param pageMediaBox page parameters
+     * @param fontProvider font provider of the result document
      * @throws OcrException if PDF/A3u document is being created and provided
      * font contains notdef glyphs
      */
@@ -451,62 +1109,692 @@ public class OcrPdfCreator {
             final List<TextInfo> pageText,
             final PdfCanvas pdfCanvas,
             final float multiplier,
-            final Rectangle pageMediaBox)
+            final Rectangle pageMediaBox,
+            final FontProvider fontProvider)
             throws OcrException {
-        if (pageText != null && pageText.size() > 0) {
-            final Point imageCoordinates =
-                    PdfCreatorUtil.calculateImageCoordinates(
-                    ocrPdfCreatorProperties.getPageSize(), imageSize);
-            for (TextInfo item : pageText) {
-                String line = item.getText();
-
-                final float bboxWidthPt = getWidthPt(item, multiplier);
-                final float bboxHeightPt = getHeightPt(item, multiplier);
-                FontProvider fontProvider = getOcrPdfCreatorProperties()
-                        .getFontProvider();
-                String fontFamily = getOcrPdfCreatorProperties()
-                        .getDefaultFontFamily();
-                if (lineNotEmpty(line, bboxHeightPt, bboxWidthPt)) {
-                    Document document = new Document(pdfCanvas.getDocument());
-                    document.setFontProvider(fontProvider);
-
-                    // Scale the text width to fit the OCR bbox
-                    final float fontSize = PdfCreatorUtil.calculateFontSize(
-                            document, line, fontFamily,
-                            bboxHeightPt, bboxWidthPt);
-
-                    final float lineWidth = PdfCreatorUtil.getRealLineWidth(document,
-                            line, fontFamily, fontSize);
-
-                    final float xOffset = getXOffsetPt(item, multiplier);
-                    final float yOffset = getYOffsetPt(item, multiplier, imageSize);
-
-                    Canvas canvas = new Canvas(pdfCanvas, pageMediaBox);
-                    canvas.setFontProvider(fontProvider);
-
-                    Text text = new Text(line)
-                            .setHorizontalScaling(bboxWidthPt / lineWidth);
-
-                    Paragraph paragraph = new Paragraph(text)
-                            .setMargin(0)
-                            .setMultipliedLeading(1.2f);
-                    paragraph.setFontFamily(fontFamily)
-                            .setFontSize(fontSize);
-                    paragraph.setWidth(bboxWidthPt * 1.5f);
-
-                    if (ocrPdfCreatorProperties.getTextColor() != null) {
-                        paragraph.setFontColor(ocrPdfCreatorProperties.getTextColor());
-                    } else {
-                        paragraph.setTextRenderingMode(TextRenderingMode.INVISIBLE);
-                    }
+        addTextToCanvas(PdfCreatorUtil.calculateImageCoordinates(
+                ocrPdfCreatorProperties.getPageSize(), imageSize),
+                imageSize, pageText, pdfCanvas, multiplier, pageMediaBox,
+                fontProvider);
+    }
 
-                    canvas.showTextAligned(paragraph,
-                            xOffset + (float)imageCoordinates.x,
-                            yOffset + (float)imageCoordinates.y,
-                            TextAlignment.LEFT);
-                    canvas.close();
-                }
-            }
+    /**
+     * Places retrieved text to canvas.
+     *
+     * @param imageCoordinates coordinates of the image on the page
+     * @param imageSize size of the image on the page
+     * @param pageText text that was found on this image (or on this page)
+     * @param pdfCanvas canvas to place the text
+     * @param multiplier coefficient to adjust text placing on canvas
+     * @param pageMediaBox page parameters
+     * @param fontProvider font provider of the result document
+     * @throws OcrException if PDF/A3u document is being created and provided
+     * font contains notdef glyphs
+     */
+    private void addTextToCanvas(
+            final Point imageCoordinates,
+            final Rectangle imageSize,
+            final List<TextInfo> pageText,
+            final PdfCanvas pdfCanvas,
+            final float multiplier,
+            final Rectangle pageMediaBox,
+            final FontProvider fontProvider)
+            throws OcrException {
+        if (pageText != null && pageText.size() > 0) {
+            if (pageText instanceof PageText) {
+                // read coordinates directly not to create TextInfo per chunk
+                final PageText compactText = (PageText) pageText;
+                for (int i = 0; i < compactText.size(); ++i) {
+                    final float left = compactText.getLeft(i) * multiplier;
+                    final float right =
+                            (compactText.getRight(i) + 1) * multiplier - 1;
+                    final float top = compactText.getTop(i) * multiplier;
+                    final float bottom =
+                            (compactText.getBottom(i) + 1) * multiplier - 1;
+                    addLineToCanvas(compactText.getText(i),
+                            right - left, top - bottom, left, bottom,
+                            imageCoordinates, pdfCanvas, pageMediaBox,
+                            fontProvider);
+                }
+            } else {
+                for (TextInfo item : pageText) {
+                    addLineToCanvas(item.getText(),
+                            getWidthPt(item, multiplier),
+                            getHeightPt(item, multiplier),
+                            getXOffsetPt(item, multiplier),
+                            getYOffsetPt(item, multiplier, imageSize),
+                            imageCoordinates, pdfCanvas, pageMediaBox,
+                            fontProvider);
+                }
+            }
+        }
+    }
+
+    /**
+     * Places one line (or word) of retrieved text to canvas.
+     *
+     * @param line text to place
+     * @param bboxWidthPt width of the text bbox in points
+     * @param bboxHeightPt height of the text bbox in points
+     * @param xOffset horizontal offset of the text bbox in points
+     * @param yOffset vertical offset of the text bbox in points
+     * @param imageCoordinates coordinates of the image on the page
+     * @param pdfCanvas canvas to place the text
+     * @param pageMediaBox page parameters
+     * @param fontProvider font provider of the result document
+     * @throws OcrException if PDF/A3u document is being created and provided
+     * font contains notdef glyphs
+     */
+    private void addLineToCanvas(final String line,
+            final float bboxWidthPt,
+            final float bboxHeightPt,
+            final float xOffset,
+            final float yOffset,
+            final Point imageCoordinates,
+            final PdfCanvas pdfCanvas,
+            final Rectangle pageMediaBox,
+            final FontProvider fontProvider)
+            throws OcrException {
+        String fontFamily = getOcrPdfCreatorProperties()
+                .getDefaultFontFamily();
+        if (lineNotEmpty(line, bboxHeightPt, bboxWidthPt)) {
+            if (TextLayerMode.SINGLE_FONT == ocrPdfCreatorProperties
+                    .getTextLayerMode()) {
+                showLineWithSingleFont(line, bboxWidthPt, bboxHeightPt,
+                        xOffset + (float)imageCoordinates.x,
+                        yOffset + (float)imageCoordinates.y,
+                        pdfCanvas,
+                        PdfCreatorUtil.getDocumentFont(fontProvider,
+                                fontFamily));
+            } else {
+                Document document = new Document(pdfCanvas.getDocument());
+                document.setFontProvider(fontProvider);
+
+                // Scale the text width to fit the OCR bbox
+                final float fontSize = PdfCreatorUtil.calculateFontSize(
+                        document, line, fontFamily,
+                        bboxHeightPt, bboxWidthPt);
+
+                final float lineWidth = PdfCreatorUtil.getRealLineWidth(
+                        document, line, fontFamily, fontSize);
+
+                Canvas canvas = new Canvas(pdfCanvas, pageMediaBox);
+                canvas.setFontProvider(fontProvider);
+
+                Text text = new Text(line)
+                        .setHorizontalScaling(bboxWidthPt / lineWidth);
+
+                Paragraph paragraph = new Paragraph(text)
+                        .setMargin(0)
+                        .setMultipliedLeading(1.2f);
+                paragraph.setFontFamily(fontFamily)
+                        .setFontSize(fontSize);
+                paragraph.setWidth(bboxWidthPt * 1.5f);
+
+                if (ocrPdfCreatorProperties.getTextColor() != null) {
+                    paragraph.setFontColor(
+                            ocrPdfCreatorProperties.getTextColor());
+                } else {
+                    paragraph.setTextRenderingMode(
+                            TextRenderingMode.INVISIBLE);
+                }
+
+                canvas.showTextAligned(paragraph,
+                        xOffset + (float)imageCoordinates.x,
+                        yOffset + (float)imageCoordinates.y,
+                        TextAlignment.LEFT);
+                canvas.close();
+            }
+        }
+    }
+
+    /**
+     * Writes one line (or word) of retrieved text to canvas directly using
+     * text operators and given font, see {@link TextLayerMode#SINGLE_FONT}.
+     * Font size is chosen so that the text from descender to ascender fits
+     * the bbox height, horizontal scaling stretches the text to the bbox
+     * width.
+     *
+     * @param line text to place
+     * @param bboxWidthPt width of the text bbox in points
+     * @param bboxHeightPt height of the text bbox in points
+     * @param x horizontal coordinate of the text bbox on the page
+     * @param y vertical coordinate of the text bbox on the page
+     * @param pdfCanvas canvas to place the text
+     * @param font font of the result document
+     * @throws OcrException if PDF/A3u document is being created and provided
+     * font contains notdef glyphs
+     */
+    private void showLineWithSingleFont(final String line,
+            final float bboxWidthPt,
+            final float bboxHeightPt,
+            final float x,
+            final float y,
+            final PdfCanvas pdfCanvas,
+            final PdfFont font)
+            throws OcrException {
+        final FontMetrics metrics = font.getFontProgram().getFontMetrics();
+        final float descender = (float) metrics.getTypoDescender()
+                / FontProgram.UNITS_NORMALIZATION;
+        final float fontHeight = (float) metrics.getTypoAscender()
+                / FontProgram.UNITS_NORMALIZATION - descender;
+        final float fontSize = fontHeight > 0
+                ? bboxHeightPt / fontHeight : bboxHeightPt;
+        final float lineWidth = font.getWidth(line, fontSize);
+
+        pdfCanvas.saveState().beginText().setFontAndSize(font, fontSize);
+        if (lineWidth > 0) {
+            pdfCanvas.setHorizontalScaling(100 * bboxWidthPt / lineWidth);
+        }
+        if (ocrPdfCreatorProperties.getTextColor() != null) {
+            pdfCanvas.setFillColor(ocrPdfCreatorProperties.getTextColor());
+        } else {
+            pdfCanvas.setTextRenderingMode(TextRenderingMode.INVISIBLE);
+        }
+        pdfCanvas.moveText(x, y - descender * fontSize)
+                .showText(line)
+                .endText()
+                .restoreState();
+    }
+
+    /**
+     * Finds the largest image drawn on the page and saves it to a temporary
+     * file.
+     *
+     * @param page {@link com.itextpdf.kernel.pdf.PdfPage} to extract image from
+     * @param pageNumber number of the page
+     * @return {@link PageImage} or null if page does not contain images or
+     * the image cannot be extracted
+     */
+    private static PageImage extractPageImage(final PdfPage page,
+            final int pageNumber) {
+        LargestImageListener listener = new LargestImageListener();
+        new PdfCanvasProcessor(listener).processPageContent(page);
+        if (listener.image == null) {
+            LOGGER.info(MessageFormatUtil.format(
+                    PdfOcrLogMessageConstant.PAGE_DOES_NOT_CONTAIN_IMAGES,
+                    pageNumber));
+            return null;
+        }
+        File file = null;
+        try {
+            // original bytes are kept for JPEG and JPEG2000 images,
+            // other images are converted to PNG or TIFF
+            final byte[] imageBytes = listener.image.getImageBytes(true);
+            file = File.createTempFile(UUID.randomUUID().toString(),
+                    "." + listener.image.identifyImageFileExtension());
+            Files.write(file.toPath(), imageBytes);
+        } catch (IOException | com.itextpdf.io.IOException
+                | PdfException e) {
+            LOGGER.warn(MessageFormatUtil.format(
+                    PdfOcrLogMessageConstant.CANNOT_EXTRACT_IMAGE_FROM_PAGE,
+                    pageNumber, e.getMessage()));
+            if (file != null && !file.delete()) {
+                file.deleteOnExit();
+            }
+            return null;
+        }
+
+        Rectangle imageRect = listener.imageRect;
+        Matrix transform = null;
+        if (imageRect == null) {
+            // image is rotated or skewed, so text is placed in the space of
+            // the image (in points) mapped to the page by the image matrix
+            final float width = PdfCreatorUtil.getPoints(
+                    listener.image.getWidth());
+            final float height = PdfCreatorUtil.getPoints(
+                    listener.image.getHeight());
+            final Matrix ctm = listener.imageCtm;
+            imageRect = new Rectangle(width, height);
+            transform = new Matrix(ctm.get(Matrix.I11) / width,
+                    ctm.get(Matrix.I12) / width,
+                    ctm.get(Matrix.I21) / height,
+                    ctm.get(Matrix.I22) / height,
+                    ctm.get(Matrix.I31), ctm.get(Matrix.I32));
+        }
+        return new PageImage(file, listener.image.getWidth(),
+                listener.image.getHeight(), imageRect, transform);
+    }
+
+    /**
+     * Performs OCR of the extracted page images using at most
+     * {@link OcrPdfCreatorProperties#getParallelism()} threads.
+     *
+     * @param pageImages map page number -> image extracted from this page
+     * @param pdfDocumentType type of the document text is added to
+     * @return map page number -> text recognized on this page
+     * @throws OcrException if OCR of any page failed
+     */
+    private Map<Integer, List<TextInfo>> doPagesOcr(
+            final Map<Integer, PageImage> pageImages,
+            final PdfDocumentType pdfDocumentType) throws OcrException {
+        Map<Integer, List<TextInfo>> pagesTextData =
+                new LinkedHashMap<Integer, List<TextInfo>>();
+        if (pageImages.isEmpty()) {
+            return pagesTextData;
+        }
+
+        final IMetaInfo metaInfo = createPagesMetaInfo(pdfDocumentType);
+        Map<Integer, PageTask<Map<Integer, List<TextInfo>>>> tasks =
+                new LinkedHashMap<Integer,
+                        PageTask<Map<Integer, List<TextInfo>>>>();
+        for (Map.Entry<Integer, PageImage> entry : pageImages.entrySet()) {
+            tasks.put(entry.getKey(), new PageOcrTask(ocrEngine,
+                    entry.getValue().file, metaInfo));
+        }
+        for (Map.Entry<Integer, Map<Integer, List<TextInfo>>> entry
+                : runPageTasks(tasks, metaInfo).entrySet()) {
+            // page image is always a single page image
+            List<TextInfo> pageText = entry.getValue().get(1);
+            if (pageText != null) {
+                pagesTextData.put(entry.getKey(), pageText);
+            }
+        }
+        return pagesTextData;
+    }
+
+    /**
+     * Creates text-only PDF documents for the extracted page images using
+     * at most {@link OcrPdfCreatorProperties#getParallelism()} threads.
+     *
+     * @param pageImages map page number -> image extracted from this page
+     * @param pdfDocumentType type of the document text is added to
+     * @param textLayerEngine OCR engine creating text-only PDF documents
+     * @return map page number -> text-only PDF document for this page
+     * @throws OcrException if OCR of any page failed
+     */
+    private Map<Integer, File> doPagesTextLayerOcr(
+            final Map<Integer, PageImage> pageImages,
+            final PdfDocumentType pdfDocumentType,
+            final ITextLayerPdfOcrEngine textLayerEngine) throws OcrException {
+        if (pageImages.isEmpty()) {
+            return new LinkedHashMap<Integer, File>();
+        }
+        final IMetaInfo metaInfo = createPagesMetaInfo(pdfDocumentType);
+        Map<Integer, PageTask<File>> tasks =
+                new LinkedHashMap<Integer, PageTask<File>>();
+        for (Map.Entry<Integer, PageImage> entry : pageImages.entrySet()) {
+            tasks.put(entry.getKey(), new TextLayerPdfTask(ocrEngine,
+                    textLayerEngine, entry.getValue().file, metaInfo));
+        }
+        return runPageTasks(tasks, metaInfo);
+    }
+
+    /**
+     * Creates meta info shared by OCR of all pages of the document.
+     *
+     * @param pdfDocumentType type of the document text is added to
+     * @return {@link com.itextpdf.kernel.counter.event.IMetaInfo} or null if
+     * OCR engine is not {@link IThreadLocalMetaInfoAware}
+     */
+    private IMetaInfo createPagesMetaInfo(
+            final PdfDocumentType pdfDocumentType) {
+        if (ocrEngine instanceof IThreadLocalMetaInfoAware) {
+            // the same meta info is used for all pages, so that document
+            // is counted once
+            return new OcrPdfCreatorMetaInfo(
+                    ((IThreadLocalMetaInfoAware)ocrEngine).getThreadLocalMetaInfo(),
+                    UUID.randomUUID(), pdfDocumentType);
+        }
+        return null;
+    }
+
+    /**
+     * Runs page tasks using at most
+     * {@link OcrPdfCreatorProperties#getParallelism()} threads.
+     *
+     * @param tasks map page number -> task for this page
+     * @param metaInfo meta info shared by the tasks, may be null
+     * @param <T> type of the task result
+     * @return map page number -> result of the task for this page
+     * @throws OcrException if any task failed
+     */
+    private <T> Map<Integer, T> runPageTasks(
+            final Map<Integer, PageTask<T>> tasks, final IMetaInfo metaInfo)
+            throws OcrException {
+        Map<Integer, T> results = new LinkedHashMap<Integer, T>();
+        final int threadsCount = Math.max(1, Math.min(
+                ocrPdfCreatorProperties.getParallelism(), tasks.size()));
+        // meta info is also held by the calling thread until all the pages
+        // are processed, so OCR engine treats them as one document run
+        // even if no page is being processed at some moment
+        IMetaInfo storedMetaInfo = null;
+        if (metaInfo != null) {
+            storedMetaInfo = ((IThreadLocalMetaInfoAware)ocrEngine).getThreadLocalMetaInfo();
+            ((IThreadLocalMetaInfoAware)ocrEngine).setThreadLocalMetaInfo(metaInfo);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+        try {
+            Map<Integer, Future<T>> futures =
+                    new LinkedHashMap<Integer, Future<T>>();
+            for (Map.Entry<Integer, PageTask<T>> entry : tasks.entrySet()) {
+                futures.put(entry.getKey(),
+                        executor.submit(entry.getValue()));
+            }
+            for (Map.Entry<Integer, Future<T>> entry : futures.entrySet()) {
+                results.put(entry.getKey(), entry.getValue().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OcrException(OcrException.OCR_WAS_INTERRUPTED, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof OcrException) {
+                throw (OcrException) e.getCause();
+            }
+            throw new OcrException(OcrException.CANNOT_CREATE_PDF_DOCUMENT,
+                    e.getCause())
+                    .setMessageParams(String.valueOf(e.getCause()));
+        } finally {
+            executor.shutdownNow();
+            if (metaInfo != null) {
+                ((IThreadLocalMetaInfoAware)ocrEngine).setThreadLocalMetaInfo(storedMetaInfo);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Gets font provider for a single result document.
+     *
+     * If the {@link FontProvider} from {@link OcrPdfCreatorProperties} is a
+     * plain {@link FontProvider} or {@link PdfOcrFontProvider}, its fonts are
+     * reused as is, while PDF fonts created for the document are cached in
+     * the returned provider only. Thus such provider is never modified and
+     * may be shared by several {@link OcrPdfCreator} instances working
+     * concurrently.
+     *
+     * Subclasses of {@link FontProvider} may customize how fonts are
+     * selected or how PDF fonts are created, so they are reset and used
+     * directly to keep their behavior.
+     *
+     * @return {@link FontProvider} to be used for the result document
+     */
+    private FontProvider createDocumentFontProvider() {
+        final FontProvider fontProvider =
+                ocrPdfCreatorProperties.getFontProvider();
+        if (fontProvider.getClass() == FontProvider.class) {
+            return new FontProvider(fontProvider.getFontSet(),
+                    fontProvider.getDefaultFontFamily());
+        } else if (fontProvider.getClass() == PdfOcrFontProvider.class) {
+            return new PdfOcrFontProvider(fontProvider.getFontSet(),
+                    fontProvider.getDefaultFontFamily());
+        }
+        // reset passed font provider
+        fontProvider.reset();
+        return fontProvider;
+    }
+
+    /**
+     * Places text recognized on the page image over this image.
+     *
+     * @param page {@link com.itextpdf.kernel.pdf.PdfPage} to add text to
+     * @param pageImage image extracted from this page
+     * @param pageText text that was found on the image
+     * @param textLayer layer to place text to, may be null
+     * @param createPdfA3u true if PDF/A3u document is being processed
+     * @param fontProvider font provider of the processed document
+     * @throws OcrException if PDF/A3u document is being processed and
+     * provided font contains notdef glyphs
+     */
+    private void addTextToPage(final PdfPage page, final PageImage pageImage,
+            final List<TextInfo> pageText, final PdfLayer textLayer,
+            final boolean createPdfA3u, final FontProvider fontProvider)
+            throws OcrException {
+        final Rectangle imageRect = pageImage.rect;
+        // how much the original image size changed
+        final float multiplier = imageRect.getWidth()
+                / PdfCreatorUtil.getPoints(pageImage.width);
+        // previous page content is wrapped with q/Q operators
+        // as document is opened in stamping mode
+        PdfCanvas canvas = new NotDefCheckingPdfCanvas(page, createPdfA3u);
+        if (textLayer != null) {
+            canvas.beginLayer(textLayer);
+        }
+        final Rectangle canvasArea = beginImageSpace(canvas, pageImage,
+                page.getMediaBox());
+        try {
+            addTextToCanvas(new Point(imageRect.getX(), imageRect.getY()),
+                    imageRect, pageText, canvas, multiplier,
+                    canvasArea, fontProvider);
+        } catch (OcrException e) {
+            LOGGER.error(MessageFormatUtil.format(
+                    OcrException.CANNOT_CREATE_PDF_DOCUMENT,
+                    e.getMessage()));
+            throw new OcrException(OcrException.CANNOT_CREATE_PDF_DOCUMENT)
+                    .setMessageParams(e.getMessage());
+        }
+        endImageSpace(canvas, pageImage);
+        if (textLayer != null) {
+            canvas.endLayer();
+        }
+        markPageModified(page);
+    }
+
+    /**
+     * Maps the canvas to the space of the page image if the image is rotated
+     * or skewed, so that text placed over the image follows it.
+     *
+     * @param canvas canvas to place the text
+     * @param pageImage image extracted from the page
+     * @param pageArea area of the page
+     * @return area available for the text in the canvas space
+     */
+    private static Rectangle beginImageSpace(final PdfCanvas canvas,
+            final PageImage pageImage, final Rectangle pageArea) {
+        final Matrix transform = pageImage.transform;
+        if (transform == null) {
+            return pageArea;
+        }
+        canvas.saveState().concatMatrix(transform.get(Matrix.I11),
+                transform.get(Matrix.I12), transform.get(Matrix.I21),
+                transform.get(Matrix.I22), transform.get(Matrix.I31),
+                transform.get(Matrix.I32));
+        return pageImage.rect;
+    }
+
+    /**
+     * Restores the canvas mapped by
+     * {@link #beginImageSpace(PdfCanvas, PageImage, Rectangle)}.
+     *
+     * @param canvas canvas to place the text
+     * @param pageImage image extracted from the page
+     */
+    private static void endImageSpace(final PdfCanvas canvas,
+            final PageImage pageImage) {
+        if (pageImage.transform != null) {
+            canvas.restoreState();
+        }
+    }
+
+    /**
+     * Places text-only page created by OCR engine for the page image over
+     * this image.
+     *
+     * @param page {@link com.itextpdf.kernel.pdf.PdfPage} to add text to
+     * @param pageImage image extracted from this page
+     * @param textLayerPdf text-only PDF document created for the image
+     * @param textLayer layer to place text to, may be null
+     * @throws OcrException if text-only PDF document cannot be read
+     */
+    private static void addTextLayerToPage(final PdfPage page,
+            final PageImage pageImage, final File textLayerPdf,
+            final PdfLayer textLayer) throws OcrException {
+        PdfDocument textLayerDocument = null;
+        try {
+            textLayerDocument = new PdfDocument(new PdfReader(
+                    textLayerPdf.getAbsolutePath()));
+            if (textLayerDocument.getNumberOfPages() == 0) {
+                return;
+            }
+            final PdfFormXObject textLayerPage = textLayerDocument.getPage(1)
+                    .copyAsFormXObject(page.getDocument());
+            // previous page content is wrapped with q/Q operators
+            // as document is opened in stamping mode
+            PdfCanvas canvas = new PdfCanvas(page);
+            if (textLayer != null) {
+                canvas.beginLayer(textLayer);
+            }
+            beginImageSpace(canvas, pageImage, page.getPageSize());
+            addTextLayerToCanvas(textLayerPage, pageImage.rect, 0, canvas);
+            endImageSpace(canvas, pageImage);
+            if (textLayer != null) {
+                canvas.endLayer();
+            }
+            markPageModified(page);
+        } catch (IOException | PdfException e) {
+            LOGGER.error(MessageFormatUtil.format(
+                    OcrException.CANNOT_CREATE_PDF_DOCUMENT,
+                    e.getMessage()));
+            throw new OcrException(OcrException.CANNOT_CREATE_PDF_DOCUMENT, e)
+                    .setMessageParams(e.getMessage());
+        } finally {
+            if (textLayerDocument != null) {
+                textLayerDocument.close();
+            }
+        }
+    }
+
+    /**
+     * Gets OCR engine which creates text layer PDF documents if
+     * {@link TextLayerMode#ENGINE_PDF} is selected and recognized text is not
+     * written to any {@link IOcrResultSink}.
+     *
+     * @param sinks {@link java.util.List} of {@link IOcrResultSink}s to write
+     *              recognized text to
+     * @return {@link ITextLayerPdfOcrEngine} or null if text layer should be
+     * created from recognized text
+     */
+    private ITextLayerPdfOcrEngine getTextLayerPdfOcrEngine(
+            final List<IOcrResultSink> sinks) {
+        if (TextLayerMode.ENGINE_PDF
+                != ocrPdfCreatorProperties.getTextLayerMode()
+                || !sinks.isEmpty()) {
+            return null;
+        }
+        if (ocrEngine instanceof ITextLayerPdfOcrEngine) {
+            return (ITextLayerPdfOcrEngine) ocrEngine;
+        }
+        LOGGER.warn(MessageFormatUtil.format(
+                PdfOcrLogMessageConstant.OCR_ENGINE_CANNOT_CREATE_TEXT_LAYER_PDF,
+                ocrEngine.getClass().getName()));
+        return null;
+    }
+
+    /**
+     * Creates text-only PDF document for the input image in a temporary file.
+     *
+     * @param textLayerEngine OCR engine creating text-only PDF documents
+     * @param inputImage input image {@link java.io.File}
+     * @return temporary {@link java.io.File} containing text-only PDF document
+     * @throws OcrException if temporary file cannot be created
+     */
+    private static File createTextLayerPdf(
+            final ITextLayerPdfOcrEngine textLayerEngine,
+            final File inputImage) throws OcrException {
+        final File textLayerPdf;
+        try {
+            textLayerPdf = File.createTempFile(UUID.randomUUID().toString(),
+                    ".pdf");
+        } catch (IOException e) {
+            throw new OcrException(OcrException.CANNOT_CREATE_PDF_DOCUMENT, e)
+                    .setMessageParams(e.getMessage());
+        }
+        textLayerPdf.deleteOnExit();
+        try {
+            textLayerEngine.createTextLayerPdf(inputImage, textLayerPdf);
+        } catch (RuntimeException e) {
+            deleteFiles(Collections.<File>singletonList(textLayerPdf));
+            throw e;
+        }
+        return textLayerPdf;
+    }
+
+    /**
+     * Starts a new document in all provided sinks.
+     *
+     * @param sinks {@link java.util.List} of {@link IOcrResultSink}s
+     * @throws OcrException if a sink cannot write data
+     */
+    private static void startSinks(final List<IOcrResultSink> sinks)
+            throws OcrException {
+        try {
+            for (IOcrResultSink sink : sinks) {
+                sink.startDocument();
+            }
+        } catch (IOException e) {
+            throw new OcrException(OcrException.CANNOT_WRITE_OCR_RESULT, e)
+                    .setMessageParams(e.getMessage());
+        }
+    }
+
+    /**
+     * Writes text recognized on one page to all provided sinks.
+     *
+     * @param sinks {@link java.util.List} of {@link IOcrResultSink}s
+     * @param pageNumber number of the page in the result document
+     * @param pageWidth width of the page image in pixels
+     * @param pageHeight height of the page image in pixels
+     * @param pageText text recognized on the page
+     * @throws OcrException if a sink cannot write data
+     */
+    private static void writePageToSinks(final List<IOcrResultSink> sinks,
+            final int pageNumber, final float pageWidth,
+            final float pageHeight, final List<TextInfo> pageText)
+            throws OcrException {
+        try {
+            for (IOcrResultSink sink : sinks) {
+                sink.writePage(pageNumber, pageWidth, pageHeight, pageText);
+            }
+        } catch (IOException e) {
+            throw new OcrException(OcrException.CANNOT_WRITE_OCR_RESULT, e)
+                    .setMessageParams(e.getMessage());
+        }
+    }
+
+    /**
+     * Finishes the document in all provided sinks.
+     *
+     * @param sinks {@link java.util.List} of {@link IOcrResultSink}s
+     * @throws OcrException if a sink cannot write data
+     */
+    private static void endSinks(final List<IOcrResultSink> sinks)
+            throws OcrException {
+        try {
+            for (IOcrResultSink sink : sinks) {
+                sink.endDocument();
+            }
+        } catch (IOException e) {
+            throw new OcrException(OcrException.CANNOT_WRITE_OCR_RESULT, e)
+                    .setMessageParams(e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes temporary files.
+     *
+     * @param files {@link java.util.Collection} of files to delete
+     */
+    private static void deleteFiles(final Collection<File> files) {
+        for (File file : files) {
+            if (!file.delete()) {
+                file.deleteOnExit();
+            }
+        }
+    }
+
+    /**
+     * Marks page objects changed by the text layer as modified, so that they
+     * are written when document is opened in append mode. Unchanged
+     * objects, e.g. image streams, are not written in append mode.
+     *
+     * @param page {@link com.itextpdf.kernel.pdf.PdfPage} text was added to
+     */
+    private static void markPageModified(final PdfPage page) {
+        page.getPdfObject().setModified();
+        page.getResources().getPdfObject().setModified();
+        final PdfObject contents = page.getPdfObject().get(PdfName.Contents);
+        if (contents != null) {
+            contents.setModified();
         }
     }
 
@@ -716,4 +2004,318 @@ public class OcrPdfCreator {
             }
         }
     }
+
+    /**
+     * Image extracted from a page of the existing PDF document.
+     */
+    private static class PageImage {
+        /**
+         * Temporary file containing the image.
+         */
+        private final File file;
+
+        /**
+         * Width of the image in pixels.
+         */
+        private final float width;
+
+        /**
+         * Height of the image in pixels.
+         */
+        private final float height;
+
+        /**
+         * Area of the page the image is drawn to or of the image space if
+         * {@link #transform} is set.
+         */
+        private final Rectangle rect;
+
+        /**
+         * Matrix mapping the image space to the page if the image is rotated
+         * or skewed, null otherwise.
+         */
+        private final Matrix transform;
+
+        PageImage(final File file, final float width, final float height,
+                final Rectangle rect, final Matrix transform) {
+            this.file = file;
+            this.width = width;
+            this.height = height;
+            this.rect = rect;
+            this.transform = transform;
+        }
+    }
+
+    /**
+     * Listener that finds the image occupying the largest area on the page.
+     */
+    private static class LargestImageListener implements IEventListener {
+        /**
+         * The largest image found so far.
+         */
+        private PdfImageXObject image = null;
+
+        /**
+         * Area of the page the largest image is drawn to, null if image is
+         * rotated or skewed.
+         */
+        private Rectangle imageRect = null;
+
+        /**
+         * Transformation matrix of the largest image.
+         */
+        private Matrix imageCtm = null;
+
+        /**
+         * Area of the largest image.
+         */
+        private float imageArea = 0;
+
+        @Override
+        public void eventOccurred(IEventData data, EventType type) {
+            if (type == EventType.RENDER_IMAGE) {
+                final ImageRenderInfo renderInfo = (ImageRenderInfo) data;
+                final Matrix ctm = renderInfo.getImageCtm();
+                final float area = Math.abs(ctm.getDeterminant());
+                if (area > imageArea) {
+                    imageArea = area;
+                    image = renderInfo.getImage();
+                    imageCtm = ctm;
+                    if (ctm.get(Matrix.I12) == 0 && ctm.get(Matrix.I21) == 0
+                            && ctm.get(Matrix.I11) > 0
+                            && ctm.get(Matrix.I22) > 0) {
+                        imageRect = new Rectangle(ctm.get(Matrix.I31),
+                                ctm.get(Matrix.I32), ctm.get(Matrix.I11),
+                                ctm.get(Matrix.I22));
+                    } else {
+                        imageRect = null;
+                    }
+                }
+            }
+        }
+
+        @Override
+        public Set<EventType> getSupportedEvents() {
+            return Collections.<EventType>singleton(EventType.RENDER_IMAGE);
+        }
+    }
+
+    /**
+     * Reads input image from the stream.
+     *
+     * @param inputImage input image {@link java.io.InputStream}
+     * @return input image as a byte array
+     * @throws OcrException if the stream cannot be read
+     */
+    private static byte[] readImage(final InputStream inputImage)
+            throws OcrException {
+        try {
+            return StreamUtil.inputStreamToArray(inputImage);
+        } catch (IOException e) {
+            LOGGER.error(MessageFormatUtil.format(
+                    PdfOcrLogMessageConstant.CANNOT_READ_INPUT_IMAGE,
+                    e.getMessage()));
+            throw new OcrException(OcrException.CANNOT_READ_INPUT_IMAGE, e);
+        }
+    }
+
+    /**
+     * Copies remaining bytes of the buffer without changing its position.
+     *
+     * @param inputImage input image {@link java.nio.ByteBuffer}
+     * @return input image as a byte array
+     */
+    private static byte[] readImage(final ByteBuffer inputImage) {
+        final ByteBuffer buffer = inputImage.duplicate();
+        final byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * Input image which is either a file or a byte array.
+     */
+    private static final class ImageInput {
+        private final File file;
+        private final byte[] bytes;
+
+        ImageInput(final File file, final byte[] bytes) {
+            this.file = file;
+            this.bytes = bytes;
+        }
+
+        /**
+         * Performs OCR of the image, images in memory are written to a
+         * temporary file if the engine cannot read them from memory.
+         *
+         * @param ocrEngine {@link IOcrEngine} to perform OCR
+         * @return map page number -> text recognized on this page
+         * @throws OcrException if temporary file cannot be written
+         */
+        Map<Integer, List<TextInfo>> doImageOcr(final IOcrEngine ocrEngine)
+                throws OcrException {
+            if (file != null) {
+                return ocrEngine.doImageOcr(file);
+            }
+            if (ocrEngine instanceof IImageBytesOcrEngine) {
+                return ((IImageBytesOcrEngine) ocrEngine).doImageOcr(bytes);
+            }
+            final File tempFile = createTempImageFile();
+            try {
+                return ocrEngine.doImageOcr(tempFile);
+            } finally {
+                deleteFiles(Collections.<File>singletonList(tempFile));
+            }
+        }
+
+        /**
+         * Creates text-only PDF document for the image in a temporary file.
+         *
+         * @param textLayerEngine OCR engine creating text-only PDF documents
+         * @return temporary {@link java.io.File} containing text-only PDF
+         * document
+         * @throws OcrException if temporary file cannot be written
+         */
+        File createTextLayerPdf(final ITextLayerPdfOcrEngine textLayerEngine)
+                throws OcrException {
+            if (file != null) {
+                return OcrPdfCreator.createTextLayerPdf(textLayerEngine, file);
+            }
+            final File tempFile = createTempImageFile();
+            try {
+                return OcrPdfCreator.createTextLayerPdf(textLayerEngine,
+                        tempFile);
+            } finally {
+                deleteFiles(Collections.<File>singletonList(tempFile));
+            }
+        }
+
+        /**
+         * Retrieves pages of the image to be placed to the result document.
+         *
+         * @param imageRotationHandler image rotation handler
+         * {@link IImageRotationHandler}
+         * @return list of {@link com.itextpdf.io.image.ImageData} objects
+         * @throws IOException if error occurred during reading the image
+         */
+        List<ImageData> getImageData(
+                final IImageRotationHandler imageRotationHandler)
+                throws IOException {
+            return file != null
+                    ? PdfCreatorUtil.getImageData(file, imageRotationHandler)
+                    : PdfCreatorUtil.getImageData(bytes, imageRotationHandler);
+        }
+
+        /**
+         * Writes the image to a temporary file, extension of the file
+         * corresponds to the detected image format.
+         *
+         * @return temporary {@link java.io.File} containing the image
+         * @throws OcrException if the file cannot be written
+         */
+        private File createTempImageFile() throws OcrException {
+            File tempFile = null;
+            try {
+                tempFile = File.createTempFile(UUID.randomUUID().toString(),
+                        "." + ImageTypeDetector.detectImageType(bytes).name()
+                                .toLowerCase());
+                tempFile.deleteOnExit();
+                Files.write(tempFile.toPath(), bytes);
+                return tempFile;
+            } catch (IOException | com.itextpdf.io.IOException e) {
+                if (tempFile != null) {
+                    deleteFiles(Collections.<File>singletonList(tempFile));
+                }
+                LOGGER.error(MessageFormatUtil.format(
+                        PdfOcrLogMessageConstant.CANNOT_READ_INPUT_IMAGE,
+                        e.getMessage()));
+                throw new OcrException(OcrException.CANNOT_READ_INPUT_IMAGE,
+                        e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return file != null ? file.toString() : IN_MEMORY_IMAGE;
+        }
+    }
+
+    /**
+     * Task performing OCR of one page image.
+     *
+     * @param <T> type of the OCR result
+     */
+    private abstract static class PageTask<T> implements Callable<T> {
+        protected final IOcrEngine ocrEngine;
+        protected final File image;
+        private final IMetaInfo metaInfo;
+
+        PageTask(final IOcrEngine ocrEngine, final File image,
+                final IMetaInfo metaInfo) {
+            this.ocrEngine = ocrEngine;
+            this.image = image;
+            this.metaInfo = metaInfo;
+        }
+
+        @Override
+        public T call() throws IOException {
+            if (!(ocrEngine instanceof IThreadLocalMetaInfoAware)) {
+                return doPageOcr();
+            }
+            // meta info is thread local, so it's set in the worker thread
+            final IThreadLocalMetaInfoAware metaInfoAware =
+                    (IThreadLocalMetaInfoAware) ocrEngine;
+            final IMetaInfo storedMetaInfo =
+                    metaInfoAware.getThreadLocalMetaInfo();
+            metaInfoAware.setThreadLocalMetaInfo(metaInfo);
+            try {
+                return doPageOcr();
+            } finally {
+                metaInfoAware.setThreadLocalMetaInfo(storedMetaInfo);
+            }
+        }
+
+        /**
+         * Performs OCR of the page image in the current thread.
+         *
+         * @return result of OCR
+         * @throws IOException if result cannot be written
+         */
+        abstract T doPageOcr() throws IOException;
+    }
+
+    /**
+     * Task recognizing text of one page image.
+     */
+    private static class PageOcrTask
+            extends PageTask<Map<Integer, List<TextInfo>>> {
+        PageOcrTask(final IOcrEngine ocrEngine, final File image,
+                final IMetaInfo metaInfo) {
+            super(ocrEngine, image, metaInfo);
+        }
+
+        @Override
+        Map<Integer, List<TextInfo>> doPageOcr() {
+            return ocrEngine.doImageOcr(image);
+        }
+    }
+
+    /**
+     * Task creating text-only PDF document for one page image.
+     */
+    private static class TextLayerPdfTask extends PageTask<File> {
+        private final ITextLayerPdfOcrEngine textLayerEngine;
+
+        TextLayerPdfTask(final IOcrEngine ocrEngine,
+                final ITextLayerPdfOcrEngine textLayerEngine,
+                final File image, final IMetaInfo metaInfo) {
+            super(ocrEngine, image, metaInfo);
+            this.textLayerEngine = textLayerEngine;
+        }
+
+        @Override
+        File doPageOcr() {
+            return createTextLayerPdf(textLayerEngine, image);
+        }
+    }
 }
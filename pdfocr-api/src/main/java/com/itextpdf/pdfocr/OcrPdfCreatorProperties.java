@@ -22,6 +22,8 @@
  */
 package com.itextpdf.pdfocr;
 
+import com.itextpdf.io.source.CompressionConstants;
+import com.itextpdf.kernel.pdf.WriterProperties;
 import com.itextpdf.layout.font.FontProvider;
 
 /**
@@ -96,6 +98,32 @@ public class OcrPdfCreatorProperties {
      */
     private IImageRotationHandler imageRotationHandler;
 
+    /**
+     * Maximal number of pages OCRed simultaneously when text layer is added
+     * to an existing PDF document.
+     * Number of available processors by default.
+     */
+    private int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Indicates whether text layer is added to an existing PDF document as
+     * an incremental update.
+     * <code>false</code> by default.
+     */
+    private boolean appendMode = false;
+
+    /**
+     * Defines the way recognized text is written to the text layer.
+     * {@link TextLayerMode#LAYOUT} by default.
+     */
+    private TextLayerMode textLayerMode = TextLayerMode.LAYOUT;
+
+    /**
+     * Indicates whether compact output profile is used.
+     * <code>false</code> by default.
+     */
+    private boolean compactOutput = false;
+
     /**
      * Creates a new {@link OcrPdfCreatorProperties} instance.
      */
@@ -120,6 +148,10 @@ public class OcrPdfCreatorProperties {
         this.fontProvider = other.fontProvider;
         this.defaultFontFamily = other.defaultFontFamily;
         this.imageRotationHandler = other.imageRotationHandler;
+        this.parallelism = other.parallelism;
+        this.appendMode = other.appendMode;
+        this.textLayerMode = other.textLayerMode;
+        this.compactOutput = other.compactOutput;
     }
 
     /**
@@ -301,8 +333,14 @@ public class OcrPdfCreatorProperties {
 
     /**
      * Sets font provider.
-     * Please note that passed FontProvider is not to be used in multithreaded
-     * environments or for any parallel processing.
+     * If passed FontProvider is a plain FontProvider or
+     * {@link PdfOcrFontProvider}, it is only used as a source of fonts, PDF
+     * fonts are created and cached per result document, so the same
+     * FontProvider may be shared by several {@link OcrPdfCreator} instances
+     * working in parallel as long as no fonts are added to it meanwhile.
+     * Other subclasses of FontProvider are used directly to keep their
+     * behavior, so they are not to be used in multithreaded environments or
+     * for any parallel processing.
      * There will be set the following default font family:
      * {@link PdfOcrFontProvider#getDefaultFontFamily()}
      * @param fontProvider selected
@@ -316,8 +354,14 @@ public class OcrPdfCreatorProperties {
 
     /**
      * Sets font provider and default font family.
-     * Please note that passed FontProvider is not to be used in multithreaded
-     * environments or for any parallel processing.
+     * If passed FontProvider is a plain FontProvider or
+     * {@link PdfOcrFontProvider}, it is only used as a source of fonts, PDF
+     * fonts are created and cached per result document, so the same
+     * FontProvider may be shared by several {@link OcrPdfCreator} instances
+     * working in parallel as long as no fonts are added to it meanwhile.
+     * Other subclasses of FontProvider are used directly to keep their
+     * behavior, so they are not to be used in multithreaded environments or
+     * for any parallel processing.
      * @param fontProvider selected
      * {@link com.itextpdf.layout.font.FontProvider} instance
      * @param defaultFontFamily preferred font family to be used when selecting
@@ -366,4 +410,129 @@ public class OcrPdfCreatorProperties {
         return this;
     }
 
+    /**
+     * Gets maximal number of pages OCRed simultaneously when text layer is
+     * added to an existing PDF document.
+     *
+     * @return maximal number of pages OCRed simultaneously
+     */
+    public final int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets maximal number of pages OCRed simultaneously when text layer is
+     * added to an existing PDF document, see
+     * {@link OcrPdfCreator#ocrPdfDocument(com.itextpdf.kernel.pdf.PdfDocument)}.
+     * Number of available processors by default. Values less than 1 are
+     * treated as 1, i.e. pages are OCRed one by one.
+     *
+     * @param parallelism maximal number of pages OCRed simultaneously
+     * @return the {@link OcrPdfCreatorProperties} instance
+     */
+    public final OcrPdfCreatorProperties setParallelism(
+            final int parallelism) {
+        this.parallelism = parallelism;
+        return this;
+    }
+
+    /**
+     * Checks whether text layer is added to an existing PDF document as an
+     * incremental update.
+     *
+     * @return true if append mode is used
+     */
+    public final boolean isAppendMode() {
+        return appendMode;
+    }
+
+    /**
+     * Sets whether text layer is added to an existing PDF document as an
+     * incremental update when
+     * {@link OcrPdfCreator#createPdf(com.itextpdf.kernel.pdf.PdfReader,
+     * com.itextpdf.kernel.pdf.PdfWriter)} is used.
+     * In append mode original document bytes are copied to the result as is
+     * and only new content streams, fonts and layers are written after them,
+     * so the output cost does not depend on the size of the scanned images.
+     * <code>false</code> by default.
+     *
+     * @param appendMode true if append mode should be used
+     * @return the {@link OcrPdfCreatorProperties} instance
+     */
+    public final OcrPdfCreatorProperties setAppendMode(
+            final boolean appendMode) {
+        this.appendMode = appendMode;
+        return this;
+    }
+
+    /**
+     * Gets the way recognized text is written to the text layer.
+     *
+     * @return selected {@link TextLayerMode}
+     */
+    public final TextLayerMode getTextLayerMode() {
+        return textLayerMode;
+    }
+
+    /**
+     * Sets the way recognized text is written to the text layer.
+     * {@link TextLayerMode#LAYOUT} by default.
+     *
+     * @param textLayerMode selected {@link TextLayerMode}
+     * @return the {@link OcrPdfCreatorProperties} instance
+     */
+    public final OcrPdfCreatorProperties setTextLayerMode(
+            final TextLayerMode textLayerMode) {
+        this.textLayerMode = textLayerMode;
+        return this;
+    }
+
+    /**
+     * Checks whether compact output profile is used.
+     *
+     * @return true if compact output profile is used
+     */
+    public final boolean isCompactOutput() {
+        return compactOutput;
+    }
+
+    /**
+     * Sets whether compact output profile is used when PDF document is
+     * created from images.
+     * In compact mode content streams are written with the best compression
+     * level and JPEG images which contain only black and white pixels (e.g.
+     * scans that were already binarized) are embedded as 1-bit CCITT G4
+     * images instead of the original grayscale or colour images.
+     * Object streams require full compression mode of the
+     * {@link com.itextpdf.kernel.pdf.PdfWriter}, which can only be set
+     * when the writer is created, see {@link #getWriterProperties()}.
+     * <code>false</code> by default.
+     *
+     * @param compactOutput true if compact output profile should be used
+     * @return the {@link OcrPdfCreatorProperties} instance
+     */
+    public final OcrPdfCreatorProperties setCompactOutput(
+            final boolean compactOutput) {
+        this.compactOutput = compactOutput;
+        return this;
+    }
+
+    /**
+     * Creates {@link WriterProperties} for the
+     * {@link com.itextpdf.kernel.pdf.PdfWriter} of the result document
+     * according to the selected output profile. If compact output profile
+     * is used, full compression mode (object streams and cross-reference
+     * stream) and the best compression level are enabled.
+     *
+     * @return new {@link WriterProperties} instance
+     */
+    public final WriterProperties getWriterProperties() {
+        final WriterProperties writerProperties = new WriterProperties();
+        if (compactOutput) {
+            writerProperties.setFullCompressionMode(true)
+                    .setCompressionLevel(
+                            CompressionConstants.BEST_COMPRESSION);
+        }
+        return writerProperties;
+    }
 }
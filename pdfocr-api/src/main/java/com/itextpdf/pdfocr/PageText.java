@@ -0,0 +1,413 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr;
+
+import com.itextpdf.kernel.geom.Rectangle;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Compact representation of the text recognized on one page.
+ *
+ * Instead of keeping a {@link TextInfo} object (with its {@link Rectangle}
+ * and a list of boxed coordinates) per recognized line or word, all text
+ * chunks of the page share one character buffer and coordinates are kept in
+ * a primitive float array. Each chunk costs a few array slots instead of
+ * several objects, which matters for dense pages and large batches.
+ *
+ * The class is still a mutable {@link java.util.List} of {@link TextInfo},
+ * so existing code reading or modifying recognized text keeps working: on
+ * the first {@link #get(int)}, {@link #set(int, TextInfo)},
+ * {@link #add(int, TextInfo)} or {@link #remove(int)} call (including
+ * iteration) all the chunks are converted to {@link TextInfo} objects which
+ * are kept from then on, so changes made to them are preserved. Code that is
+ * aware of {@link PageText} should use {@link #getText(int)},
+ * {@link #getLeft(int)}, {@link #getBottom(int)}, {@link #getRight(int)} and
+ * {@link #getTop(int)} to avoid these allocations.
+ */
+public class PageText extends AbstractList<TextInfo> {
+
+    /**
+     * Coefficient to convert pixels to points.
+     */
+    private static final float PX_TO_PT = 3F / 4F;
+
+    /**
+     * Number of coordinates stored for each text chunk.
+     */
+    private static final int COORDINATES_PER_CHUNK = 4;
+
+    /**
+     * Offsets of coordinates of a text chunk in {@link #coordinates} array.
+     * Stored the same way as {@link Rectangle} does: lower-left corner,
+     * width and height, all expressed in points.
+     */
+    private static final int X_IDX = 0;
+    private static final int Y_IDX = 1;
+    private static final int WIDTH_IDX = 2;
+    private static final int HEIGHT_IDX = 3;
+
+    /**
+     * Default capacity (in text chunks) of a new {@link PageText}.
+     */
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Height of the page in points. Used to convert lower-left based
+     * coordinates to the deprecated upper-left based pixel bbox and back.
+     */
+    private final float pageHeight;
+
+    /**
+     * Text of all chunks, one after another.
+     */
+    private StringBuilder textBuffer;
+
+    /**
+     * End offsets of each chunk text in {@link #textBuffer}.
+     */
+    private int[] textEnds;
+
+    /**
+     * Coordinates of all chunks, {@link #COORDINATES_PER_CHUNK} per chunk.
+     */
+    private float[] coordinates;
+
+    /**
+     * Number of text chunks kept in compact form.
+     */
+    private int size;
+
+    /**
+     * Text chunks as {@link TextInfo} objects, null while the chunks are
+     * kept in compact form.
+     */
+    private List<TextInfo> textInfos;
+
+    /**
+     * Creates a new empty {@link PageText} instance.
+     *
+     * @param pageHeight height of the page (image) in points
+     */
+    public PageText(final float pageHeight) {
+        this.pageHeight = pageHeight;
+        this.textBuffer = new StringBuilder();
+        this.textEnds = new int[DEFAULT_CAPACITY];
+        this.coordinates = new float[DEFAULT_CAPACITY * COORDINATES_PER_CHUNK];
+        this.size = 0;
+    }
+
+    /**
+     * Gets height of the page in points.
+     *
+     * @return height of the page (image) in points
+     */
+    public float getPageHeight() {
+        return pageHeight;
+    }
+
+    /**
+     * Appends text chunk to the page.
+     *
+     * @param text recognized text
+     * @param bboxRect {@link Rectangle} describing text bbox (lower-left
+     *                 based) expressed in points
+     */
+    public void addText(final String text, final Rectangle bboxRect) {
+        addText(text, bboxRect.getX(), bboxRect.getY(),
+                bboxRect.getWidth(), bboxRect.getHeight());
+    }
+
+    /**
+     * Appends text chunk to the page.
+     *
+     * @param text recognized text
+     * @param x x coordinate of the lower-left corner of the bbox in points
+     * @param y y coordinate of the lower-left corner of the bbox in points
+     * @param width width of the bbox in points
+     * @param height height of the bbox in points
+     */
+    public void addText(final String text, final float x, final float y,
+            final float width, final float height) {
+        if (textInfos != null) {
+            final Rectangle bboxRect = new Rectangle(x, y, width, height);
+            textInfos.add(new TextInfo(text, bboxRect, toPixelBbox(bboxRect)));
+            ++modCount;
+            return;
+        }
+        ensureCapacity(size + 1);
+        textBuffer.append(text);
+        textEnds[size] = textBuffer.length();
+        final int offset = size * COORDINATES_PER_CHUNK;
+        coordinates[offset + X_IDX] = x;
+        coordinates[offset + Y_IDX] = y;
+        coordinates[offset + WIDTH_IDX] = width;
+        coordinates[offset + HEIGHT_IDX] = height;
+        ++size;
+        ++modCount;
+    }
+
+    /**
+     * Gets text of the chunk.
+     *
+     * @param index index of the text chunk
+     * @return recognized text
+     */
+    public String getText(final int index) {
+        checkIndex(index);
+        if (textInfos != null) {
+            return textInfos.get(index).getText();
+        }
+        final int start = index == 0 ? 0 : textEnds[index - 1];
+        return textBuffer.substring(start, textEnds[index]);
+    }
+
+    /**
+     * Gets left bound of the chunk bbox.
+     *
+     * @param index index of the text chunk
+     * @return left bound in points
+     */
+    public float getLeft(final int index) {
+        checkIndex(index);
+        if (textInfos != null) {
+            return getBboxRect(index).getLeft();
+        }
+        return coordinates[index * COORDINATES_PER_CHUNK + X_IDX];
+    }
+
+    /**
+     * Gets bottom bound of the chunk bbox.
+     *
+     * @param index index of the text chunk
+     * @return bottom bound in points
+     */
+    public float getBottom(final int index) {
+        checkIndex(index);
+        if (textInfos != null) {
+            return getBboxRect(index).getBottom();
+        }
+        return coordinates[index * COORDINATES_PER_CHUNK + Y_IDX];
+    }
+
+    /**
+     * Gets right bound of the chunk bbox.
+     *
+     * @param index index of the text chunk
+     * @return right bound in points
+     */
+    public float getRight(final int index) {
+        checkIndex(index);
+        if (textInfos != null) {
+            return getBboxRect(index).getRight();
+        }
+        final int offset = index * COORDINATES_PER_CHUNK;
+        return coordinates[offset + X_IDX] + coordinates[offset + WIDTH_IDX];
+    }
+
+    /**
+     * Gets top bound of the chunk bbox.
+     *
+     * @param index index of the text chunk
+     * @return top bound in points
+     */
+    public float getTop(final int index) {
+        checkIndex(index);
+        if (textInfos != null) {
+            return getBboxRect(index).getTop();
+        }
+        final int offset = index * COORDINATES_PER_CHUNK;
+        return coordinates[offset + Y_IDX] + coordinates[offset + HEIGHT_IDX];
+    }
+
+    /**
+     * Gets bbox of the chunk.
+     *
+     * @param index index of the text chunk
+     * @return new {@link Rectangle} describing text bbox (lower-left based)
+     * expressed in points
+     */
+    public Rectangle getBboxRect(final int index) {
+        checkIndex(index);
+        if (textInfos != null) {
+            return toBboxRect(textInfos.get(index)).clone();
+        }
+        final int offset = index * COORDINATES_PER_CHUNK;
+        return new Rectangle(coordinates[offset + X_IDX],
+                coordinates[offset + Y_IDX],
+                coordinates[offset + WIDTH_IDX],
+                coordinates[offset + HEIGHT_IDX]);
+    }
+
+    /**
+     * Gets {@link TextInfo} of the chunk. Both
+     * {@link TextInfo#getBboxRect()} and deprecated
+     * {@link TextInfo#getBbox()} are filled. The same instance is returned
+     * on subsequent calls, so changes made to it are preserved.
+     *
+     * @param index index of the text chunk
+     * @return {@link TextInfo} instance
+     */
+    @Override
+    public TextInfo get(final int index) {
+        checkIndex(index);
+        return getTextInfos().get(index);
+    }
+
+    /**
+     * Replaces text chunk.
+     *
+     * @param index index of the text chunk
+     * @param textInfo text chunk to be stored at the specified position
+     * @return replaced text chunk
+     */
+    @Override
+    public TextInfo set(final int index, final TextInfo textInfo) {
+        checkIndex(index);
+        return getTextInfos().set(index, textInfo);
+    }
+
+    /**
+     * Inserts text chunk. If only deprecated pixel bbox is set in provided
+     * {@link TextInfo}, {@link #getBboxRect(int)} converts it to points
+     * using page height.
+     *
+     * @param index index at which the text chunk is to be inserted
+     * @param textInfo text chunk to insert
+     */
+    @Override
+    public void add(final int index, final TextInfo textInfo) {
+        getTextInfos().add(index, textInfo);
+        ++modCount;
+    }
+
+    /**
+     * Removes text chunk.
+     *
+     * @param index index of the text chunk
+     * @return removed text chunk
+     */
+    @Override
+    public TextInfo remove(final int index) {
+        checkIndex(index);
+        final TextInfo removed = getTextInfos().remove(index);
+        ++modCount;
+        return removed;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int size() {
+        return textInfos == null ? size : textInfos.size();
+    }
+
+    /**
+     * Converts compact chunks to {@link TextInfo} objects if it hasn't been
+     * done yet and releases compact storage.
+     */
+    private List<TextInfo> getTextInfos() {
+        if (textInfos == null) {
+            final List<TextInfo> converted = new ArrayList<TextInfo>(
+                    Math.max(size, DEFAULT_CAPACITY));
+            for (int i = 0; i < size; ++i) {
+                final Rectangle bboxRect = getBboxRect(i);
+                converted.add(new TextInfo(getText(i), bboxRect,
+                        toPixelBbox(bboxRect)));
+            }
+            textInfos = converted;
+            textBuffer = null;
+            textEnds = null;
+            coordinates = null;
+            size = 0;
+        }
+        return textInfos;
+    }
+
+    /**
+     * Gets lower-left based bbox in points of {@link TextInfo}, converting
+     * deprecated pixel bbox if it's the only one set.
+     */
+    private Rectangle toBboxRect(final TextInfo textInfo) {
+        if (textInfo.getBboxRect() != null) {
+            return textInfo.getBboxRect();
+        }
+        final List<Float> bbox = textInfo.getBbox();
+        final float left = toPoints(bbox.get(0));
+        final float top = pageHeight - toPoints(bbox.get(1));
+        final float right = toPoints(bbox.get(2));
+        final float bottom = pageHeight - toPoints(bbox.get(3));
+        return new Rectangle(left, bottom, right - left, top - bottom);
+    }
+
+    /**
+     * Gets deprecated upper-left based bbox in pixels.
+     */
+    private List<Float> toPixelBbox(final Rectangle bboxRect) {
+        return Arrays.asList(
+                toPixels(bboxRect.getLeft()),
+                toPixels(pageHeight - bboxRect.getTop()),
+                toPixels(bboxRect.getRight()),
+                toPixels(pageHeight - bboxRect.getBottom()));
+    }
+
+    /**
+     * Grows internal arrays to hold at least given number of chunks.
+     */
+    private void ensureCapacity(final int minCapacity) {
+        if (minCapacity > textEnds.length) {
+            final int newCapacity = Math.max(minCapacity, textEnds.length * 2);
+            textEnds = Arrays.copyOf(textEnds, newCapacity);
+            coordinates = Arrays.copyOf(coordinates,
+                    newCapacity * COORDINATES_PER_CHUNK);
+        }
+    }
+
+    /**
+     * Checks that given index refers to an existing chunk.
+     */
+    private void checkIndex(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index: " + index
+                    + ", Size: " + size());
+        }
+    }
+
+    /**
+     * Converts value from points to pixels.
+     */
+    private static float toPixels(final float pt) {
+        return pt / PX_TO_PT;
+    }
+
+    /**
+     * Converts value from pixels to points.
+     */
+    private static float toPoints(final float px) {
+        return px * PX_TO_PT;
+    }
+}
@@ -22,26 +22,38 @@
  */
 package com.itextpdf.pdfocr;
 
+import com.itextpdf.io.codec.CCITTG4Encoder;
 import com.itextpdf.io.image.ImageData;
 import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.image.ImageType;
+import com.itextpdf.io.image.ImageTypeDetector;
+import com.itextpdf.io.image.RawImageData;
 import com.itextpdf.io.image.TiffImageData;
 import com.itextpdf.io.source.RandomAccessFileOrArray;
 import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.kernel.font.PdfFont;
 import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.layout.Document;
 import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.font.FontCharacteristics;
+import com.itextpdf.layout.font.FontInfo;
+import com.itextpdf.layout.font.FontProvider;
 import com.itextpdf.layout.layout.LayoutArea;
 import com.itextpdf.layout.layout.LayoutContext;
 import com.itextpdf.layout.layout.LayoutResult;
 import com.itextpdf.layout.renderer.IRenderer;
 import com.itextpdf.layout.renderer.ParagraphRenderer;
 
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import javax.imageio.ImageIO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -57,6 +69,24 @@ class PdfCreatorUtil {
      */
     private static final float POINTS_PER_INCH = 72.0f;
 
+    /**
+     * Pixels with luminance between this value and
+     * {@link #BILEVEL_WHITE_LEVEL} are considered mid-tones.
+     */
+    private static final int BILEVEL_BLACK_LEVEL = 64;
+
+    /**
+     * Pixels with luminance between {@link #BILEVEL_BLACK_LEVEL} and this
+     * value are considered mid-tones.
+     */
+    private static final int BILEVEL_WHITE_LEVEL = 192;
+
+    /**
+     * Maximal share of mid-tone pixels in the image that is still
+     * considered bilevel.
+     */
+    private static final float BILEVEL_MAX_MID_TONE_RATIO = 0.01f;
+
     /**
      * The logger.
      */
@@ -113,6 +143,37 @@ class PdfCreatorUtil {
         return fontSize;
     }
 
+    /**
+     * Resolves the font of the given font family that is used for the whole
+     * text layer of the document in {@link TextLayerMode#SINGLE_FONT} mode.
+     * {@link FontProvider} caches created PDF fonts, so the same
+     * {@link PdfFont} instance is returned for all lines of the document.
+     *
+     * @param fontProvider font provider of the result document
+     * @param fontFamily default font family
+     * @return best matching {@link PdfFont}
+     * @throws OcrException if set font provider is invalid and/or fonts that
+     * it contains are invalid
+     */
+    static PdfFont getDocumentFont(final FontProvider fontProvider,
+            final String fontFamily) throws OcrException {
+        try {
+            if (fontProvider.getFontSet().isEmpty()) {
+                throw new IllegalStateException(PdfOcrLogMessageConstant
+                        .PROVIDED_FONT_PROVIDER_IS_INVALID);
+            }
+            final FontInfo fontInfo = fontProvider.getFontSelector(
+                    Collections.<String>singletonList(fontFamily),
+                    new FontCharacteristics()).bestMatch();
+            return fontProvider.getPdfFont(fontInfo);
+        } catch (IllegalStateException e) {
+            LOGGER.error(PdfOcrLogMessageConstant
+                    .PROVIDED_FONT_PROVIDER_IS_INVALID);
+            throw new OcrException(
+                    OcrException.CANNOT_RESOLVE_PROVIDED_FONTS, e);
+        }
+    }
+
     /**
      * Calculated real width of a paragraph with given text line, font provider
      * and font size.
@@ -181,18 +242,9 @@ class PdfCreatorUtil {
 
             if ("tiff".equals(ext.toLowerCase())
                     || "tif".equals(ext.toLowerCase())) {
-                int tiffPages = getNumberOfPageTiff(inputImage);
-
-                for (int page = 0; page < tiffPages; page++) {
-                    byte[] bytes = Files.readAllBytes(inputImage.toPath());
-                    ImageData imageData = ImageDataFactory
-                            .createTiff(bytes, true,
-                                    page + 1, true);
-                    if (imageRotationHandler != null) {
-                        imageData = imageRotationHandler.applyRotation(imageData);
-                    }
-                    images.add(imageData);
-                }
+                images.addAll(getTiffImageData(
+                        Files.readAllBytes(inputImage.toPath()),
+                        imageRotationHandler));
             } else {
                 try {
                     ImageData imageData = ImageDataFactory
@@ -213,6 +265,134 @@ class PdfCreatorUtil {
         return images;
     }
 
+    /**
+     * Retrieves {@link com.itextpdf.io.image.ImageData} from the input image
+     * passed as a byte array. Image format is detected from the leading
+     * bytes of the image.
+     *
+     * @param inputImage input image as a byte array
+     * @param imageRotationHandler image rotation handler {@link IImageRotationHandler}
+     * @return list of {@link com.itextpdf.io.image.ImageData} objects
+     * (more than one element in the list if it is a multipage tiff)
+     * @throws OcrException if error occurred during reading the image
+     * @throws IOException if error occurred during reading the image
+     */
+    static List<ImageData> getImageData(final byte[] inputImage,
+            final IImageRotationHandler imageRotationHandler)
+            throws OcrException, IOException {
+        try {
+            if (ImageType.TIFF == ImageTypeDetector
+                    .detectImageType(inputImage)) {
+                return getTiffImageData(inputImage, imageRotationHandler);
+            }
+            ImageData imageData = ImageDataFactory.create(inputImage);
+            if (imageRotationHandler != null) {
+                imageData = imageRotationHandler.applyRotation(imageData);
+            }
+            List<ImageData> images = new ArrayList<ImageData>();
+            images.add(imageData);
+            return images;
+        } catch (com.itextpdf.io.IOException e) {
+            LOGGER.error(MessageFormatUtil.format(
+                    PdfOcrLogMessageConstant.CANNOT_READ_INPUT_IMAGE,
+                    e.getMessage()));
+            throw new OcrException(OcrException.CANNOT_READ_INPUT_IMAGE, e);
+        }
+    }
+
+    /**
+     * Retrieves {@link com.itextpdf.io.image.ImageData} of all pages of the
+     * tiff image.
+     *
+     * @param inputImage tiff image as a byte array
+     * @param imageRotationHandler image rotation handler {@link IImageRotationHandler}
+     * @return list of {@link com.itextpdf.io.image.ImageData} objects, one
+     * per page
+     * @throws IOException if error occurred during reading the image
+     */
+    private static List<ImageData> getTiffImageData(final byte[] inputImage,
+            final IImageRotationHandler imageRotationHandler)
+            throws IOException {
+        List<ImageData> images = new ArrayList<ImageData>();
+        int tiffPages = getNumberOfPageTiff(inputImage);
+
+        for (int page = 0; page < tiffPages; page++) {
+            ImageData imageData = ImageDataFactory
+                    .createTiff(inputImage, true,
+                            page + 1, true);
+            // text of tiff pages is recognized without applying
+            // orientation, so the image is placed as is as well
+            imageData.setRotation(0);
+            if (imageRotationHandler != null) {
+                imageData = imageRotationHandler.applyRotation(imageData);
+            }
+            images.add(imageData);
+        }
+        return images;
+    }
+
+    /**
+     * Converts JPEG image which contains only black and white pixels (up to
+     * compression artifacts) to a 1-bit CCITT G4 image.
+     * Other images and images that contain mid-tones are returned as is.
+     *
+     * @param imageData input image or its one page as
+     *                  {@link com.itextpdf.io.image.ImageData}
+     * @return bilevel {@link com.itextpdf.io.image.ImageData} with the same
+     * size, resolution and rotation or the original image
+     */
+    static ImageData getBilevelImageData(final ImageData imageData) {
+        if (imageData.getOriginalType() != ImageType.JPEG
+                || imageData.getData() == null) {
+            return imageData;
+        }
+        try {
+            final BufferedImage image = ImageIO.read(
+                    new ByteArrayInputStream(imageData.getData()));
+            if (image == null) {
+                return imageData;
+            }
+            final int width = image.getWidth();
+            final int height = image.getHeight();
+            final int bytesPerRow = (width + 7) / 8;
+            final long maxMidTones = (long) ((double) width * height
+                    * BILEVEL_MAX_MID_TONE_RATIO);
+            final byte[] bits = new byte[bytesPerRow * height];
+            final int[] row = new int[width];
+            long midTones = 0;
+            for (int y = 0; y < height; ++y) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; ++x) {
+                    final int rgb = row[x];
+                    final int luminance = (299 * ((rgb >> 16) & 0xff)
+                            + 587 * ((rgb >> 8) & 0xff)
+                            + 114 * (rgb & 0xff)) / 1000;
+                    if (luminance > BILEVEL_BLACK_LEVEL
+                            && luminance < BILEVEL_WHITE_LEVEL
+                            && ++midTones > maxMidTones) {
+                        return imageData;
+                    }
+                    // set bit stands for a black pixel
+                    if (luminance < 128) {
+                        bits[y * bytesPerRow + x / 8] |=
+                                (byte) (0x80 >> (x % 8));
+                    }
+                }
+            }
+            final ImageData bilevelImageData = ImageDataFactory.create(
+                    width, height, false, RawImageData.CCITTG4, 0,
+                    CCITTG4Encoder.compress(bits, width, height), null);
+            bilevelImageData.setDpi(imageData.getDpiX(), imageData.getDpiY());
+            bilevelImageData.setRotation(imageData.getRotation());
+            return bilevelImageData;
+        } catch (IOException | com.itextpdf.io.IOException e) {
+            LOGGER.warn(MessageFormatUtil.format(
+                    PdfOcrLogMessageConstant.CANNOT_CONVERT_IMAGE_TO_BILEVEL,
+                    e.getMessage()));
+            return imageData;
+        }
+    }
+
     /**
      * Calculates the size of the PDF document page according to the provided
      * {@link ScaleMode}.
@@ -231,8 +411,8 @@ class PdfCreatorUtil {
             final ScaleMode scaleMode,
             final com.itextpdf.kernel.geom.Rectangle requiredSize) {
         if (imageData != null) {
-            float imgWidthPt = getPoints(imageData.getWidth());
-            float imgHeightPt = getPoints(imageData.getHeight());
+            float imgWidthPt = getPoints(getImageWidth(imageData));
+            float imgHeightPt = getPoints(getImageHeight(imageData));
             // page size will be equal to the image size if page size or
             // scale mode are not set
             if (requiredSize == null || scaleMode == null) {
@@ -266,6 +446,48 @@ class PdfCreatorUtil {
         }
     }
 
+    /**
+     * Gets clockwise rotation of the image set via
+     * {@link ImageData#setRotation(float)}, e.g. by
+     * {@link IImageRotationHandler}, rounded to a multiple of 90 degrees.
+     *
+     * @param imageData input image or its one page as
+     *                  {@link com.itextpdf.io.image.ImageData}
+     * @return rotation in degrees: 0, 90, 180 or 270
+     */
+    static int getClockwiseRotation(final ImageData imageData) {
+        // image data rotation is counterclockwise and in radians
+        final int quarters = Math.round(
+                -imageData.getRotation() / (float) (Math.PI / 2));
+        return ((quarters % 4 + 4) % 4) * 90;
+    }
+
+    /**
+     * Gets width of the image as it is displayed on the page, i.e. after
+     * rotation specified by {@link ImageData#getRotation()} is applied.
+     *
+     * @param imageData input image or its one page as
+     *                  {@link com.itextpdf.io.image.ImageData}
+     * @return width in pixels
+     */
+    static float getImageWidth(final ImageData imageData) {
+        return getClockwiseRotation(imageData) % 180 == 0
+                ? imageData.getWidth() : imageData.getHeight();
+    }
+
+    /**
+     * Gets height of the image as it is displayed on the page, i.e. after
+     * rotation specified by {@link ImageData#getRotation()} is applied.
+     *
+     * @param imageData input image or its one page as
+     *                  {@link com.itextpdf.io.image.ImageData}
+     * @return height in pixels
+     */
+    static float getImageHeight(final ImageData imageData) {
+        return getClockwiseRotation(imageData) % 180 == 0
+                ? imageData.getHeight() : imageData.getWidth();
+    }
+
     /**
      * Converts value from pixels to points.
      *
@@ -279,18 +501,14 @@ class PdfCreatorUtil {
     /**
      * Counts number of pages in the provided tiff image.
      *
-     * @param inputImage input image {@link java.io.File}
+     * @param inputImage input image as a byte array
      * @return number of pages in the provided TIFF image
-     * @throws IOException if error occurred during creating a
-     * {@link com.itextpdf.io.source.IRandomAccessSource} based on a filename
-     * string
+     * @throws IOException if error occurred during reading the image
      */
-    private static int getNumberOfPageTiff(final File inputImage)
+    private static int getNumberOfPageTiff(final byte[] inputImage)
             throws IOException {
         RandomAccessFileOrArray raf = new RandomAccessFileOrArray(
-                new RandomAccessSourceFactory()
-                        .createBestSource(
-                                inputImage.getAbsolutePath()));
+                new RandomAccessSourceFactory().createSource(inputImage));
         int numOfPages = TiffImageData.getNumberOfPages(raf);
         raf.close();
         return numOfPages;
@@ -22,6 +22,8 @@
  */
 package com.itextpdf.pdfocr;
 
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
 import com.itextpdf.io.font.PdfEncodings;
 import com.itextpdf.io.util.MessageFormatUtil;
 import com.itextpdf.io.util.ResourceUtil;
@@ -51,7 +53,10 @@ public class PdfOcrFontProvider extends FontProvider {
      */
     public PdfOcrFontProvider() {
         super(DEFAULT_FONT_FAMILY);
-        this.addFont(getDefaultFont(), PdfEncodings.IDENTITY_H);
+        final FontProgram defaultFont = DefaultFontHolder.FONT_PROGRAM;
+        if (defaultFont != null) {
+            this.addFont(defaultFont, PdfEncodings.IDENTITY_H);
+        }
     }
 
     /**
@@ -73,20 +78,35 @@ public class PdfOcrFontProvider extends FontProvider {
     }
 
     /**
-     * Gets default font as a byte array.
+     * Reads and parses default font.
      *
-     * @return default font as byte[]
+     * @return default font as {@link FontProgram} or null if it cannot be
+     * read
      */
-    private byte[] getDefaultFont() {
+    private static FontProgram readDefaultFont() {
         try (InputStream stream = ResourceUtil
                 .getResourceStream(DEFAULT_FONT_PATH)) {
-            return StreamUtil.inputStreamToArray(stream);
+            return FontProgramFactory.createFont(
+                    StreamUtil.inputStreamToArray(stream), false);
         } catch (IOException e) {
-            LoggerFactory.getLogger(getClass())
+            LoggerFactory.getLogger(PdfOcrFontProvider.class)
                     .error(MessageFormatUtil.format(
                             PdfOcrLogMessageConstant.CANNOT_READ_DEFAULT_FONT,
                             e.getMessage()));
-            return new byte[0];
+            return null;
         }
     }
+
+    /**
+     * Holder of the default font. The font is read and parsed only once,
+     * when the first {@link PdfOcrFontProvider} with the default font is
+     * created, and then shared by all such providers as it is never
+     * modified.
+     */
+    private static final class DefaultFontHolder {
+        /**
+         * Parsed default font, null if it cannot be read.
+         */
+        static final FontProgram FONT_PROGRAM = readDefaultFont();
+    }
 }
@@ -34,6 +34,12 @@ public class PdfOcrLogMessageConstant {
             "Cannot add data to PDF document: {1}";
     public static final String START_OCR_FOR_IMAGES =
             "Starting ocr for {0} image(s)";
+    public static final String START_OCR_FOR_PAGES =
+            "Starting ocr for {0} page(s) of PDF document";
+    public static final String PAGE_DOES_NOT_CONTAIN_IMAGES =
+            "Page {0} does not contain images, it will not be OCRed";
+    public static final String CANNOT_EXTRACT_IMAGE_FROM_PAGE =
+            "Cannot extract image from page {0}, it will not be OCRed: {1}";
     public static final String NUMBER_OF_PAGES_IN_IMAGE =
             "Image {0} contains {1} page(s)";
     public static final String COULD_NOT_FIND_CORRESPONDING_GLYPH_TO_UNICODE_CHARACTER =
@@ -41,6 +47,14 @@ public class PdfOcrLogMessageConstant {
                     + "in any of the fonts";
     public static final String PDF_LANGUAGE_PROPERTY_IS_NOT_SET =
             "PDF language property is not set";
+    public static final String FULL_COMPRESSION_IS_NOT_ENABLED =
+            "Full compression is not enabled for the passed PdfWriter, "
+                    + "object streams will not be used";
+    public static final String OCR_ENGINE_CANNOT_CREATE_TEXT_LAYER_PDF =
+            "OCR engine {0} cannot create text layer PDF, text layer is "
+                    + "created from recognized text";
+    public static final String CANNOT_CONVERT_IMAGE_TO_BILEVEL =
+            "Cannot convert image to bilevel, original image is used: {0}";
 
     private PdfOcrLogMessageConstant() {
     }
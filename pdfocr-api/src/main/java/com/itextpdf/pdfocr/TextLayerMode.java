@@ -0,0 +1,62 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr;
+
+/**
+ * Enumeration of the possible ways to write recognized text to the text
+ * layer of the result PDF document.
+ */
+public enum TextLayerMode {
+    /**
+     * Each line of text is placed using layout module. Font is selected from
+     * {@link com.itextpdf.layout.font.FontProvider} for every part of the
+     * line separately, so text containing several scripts can be rendered
+     * using several fonts, and font size is fitted to the text bbox
+     * iteratively.
+     */
+    LAYOUT,
+    /**
+     * Single font is resolved from
+     * {@link com.itextpdf.layout.font.FontProvider} per result document and
+     * all lines of all pages are written with it directly using text
+     * operators, font size and horizontal scaling are calculated from font
+     * metrics. The font is embedded as one subset over all glyphs used in the
+     * document and each page refers to the same font object, which reduces
+     * both output size and writing time for large documents. Characters
+     * which are absent in the selected font are written as notdef glyphs.
+     */
+    SINGLE_FONT,
+    /**
+     * Text layer of every page is created by the OCR engine itself as a
+     * text-only PDF page, see {@link ITextLayerPdfOcrEngine}. The page is
+     * imported as a form XObject and placed over the image as is, so
+     * recognized text is neither parsed to {@link TextInfo} objects nor laid
+     * out, and no fonts from {@link com.itextpdf.layout.font.FontProvider}
+     * are used. Text color set in {@link OcrPdfCreatorProperties} is ignored
+     * as engine text is always invisible. If the OCR engine does not
+     * implement {@link ITextLayerPdfOcrEngine} or recognized text is also
+     * written to {@link com.itextpdf.pdfocr.export.IOcrResultSink}s,
+     * {@link #LAYOUT} mode is used.
+     */
+    ENGINE_PDF
+}
@@ -0,0 +1,198 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.export;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.pdfocr.TextInfo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base class for {@link IOcrResultSink} implementations writing recognized
+ * text to a character stream. Every page is written as soon as it is
+ * received and nothing is kept between pages, so memory usage doesn't
+ * depend on the number of pages.
+ */
+public abstract class AbstractStreamOcrResultSink implements IOcrResultSink {
+
+    /**
+     * Coefficient to convert pixels to points.
+     */
+    private static final float PX_TO_PT = 3F / 4F;
+
+    /**
+     * {@link java.io.Writer} data is written to.
+     */
+    private final Writer writer;
+
+    /**
+     * Creates a new {@link AbstractStreamOcrResultSink} instance writing
+     * data to the provided {@link java.io.Writer}.
+     *
+     * @param writer {@link java.io.Writer} to write data to
+     */
+    protected AbstractStreamOcrResultSink(final Writer writer) {
+        this.writer = writer;
+    }
+
+    /**
+     * Creates a new {@link AbstractStreamOcrResultSink} instance writing
+     * data to the provided {@link java.io.OutputStream} in UTF-8 encoding.
+     *
+     * @param outputStream {@link java.io.OutputStream} to write data to
+     */
+    protected AbstractStreamOcrResultSink(final OutputStream outputStream) {
+        this(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes the whole OCR result of one image, e.g. the one returned by
+     * {@link com.itextpdf.pdfocr.IOcrEngine#doImageOcr(java.io.File)}, as a
+     * separate document. Pages are written in ascending order of their
+     * numbers.
+     *
+     * @param pages {@link java.util.Map} where key is page number and value
+     *              is {@link java.util.List} of {@link TextInfo} elements
+     *              recognized on this page
+     * @param pageWidth width of the image pages in pixels
+     * @param pageHeight height of the image pages in pixels
+     * @throws IOException if data cannot be written
+     */
+    public void writeDocument(final Map<Integer, List<TextInfo>> pages,
+            final float pageWidth, final float pageHeight)
+            throws IOException {
+        final List<Integer> pageNumbers =
+                new ArrayList<Integer>(pages.keySet());
+        Collections.sort(pageNumbers);
+        startDocument();
+        for (Integer pageNumber : pageNumbers) {
+            writePage(pageNumber, pageWidth, pageHeight,
+                    pages.get(pageNumber));
+        }
+        endDocument();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endDocument() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Gets {@link java.io.Writer} data is written to.
+     *
+     * @return {@link java.io.Writer}
+     */
+    protected Writer getWriter() {
+        return writer;
+    }
+
+    /**
+     * Converts value from points to pixels.
+     *
+     * @param points input value in points
+     * @return result value in pixels
+     */
+    protected static float getPixels(final float points) {
+        return points / PX_TO_PT;
+    }
+
+    /**
+     * Converts value from pixels to points.
+     *
+     * @param pixels input value in pixels
+     * @return result value in points
+     */
+    protected static float getPoints(final float pixels) {
+        return pixels * PX_TO_PT;
+    }
+
+    /**
+     * Gets text bbox expressed in points (lower-left based). Deprecated
+     * bbox parameters are converted if {@link TextInfo#getBboxRect()} is not
+     * set.
+     *
+     * @param textInfo {@link TextInfo} element
+     * @param pageHeight height of the page in pixels
+     * @return {@link Rectangle} describing text bbox or null if text element
+     * has no bbox
+     */
+    @SuppressWarnings("deprecation")
+    protected static Rectangle getBboxRect(final TextInfo textInfo,
+            final float pageHeight) {
+        if (textInfo.getBboxRect() != null) {
+            return textInfo.getBboxRect();
+        }
+        final List<Float> bbox = textInfo.getBbox();
+        if (bbox == null || bbox.size() < 4) {
+            return null;
+        }
+        // deprecated bbox contains left, top, right and bottom in pixels
+        return new Rectangle(getPoints(bbox.get(0)),
+                getPoints(pageHeight - bbox.get(3)),
+                getPoints(bbox.get(2) - bbox.get(0)),
+                getPoints(bbox.get(3) - bbox.get(1)));
+    }
+
+    /**
+     * Converts text bbox from lower-left based points to upper-left based
+     * pixels.
+     *
+     * @param bbox {@link Rectangle} describing text bbox in points
+     * @param pageHeight height of the page in pixels
+     * @return array with left, top, width and height of the bbox in pixels
+     */
+    protected static float[] getPixelBbox(final Rectangle bbox,
+            final float pageHeight) {
+        final float width = getPixels(bbox.getWidth());
+        final float height = getPixels(bbox.getHeight());
+        return new float[] {getPixels(bbox.getLeft()),
+                pageHeight - getPixels(bbox.getBottom()) - height,
+                width, height};
+    }
+
+    /**
+     * Formats coordinate as a locale independent decimal number rounded to
+     * two decimal places and without exponent.
+     *
+     * @param value coordinate to format
+     * @return formatted coordinate
+     */
+    protected static String formatCoordinate(final float value) {
+        final BigDecimal rounded = BigDecimal
+                .valueOf(Math.round(value * 100.0) / 100.0)
+                .stripTrailingZeros();
+        return rounded.signum() == 0 ? "0" : rounded.toPlainString();
+    }
+}
@@ -0,0 +1,208 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.export;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.pdfocr.TextInfo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * {@link IOcrResultSink} writing recognized text as ALTO XML (version 4)
+ * document. Every page is written as a separate "Page" element containing
+ * one text block, every {@link TextInfo} element (a line or a word depending
+ * on the OCR engine settings) is written as a "TextLine" element with a
+ * single "String". Measurement unit of the document is pixel, coordinates
+ * are upper-left based.
+ */
+public class AltoOcrResultSink extends AbstractStreamOcrResultSink {
+
+    /**
+     * ALTO XML namespace.
+     */
+    private static final String ALTO_NAMESPACE =
+            "http://www.loc.gov/standards/alto/ns-v4#";
+
+    /**
+     * ALTO XML schema location.
+     */
+    private static final String ALTO_SCHEMA_LOCATION =
+            "http://www.loc.gov/standards/alto/v4/alto-4-2.xsd";
+
+    /**
+     * Creates a new {@link AltoOcrResultSink} instance writing ALTO XML to
+     * the provided {@link java.io.Writer}. Writer is expected to use UTF-8
+     * encoding declared in the XML header.
+     *
+     * @param writer {@link java.io.Writer} to write ALTO XML to
+     */
+    public AltoOcrResultSink(final Writer writer) {
+        super(writer);
+    }
+
+    /**
+     * Creates a new {@link AltoOcrResultSink} instance writing ALTO XML to
+     * the provided {@link java.io.OutputStream} in UTF-8 encoding.
+     *
+     * @param outputStream {@link java.io.OutputStream} to write ALTO XML to
+     */
+    public AltoOcrResultSink(final OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startDocument() throws IOException {
+        final Writer writer = getWriter();
+        writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        writer.write("<alto xmlns=\"" + ALTO_NAMESPACE + "\""
+                + " xmlns:xsi=\"http://www.w3.org/2001/XMLSchema-instance\""
+                + " xsi:schemaLocation=\"" + ALTO_NAMESPACE + " "
+                + ALTO_SCHEMA_LOCATION + "\">\n");
+        writer.write("  <Description>\n");
+        writer.write("    <MeasurementUnit>pixel</MeasurementUnit>\n");
+        writer.write("    <OCRProcessing ID=\"ocr_0\">\n");
+        writer.write("      <ocrProcessingStep>\n");
+        writer.write("        <processingSoftware>\n");
+        writer.write("          <softwareName>pdfOCR</softwareName>\n");
+        writer.write("        </processingSoftware>\n");
+        writer.write("      </ocrProcessingStep>\n");
+        writer.write("    </OCRProcessing>\n");
+        writer.write("  </Description>\n");
+        writer.write("  <Layout>\n");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writePage(final int pageNumber, final float pageWidth,
+            final float pageHeight, final List<TextInfo> pageText)
+            throws IOException {
+        final Writer writer = getWriter();
+        final String pageId = "page_" + pageNumber;
+        final String size = " WIDTH=\"" + formatCoordinate(pageWidth)
+                + "\" HEIGHT=\"" + formatCoordinate(pageHeight) + "\"";
+        writer.write("    <Page ID=\"" + pageId + "\" PHYSICAL_IMG_NR=\""
+                + pageNumber + "\"" + size + ">\n");
+        writer.write("      <PrintSpace HPOS=\"0\" VPOS=\"0\"" + size + ">\n");
+        if (!pageText.isEmpty()) {
+            writer.write("        <TextBlock ID=\"" + pageId
+                    + "_block_1\">\n");
+            int lineNumber = 0;
+            for (TextInfo textInfo : pageText) {
+                final String lineId = pageId + "_line_" + (++lineNumber);
+                final String position = getPosition(textInfo, pageHeight);
+                writer.write("          <TextLine ID=\"" + lineId + "\""
+                        + position + ">\n");
+                writer.write("            <String ID=\"" + lineId
+                        + "_string_1\"" + position + " CONTENT=\"");
+                writeEscaped(writer, textInfo.getText());
+                writer.write("\"/>\n");
+                writer.write("          </TextLine>\n");
+            }
+            writer.write("        </TextBlock>\n");
+        }
+        writer.write("      </PrintSpace>\n");
+        writer.write("    </Page>\n");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endDocument() throws IOException {
+        final Writer writer = getWriter();
+        writer.write("  </Layout>\n");
+        writer.write("</alto>\n");
+        super.endDocument();
+    }
+
+    /**
+     * Gets HPOS, VPOS, WIDTH and HEIGHT attributes of the text element.
+     *
+     * @param textInfo {@link TextInfo} element
+     * @param pageHeight height of the page in pixels
+     * @return position attributes or empty string if text has no bbox
+     */
+    private static String getPosition(final TextInfo textInfo,
+            final float pageHeight) {
+        final Rectangle bboxRect = getBboxRect(textInfo, pageHeight);
+        if (bboxRect == null) {
+            return "";
+        }
+        final float[] bbox = getPixelBbox(bboxRect, pageHeight);
+        return " HPOS=\"" + formatCoordinate(bbox[0])
+                + "\" VPOS=\"" + formatCoordinate(bbox[1])
+                + "\" WIDTH=\"" + formatCoordinate(bbox[2])
+                + "\" HEIGHT=\"" + formatCoordinate(bbox[3]) + "\"";
+    }
+
+    /**
+     * Writes text escaping characters which are not allowed in XML
+     * attribute values. Control characters not allowed in XML 1.0 are
+     * skipped.
+     *
+     * @param writer {@link java.io.Writer} to write text to
+     * @param text text to write
+     * @throws IOException if text cannot be written
+     */
+    private static void writeEscaped(final Writer writer, final String text)
+            throws IOException {
+        if (text == null) {
+            return;
+        }
+        for (int i = 0; i < text.length(); ++i) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '&':
+                    writer.write("&amp;");
+                    break;
+                case '<':
+                    writer.write("&lt;");
+                    break;
+                case '>':
+                    writer.write("&gt;");
+                    break;
+                case '"':
+                    writer.write("&quot;");
+                    break;
+                case '\t':
+                case '\n':
+                case '\r':
+                    writer.write("&#" + (int) c + ";");
+                    break;
+                default:
+                    if (c >= 0x20) {
+                        writer.write(c);
+                    }
+                    break;
+            }
+        }
+    }
+}
@@ -0,0 +1,74 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.export;
+
+import com.itextpdf.pdfocr.TextInfo;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * {@link IOcrResultSink} interface is used to export text recognized by
+ * {@link com.itextpdf.pdfocr.IOcrEngine} page by page, e.g. to plain text or
+ * to a structured format. Sinks passed to
+ * {@link com.itextpdf.pdfocr.OcrPdfCreator} receive the same recognition
+ * results which are written to the result PDF document, so every image is
+ * recognized only once regardless of the number of outputs.
+ *
+ * Sink doesn't own the stream it writes to: the stream is neither closed by
+ * the sink nor by {@link com.itextpdf.pdfocr.OcrPdfCreator}.
+ */
+public interface IOcrResultSink {
+
+    /**
+     * Starts a new document. Called once before the first page of the
+     * document is written.
+     *
+     * @throws IOException if data cannot be written
+     */
+    void startDocument() throws IOException;
+
+    /**
+     * Writes text recognized on one page.
+     *
+     * @param pageNumber number of the page in the result document,
+     *                   starting from 1
+     * @param pageWidth width of the page image in pixels
+     * @param pageHeight height of the page image in pixels
+     * @param pageText {@link java.util.List} of {@link TextInfo} elements
+     *                 recognized on the page, bboxes are lower-left based
+     *                 and expressed in points (1px = 0.75pt) as returned
+     *                 by {@link com.itextpdf.pdfocr.IOcrEngine}
+     * @throws IOException if data cannot be written
+     */
+    void writePage(int pageNumber, float pageWidth, float pageHeight,
+            List<TextInfo> pageText) throws IOException;
+
+    /**
+     * Finishes the document and flushes written data. Called once after the
+     * last page of the document is written.
+     *
+     * @throws IOException if data cannot be written
+     */
+    void endDocument() throws IOException;
+}
@@ -0,0 +1,160 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.export;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.pdfocr.TextInfo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * {@link IOcrResultSink} writing recognized text as line-delimited JSON:
+ * every page is written as a single JSON object on a separate line, e.g.
+ * <pre>
+ * {"page":1,"widthPx":800,"heightPx":600,"widthPt":600,"heightPt":450,
+ *  "text":[{"text":"Hello","bboxPx":[100,50,80,20],"bboxPt":[75,397.5,60,15]}]}
+ * </pre>
+ * "bboxPx" contains left, top, width and height of the text element in
+ * pixels (upper-left based, as in the image), "bboxPt" contains left,
+ * bottom, width and height of the text element in points (lower-left based,
+ * as in the PDF page). Text elements without bbox have no "bboxPx" and
+ * "bboxPt" fields.
+ */
+public class JsonLinesOcrResultSink extends AbstractStreamOcrResultSink {
+
+    /**
+     * Creates a new {@link JsonLinesOcrResultSink} instance writing JSON to
+     * the provided {@link java.io.Writer}.
+     *
+     * @param writer {@link java.io.Writer} to write JSON to
+     */
+    public JsonLinesOcrResultSink(final Writer writer) {
+        super(writer);
+    }
+
+    /**
+     * Creates a new {@link JsonLinesOcrResultSink} instance writing JSON to
+     * the provided {@link java.io.OutputStream} in UTF-8 encoding.
+     *
+     * @param outputStream {@link java.io.OutputStream} to write JSON to
+     */
+    public JsonLinesOcrResultSink(final OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startDocument() {
+        // line-delimited JSON has no document header
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writePage(final int pageNumber, final float pageWidth,
+            final float pageHeight, final List<TextInfo> pageText)
+            throws IOException {
+        final Writer writer = getWriter();
+        writer.write("{\"page\":" + pageNumber
+                + ",\"widthPx\":" + formatCoordinate(pageWidth)
+                + ",\"heightPx\":" + formatCoordinate(pageHeight)
+                + ",\"widthPt\":" + formatCoordinate(getPoints(pageWidth))
+                + ",\"heightPt\":" + formatCoordinate(getPoints(pageHeight))
+                + ",\"text\":[");
+        boolean first = true;
+        for (TextInfo textInfo : pageText) {
+            if (!first) {
+                writer.write(',');
+            }
+            first = false;
+            writer.write("{\"text\":");
+            writeString(writer, textInfo.getText());
+            final Rectangle bboxRect = getBboxRect(textInfo, pageHeight);
+            if (bboxRect != null) {
+                final float[] bbox = getPixelBbox(bboxRect, pageHeight);
+                writer.write(",\"bboxPx\":[" + formatCoordinate(bbox[0])
+                        + "," + formatCoordinate(bbox[1])
+                        + "," + formatCoordinate(bbox[2])
+                        + "," + formatCoordinate(bbox[3])
+                        + "],\"bboxPt\":["
+                        + formatCoordinate(bboxRect.getLeft())
+                        + "," + formatCoordinate(bboxRect.getBottom())
+                        + "," + formatCoordinate(bboxRect.getWidth())
+                        + "," + formatCoordinate(bboxRect.getHeight())
+                        + "]");
+            }
+            writer.write('}');
+        }
+        writer.write("]}\n");
+    }
+
+    /**
+     * Writes text as JSON string literal.
+     *
+     * @param writer {@link java.io.Writer} to write text to
+     * @param text text to write, null is written as JSON null
+     * @throws IOException if text cannot be written
+     */
+    private static void writeString(final Writer writer, final String text)
+            throws IOException {
+        if (text == null) {
+            writer.write("null");
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < text.length(); ++i) {
+            final char c = text.charAt(i);
+            switch (c) {
+                case '"':
+                    writer.write("\\\"");
+                    break;
+                case '\\':
+                    writer.write("\\\\");
+                    break;
+                case '\n':
+                    writer.write("\\n");
+                    break;
+                case '\r':
+                    writer.write("\\r");
+                    break;
+                case '\t':
+                    writer.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        writer.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        writer.write(c);
+                    }
+                    break;
+            }
+        }
+        writer.write('"');
+    }
+}
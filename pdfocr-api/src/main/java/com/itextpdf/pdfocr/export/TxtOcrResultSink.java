@@ -0,0 +1,83 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.export;
+
+import com.itextpdf.pdfocr.TextInfo;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * {@link IOcrResultSink} writing recognized text as plain text: every
+ * {@link TextInfo} element (a line or a word depending on the OCR engine
+ * settings) is written on a separate line, pages are separated by an empty
+ * line. Pages are written as soon as they are recognized, so memory usage
+ * doesn't depend on the number of pages.
+ */
+public class TxtOcrResultSink extends AbstractStreamOcrResultSink {
+
+    /**
+     * Creates a new {@link TxtOcrResultSink} instance writing text to the
+     * provided {@link java.io.Writer}.
+     *
+     * @param writer {@link java.io.Writer} to write text to
+     */
+    public TxtOcrResultSink(final Writer writer) {
+        super(writer);
+    }
+
+    /**
+     * Creates a new {@link TxtOcrResultSink} instance writing text to the
+     * provided {@link java.io.OutputStream} in UTF-8 encoding.
+     *
+     * @param outputStream {@link java.io.OutputStream} to write text to
+     */
+    public TxtOcrResultSink(final OutputStream outputStream) {
+        super(outputStream);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void startDocument() {
+        // plain text has no document header
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void writePage(final int pageNumber, final float pageWidth,
+            final float pageHeight, final List<TextInfo> pageText)
+            throws IOException {
+        final Writer writer = getWriter();
+        for (TextInfo textInfo : pageText) {
+            writer.write(textInfo.getText());
+            writer.write(System.lineSeparator());
+        }
+        writer.write(System.lineSeparator());
+    }
+}
@@ -69,6 +69,77 @@ public class ApiTest extends ExtendedITextTest {
         Assert.assertEquals(textInfo.getText(), result.get(page).get(0).getText());
     }
 
+    @Test
+    public void testPageText() {
+        PageText pageText = new PageText(400f);
+        for (int i = 0; i < 20; ++i) {
+            pageText.addText("word" + i, new Rectangle(10f * i, 100f, 40f, 12f));
+        }
+        pageText.add(new TextInfo("last", new Rectangle(5f, 20f, 30f, 10f)));
+
+        Assert.assertEquals(21, pageText.size());
+        Assert.assertEquals("word7", pageText.getText(7));
+        Assert.assertEquals(70f, pageText.getLeft(7), 0.0001);
+        Assert.assertEquals(110f, pageText.getRight(7), 0.0001);
+        Assert.assertEquals(100f, pageText.getBottom(7), 0.0001);
+        Assert.assertEquals(112f, pageText.getTop(7), 0.0001);
+
+        TextInfo textInfo = pageText.get(20);
+        Assert.assertEquals("last", textInfo.getText());
+        Assert.assertTrue(new Rectangle(5f, 20f, 30f, 10f).equalsWithEpsilon(textInfo.getBboxRect()));
+        // deprecated upper-left based bbox in pixels
+        Assert.assertEquals(Arrays.<Float>asList(5f / 0.75f, 370f / 0.75f, 35f / 0.75f, 380f / 0.75f),
+                textInfo.getBbox());
+
+        int count = 0;
+        for (TextInfo item : pageText) {
+            Assert.assertEquals(pageText.getText(count), item.getText());
+            ++count;
+        }
+        Assert.assertEquals(pageText.size(), count);
+    }
+
+    @Test
+    public void testPageTextIsMutable() {
+        PageText pageText = new PageText(400f);
+        pageText.addText("first", new Rectangle(10f, 100f, 40f, 12f));
+        pageText.addText("second", new Rectangle(60f, 100f, 40f, 12f));
+
+        // changes of returned text info are preserved
+        TextInfo textInfo = pageText.get(0);
+        textInfo.setText("changed");
+        Assert.assertSame(textInfo, pageText.get(0));
+        Assert.assertEquals("changed", pageText.getText(0));
+
+        pageText.set(1, new TextInfo("replaced", new Rectangle(5f, 20f, 30f, 10f)));
+        Assert.assertEquals("replaced", pageText.getText(1));
+        Assert.assertEquals(35f, pageText.getRight(1), 0.0001);
+
+        pageText.add(0, new TextInfo("inserted", new Rectangle(0f, 0f, 10f, 10f)));
+        pageText.addText("appended", new Rectangle(100f, 100f, 20f, 12f));
+        Assert.assertEquals(4, pageText.size());
+        Assert.assertEquals("changed", pageText.remove(1).getText());
+        Assert.assertEquals(Arrays.asList("inserted", "replaced", "appended"),
+                Arrays.asList(pageText.getText(0), pageText.getText(1), pageText.getText(2)));
+        Assert.assertEquals(120f, pageText.getRight(2), 0.0001);
+        Assert.assertEquals(Arrays.<Float>asList(100f / 0.75f, 288f / 0.75f, 120f / 0.75f, 300f / 0.75f),
+                pageText.get(2).getBbox());
+    }
+
+    @Test
+    public void testPageTextFromDeprecatedBbox() {
+        PageText pageText = new PageText(300f);
+        TextInfo textInfo = new TextInfo();
+        textInfo.setText("text");
+        textInfo.setBbox(Arrays.<Float>asList(40f, 80f, 120f, 100f));
+        pageText.add(textInfo);
+
+        Assert.assertEquals(30f, pageText.getLeft(0), 0.0001);
+        Assert.assertEquals(90f, pageText.getRight(0), 0.0001);
+        Assert.assertEquals(240f, pageText.getTop(0), 0.0001);
+        Assert.assertEquals(225f, pageText.getBottom(0), 0.0001);
+    }
+
     @Test
     public void testTextInfoDeprecationMode() {
         String path = PdfHelper.getDefaultImagePath();
@@ -0,0 +1,142 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.pdfocr.helpers.CustomOcrEngine;
+import com.itextpdf.pdfocr.helpers.CustomTextLayerPdfOcrEngine;
+import com.itextpdf.pdfocr.helpers.PdfHelper;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.LogMessage;
+import com.itextpdf.test.annotations.LogMessages;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(IntegrationTest.class)
+public class EngineTextLayerTest extends ExtendedITextTest {
+
+    @Test
+    public void testEngineTextLayerIsPlacedOverImage() throws IOException {
+        String testName = "testEngineTextLayerIsPlacedOverImage";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        File file = new File(PdfHelper.getDefaultImagePath());
+
+        OcrPdfCreatorProperties properties = new OcrPdfCreatorProperties();
+        properties.setTextLayerName("Text Layer");
+        properties.setTextLayerMode(TextLayerMode.ENGINE_PDF);
+        CustomTextLayerPdfOcrEngine engine = new CustomTextLayerPdfOcrEngine();
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(engine, properties);
+        ocrPdfCreator.createPdf(Collections.<File>singletonList(file),
+                PdfHelper.getPdfWriter(pdfPath)).close();
+
+        Assert.assertEquals(0, engine.getImageOcrCount());
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT,
+                PdfHelper.getTextFromPdfLayer(pdfPath, "Text Layer"));
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(pdfPath));
+        Assert.assertEquals(1, pdfDocument.getNumberOfPages());
+        Assert.assertTrue(hasForm(pdfDocument.getFirstPage()));
+        pdfDocument.close();
+    }
+
+    @Test
+    public void testEngineTextLayerIsAddedToScannedPdf() throws IOException {
+        String testName = "testEngineTextLayerIsAddedToScannedPdf";
+        String srcPath = PdfHelper.getTargetDirectory() + testName + "_src.pdf";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        ImageData imageData = ImageDataFactory.create(
+                PdfHelper.getDefaultImagePath());
+        PdfDocument srcDocument = new PdfDocument(new PdfWriter(srcPath));
+        for (int i = 0; i < 2; ++i) {
+            PdfPage page = srcDocument.addNewPage(PageSize.A4);
+            new PdfCanvas(page).addImage(imageData, page.getPageSize(), false);
+        }
+        srcDocument.close();
+
+        OcrPdfCreatorProperties properties = new OcrPdfCreatorProperties();
+        properties.setTextLayerName("Text Layer");
+        properties.setTextLayerMode(TextLayerMode.ENGINE_PDF);
+        properties.setParallelism(2);
+        CustomTextLayerPdfOcrEngine engine = new CustomTextLayerPdfOcrEngine();
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(engine, properties);
+        ocrPdfCreator.createPdf(new PdfReader(srcPath),
+                new PdfWriter(pdfPath)).close();
+
+        Assert.assertEquals(0, engine.getImageOcrCount());
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT,
+                PdfHelper.getTextFromPdfLayer(pdfPath, "Text Layer"));
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(pdfPath));
+        Assert.assertEquals(2, pdfDocument.getNumberOfPages());
+        for (int page = 1; page <= 2; ++page) {
+            Assert.assertTrue(hasForm(pdfDocument.getPage(page)));
+        }
+        pdfDocument.close();
+    }
+
+    @LogMessages(messages = {
+            @LogMessage(messageTemplate = PdfOcrLogMessageConstant.OCR_ENGINE_CANNOT_CREATE_TEXT_LAYER_PDF)
+    })
+    @Test
+    public void testLayoutIsUsedIfEngineCannotCreateTextLayer()
+            throws IOException {
+        String testName = "testLayoutIsUsedIfEngineCannotCreateTextLayer";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        File file = new File(PdfHelper.getDefaultImagePath());
+
+        OcrPdfCreatorProperties properties = new OcrPdfCreatorProperties();
+        properties.setTextLayerName("Text Layer");
+        properties.setTextLayerMode(TextLayerMode.ENGINE_PDF);
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(new CustomOcrEngine(),
+                properties);
+        ocrPdfCreator.createPdf(Collections.<File>singletonList(file),
+                PdfHelper.getPdfWriter(pdfPath)).close();
+
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT,
+                PdfHelper.getTextFromPdfLayer(pdfPath, "Text Layer"));
+    }
+
+    private static boolean hasForm(PdfPage page) {
+        for (PdfName name : page.getResources()
+                .getResourceNames(PdfName.XObject)) {
+            if (page.getResources().getForm(name) != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,205 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.pdfocr.export.IOcrResultSink;
+import com.itextpdf.pdfocr.export.TxtOcrResultSink;
+import com.itextpdf.pdfocr.helpers.CustomTextLayerPdfOcrEngine;
+import com.itextpdf.pdfocr.helpers.PdfHelper;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+
+@Category(IntegrationTest.class)
+public class OcrResultSinkTest extends ExtendedITextTest {
+
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
+    @Test
+    public void testImagesAreRecognizedOnceForPdfAndSinks() throws IOException {
+        String testName = "testImagesAreRecognizedOnceForPdfAndSinks";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        File file = new File(PdfHelper.getDefaultImagePath());
+        ByteArrayOutputStream txt = new ByteArrayOutputStream();
+        RecordingSink recordingSink = new RecordingSink();
+
+        OcrPdfCreatorProperties properties = new OcrPdfCreatorProperties();
+        properties.setTextLayerName("Text Layer");
+        CustomTextLayerPdfOcrEngine engine = new CustomTextLayerPdfOcrEngine();
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(engine, properties);
+        ocrPdfCreator.createPdf(Arrays.<File>asList(file, file),
+                PdfHelper.getPdfWriter(pdfPath),
+                Arrays.<IOcrResultSink>asList(new TxtOcrResultSink(txt),
+                        recordingSink)).close();
+
+        Assert.assertEquals(2, engine.getImageOcrCount());
+        String lineSeparator = System.lineSeparator();
+        String pageText = PdfHelper.DEFAULT_TEXT + lineSeparator
+                + lineSeparator;
+        Assert.assertEquals(pageText + pageText, txt.toString("UTF-8"));
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT,
+                PdfHelper.getTextFromPdfLayer(pdfPath, "Text Layer"));
+
+        ImageData imageData = ImageDataFactory.create(
+                PdfHelper.getDefaultImagePath());
+        Assert.assertEquals(Arrays.asList("start", "page 1", "page 2", "end"),
+                recordingSink.events);
+        Assert.assertEquals(imageData.getWidth(), recordingSink.width, 0.5f);
+        Assert.assertEquals(imageData.getHeight(), recordingSink.height, 0.5f);
+    }
+
+    @Test
+    public void testEngineTextLayerIsNotUsedWithSinks() throws IOException {
+        String testName = "testEngineTextLayerIsNotUsedWithSinks";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        File file = new File(PdfHelper.getDefaultImagePath());
+        StringWriter txt = new StringWriter();
+
+        OcrPdfCreatorProperties properties = new OcrPdfCreatorProperties();
+        properties.setTextLayerName("Text Layer");
+        properties.setTextLayerMode(TextLayerMode.ENGINE_PDF);
+        CustomTextLayerPdfOcrEngine engine = new CustomTextLayerPdfOcrEngine();
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(engine, properties);
+        ocrPdfCreator.createPdf(Collections.<File>singletonList(file),
+                PdfHelper.getPdfWriter(pdfPath),
+                Collections.<IOcrResultSink>singletonList(
+                        new TxtOcrResultSink(txt))).close();
+
+        Assert.assertEquals(1, engine.getImageOcrCount());
+        Assert.assertTrue(txt.toString().startsWith(PdfHelper.DEFAULT_TEXT));
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT,
+                PdfHelper.getTextFromPdfLayer(pdfPath, "Text Layer"));
+    }
+
+    @Test
+    public void testScannedPdfPagesAreWrittenToSinks() throws IOException {
+        String testName = "testScannedPdfPagesAreWrittenToSinks";
+        String srcPath = PdfHelper.getTargetDirectory() + testName + "_src.pdf";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        ImageData imageData = ImageDataFactory.create(
+                PdfHelper.getDefaultImagePath());
+        PdfDocument srcDocument = new PdfDocument(new PdfWriter(srcPath));
+        for (int i = 0; i < 2; ++i) {
+            PdfPage page = srcDocument.addNewPage(PageSize.A4);
+            new PdfCanvas(page).addImage(imageData, page.getPageSize(), false);
+        }
+        srcDocument.close();
+        RecordingSink recordingSink = new RecordingSink();
+
+        OcrPdfCreatorProperties properties = new OcrPdfCreatorProperties();
+        properties.setTextLayerName("Text Layer");
+        properties.setParallelism(2);
+        CustomTextLayerPdfOcrEngine engine = new CustomTextLayerPdfOcrEngine();
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(engine, properties);
+        ocrPdfCreator.createPdf(new PdfReader(srcPath), new PdfWriter(pdfPath),
+                Collections.<IOcrResultSink>singletonList(recordingSink))
+                .close();
+
+        Assert.assertEquals(2, engine.getImageOcrCount());
+        Assert.assertEquals(Arrays.asList("start", "page 1", "page 2", "end"),
+                recordingSink.events);
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT, recordingSink.text);
+        Assert.assertEquals(imageData.getWidth(), recordingSink.width, 0.5f);
+        Assert.assertEquals(imageData.getHeight(), recordingSink.height, 0.5f);
+    }
+
+    @Test
+    public void testSinkFailureIsReported() throws IOException {
+        junitExpectedException.expect(OcrException.class);
+        junitExpectedException.expectMessage(MessageFormatUtil.format(
+                OcrException.CANNOT_WRITE_OCR_RESULT, "sink is closed"));
+
+        String testName = "testSinkFailureIsReported";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        File file = new File(PdfHelper.getDefaultImagePath());
+
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(
+                new CustomTextLayerPdfOcrEngine());
+        ocrPdfCreator.createPdf(Collections.<File>singletonList(file),
+                PdfHelper.getPdfWriter(pdfPath),
+                Collections.<IOcrResultSink>singletonList(
+                        new RecordingSink() {
+                            @Override
+                            public void writePage(int pageNumber,
+                                    float pageWidth, float pageHeight,
+                                    List<TextInfo> pageText)
+                                    throws IOException {
+                                throw new IOException("sink is closed");
+                            }
+                        }));
+    }
+
+    private static class RecordingSink implements IOcrResultSink {
+        final List<String> events = new ArrayList<String>();
+        String text;
+        float width;
+        float height;
+
+        @Override
+        public void startDocument() {
+            events.add("start");
+        }
+
+        @Override
+        public void writePage(int pageNumber, float pageWidth,
+                float pageHeight, List<TextInfo> pageText)
+                throws IOException {
+            events.add("page " + pageNumber);
+            StringBuilder builder = new StringBuilder();
+            for (TextInfo textInfo : pageText) {
+                builder.append(textInfo.getText());
+            }
+            text = builder.toString();
+            width = pageWidth;
+            height = pageHeight;
+        }
+
+        @Override
+        public void endDocument() {
+            events.add("end");
+        }
+    }
+}
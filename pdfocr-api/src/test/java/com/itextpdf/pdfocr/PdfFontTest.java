@@ -27,7 +27,16 @@ import com.itextpdf.io.util.MessageFormatUtil;
 import com.itextpdf.kernel.colors.DeviceCmyk;
 import com.itextpdf.kernel.colors.DeviceRgb;
 import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfIndirectReference;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.font.FontInfo;
 import com.itextpdf.layout.font.FontProvider;
+import com.itextpdf.layout.font.FontSet;
+import com.itextpdf.pdfocr.helpers.CustomOcrEngine;
 import com.itextpdf.pdfocr.helpers.ExtractionStrategy;
 import com.itextpdf.pdfocr.helpers.PdfHelper;
 import com.itextpdf.test.ExtendedITextTest;
@@ -37,6 +46,17 @@ import com.itextpdf.test.annotations.type.IntegrationTest;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -227,4 +247,134 @@ public class PdfFontTest extends ExtendedITextTest {
         Assert.assertTrue(font.isEmbedded());
         Assert.assertEquals(PdfHelper.DEFAULT_TEXT, strategy.getResultantText());
     }
+
+    @Test
+    public void testCustomFontProviderSubclassIsUsed() throws IOException {
+        String testName = "testCustomFontProviderSubclassIsUsed";
+        String path = PdfHelper.getDefaultImagePath();
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        File file = new File(path);
+
+        final AtomicInteger createdFonts = new AtomicInteger();
+        FontProvider fontProvider = new FontProvider("FreeSans") {
+            @Override
+            public PdfFont getPdfFont(FontInfo fontInfo,
+                    FontSet additionalFonts) {
+                createdFonts.incrementAndGet();
+                return super.getPdfFont(fontInfo, additionalFonts);
+            }
+        };
+        fontProvider.addFont(PdfHelper.getFreeSansFontPath());
+
+        OcrPdfCreatorProperties ocrPdfCreatorProperties =
+                new OcrPdfCreatorProperties()
+                        .setFontProvider(fontProvider, "FreeSans");
+        PdfHelper.createPdf(pdfPath, file, ocrPdfCreatorProperties);
+
+        Assert.assertTrue(createdFonts.get() > 0);
+        ExtractionStrategy strategy = PdfHelper.getExtractionStrategy(pdfPath);
+        PdfFont font = strategy.getPdfFont();
+        String fontName = font.getFontProgram().getFontNames().getFontName();
+        Assert.assertTrue(fontName.contains("FreeSans"));
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT, strategy.getResultantText());
+    }
+
+    @Test
+    public void testSharingFontProviderBetweenThreads()
+            throws IOException, InterruptedException, ExecutionException {
+        String testName = "testSharingFontProviderBetweenThreads";
+        final File file = new File(PdfHelper.getDefaultImagePath());
+        final OcrPdfCreatorProperties ocrPdfCreatorProperties =
+                new OcrPdfCreatorProperties()
+                        .setFontProvider(new PdfOcrFontProvider());
+
+        List<String> pdfPaths = new ArrayList<String>();
+        List<Future<Boolean>> futures = new ArrayList<Future<Boolean>>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            for (int i = 0; i < 4; ++i) {
+                final String pdfPath = PdfHelper.getTargetDirectory()
+                        + testName + "_" + i + ".pdf";
+                pdfPaths.add(pdfPath);
+                futures.add(executor.submit(new Callable<Boolean>() {
+                    @Override
+                    public Boolean call() {
+                        PdfHelper.createPdf(pdfPath, file,
+                                ocrPdfCreatorProperties);
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> future : futures) {
+                Assert.assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String pdfPath : pdfPaths) {
+            ExtractionStrategy strategy =
+                    PdfHelper.getExtractionStrategy(pdfPath);
+            PdfFont font = strategy.getPdfFont();
+            String fontName = font.getFontProgram().getFontNames().getFontName();
+            Assert.assertTrue(fontName.contains("LiberationSans"));
+            Assert.assertTrue(font.isEmbedded());
+            Assert.assertEquals(PdfHelper.DEFAULT_TEXT,
+                    strategy.getResultantText());
+        }
+    }
+
+    @Test
+    public void testSingleFontTextLayerInPdfA() throws IOException {
+        String testName = "testSingleFontTextLayerInPdfA";
+        String path = PdfHelper.getDefaultImagePath();
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+
+        OcrPdfCreatorProperties ocrPdfCreatorProperties =
+                new OcrPdfCreatorProperties()
+                        .setPdfLang("en-US")
+                        .setTextLayerMode(TextLayerMode.SINGLE_FONT);
+
+        PdfHelper.createPdfA(pdfPath, new File(path),
+                ocrPdfCreatorProperties,
+                PdfHelper.getCMYKPdfOutputIntent());
+
+        ExtractionStrategy strategy = PdfHelper.getExtractionStrategy(pdfPath);
+        PdfFont font = strategy.getPdfFont();
+        String fontName = font.getFontProgram().getFontNames().getFontName();
+        Assert.assertTrue(fontName.contains("LiberationSans"));
+        Assert.assertTrue(font.isEmbedded());
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT, strategy.getResultantText());
+    }
+
+    @Test
+    public void testSingleFontTextLayerSharesFontBetweenPages()
+            throws IOException {
+        String testName = "testSingleFontTextLayerSharesFontBetweenPages";
+        File file = new File(PdfHelper.getDefaultImagePath());
+        File rotatedFile = new File(PdfHelper.getImagesTestDirectory()
+                + "90_degrees_rotated.jpg");
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(new CustomOcrEngine(),
+                new OcrPdfCreatorProperties()
+                        .setTextLayerMode(TextLayerMode.SINGLE_FONT));
+        PdfWriter pdfWriter = PdfHelper.getPdfWriter(pdfPath);
+        ocrPdfCreator.createPdf(Arrays.<File>asList(file, rotatedFile),
+                pdfWriter).close();
+
+        Set<PdfIndirectReference> fonts = new HashSet<PdfIndirectReference>();
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(pdfPath));
+        for (int page = 1; page <= pdfDocument.getNumberOfPages(); ++page) {
+            PdfDictionary pageFonts = pdfDocument.getPage(page).getResources()
+                    .getResource(PdfName.Font);
+            Assert.assertNotNull(pageFonts);
+            for (PdfName fontName : pageFonts.keySet()) {
+                fonts.add(pageFonts.get(fontName).getIndirectReference());
+            }
+        }
+        Assert.assertEquals(2, pdfDocument.getNumberOfPages());
+        pdfDocument.close();
+        Assert.assertEquals(1, fonts.size());
+    }
 }
@@ -22,13 +22,32 @@
  */
 package com.itextpdf.pdfocr;
 
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.pdfocr.helpers.CustomOcrEngine;
 import com.itextpdf.pdfocr.helpers.PdfHelper;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
@@ -67,4 +86,134 @@ public class PdfInputImageTest extends ExtendedITextTest {
         Assert.assertNotNull(realOutput);
         Assert.assertEquals("", realOutput);
     }
+
+    @Test
+    public void testCompactOutputWithBilevelJpeg() throws IOException {
+        String testName = "testCompactOutputWithBilevelJpeg";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        File file = new File(PdfHelper.getTargetDirectory() + testName
+                + ".jpg");
+
+        // black rectangle aligned to JPEG blocks not to produce artifacts
+        BufferedImage image = new BufferedImage(400, 200,
+                BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, 400, 200);
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(80, 40, 240, 120);
+        graphics.dispose();
+        ImageIO.write(image, "jpg", file);
+
+        OcrPdfCreatorProperties properties = new OcrPdfCreatorProperties()
+                .setCompactOutput(true);
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(new CustomOcrEngine(),
+                properties);
+        PdfWriter pdfWriter = new PdfWriter(pdfPath,
+                properties.getWriterProperties());
+        ocrPdfCreator.createPdf(Collections.<File>singletonList(file),
+                pdfWriter).close();
+
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(pdfPath));
+        PdfDictionary xObjects = pdfDocument.getFirstPage().getResources()
+                .getResource(PdfName.XObject);
+        Assert.assertEquals(1, xObjects.size());
+        PdfImageXObject xObject = new PdfImageXObject(xObjects
+                .getAsStream(xObjects.keySet().iterator().next()));
+        Assert.assertTrue(pdfDocument.getReader().hasXrefStm());
+        Assert.assertEquals(PdfName.CCITTFaxDecode,
+                xObject.getPdfObject().getAsName(PdfName.Filter));
+        Assert.assertEquals(1, xObject.getPdfObject()
+                .getAsNumber(PdfName.BitsPerComponent).intValue());
+        Assert.assertEquals(400, (int) xObject.getWidth());
+        Assert.assertEquals(200, (int) xObject.getHeight());
+        pdfDocument.close();
+    }
+
+    @Test
+    public void testInMemoryImageWithFileBasedEngine() throws IOException {
+        String testName = "testInMemoryImageWithFileBasedEngine";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        byte[] image = Files.readAllBytes(
+                new File(PdfHelper.getDefaultImagePath()).toPath());
+
+        // engine doesn't read images from memory, so the image is OCRed
+        // from a temporary file, but it is placed to the document as is
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(new CustomOcrEngine());
+        ocrPdfCreator.createPdf(image, PdfHelper.getPdfWriter(pdfPath))
+                .close();
+
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT,
+                PdfHelper.getTextFromPdfLayer(pdfPath, null));
+        assertImageSize(pdfPath, new File(PdfHelper.getDefaultImagePath()));
+    }
+
+    @Test
+    public void testInMemoryImageWithInMemoryEngine() throws IOException {
+        String testName = "testInMemoryImageWithInMemoryEngine";
+        final byte[] image = Files.readAllBytes(
+                new File(PdfHelper.getDefaultImagePath()).toPath());
+        ByteBuffer buffer = ByteBuffer.allocate(image.length + 2);
+        buffer.put((byte) 0).put(image).put((byte) 0);
+        buffer.position(1);
+        buffer.limit(image.length + 1);
+
+        final List<byte[]> ocredImages = new ArrayList<byte[]>();
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(new InMemoryOcrEngine(
+                ocredImages));
+        String[] pdfPaths = new String[] {
+                PdfHelper.getTargetDirectory() + testName + "_bytes.pdf",
+                PdfHelper.getTargetDirectory() + testName + "_stream.pdf",
+                PdfHelper.getTargetDirectory() + testName + "_buffer.pdf"};
+        ocrPdfCreator.createPdf(image, PdfHelper.getPdfWriter(pdfPaths[0]))
+                .close();
+        ocrPdfCreator.createPdf(new ByteArrayInputStream(image),
+                PdfHelper.getPdfWriter(pdfPaths[1])).close();
+        ocrPdfCreator.createPdf(buffer, PdfHelper.getPdfWriter(pdfPaths[2]))
+                .close();
+
+        // position of the buffer is not changed
+        Assert.assertEquals(1, buffer.position());
+        Assert.assertEquals(3, ocredImages.size());
+        for (int i = 0; i < pdfPaths.length; ++i) {
+            Assert.assertArrayEquals(image, ocredImages.get(i));
+            Assert.assertEquals(PdfHelper.DEFAULT_TEXT,
+                    PdfHelper.getTextFromPdfLayer(pdfPaths[i], null));
+            assertImageSize(pdfPaths[i],
+                    new File(PdfHelper.getDefaultImagePath()));
+        }
+    }
+
+    private static void assertImageSize(String pdfPath, File imageFile)
+            throws IOException {
+        BufferedImage image = ImageIO.read(imageFile);
+        PdfDocument pdfDocument = new PdfDocument(new PdfReader(pdfPath));
+        PdfDictionary xObjects = pdfDocument.getFirstPage().getResources()
+                .getResource(PdfName.XObject);
+        PdfImageXObject xObject = new PdfImageXObject(xObjects
+                .getAsStream(xObjects.keySet().iterator().next()));
+        Assert.assertEquals(image.getWidth(), (int) xObject.getWidth());
+        Assert.assertEquals(image.getHeight(), (int) xObject.getHeight());
+        pdfDocument.close();
+    }
+
+    private static class InMemoryOcrEngine extends CustomOcrEngine
+            implements IImageBytesOcrEngine {
+        private final List<byte[]> ocredImages;
+
+        InMemoryOcrEngine(List<byte[]> ocredImages) {
+            this.ocredImages = ocredImages;
+        }
+
+        @Override
+        public Map<Integer, List<TextInfo>> doImageOcr(File input) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<Integer, List<TextInfo>> doImageOcr(byte[] input) {
+            ocredImages.add(input);
+            return super.doImageOcr(new File(PdfHelper.getDefaultImagePath()));
+        }
+    }
 }
@@ -0,0 +1,224 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.kernel.geom.LineSegment;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.geom.Vector;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.parser.EventType;
+import com.itextpdf.kernel.pdf.canvas.parser.PdfCanvasProcessor;
+import com.itextpdf.kernel.pdf.canvas.parser.data.IEventData;
+import com.itextpdf.kernel.pdf.canvas.parser.data.TextRenderInfo;
+import com.itextpdf.kernel.pdf.canvas.parser.listener.IEventListener;
+import com.itextpdf.kernel.pdf.xobject.PdfImageXObject;
+import com.itextpdf.pdfocr.helpers.CustomOcrEngine;
+import com.itextpdf.pdfocr.helpers.PdfHelper;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+
+@Category(IntegrationTest.class)
+public class PdfInputPdfTest extends ExtendedITextTest {
+
+    @Rule
+    public ExpectedException junitExpectedException = ExpectedException.none();
+
+    @Test
+    public void testTextLayerIsAddedToScannedPdf() throws IOException {
+        String testName = "testTextLayerIsAddedToScannedPdf";
+        String srcPath = PdfHelper.getTargetDirectory() + testName + "_src.pdf";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        createScannedPdf(srcPath, 2);
+
+        OcrPdfCreatorProperties properties = new OcrPdfCreatorProperties();
+        properties.setTextLayerName("Text Layer");
+        properties.setParallelism(2);
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(new CustomOcrEngine(),
+                properties);
+        ocrPdfCreator.createPdf(new PdfReader(srcPath),
+                new PdfWriter(pdfPath)).close();
+
+        String result = PdfHelper.getTextFromPdfLayer(pdfPath, "Text Layer");
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT, result);
+
+        PdfDocument srcDocument = new PdfDocument(new PdfReader(srcPath));
+        PdfDocument resultDocument = new PdfDocument(new PdfReader(pdfPath));
+        Assert.assertEquals(2, resultDocument.getNumberOfPages());
+        for (int page = 1; page <= 2; ++page) {
+            Assert.assertTrue(srcDocument.getPage(page).getPageSize()
+                    .equalsWithEpsilon(resultDocument.getPage(page).getPageSize()));
+            // original image is copied as is
+            Assert.assertArrayEquals(getPageImage(srcDocument.getPage(page)).getImageBytes(false),
+                    getPageImage(resultDocument.getPage(page)).getImageBytes(false));
+        }
+        srcDocument.close();
+        resultDocument.close();
+    }
+
+    @Test
+    public void testTextLayerIsAddedInAppendMode() throws IOException {
+        String testName = "testTextLayerIsAddedInAppendMode";
+        String srcPath = PdfHelper.getTargetDirectory() + testName + "_src.pdf";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        createScannedPdf(srcPath, 3);
+
+        OcrPdfCreatorProperties properties = new OcrPdfCreatorProperties();
+        properties.setTextLayerName("Text Layer");
+        properties.setAppendMode(true);
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(new CustomOcrEngine(),
+                properties);
+        ocrPdfCreator.createPdf(new PdfReader(srcPath),
+                new PdfWriter(pdfPath)).close();
+
+        String result = PdfHelper.getTextFromPdfLayer(pdfPath, "Text Layer");
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT, result);
+
+        // original document is kept as is, text layer is an incremental update
+        byte[] srcBytes = Files.readAllBytes(Paths.get(srcPath));
+        byte[] resultBytes = Files.readAllBytes(Paths.get(pdfPath));
+        Assert.assertTrue(resultBytes.length > srcBytes.length);
+        Assert.assertArrayEquals(srcBytes,
+                Arrays.copyOf(resultBytes, srcBytes.length));
+
+        PdfDocument resultDocument = new PdfDocument(new PdfReader(pdfPath));
+        Assert.assertEquals(3, resultDocument.getNumberOfPages());
+        Assert.assertEquals(1, resultDocument.getCatalog()
+                .getOCProperties(false).getLayers().size());
+        resultDocument.close();
+    }
+
+    @Test
+    public void testTextFollowsRotatedImage() throws IOException {
+        String testName = "testTextFollowsRotatedImage";
+        String srcPath = PdfHelper.getTargetDirectory() + testName + "_src.pdf";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        ImageData imageData = ImageDataFactory.create(
+                PdfHelper.getDefaultImagePath());
+        PdfDocument srcDocument = new PdfDocument(new PdfWriter(srcPath));
+        PdfPage srcPage = srcDocument.addNewPage(PageSize.A4);
+        // image is rotated counterclockwise and occupies [100, 400] x [100, 600]
+        new PdfCanvas(srcPage).addImage(imageData, 0, 500, -300, 0, 400, 100,
+                false);
+        srcDocument.close();
+
+        new OcrPdfCreator(new CustomOcrEngine()).createPdf(
+                new PdfReader(srcPath), new PdfWriter(pdfPath)).close();
+
+        PdfDocument resultDocument = new PdfDocument(new PdfReader(pdfPath));
+        final StringBuilder text = new StringBuilder();
+        final List<LineSegment> baselines = new ArrayList<LineSegment>();
+        new PdfCanvasProcessor(new IEventListener() {
+            @Override
+            public void eventOccurred(IEventData data, EventType type) {
+                TextRenderInfo renderInfo = (TextRenderInfo) data;
+                text.append(renderInfo.getText());
+                baselines.add(renderInfo.getBaseline());
+            }
+
+            @Override
+            public Set<EventType> getSupportedEvents() {
+                return Collections.<EventType>singleton(EventType.RENDER_TEXT);
+            }
+        }).processPageContent(resultDocument.getPage(1));
+        resultDocument.close();
+
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT, text.toString());
+        Vector start = baselines.get(0).getStartPoint();
+        Vector end = baselines.get(baselines.size() - 1).getEndPoint();
+        // text runs upwards over the image
+        Assert.assertEquals(start.get(Vector.I1), end.get(Vector.I1), 1);
+        Assert.assertTrue(end.get(Vector.I2) > start.get(Vector.I2));
+        for (Vector point : new Vector[] {start, end}) {
+            Assert.assertTrue(point.get(Vector.I1) >= 100 && point.get(Vector.I1) <= 400);
+            Assert.assertTrue(point.get(Vector.I2) >= 100 && point.get(Vector.I2) <= 600);
+        }
+    }
+
+    @Test
+    public void testPageWithoutImagesIsNotChanged() throws IOException {
+        String testName = "testPageWithoutImagesIsNotChanged";
+        String srcPath = PdfHelper.getTargetDirectory() + testName + "_src.pdf";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        PdfDocument srcDocument = new PdfDocument(new PdfWriter(srcPath));
+        srcDocument.addNewPage();
+        srcDocument.close();
+
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(new CustomOcrEngine());
+        ocrPdfCreator.createPdf(new PdfReader(srcPath),
+                new PdfWriter(pdfPath)).close();
+
+        Assert.assertEquals("", PdfHelper.getTextFromPdfLayer(pdfPath, null));
+    }
+
+    @Test
+    public void testDocumentNotInStampingMode() {
+        junitExpectedException.expect(OcrException.class);
+        junitExpectedException.expectMessage(MessageFormatUtil.format(
+                OcrException.CANNOT_CREATE_PDF_DOCUMENT,
+                OcrException.PDF_DOCUMENT_IS_NOT_IN_STAMPING_MODE));
+
+        PdfDocument pdfDocument = new PdfDocument(PdfHelper.getPdfWriter());
+        pdfDocument.addNewPage();
+        new OcrPdfCreator(new CustomOcrEngine()).ocrPdfDocument(pdfDocument);
+    }
+
+    private static void createScannedPdf(String pdfPath, int numberOfPages)
+            throws IOException {
+        ImageData imageData = ImageDataFactory.create(
+                PdfHelper.getDefaultImagePath());
+        PdfDocument pdfDocument = new PdfDocument(new PdfWriter(pdfPath));
+        for (int i = 0; i < numberOfPages; ++i) {
+            PdfPage page = pdfDocument.addNewPage(PageSize.A4);
+            new PdfCanvas(page).addImage(imageData, page.getPageSize(), false);
+        }
+        pdfDocument.close();
+    }
+
+    private static PdfImageXObject getPageImage(PdfPage page) {
+        PdfName imageName = page.getResources()
+                .getResourceNames(PdfName.XObject).iterator().next();
+        return page.getResources().getImage(imageName);
+    }
+}
@@ -0,0 +1,192 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.export;
+
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.pdfocr.OcrPdfCreator;
+import com.itextpdf.pdfocr.OcrPdfCreatorProperties;
+import com.itextpdf.pdfocr.TextInfo;
+import com.itextpdf.pdfocr.helpers.CustomOcrEngine;
+import com.itextpdf.pdfocr.helpers.PdfHelper;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.IntegrationTest;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+
+@Category(IntegrationTest.class)
+public class StructuredExportTest extends ExtendedITextTest {
+
+    private static final String ALTO_NAMESPACE =
+            "http://www.loc.gov/standards/alto/ns-v4#";
+
+    @Test
+    public void testJsonLinesPageHasPixelAndPointCoordinates()
+            throws IOException {
+        StringWriter json = new StringWriter();
+        JsonLinesOcrResultSink sink = new JsonLinesOcrResultSink(json);
+        sink.startDocument();
+        sink.writePage(1, 800, 600, Collections.<TextInfo>singletonList(
+                new TextInfo("Hello", new Rectangle(75, 397.5f, 60, 15))));
+        sink.writePage(2, 800, 600, Collections.<TextInfo>emptyList());
+        sink.endDocument();
+
+        Assert.assertEquals("{\"page\":1,\"widthPx\":800,\"heightPx\":600,"
+                        + "\"widthPt\":600,\"heightPt\":450,\"text\":["
+                        + "{\"text\":\"Hello\",\"bboxPx\":[100,50,80,20],"
+                        + "\"bboxPt\":[75,397.5,60,15]}]}\n"
+                        + "{\"page\":2,\"widthPx\":800,\"heightPx\":600,"
+                        + "\"widthPt\":600,\"heightPt\":450,\"text\":[]}\n",
+                json.toString());
+    }
+
+    @Test
+    public void testJsonLinesTextIsEscaped() throws IOException {
+        StringWriter json = new StringWriter();
+        JsonLinesOcrResultSink sink = new JsonLinesOcrResultSink(json);
+        sink.writePage(1, 100, 100, Collections.<TextInfo>singletonList(
+                new TextInfo("a\"b\\c\td\u0001", new Rectangle(0, 0, 1, 1))));
+
+        Assert.assertTrue(json.toString().contains(
+                "{\"text\":\"a\\\"b\\\\c\\td\\u0001\""));
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void testDeprecatedBboxIsExported() throws IOException {
+        StringWriter json = new StringWriter();
+        JsonLinesOcrResultSink sink = new JsonLinesOcrResultSink(json);
+        sink.writePage(1, 800, 600, Collections.<TextInfo>singletonList(
+                new TextInfo("Hello",
+                        Arrays.<Float>asList(100f, 50f, 180f, 70f))));
+
+        Assert.assertTrue(json.toString().contains(
+                "\"bboxPx\":[100,50,80,20],\"bboxPt\":[75,397.5,60,15]"));
+    }
+
+    @Test
+    public void testAltoDocumentStructure() throws Exception {
+        ByteArrayOutputStream alto = new ByteArrayOutputStream();
+        Map<Integer, List<TextInfo>> pages =
+                new HashMap<Integer, List<TextInfo>>();
+        pages.put(2, Collections.<TextInfo>singletonList(
+                new TextInfo("<second & \"last\">",
+                        new Rectangle(0, 0, 75, 75))));
+        pages.put(1, Arrays.<TextInfo>asList(
+                new TextInfo("Hello", new Rectangle(75, 397.5f, 60, 15)),
+                new TextInfo("World", new Rectangle(75, 300, 60, 15))));
+        new AltoOcrResultSink(alto).writeDocument(pages, 800, 600);
+
+        Document document = parseXml(alto.toByteArray());
+        Assert.assertEquals(ALTO_NAMESPACE,
+                document.getDocumentElement().getNamespaceURI());
+        Assert.assertEquals("pixel", document.getElementsByTagNameNS(
+                ALTO_NAMESPACE, "MeasurementUnit").item(0).getTextContent());
+
+        NodeList pageElements = document.getElementsByTagNameNS(
+                ALTO_NAMESPACE, "Page");
+        Assert.assertEquals(2, pageElements.getLength());
+        Element firstPage = (Element) pageElements.item(0);
+        Assert.assertEquals("page_1", firstPage.getAttribute("ID"));
+        Assert.assertEquals("800", firstPage.getAttribute("WIDTH"));
+        Assert.assertEquals("600", firstPage.getAttribute("HEIGHT"));
+
+        NodeList strings = document.getElementsByTagNameNS(
+                ALTO_NAMESPACE, "String");
+        Assert.assertEquals(3, strings.getLength());
+        Element hello = (Element) strings.item(0);
+        Assert.assertEquals("Hello", hello.getAttribute("CONTENT"));
+        Assert.assertEquals("100", hello.getAttribute("HPOS"));
+        Assert.assertEquals("50", hello.getAttribute("VPOS"));
+        Assert.assertEquals("80", hello.getAttribute("WIDTH"));
+        Assert.assertEquals("20", hello.getAttribute("HEIGHT"));
+        Assert.assertEquals("World",
+                ((Element) strings.item(1)).getAttribute("CONTENT"));
+        Element last = (Element) strings.item(2);
+        Assert.assertEquals("<second & \"last\">",
+                last.getAttribute("CONTENT"));
+        Assert.assertEquals("500", last.getAttribute("VPOS"));
+    }
+
+    @Test
+    public void testStructuredExportDuringPdfCreation() throws Exception {
+        String testName = "testStructuredExportDuringPdfCreation";
+        String pdfPath = PdfHelper.getTargetDirectory() + testName + ".pdf";
+        File file = new File(PdfHelper.getDefaultImagePath());
+        ByteArrayOutputStream alto = new ByteArrayOutputStream();
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+
+        OcrPdfCreatorProperties properties = new OcrPdfCreatorProperties();
+        properties.setTextLayerName("Text Layer");
+        OcrPdfCreator ocrPdfCreator = new OcrPdfCreator(new CustomOcrEngine(),
+                properties);
+        ocrPdfCreator.createPdf(Arrays.<File>asList(file, file),
+                PdfHelper.getPdfWriter(pdfPath),
+                Arrays.<IOcrResultSink>asList(new AltoOcrResultSink(alto),
+                        new JsonLinesOcrResultSink(json))).close();
+
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT,
+                PdfHelper.getTextFromPdfLayer(pdfPath, "Text Layer"));
+
+        Document document = parseXml(alto.toByteArray());
+        Assert.assertEquals(2, document.getElementsByTagNameNS(
+                ALTO_NAMESPACE, "Page").getLength());
+        NodeList strings = document.getElementsByTagNameNS(
+                ALTO_NAMESPACE, "String");
+        Assert.assertEquals(2, strings.getLength());
+        Assert.assertEquals(PdfHelper.DEFAULT_TEXT,
+                ((Element) strings.item(0)).getAttribute("CONTENT"));
+
+        String[] lines = json.toString("UTF-8").split("\n");
+        Assert.assertEquals(2, lines.length);
+        Assert.assertTrue(lines[0].startsWith("{\"page\":1,"));
+        Assert.assertTrue(lines[1].startsWith("{\"page\":2,"));
+        Assert.assertTrue(lines[1].contains(
+                "\"text\":\"" + PdfHelper.DEFAULT_TEXT + "\""));
+    }
+
+    private static Document parseXml(byte[] xml)
+            throws ParserConfigurationException, IOException, SAXException {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder()
+                .parse(new ByteArrayInputStream(xml));
+    }
+}
@@ -0,0 +1,82 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.helpers;
+
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.geom.PageSize;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvas;
+import com.itextpdf.kernel.pdf.canvas.PdfCanvasConstants.TextRenderingMode;
+import com.itextpdf.pdfocr.ITextLayerPdfOcrEngine;
+import com.itextpdf.pdfocr.OcrException;
+import com.itextpdf.pdfocr.TextInfo;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CustomTextLayerPdfOcrEngine extends CustomOcrEngine
+        implements ITextLayerPdfOcrEngine {
+
+    private final AtomicInteger imageOcrCount = new AtomicInteger();
+
+    @Override
+    public Map<Integer, List<TextInfo>> doImageOcr(File input) {
+        imageOcrCount.incrementAndGet();
+        return super.doImageOcr(input);
+    }
+
+    @Override
+    public void createTextLayerPdf(File input, File outputFile) {
+        try {
+            // page of the text-only document has size of the image in pixels
+            ImageData imageData = ImageDataFactory.create(
+                    input.getAbsolutePath());
+            PdfDocument pdfDocument = new PdfDocument(
+                    new PdfWriter(outputFile.getAbsolutePath()));
+            PdfPage page = pdfDocument.addNewPage(new PageSize(
+                    imageData.getWidth(), imageData.getHeight()));
+            new PdfCanvas(page)
+                    .beginText()
+                    .setFontAndSize(PdfFontFactory.createFont(), 20)
+                    .setTextRenderingMode(TextRenderingMode.INVISIBLE)
+                    .moveText(imageData.getWidth() / 4,
+                            imageData.getHeight() / 2)
+                    .showText(PdfHelper.DEFAULT_TEXT)
+                    .endText();
+            pdfDocument.close();
+        } catch (IOException e) {
+            throw new OcrException(e.getMessage(), e);
+        }
+    }
+
+    public int getImageOcrCount() {
+        return imageOcrCount.get();
+    }
+}
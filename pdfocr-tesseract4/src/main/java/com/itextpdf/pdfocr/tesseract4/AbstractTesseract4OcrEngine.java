@@ -24,27 +24,52 @@ package com.itextpdf.pdfocr.tesseract4;
 
 import com.itextpdf.io.image.ImageType;
 import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.kernel.counter.EventCounterHandler;
 import com.itextpdf.kernel.counter.event.IMetaInfo;
+import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.pdfocr.IImageBytesOcrEngine;
 import com.itextpdf.pdfocr.IOcrEngine;
+import com.itextpdf.pdfocr.ITextLayerPdfOcrEngine;
+import com.itextpdf.pdfocr.OcrException;
 import com.itextpdf.pdfocr.OcrPdfCreatorMetaInfo;
 import com.itextpdf.pdfocr.OcrPdfCreatorMetaInfo.PdfDocumentType;
+import com.itextpdf.pdfocr.PageText;
 import com.itextpdf.pdfocr.TextInfo;
 import com.itextpdf.pdfocr.events.IThreadLocalMetaInfoAware;
 import com.itextpdf.pdfocr.tesseract4.events.PdfOcrTesseract4Event;
 
+import java.io.Closeable;
 import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import net.sourceforge.lept4j.Pix;
 import org.slf4j.LoggerFactory;
 
 /**
@@ -55,7 +80,8 @@ import org.slf4j.LoggerFactory;
  * Also there are possibilities to use features of "tesseract"
  * (optical character recognition engine for various operating systems).
  */
-public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThreadLocalMetaInfoAware {
+public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThreadLocalMetaInfoAware,
+        ITextLayerPdfOcrEngine, IImageBytesOcrEngine, Closeable {
 
     /**
      * Supported image formats.
@@ -65,7 +91,58 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
                     Arrays.<ImageType>asList(ImageType.BMP, ImageType.PNG,
                             ImageType.TIFF, ImageType.JPEG)));
 
-    Set<UUID> processedUUID = new HashSet<>();
+    /**
+     * Resolution of the images without resolution in metadata, the same
+     * as tesseract is configured to assume.
+     */
+    private static final int DEFAULT_DPI = 300;
+
+    /**
+     * Name of tesseract data used for orientation and script detection.
+     */
+    static final String OSD_LANGUAGE = "osd";
+
+    /**
+     * Minimal confidence of the detected orientation at which page is
+     * rotated before OCR.
+     */
+    private static final float MIN_ORIENTATION_CONFIDENCE = 2;
+
+    /**
+     * Minimal confidence of the detected script for the page to be OCRed
+     * using only the languages of this script.
+     */
+    private static final float MIN_SCRIPT_CONFIDENCE = 1;
+
+    /**
+     * Margin in pixels which is added around the low confidence line before
+     * it is recognized again.
+     */
+    private static final int CASCADE_LINE_MARGIN = 4;
+
+    /**
+     * Name of the glyphless font file tesseract PDF renderer reads from
+     * tess data directory.
+     */
+    private static final String PDF_FONT_FILE = "pdf.ttf";
+
+    /**
+     * Time in seconds after which idle worker thread of the engine is
+     * stopped.
+     */
+    private static final long IDLE_THREAD_KEEP_ALIVE = 60;
+
+    /**
+     * {@link com.itextpdf.pdfocr.OcrPdfCreator} runs in progress mapped by
+     * {@link OcrPdfCreatorMetaInfo#getDocumentId()}.
+     *
+     * An entry is added when {@link OcrPdfCreatorMetaInfo} of the run is set
+     * in the first thread and removed as soon as it's replaced in the last
+     * one, i.e. when the run completes. Access is guarded by the map itself
+     * as the same engine may be used from several threads.
+     */
+    private final Map<UUID, DocumentRun> documentRuns =
+            new HashMap<UUID, DocumentRun>();
 
     /**
      * Set of properties.
@@ -74,6 +151,46 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
 
     private ThreadLocal<IMetaInfo> threadLocalMetaInfo = new ThreadLocal<>();
 
+    /**
+     * Time in milliseconds by which OCR of the input image processed in
+     * the current thread must be finished, see
+     * {@link Tesseract4OcrEngineProperties#getDocumentTimeout()}.
+     * {@link Long#MAX_VALUE} if time is not limited.
+     */
+    private final ThreadLocal<Long> documentDeadline = new ThreadLocal<Long>();
+
+    /**
+     * Accurate tess data directory which is used instead of the one from
+     * properties while low confidence lines are recognized again in the
+     * current thread, see
+     * {@link Tesseract4OcrEngineProperties#getPathToAccurateTessData()}.
+     */
+    private final ThreadLocal<File> cascadeTessData = new ThreadLocal<File>();
+
+    /**
+     * Languages of the detected script which are used instead of the ones
+     * from properties while the page is OCRed in the current thread, see
+     * {@link Tesseract4OcrEngineProperties#isDetectLanguages()}.
+     */
+    private final ThreadLocal<List<String>> pageLanguages =
+            new ThreadLocal<List<String>>();
+
+    /**
+     * Temporary user words files which are used by this engine and have to
+     * be kept until the engine is closed, see {@link UserWordsRegistry}.
+     */
+    private final Set<String> userWordsFiles = new HashSet<String>();
+
+    /**
+     * Executor performing OCR of the pages in parallel, created on demand.
+     */
+    private ThreadPoolExecutor pageExecutor;
+
+    /**
+     * Lock guarding {@link #pageExecutor}.
+     */
+    private final Object pageExecutorLock = new Object();
+
     public AbstractTesseract4OcrEngine(
             Tesseract4OcrEngineProperties tesseract4OcrEngineProperties) {
         this.tesseract4OcrEngineProperties = tesseract4OcrEngineProperties;
@@ -100,19 +217,66 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
      * @param txtFile file to be created
      */
     public void createTxtFile(final List<File> inputImages, final File txtFile) {
+        try (Writer writer = new OutputStreamWriter(
+                new FileOutputStream(txtFile.getAbsolutePath()),
+                StandardCharsets.UTF_8)) {
+            createTxtFile(inputImages, writer);
+        } catch (IOException e) {
+            LoggerFactory.getLogger(getClass())
+                    .error(MessageFormatUtil.format(
+                            Tesseract4LogMessageConstant.CANNOT_WRITE_TO_FILE,
+                            txtFile.getAbsolutePath(),
+                            e.getMessage()));
+        }
+    }
+
+    /**
+     * Performs OCR using provided {@link IOcrEngine} for the given list of
+     * input images and writes output to the given stream in UTF-8.
+     *
+     * Text of each image is written as soon as the image is processed,
+     * so the whole batch is never kept in memory. The stream is flushed
+     * but not closed.
+     *
+     * @param inputImages {@link java.util.List} of images to be OCRed
+     * @param outputStream {@link java.io.OutputStream} to write text to
+     * @throws Tesseract4OcrException if the text cannot be written
+     */
+    public void createTxtFile(final List<File> inputImages,
+            final OutputStream outputStream) {
+        createTxtFile(inputImages,
+                new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Performs OCR using provided {@link IOcrEngine} for the given list of
+     * input images and writes output to the given writer.
+     *
+     * Text of each image is written as soon as the image is processed,
+     * so the whole batch is never kept in memory. The writer is flushed
+     * but not closed.
+     *
+     * @param inputImages {@link java.util.List} of images to be OCRed
+     * @param writer {@link java.io.Writer} to write text to
+     * @throws Tesseract4OcrException if the text cannot be written
+     */
+    public void createTxtFile(final List<File> inputImages,
+            final Writer writer) {
         LoggerFactory.getLogger(getClass())
                 .info(MessageFormatUtil.format(
                 Tesseract4LogMessageConstant.START_OCR_FOR_IMAGES,
                 inputImages.size()));
 
-        StringBuilder content = new StringBuilder();
-        for (File inputImage : inputImages) {
-            content.append(doImageOcr(inputImage, OutputFormat.TXT));
+        try {
+            for (File inputImage : inputImages) {
+                writer.write(doImageOcr(inputImage, OutputFormat.TXT));
+                writer.flush();
+            }
+        } catch (IOException e) {
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException.CANNOT_WRITE_OCR_RESULT, e)
+                    .setMessageParams(e.getMessage());
         }
-
-        // write to file
-        TesseractHelper.writeToTextFile(txtFile.getAbsolutePath(),
-                content.toString());
     }
 
     /**
@@ -138,10 +302,15 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
     /**
      * Gets list of languages concatenated with "+" symbol to a string
      * in format required by tesseract.
+     * While the page is OCRed only languages of its detected script are
+     * returned in the thread which OCRs the page (see
+     * {@link Tesseract4OcrEngineProperties#isDetectLanguages()}).
      * @return {@link java.lang.String} of concatenated languages
      */
     public final String getLanguagesAsString() {
-        if (getTesseract4OcrEngineProperties().getLanguages().size() > 0) {
+        if (pageLanguages.get() != null) {
+            return String.join("+", pageLanguages.get());
+        } else if (getTesseract4OcrEngineProperties().getLanguages().size() > 0) {
             return String.join("+",
                     getTesseract4OcrEngineProperties().getLanguages());
         } else {
@@ -163,7 +332,144 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
     public final Map<Integer, List<TextInfo>> doImageOcr(
             final File input) {
         verifyImageFormatValidity(input);
-        return ((TextInfoTesseractOcrResult)processInputFiles(input, OutputFormat.HOCR)).getTextInfos();
+        return ((TextInfoTesseractOcrResult)processInputFiles(input, null,
+                getTextInfosOutputFormat(), true)).getTextInfos();
+    }
+
+    /**
+     * Reads data only from the provided regions of the input image file and
+     * returns retrieved data in the format described below.
+     *
+     * Regions are expressed in the same coordinate space as
+     * {@link TextInfo#getBboxRect()}, i.e. in points (1px = 0.75pt) with
+     * the origin in the lower left corner of the page. Each region is
+     * recognized separately, coordinates of the retrieved text are relative
+     * to the whole page, not to the region. Pages which are not present in
+     * the regions map are not recognized at all.
+     *
+     * @param input input image {@link java.io.File}
+     * @param regions {@link java.util.Map} where key is
+     *                {@link java.lang.Integer} representing the number of
+     *                the page (starting from 1) and value is
+     *                {@link java.util.List} of regions of the page
+     *                to be recognized
+     * @return {@link java.util.Map} where key is {@link java.lang.Integer}
+     * representing the number of the page and value is
+     * {@link java.util.List} of {@link TextInfo} elements where each
+     * {@link TextInfo} element contains a word or a line and its 4
+     * coordinates(bbox)
+     * @throws Tesseract4OcrException if the page of the image cannot be read
+     */
+    public final Map<Integer, List<TextInfo>> doImageOcr(final File input,
+            final Map<Integer, List<Rectangle>> regions) {
+        verifyImageFormatValidity(input);
+        Map<Integer, List<TextInfo>> imageData =
+                new LinkedHashMap<Integer, List<TextInfo>>();
+        if (regions.isEmpty()) {
+            return imageData;
+        }
+        // regions are OCRed one by one, but the whole call is counted
+        // as a single image OCR
+        onEvent();
+        final boolean documentStarted = startDocument();
+        try {
+            for (Map.Entry<Integer, List<Rectangle>> entry
+                    : regions.entrySet()) {
+                try (ScopedPix pix = new ScopedPix(ImagePreprocessingUtil
+                        .readPixPage(input, entry.getKey()))) {
+                    if (pix.get() == null) {
+                        throw new Tesseract4OcrException(
+                                Tesseract4OcrException
+                                        .CANNOT_READ_PROVIDED_IMAGE)
+                                .setMessageParams(input.getAbsolutePath());
+                    }
+                    imageData.put(entry.getKey(), doRegionsOcr(pix.get(),
+                            entry.getKey(), entry.getValue()));
+                }
+            }
+        } finally {
+            finishDocument(documentStarted);
+        }
+        return imageData;
+    }
+
+    /**
+     * Reads data from the provided input image bytes and returns retrieved
+     * data in the format described below.
+     *
+     * Image format is detected from the leading bytes of the image, the same
+     * formats are supported as for {@link #doImageOcr(File)}.
+     * {@link Tesseract4LibOcrEngine} decodes the image in memory, while
+     * {@link Tesseract4ExecutableOcrEngine} writes it to a single temporary
+     * file which is passed to tesseract.
+     *
+     * @param input input image as a byte array
+     * @return {@link java.util.Map} where key is {@link java.lang.Integer}
+     * representing the number of the page and value is
+     * {@link java.util.List} of {@link TextInfo} elements where each
+     * {@link TextInfo} element contains a word or a line and its 4
+     * coordinates(bbox)
+     */
+    @Override
+    public final Map<Integer, List<TextInfo>> doImageOcr(
+            final byte[] input) {
+        verifyImageFormatValidity(input);
+        return ((TextInfoTesseractOcrResult)processInputFiles(null, input,
+                getTextInfosOutputFormat(), true)).getTextInfos();
+    }
+
+    /**
+     * Reads data from the provided input image stream and returns retrieved
+     * data in the format described below.
+     *
+     * The stream is read to the end but is not closed.
+     * See {@link #doImageOcr(byte[])} for more details.
+     *
+     * @param input input image {@link java.io.InputStream}
+     * @return {@link java.util.Map} where key is {@link java.lang.Integer}
+     * representing the number of the page and value is
+     * {@link java.util.List} of {@link TextInfo} elements where each
+     * {@link TextInfo} element contains a word or a line and its 4
+     * coordinates(bbox)
+     * @throws Tesseract4OcrException if the stream cannot be read
+     */
+    public final Map<Integer, List<TextInfo>> doImageOcr(
+            final InputStream input) {
+        byte[] imageBytes;
+        try {
+            imageBytes = StreamUtil.inputStreamToArray(input);
+        } catch (IOException e) {
+            LoggerFactory.getLogger(getClass()).error(MessageFormatUtil
+                    .format(Tesseract4LogMessageConstant
+                                    .CANNOT_READ_INPUT_IMAGE,
+                            e.getMessage()));
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException.CANNOT_READ_PROVIDED_IMAGE, e)
+                    .setMessageParams(ImagePreprocessingUtil.IN_MEMORY_IMAGE);
+        }
+        return doImageOcr(imageBytes);
+    }
+
+    /**
+     * Reads data from the input image contained in the remaining bytes of
+     * the buffer and returns retrieved data in the format described below.
+     *
+     * Position of the buffer is not changed.
+     * See {@link #doImageOcr(byte[])} for more details.
+     *
+     * @param input input image {@link java.nio.ByteBuffer}
+     * @return {@link java.util.Map} where key is {@link java.lang.Integer}
+     * representing the number of the page and value is
+     * {@link java.util.List} of {@link TextInfo} elements where each
+     * {@link TextInfo} element contains a word or a line and its 4
+     * coordinates(bbox)
+     */
+    public final Map<Integer, List<TextInfo>> doImageOcr(
+            final ByteBuffer input) {
+        final ByteBuffer buffer = input.duplicate();
+        final byte[] imageBytes = new byte[buffer.remaining()];
+        buffer.get(imageBytes);
+        return doImageOcr(imageBytes);
     }
 
     /**
@@ -179,8 +485,14 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
     public final String doImageOcr(final File input,
             final OutputFormat outputFormat) {
         String result = "";
+        if (outputFormat.equals(OutputFormat.PDF)) {
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException.OUTPUT_FORMAT_IS_NOT_SUPPORTED)
+                    .setMessageParams(outputFormat.toString());
+        }
         verifyImageFormatValidity(input);
-        ITesseractOcrResult processedData = processInputFiles(input, outputFormat);
+        ITesseractOcrResult processedData = processInputFiles(input, null,
+                outputFormat, true);
         if (processedData != null) {
             if (outputFormat.equals(OutputFormat.TXT)) {
                 result = ((StringTesseractOcrResult)processedData).getData();
@@ -203,6 +515,73 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
         return result;
     }
 
+    /**
+     * Performs OCR of the provided input image and writes recognized text
+     * to a text-only PDF document using tesseract PDF renderer with
+     * "textonly_pdf" option, see {@link ITextLayerPdfOcrEngine}.
+     * Every page of the document has the size of the corresponding image
+     * page and contains invisible text only. Pages of multi-page images are
+     * written in the same order they are OCRed.
+     *
+     * Tesseract PDF renderer requires "pdf.ttf" glyphless font in tess data
+     * directory (it's distributed together with tesseract). Orientation and
+     * script detection and re-recognition of low confidence lines are not
+     * applied, as tesseract lays out the text itself.
+     *
+     * @param input input image {@link java.io.File}
+     * @param outputFile {@link java.io.File} text-only PDF document should
+     *                   be written to
+     * @throws Tesseract4OcrException if "pdf.ttf" font is not found in tess
+     * data directory, if tesseract failed or the document cannot be written
+     */
+    @Override
+    public final void createTextLayerPdf(final File input,
+            final File outputFile) {
+        verifyImageFormatValidity(input);
+        final File pdfFont = new File(getTessData(), PDF_FONT_FILE);
+        if (!pdfFont.isFile()) {
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException.PDF_FONT_IS_NOT_FOUND)
+                    .setMessageParams(pdfFont.getAbsolutePath());
+        }
+        List<File> pageFiles = new ArrayList<File>();
+        final boolean documentStarted = startDocument();
+        try {
+            // all pages of tiff image are written by a single tesseract call
+            // unless they are OCRed separately
+            final boolean isTiff = ImagePreprocessingUtil.isTiffImage(input);
+            final int numOfPages = isTiff && !isMultiPageOcr(true)
+                    ? ImagePreprocessingUtil.getNumberOfPageTiff(input) : 1;
+            for (int page = 1; page <= numOfPages; page++) {
+                // tesseract appends extension to the output file name,
+                // so result is written to a file with known extension first
+                final File pageFile = new File(TesseractOcrUtil
+                        .getTempFilePath(UUID.randomUUID().toString(),
+                                TesseractHelper.getOutputFileExtension(
+                                        OutputFormat.PDF)));
+                pageFiles.add(pageFile);
+                doTesseractOcr(input,
+                        Collections.<File>singletonList(pageFile),
+                        OutputFormat.PDF, page, page == 1);
+            }
+            if (pageFiles.size() == 1) {
+                Files.copy(pageFiles.get(0).toPath(), outputFile.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            } else {
+                TesseractHelper.mergePdfFiles(pageFiles, outputFile);
+            }
+        } catch (IOException e) {
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException.CANNOT_WRITE_OCR_RESULT, e)
+                    .setMessageParams(e.getMessage());
+        } finally {
+            for (File pageFile : pageFiles) {
+                TesseractHelper.deleteFile(pageFile.getAbsolutePath());
+            }
+            finishDocument(documentStarted);
+        }
+    }
+
     /**
      * Checks current os type.
      *
@@ -274,10 +653,89 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
      */
     @Override
     public IThreadLocalMetaInfoAware setThreadLocalMetaInfo(IMetaInfo metaInfo) {
+        final IMetaInfo previous = this.threadLocalMetaInfo.get();
         this.threadLocalMetaInfo.set(metaInfo);
+        // the new document is entered first, so that the run isn't
+        // completed if the same document is set again
+        enterDocumentRun(metaInfo);
+        leaveDocumentRun(previous);
         return this;
     }
 
+    /**
+     * Registers the current thread as one processing images of the
+     * {@link com.itextpdf.pdfocr.OcrPdfCreator} run.
+     *
+     * @param metaInfo meta info set in the current thread
+     */
+    private void enterDocumentRun(final IMetaInfo metaInfo) {
+        if (metaInfo instanceof OcrPdfCreatorMetaInfo) {
+            final UUID documentId =
+                    ((OcrPdfCreatorMetaInfo) metaInfo).getDocumentId();
+            synchronized (documentRuns) {
+                DocumentRun run = documentRuns.get(documentId);
+                if (run == null) {
+                    run = new DocumentRun();
+                    documentRuns.put(documentId, run);
+                }
+                ++run.threadsCount;
+            }
+        }
+    }
+
+    /**
+     * Unregisters the current thread as one processing images of the
+     * {@link com.itextpdf.pdfocr.OcrPdfCreator} run, the run is completed
+     * when there are no such threads left.
+     *
+     * @param metaInfo meta info replaced in the current thread
+     */
+    private void leaveDocumentRun(final IMetaInfo metaInfo) {
+        if (metaInfo instanceof OcrPdfCreatorMetaInfo) {
+            final UUID documentId =
+                    ((OcrPdfCreatorMetaInfo) metaInfo).getDocumentId();
+            synchronized (documentRuns) {
+                final DocumentRun run = documentRuns.get(documentId);
+                if (run != null && --run.threadsCount == 0) {
+                    documentRuns.remove(documentId);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets thread local state of the OCR in the current thread which needs
+     * to be passed to a worker thread invoking tesseract on its behalf.
+     *
+     * @return {@link OcrThreadContext} of the current thread
+     */
+    OcrThreadContext getOcrThreadContext() {
+        return new OcrThreadContext(getThreadLocalMetaInfo(),
+                cascadeTessData.get(), pageLanguages.get());
+    }
+
+    /**
+     * Sets thread local state of the OCR in the current thread.
+     *
+     * @param context {@link OcrThreadContext} to be set
+     * @return previous {@link OcrThreadContext} of the current thread
+     */
+    OcrThreadContext setOcrThreadContext(final OcrThreadContext context) {
+        final OcrThreadContext previous = getOcrThreadContext();
+        setThreadLocalMetaInfo(context.metaInfo);
+        if (context.cascadeTessData == null) {
+            cascadeTessData.remove();
+        } else {
+            cascadeTessData.set(context.cascadeTessData);
+        }
+        if (context.pageLanguages == null) {
+            pageLanguages.remove();
+        } else {
+            pageLanguages.set(context.pageLanguages);
+        }
+        return previous;
+    }
+
     /**
      * Performs tesseract OCR using command line tool
      * or a wrapper for Tesseract OCR API.
@@ -321,6 +779,81 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
                         List<File> outputFiles, OutputFormat outputFormat,
                         int pageNumber, boolean dispatchEvent);
 
+    /**
+     * Performs tesseract OCR using command line tool
+     * or a wrapper for Tesseract OCR API for the image passed as a byte array.
+     *
+     * See {@link #doTesseractOcr(File, List, OutputFormat, int, boolean)}
+     * for the details about the list of output files.
+     *
+     * @param inputImage input image as a byte array
+     * @param outputFiles {@link java.util.List} of output files
+     *                                          (one per each page)
+     * @param outputFormat selected {@link OutputFormat} for tesseract
+     * @param pageNumber number of page to be processed
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     */
+    abstract void doTesseractOcr(byte[] inputImage,
+                        List<File> outputFiles, OutputFormat outputFormat,
+                        int pageNumber, boolean dispatchEvent);
+
+    /**
+     * Releases temporary user words files used by this engine and stops
+     * worker threads OCRing pages in parallel. Each user words file is
+     * deleted as soon as all the engines which used it are closed.
+     * The engine may still be used after it has been closed, required
+     * files are written once again in this case.
+     */
+    @Override
+    public void close() {
+        synchronized (userWordsFiles) {
+            for (String userWordsFile : userWordsFiles) {
+                UserWordsRegistry.release(userWordsFile);
+            }
+            userWordsFiles.clear();
+        }
+        synchronized (pageExecutorLock) {
+            if (pageExecutor != null) {
+                pageExecutor.shutdownNow();
+                pageExecutor = null;
+            }
+        }
+    }
+
+    /**
+     * Gets path to the user words file from properties. Temporary user
+     * words file is written when it is needed by the engine for the first
+     * time and is kept on disk until the engine is closed, so it is shared
+     * by all the pages and threads.
+     *
+     * @return path to user words file or null if user words are not used
+     */
+    String getUserWordsFile() {
+        final String userWordsFile = getTesseract4OcrEngineProperties()
+                .getPathToUserWordsFile();
+        if (userWordsFile != null && getTesseract4OcrEngineProperties()
+                .isUserWordsFileTemporary()) {
+            synchronized (userWordsFiles) {
+                if (!userWordsFiles.contains(userWordsFile)) {
+                    try {
+                        UserWordsRegistry.acquire(userWordsFile,
+                                getTesseract4OcrEngineProperties()
+                                        .getUserWords());
+                    } catch (IOException e) {
+                        LoggerFactory.getLogger(getClass())
+                                .warn(MessageFormatUtil.format(
+                                        Tesseract4LogMessageConstant
+                                                .CANNOT_USE_USER_WORDS,
+                                        e.getMessage()));
+                        return null;
+                    }
+                    userWordsFiles.add(userWordsFile);
+                }
+            }
+        }
+        return userWordsFile;
+    }
+
     /**
      * Gets path to provided tess data directory.
      *
@@ -328,6 +861,9 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
      * {@link java.lang.String}
      */
     String getTessData() {
+        if (cascadeTessData.get() != null) {
+            return cascadeTessData.get().getAbsolutePath();
+        }
         if (getTesseract4OcrEngineProperties().getPathToTessData() == null) {
             throw new Tesseract4OcrException(Tesseract4OcrException
                     .PATH_TO_TESS_DATA_IS_NOT_SET);
@@ -347,83 +883,170 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
             EventCounterHandler.getInstance()
                     .onEvent(PdfOcrTesseract4Event.TESSERACT4_IMAGE_OCR, this.getThreadLocalMetaInfo(), getClass());
         } else {
-            UUID uuid = ((OcrPdfCreatorMetaInfo) metaInfo).getDocumentId();
-            if (!processedUUID.contains(uuid)) {
-                processedUUID.add(uuid);
+            OcrPdfCreatorMetaInfo ocrPdfCreatorMetaInfo =
+                    (OcrPdfCreatorMetaInfo) metaInfo;
+            // only the first thread processing an image
+            // of the document dispatches the event
+            boolean firstImage;
+            synchronized (documentRuns) {
+                final DocumentRun run = documentRuns.get(
+                        ocrPdfCreatorMetaInfo.getDocumentId());
+                firstImage = run == null || !run.eventDispatched;
+                if (run != null) {
+                    run.eventDispatched = true;
+                }
+            }
+            if (firstImage) {
                 EventCounterHandler.getInstance()
-                        .onEvent(PdfDocumentType.PDFA.equals(((OcrPdfCreatorMetaInfo) metaInfo).getPdfDocumentType())
+                        .onEvent(PdfDocumentType.PDFA.equals(ocrPdfCreatorMetaInfo.getPdfDocumentType())
                                         ? PdfOcrTesseract4Event.TESSERACT4_IMAGE_TO_PDFA
                                         : PdfOcrTesseract4Event.TESSERACT4_IMAGE_TO_PDF,
-                                ((OcrPdfCreatorMetaInfo) metaInfo).getWrappedMetaInfo(), getClass());
+                                ocrPdfCreatorMetaInfo.getWrappedMetaInfo(), getClass());
+            }
+        }
+    }
 
+    /**
+     * Gets maximal time in milliseconds the next tesseract invocation in the
+     * current thread may take. It is limited both by
+     * {@link Tesseract4OcrEngineProperties#getPageTimeout()} and by the time
+     * left for the processed input image according to
+     * {@link Tesseract4OcrEngineProperties#getDocumentTimeout()}.
+     *
+     * @return timeout in milliseconds, 0 if time is not limited
+     * @throws Tesseract4OcrException if there is no time left for the
+     * processed input image
+     */
+    long getOcrTimeout() {
+        long timeout = getTesseract4OcrEngineProperties().getPageTimeout();
+        final Long deadline = documentDeadline.get();
+        if (deadline != null && deadline != Long.MAX_VALUE) {
+            final long timeLeft = deadline - System.currentTimeMillis();
+            if (timeLeft <= 0) {
+                throw new Tesseract4OcrException(
+                        Tesseract4OcrException.TESSERACT_TIMEOUT)
+                        .setMessageParams(String.valueOf(
+                                getTesseract4OcrEngineProperties()
+                                        .getDocumentTimeout()));
             }
+            timeout = timeout > 0 ? Math.min(timeout, timeLeft) : timeLeft;
         }
+        return Math.max(timeout, 0);
+    }
+
+    /**
+     * Checks whether all pages of the multi-page image are OCRed at once.
+     * Pages are OCRed separately if they are preprocessed or if they are
+     * OCRed in parallel.
+     *
+     * @param isTiff true if the input image is a TIFF image
+     * @return true if all pages of the image are OCRed at once
+     */
+    boolean isMultiPageOcr(final boolean isTiff) {
+        return isTiff
+                && !getTesseract4OcrEngineProperties().isPreprocessingImages()
+                && getTesseract4OcrEngineProperties().getPageParallelism() <= 1;
+    }
+
+    /**
+     * Dispatches {@link PdfOcrTesseract4Event#TESSERACT4_BLANK_PAGE_SKIPPED}
+     * event for the page which was not OCRed as it is blank.
+     */
+    void onBlankPageSkipped() {
+        IMetaInfo metaInfo = this.getThreadLocalMetaInfo();
+        if (metaInfo instanceof OcrPdfCreatorMetaInfo) {
+            metaInfo = ((OcrPdfCreatorMetaInfo) metaInfo).getWrappedMetaInfo();
+        }
+        EventCounterHandler.getInstance().onEvent(
+                PdfOcrTesseract4Event.TESSERACT4_BLANK_PAGE_SKIPPED,
+                metaInfo, getClass());
+    }
+
+    /**
+     * Reads data from the provided input image file or bytes.
+     * Exactly one of the input parameters is expected to be not null.
+     *
+     * @param input input image {@link java.io.File}
+     * @param inputBytes input image as a byte array
+     * @param outputFormat {@link OutputFormat} for the result returned
+     *                                         by {@link IOcrEngine}
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     * @return {@link ITesseractOcrResult} instance, either {@link StringTesseractOcrResult}
+     *     if output format is TXT, or {@link TextInfoTesseractOcrResult} if the output format is HOCR or TSV
+     */
+    private ITesseractOcrResult processInputFiles(
+            final File input, final byte[] inputBytes,
+            final OutputFormat outputFormat, final boolean dispatchEvent) {
+        return processInputFiles(input, inputBytes, outputFormat,
+                dispatchEvent, getTesseract4OcrEngineProperties()
+                        .isDetectOrientation()
+                        || getTesseract4OcrEngineProperties()
+                        .isDetectLanguages());
     }
 
     /**
-     * Reads data from the provided input image file.
+     * Reads data from the provided input image file or bytes.
+     * Exactly one of the input parameters is expected to be not null.
      *
      * @param input input image {@link java.io.File}
+     * @param inputBytes input image as a byte array
      * @param outputFormat {@link OutputFormat} for the result returned
      *                                         by {@link IOcrEngine}
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     * @param analyzePage indicates if orientation and script of the pages
+     *                    need to be detected
      * @return {@link ITesseractOcrResult} instance, either {@link StringTesseractOcrResult}
-     *     if output format is TXT, or {@link TextInfoTesseractOcrResult} if the output format is HOCR
+     *     if output format is TXT, or {@link TextInfoTesseractOcrResult} if the output format is HOCR or TSV
      */
     private ITesseractOcrResult processInputFiles(
-            final File input, final OutputFormat outputFormat) {
+            final File input, final byte[] inputBytes,
+            final OutputFormat outputFormat, final boolean dispatchEvent,
+            final boolean analyzePage) {
         Map<Integer, List<TextInfo>> imageData =
                 new LinkedHashMap<Integer, List<TextInfo>>();
         StringBuilder data = new StringBuilder();
-        List<File> tempFiles = new ArrayList<File>();
         ITesseractOcrResult result = null;
+        final boolean documentStarted = startDocument();
         try {
             // image needs to be paginated only if it's tiff
-            // or preprocessing isn't required
-            int realNumOfPages = !ImagePreprocessingUtil.isTiffImage(input)
-                    ? 1 : ImagePreprocessingUtil.getNumberOfPageTiff(input);
-            int numOfPages =
-                    getTesseract4OcrEngineProperties().isPreprocessingImages()
-                            ? realNumOfPages : 1;
-            int numOfFiles =
-                    getTesseract4OcrEngineProperties().isPreprocessingImages()
-                            ? 1 : realNumOfPages;
-
-            for (int page = 1; page <= numOfPages; page++) {
-                String extension = outputFormat.equals(OutputFormat.HOCR)
-                        ? ".hocr" : ".txt";
-                for (int i = 0; i < numOfFiles; i++) {
-                    tempFiles.add(createTempFile(extension));
+            // and its pages are OCRed separately
+            final boolean isTiff = inputBytes == null
+                    ? ImagePreprocessingUtil.isTiffImage(input)
+                    : ImagePreprocessingUtil.isTiffImage(inputBytes);
+            int realNumOfPages;
+            if (!isTiff) {
+                realNumOfPages = 1;
+            } else if (inputBytes == null) {
+                realNumOfPages = ImagePreprocessingUtil.getNumberOfPageTiff(input);
+            } else {
+                realNumOfPages = ImagePreprocessingUtil.getNumberOfPageTiff(inputBytes);
+            }
+            int numOfPages = isMultiPageOcr(isTiff) ? 1 : realNumOfPages;
+            int numOfFiles = isMultiPageOcr(isTiff) ? realNumOfPages : 1;
+            List<ITesseractOcrResult> pageResults;
+            if (numOfPages > 1 && getTesseract4OcrEngineProperties()
+                    .getPageParallelism() > 1) {
+                pageResults = processPagesInParallel(input, inputBytes,
+                        outputFormat, numOfPages, dispatchEvent, analyzePage);
+            } else {
+                pageResults = new ArrayList<ITesseractOcrResult>();
+                for (int page = 1; page <= numOfPages; page++) {
+                    pageResults.add(processPage(input, inputBytes,
+                            outputFormat, page, numOfFiles, dispatchEvent,
+                            analyzePage));
                 }
+            }
 
-                doTesseractOcr(input, tempFiles, outputFormat, page);
-                if (outputFormat.equals(OutputFormat.HOCR)) {
-                    List<File> tempTxtFiles = null;
-                    if (getTesseract4OcrEngineProperties().isUseTxtToImproveHocrParsing()) {
-                        tempTxtFiles = new ArrayList<>();
-                        for (int i = 0; i < numOfFiles; i++) {
-                            tempTxtFiles.add(createTempFile(".txt"));
-                        }
-                        doTesseractOcr(input, tempTxtFiles, OutputFormat.TXT, page, false);
-                    }
-                    Map<Integer, List<TextInfo>> pageData = TesseractHelper
-                            .parseHocrFile(tempFiles, tempTxtFiles,
-                                    getTesseract4OcrEngineProperties());
-
-                    if (getTesseract4OcrEngineProperties()
-                            .isPreprocessingImages()) {
-                        imageData.put(page, pageData.get(1));
-                    } else {
-                        imageData = pageData;
-                    }
+            // results are merged in the order of pages, so page numbering
+            // doesn't depend on the order in which pages were processed
+            for (ITesseractOcrResult pageResult : pageResults) {
+                if (isTextInfosOutputFormat(outputFormat)) {
+                    imageData.putAll(((TextInfoTesseractOcrResult) pageResult)
+                            .getTextInfos());
                     result = new TextInfoTesseractOcrResult(imageData);
                 } else {
-                    for (File tmpFile : tempFiles) {
-                        if (Files.exists(
-                                java.nio.file.Paths
-                                        .get(tmpFile.getAbsolutePath()))) {
-                            data.append(TesseractHelper.readTxtFile(tmpFile));
-                        }
-                    }
+                    data.append(((StringTesseractOcrResult) pageResult)
+                            .getData());
                     result = new StringTesseractOcrResult(data.toString());
                 }
             }
@@ -432,12 +1055,714 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
                     .error(MessageFormatUtil.format(
                             Tesseract4LogMessageConstant.CANNOT_OCR_INPUT_FILE,
                             e.getMessage()));
+        } finally {
+            finishDocument(documentStarted);
+        }
+        return result;
+    }
+
+    /**
+     * Starts measuring time of the input image OCR in the current thread
+     * unless it has already been started, e.g. for the page image the
+     * regions of which are OCRed.
+     *
+     * @return true if measuring has been started by this call and
+     * {@link #finishDocument(boolean)} needs to stop it
+     */
+    private boolean startDocument() {
+        if (documentDeadline.get() != null) {
+            return false;
+        }
+        final long timeout = getTesseract4OcrEngineProperties()
+                .getDocumentTimeout();
+        documentDeadline.set(timeout > 0
+                ? System.currentTimeMillis() + timeout : Long.MAX_VALUE);
+        return true;
+    }
+
+    /**
+     * Stops measuring time of the input image OCR in the current thread.
+     *
+     * @param documentStarted result of the corresponding
+     *                        {@link #startDocument()} call
+     */
+    private void finishDocument(final boolean documentStarted) {
+        if (documentStarted) {
+            documentDeadline.remove();
+        }
+    }
+
+    /**
+     * Performs OCR of a single page of the input image or of all pages
+     * at once if they are not OCRed separately.
+     *
+     * @param input input image {@link java.io.File}
+     * @param inputBytes input image as a byte array
+     * @param outputFormat {@link OutputFormat} for the result
+     * @param page number of page to be processed
+     * @param numOfFiles number of output files, i.e. number of pages
+     *                   which are OCRed at once
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     * @param analyzePage indicates if orientation and script of the page
+     *                    need to be detected
+     * @return {@link ITesseractOcrResult} instance for the processed page(s)
+     * @throws IOException if OCR result cannot be read
+     */
+    private ITesseractOcrResult processPage(final File input,
+            final byte[] inputBytes, final OutputFormat outputFormat,
+            final int page, final int numOfFiles,
+            final boolean dispatchEvent, final boolean analyzePage)
+            throws IOException {
+        if (numOfFiles == 1 && isBlankPage(input, inputBytes, page)) {
+            onBlankPageSkipped();
+            if (isTextInfosOutputFormat(outputFormat)) {
+                Map<Integer, List<TextInfo>> pageData =
+                        new LinkedHashMap<Integer, List<TextInfo>>();
+                pageData.put(page, new ArrayList<TextInfo>());
+                return new TextInfoTesseractOcrResult(pageData);
+            } else {
+                return new StringTesseractOcrResult("");
+            }
+        }
+        // preprocessed page might be downsampled to target dpi, text
+        // coordinates are scaled back to the original page; pages of TIFF
+        // images may have different resolutions, so the scale is per page
+        final ImagePreprocessingOptions preprocessingOptions =
+                getTesseract4OcrEngineProperties()
+                        .getImagePreprocessingOptions();
+        final float dpiScale = inputBytes == null
+                ? ImagePreprocessingUtil.getDpiScale(input, page,
+                        preprocessingOptions)
+                : ImagePreprocessingUtil.getDpiScale(inputBytes, page,
+                        preprocessingOptions);
+        if (numOfFiles == 1 && analyzePage) {
+            return processAnalyzedPage(input, inputBytes, outputFormat, page,
+                    dpiScale, dispatchEvent);
+        }
+        return recognizePage(input, inputBytes, outputFormat, page,
+                numOfFiles, dpiScale, dispatchEvent);
+    }
+
+    /**
+     * Detects orientation and script of the page on its downsampled
+     * grayscale thumbnail, then OCRs the page using only the languages of
+     * the detected script (see
+     * {@link Tesseract4OcrEngineProperties#isDetectLanguages()}) and, if the
+     * page is rotated, rotated to the upright position (see
+     * {@link Tesseract4OcrEngineProperties#isDetectOrientation()}).
+     * Coordinates of the text recognized in the rotated page are mapped
+     * back to the original page.
+     *
+     * @param input input image {@link java.io.File}
+     * @param inputBytes input image as a byte array
+     * @param outputFormat {@link OutputFormat} for the result
+     * @param page number of page to be processed
+     * @param dpiScale scale which was applied to the preprocessed image
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     * @return {@link ITesseractOcrResult} instance for the processed page
+     * @throws IOException if OCR result cannot be read
+     */
+    private ITesseractOcrResult processAnalyzedPage(final File input,
+            final byte[] inputBytes, final OutputFormat outputFormat,
+            final int page, final float dpiScale, final boolean dispatchEvent)
+            throws IOException {
+        final List<String> storedLanguages = pageLanguages.get();
+        try {
+            try (ScopedPix pix = new ScopedPix(inputBytes == null
+                    ? ImagePreprocessingUtil.readPixPage(input, page)
+                    : ImagePreprocessingUtil.readPixPage(inputBytes, page))) {
+                if (pix.get() != null) {
+                    final PageOrientation orientation = detectPageOrientation(
+                            pix.get(), inputBytes == null
+                                    ? ImageProbe.probe(input).getDpi(page - 1)
+                                    : ImageProbe.probe(inputBytes)
+                                            .getDpi(page - 1), page);
+                    selectPageLanguages(orientation, page);
+                    final int rotation = getPageRotation(orientation);
+                    if (rotation != 0) {
+                        return recognizeRotatedPage(pix, rotation,
+                                outputFormat, page, dispatchEvent);
+                    }
+                }
+            }
+            return recognizePage(input, inputBytes, outputFormat, page, 1,
+                    dpiScale, dispatchEvent);
+        } finally {
+            if (storedLanguages == null) {
+                pageLanguages.remove();
+            } else {
+                pageLanguages.set(storedLanguages);
+            }
+        }
+    }
+
+    /**
+     * OCRs the page rotated to the upright position. Coordinates of the
+     * recognized text are mapped back to the original page.
+     *
+     * @param pix page image {@link ScopedPix}, it is replaced with the
+     *            rotated image
+     * @param rotation clockwise rotation in degrees which makes the page
+     *                 upright: 90, 180 or 270
+     * @param outputFormat {@link OutputFormat} for the result
+     * @param page number of page to be processed
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     * @return {@link ITesseractOcrResult} instance for the processed page
+     * @throws IOException if OCR result cannot be read
+     */
+    private ITesseractOcrResult recognizeRotatedPage(final ScopedPix pix,
+            final int rotation, final OutputFormat outputFormat,
+            final int page, final boolean dispatchEvent) throws IOException {
+        LoggerFactory.getLogger(getClass()).info(MessageFormatUtil
+                .format(Tesseract4LogMessageConstant
+                                .PAGE_ORIENTATION_IS_CORRECTED,
+                        page, rotation));
+        final float pageWidth = TesseractHelper.toPoints(pix.get().w);
+        final float pageHeight = TesseractHelper.toPoints(pix.get().h);
+        final File rotatedFile = createTempFile(".png");
+        try {
+            pix.replace(TesseractOcrUtil.rotate(pix.get(), rotation));
+            TesseractOcrUtil.savePixToPngFile(
+                    rotatedFile.getAbsolutePath(), pix.get());
+            // rotated image keeps resolution of the page, so it is
+            // downsampled to target dpi the same way as the page itself
+            final float dpiScale = ImagePreprocessingUtil.getDpiScale(
+                    rotatedFile, 1, getTesseract4OcrEngineProperties()
+                            .getImagePreprocessingOptions());
+            final ITesseractOcrResult result = recognizePage(rotatedFile,
+                    null, outputFormat, 1, 1, dpiScale, dispatchEvent);
+            if (!isTextInfosOutputFormat(outputFormat)) {
+                return result;
+            }
+            Map<Integer, List<TextInfo>> imageData =
+                    new LinkedHashMap<Integer, List<TextInfo>>();
+            imageData.put(page, TesseractHelper.rotateTextInfos(
+                    ((TextInfoTesseractOcrResult) result)
+                            .getTextInfos().get(1),
+                    rotation, pageWidth, pageHeight));
+            return new TextInfoTesseractOcrResult(imageData);
+        } finally {
+            TesseractHelper.deleteFile(rotatedFile.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Gets clockwise rotation which makes the page upright if orientation
+     * detection is enabled and detected orientation is confident enough.
+     *
+     * @param orientation detected {@link PageOrientation}, may be null
+     * @return clockwise rotation in degrees: 0, 90, 180 or 270
+     */
+    private int getPageRotation(final PageOrientation orientation) {
+        if (!getTesseract4OcrEngineProperties().isDetectOrientation()
+                || orientation == null || orientation.getConfidence()
+                < MIN_ORIENTATION_CONFIDENCE) {
+            return 0;
+        }
+        return orientation.getRotation();
+    }
+
+    /**
+     * Restricts languages which are used to OCR the page in the current
+     * thread to the languages of the detected script if language detection
+     * is enabled and detected script is confident enough.
+     *
+     * @param orientation detected {@link PageOrientation}, may be null
+     * @param page number of the page
+     */
+    private void selectPageLanguages(final PageOrientation orientation,
+            final int page) {
+        if (!getTesseract4OcrEngineProperties().isDetectLanguages()
+                || orientation == null || orientation.getScript() == null
+                || orientation.getScriptConfidence()
+                < MIN_SCRIPT_CONFIDENCE) {
+            return;
+        }
+        final List<String> languages = ScriptLanguages.selectLanguages(
+                getTesseract4OcrEngineProperties().getLanguages(),
+                orientation.getScript());
+        if (languages.size() < getTesseract4OcrEngineProperties()
+                .getLanguages().size()) {
+            LoggerFactory.getLogger(getClass()).info(MessageFormatUtil
+                    .format(Tesseract4LogMessageConstant
+                                    .PAGE_LANGUAGES_ARE_SELECTED,
+                            page, String.join("+", languages),
+                            orientation.getScript()));
+            pageLanguages.set(languages);
+        }
+    }
+
+    /**
+     * Detects orientation and script of the page using a downsampled
+     * grayscale thumbnail of the page.
+     *
+     * @param pix page image {@link net.sourceforge.lept4j.Pix}, it is not
+     *            changed or destroyed
+     * @param dpi resolution of the page image, 0 if unknown
+     * @param page number of the page
+     * @return detected {@link PageOrientation} or null if orientation
+     * cannot be detected
+     */
+    private PageOrientation detectPageOrientation(final Pix pix,
+            final int dpi, final int page) {
+        final float scale = Math.min(1, (float) getTesseract4OcrEngineProperties()
+                .getOrientationDetectionDpi()
+                / (dpi > 0 ? dpi : DEFAULT_DPI));
+        try (ScopedPix thumbnail = ScopedPix.borrow(pix)) {
+            thumbnail.replace(TesseractOcrUtil.convertToGrayscale(
+                    thumbnail.get()));
+            thumbnail.replace(TesseractOcrUtil.scalePix(thumbnail.get(),
+                    scale));
+            return detectOrientation(thumbnail.get());
+        } catch (Tesseract4OcrException e) {
+            LoggerFactory.getLogger(getClass()).warn(MessageFormatUtil
+                    .format(Tesseract4LogMessageConstant
+                                    .CANNOT_DETECT_ORIENTATION,
+                            page, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Runs tesseract orientation and script detection for the provided
+     * image. Orientation is not detected by default.
+     *
+     * @param pix image {@link net.sourceforge.lept4j.Pix}, it is not changed
+     *            or destroyed
+     * @return detected {@link PageOrientation} or null if orientation
+     * cannot be detected
+     * @throws Tesseract4OcrException if tesseract failed
+     */
+    PageOrientation detectOrientation(final Pix pix) {
+        return null;
+    }
+
+    /**
+     * Performs OCR of a single page of the input image or of all pages
+     * at once if they are not OCRed separately without any page level
+     * analysis such as blank page or orientation detection.
+     *
+     * @param input input image {@link java.io.File}
+     * @param inputBytes input image as a byte array
+     * @param outputFormat {@link OutputFormat} for the result
+     * @param page number of page to be processed
+     * @param numOfFiles number of output files, i.e. number of pages
+     *                   which are OCRed at once
+     * @param dpiScale scale which was applied to the preprocessed image
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     * @return {@link ITesseractOcrResult} instance for the processed page(s)
+     * @throws IOException if OCR result cannot be read
+     */
+    private ITesseractOcrResult recognizePage(final File input,
+            final byte[] inputBytes, final OutputFormat outputFormat,
+            final int page, final int numOfFiles, final float dpiScale,
+            final boolean dispatchEvent) throws IOException {
+        List<File> tempFiles = new ArrayList<File>();
+        List<File> tempTxtFiles = null;
+        try {
+            String extension = TesseractHelper
+                    .getOutputFileExtension(outputFormat);
+            for (int i = 0; i < numOfFiles; i++) {
+                tempFiles.add(createTempFile(extension));
+            }
+
+            doTesseractOcr(input, inputBytes, tempFiles, outputFormat,
+                    page, dispatchEvent);
+            if (isTextInfosOutputFormat(outputFormat)) {
+                if (outputFormat.equals(OutputFormat.HOCR)
+                        && getTesseract4OcrEngineProperties().isUseTxtToImproveHocrParsing()) {
+                    tempTxtFiles = new ArrayList<>();
+                    for (int i = 0; i < numOfFiles; i++) {
+                        tempTxtFiles.add(createTempFile(".txt"));
+                    }
+                    doTesseractOcr(input, inputBytes, tempTxtFiles,
+                            OutputFormat.TXT, page, false);
+                }
+                Map<Integer, List<TextInfo>> pageData =
+                        outputFormat.equals(OutputFormat.TSV)
+                                ? TesseractHelper.parseTsvFile(tempFiles,
+                                        getTesseract4OcrEngineProperties())
+                                : TesseractHelper.parseHocrFile(tempFiles,
+                                        tempTxtFiles,
+                                        getTesseract4OcrEngineProperties());
+                if (numOfFiles > 1) {
+                    return new TextInfoTesseractOcrResult(pageData);
+                }
+                final float scale = getTesseract4OcrEngineProperties()
+                        .isPreprocessingImages() ? 1 / dpiScale : 1;
+                List<TextInfo> textInfos = TesseractHelper.scaleTextInfos(
+                        pageData.get(1), scale);
+                if (isCascadeEnabled()) {
+                    textInfos = recognizeLowConfidenceLines(input,
+                            inputBytes, page, textInfos, tempFiles.get(0),
+                            outputFormat, scale);
+                }
+                Map<Integer, List<TextInfo>> imageData =
+                        new LinkedHashMap<Integer, List<TextInfo>>();
+                imageData.put(page, textInfos);
+                return new TextInfoTesseractOcrResult(imageData);
+            } else {
+                StringBuilder data = new StringBuilder();
+                for (File tmpFile : tempFiles) {
+                    if (Files.exists(
+                            java.nio.file.Paths
+                                    .get(tmpFile.getAbsolutePath()))) {
+                        data.append(TesseractHelper.readTxtFile(tmpFile));
+                    }
+                }
+                return new StringTesseractOcrResult(data.toString());
+            }
         } finally {
             for (File file : tempFiles) {
                 TesseractHelper.deleteFile(file.getAbsolutePath());
             }
+            if (tempTxtFiles != null) {
+                for (File file : tempTxtFiles) {
+                    TesseractHelper.deleteFile(file.getAbsolutePath());
+                }
+            }
         }
-        return result;
+    }
+
+    /**
+     * Gets output format which is used to retrieve text and its coordinates,
+     * see {@link Tesseract4OcrEngineProperties#isUseTsvOutput()}.
+     *
+     * @return {@link OutputFormat#TSV} or {@link OutputFormat#HOCR}
+     */
+    private OutputFormat getTextInfosOutputFormat() {
+        return getTesseract4OcrEngineProperties().isUseTsvOutput()
+                ? OutputFormat.TSV : OutputFormat.HOCR;
+    }
+
+    /**
+     * Checks whether OCR result in the provided output format is
+     * represented as {@link TextInfo} objects.
+     *
+     * @param outputFormat {@link OutputFormat} of the result
+     * @return true if output format is {@link OutputFormat#HOCR} or
+     * {@link OutputFormat#TSV}
+     */
+    private static boolean isTextInfosOutputFormat(
+            final OutputFormat outputFormat) {
+        return outputFormat.equals(OutputFormat.HOCR)
+                || outputFormat.equals(OutputFormat.TSV);
+    }
+
+    /**
+     * Checks whether low confidence lines need to be recognized again
+     * using accurate tess data, i.e. accurate tess data is provided and
+     * the lines are not being recognized again right now.
+     *
+     * @return true if low confidence lines need to be recognized again
+     */
+    private boolean isCascadeEnabled() {
+        return getTesseract4OcrEngineProperties()
+                .getPathToAccurateTessData() != null
+                && getTesseract4OcrEngineProperties()
+                .getCascadeConfidenceLevel() > 0
+                && cascadeTessData.get() == null;
+    }
+
+    /**
+     * Recognizes lines of the page which confidence level is lower than
+     * {@link Tesseract4OcrEngineProperties#getCascadeConfidenceLevel()}
+     * once again using accurate tess data and replaces their text.
+     *
+     * @param input input image {@link java.io.File}
+     * @param inputBytes input image as a byte array
+     * @param page number of page to be processed
+     * @param textInfos {@link java.util.List} of {@link TextInfo} recognized
+     *                  in the page using fast tess data
+     * @param resultFile hocr or tsv file with result of the recognition
+     *                   using fast tess data
+     * @param outputFormat {@link OutputFormat} of the result file
+     * @param scale scale which needs to be applied to the coordinates from
+     *              the hocr file to get coordinates in the original image
+     * @return {@link java.util.List} of {@link TextInfo} of the page with
+     * text of low confidence lines recognized once again
+     * @throws IOException if result file cannot be read
+     */
+    private List<TextInfo> recognizeLowConfidenceLines(final File input,
+            final byte[] inputBytes, final int page,
+            final List<TextInfo> textInfos, final File resultFile,
+            final OutputFormat outputFormat, final float scale)
+            throws IOException {
+        final int confidenceLevel = getTesseract4OcrEngineProperties()
+                .getCascadeConfidenceLevel();
+        final List<Rectangle> lines = outputFormat.equals(OutputFormat.TSV)
+                ? TesseractHelper.findLowConfidenceTsvLines(resultFile,
+                        confidenceLevel)
+                : TesseractHelper.findLowConfidenceLines(resultFile,
+                        confidenceLevel);
+        if (lines.isEmpty()) {
+            return textInfos;
+        }
+        try (ScopedPix pix = new ScopedPix(inputBytes == null
+                ? ImagePreprocessingUtil.readPixPage(input, page)
+                : ImagePreprocessingUtil.readPixPage(inputBytes, page))) {
+            if (pix.get() == null) {
+                return textInfos;
+            }
+            LoggerFactory.getLogger(getClass()).info(MessageFormatUtil
+                    .format(Tesseract4LogMessageConstant
+                                    .LOW_CONFIDENCE_LINES_ARE_RECOGNIZED_AGAIN,
+                            lines.size(), page));
+            final float margin = TesseractHelper.toPoints(CASCADE_LINE_MARGIN);
+            List<Rectangle> scaledLines =
+                    new ArrayList<Rectangle>(lines.size());
+            List<List<TextInfo>> linesText =
+                    new ArrayList<List<TextInfo>>(lines.size());
+            cascadeTessData.set(getTesseract4OcrEngineProperties()
+                    .getPathToAccurateTessData());
+            try {
+                for (Rectangle line : lines) {
+                    final Rectangle scaledLine = new Rectangle(
+                            line.getX() * scale, line.getY() * scale,
+                            line.getWidth() * scale,
+                            line.getHeight() * scale);
+                    scaledLines.add(scaledLine);
+                    linesText.add(doRegionsOcr(pix.get(), page,
+                            Collections.<Rectangle>singletonList(
+                                    new Rectangle(scaledLine.getX() - margin,
+                                            scaledLine.getY() - margin,
+                                            scaledLine.getWidth() + margin * 2,
+                                            scaledLine.getHeight()
+                                                    + margin * 2))));
+                }
+            } finally {
+                cascadeTessData.remove();
+            }
+            return TesseractHelper.replaceLinesText(textInfos, scaledLines,
+                    linesText, TesseractHelper.toPoints(pix.get().h));
+        }
+    }
+
+    /**
+     * Performs OCR of the pages of the multi-page input image in parallel.
+     * Number of worker threads is limited by
+     * {@link Tesseract4OcrEngineProperties#getPageParallelism()}.
+     *
+     * @param input input image {@link java.io.File}
+     * @param inputBytes input image as a byte array
+     * @param outputFormat {@link OutputFormat} for the result
+     * @param numOfPages number of pages in the image
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     * @param analyzePage indicates if orientation and script of the pages
+     *                    need to be detected
+     * @return {@link java.util.List} of {@link ITesseractOcrResult} for
+     * each page in the order of pages
+     * @throws IOException if OCR result cannot be read
+     */
+    private List<ITesseractOcrResult> processPagesInParallel(
+            final File input, final byte[] inputBytes,
+            final OutputFormat outputFormat, final int numOfPages,
+            final boolean dispatchEvent, final boolean analyzePage)
+            throws IOException {
+        // pages which are not preprocessed are OCRed at once if they are
+        // processed sequentially, so the event is dispatched once per image
+        // rather than once per page in this case
+        final boolean dispatchPageEvents = dispatchEvent
+                && getTesseract4OcrEngineProperties().isPreprocessingImages();
+        if (dispatchEvent && !dispatchPageEvents) {
+            onEvent();
+        }
+        // meta info and deadline are thread local,
+        // so they are passed to the workers
+        final IMetaInfo metaInfo = getThreadLocalMetaInfo();
+        final Long deadline = documentDeadline.get();
+        List<ITesseractOcrResult> pageResults =
+                new ArrayList<ITesseractOcrResult>(numOfPages);
+        final ExecutorService executor = getPageExecutor();
+        final List<Future<ITesseractOcrResult>> futures =
+                new ArrayList<Future<ITesseractOcrResult>>(numOfPages);
+        try {
+            for (int page = 1; page <= numOfPages; page++) {
+                futures.add(executor.submit(new PageOcrTask(input, inputBytes,
+                        outputFormat, page, dispatchPageEvents, analyzePage,
+                        metaInfo, deadline)));
+            }
+            for (Future<ITesseractOcrResult> future : futures) {
+                pageResults.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new Tesseract4OcrException(OcrException.OCR_WAS_INTERRUPTED,
+                    e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException.TESSERACT_FAILED, e.getCause());
+        } finally {
+            // executor is shared, so only the pages of this image
+            // which are still pending are cancelled
+            if (pageResults.size() < futures.size()) {
+                for (Future<ITesseractOcrResult> future : futures) {
+                    future.cancel(true);
+                }
+            }
+        }
+        return pageResults;
+    }
+
+    /**
+     * Gets executor performing OCR of the pages of multi-page images in
+     * parallel. The executor is shared by all the images OCRed by the engine,
+     * it is recreated if {@link Tesseract4OcrEngineProperties#getPageParallelism()}
+     * is changed.
+     *
+     * @return {@link java.util.concurrent.ExecutorService} of the engine
+     */
+    private ExecutorService getPageExecutor() {
+        final int threadsCount = getTesseract4OcrEngineProperties()
+                .getPageParallelism();
+        synchronized (pageExecutorLock) {
+            if (pageExecutor == null
+                    || pageExecutor.getMaximumPoolSize() != threadsCount) {
+                if (pageExecutor != null) {
+                    // pages which are already submitted are completed
+                    pageExecutor.shutdown();
+                }
+                pageExecutor = createExecutor(threadsCount,
+                        "pdfocr-tesseract4-page");
+            }
+            return pageExecutor;
+        }
+    }
+
+    /**
+     * Creates executor with the fixed maximal number of daemon worker
+     * threads which are stopped when idle, so the executor doesn't prevent
+     * JVM from exiting if the engine is not closed.
+     *
+     * @param threadsCount maximal number of worker threads
+     * @param threadName name of worker threads
+     * @return new {@link java.util.concurrent.ThreadPoolExecutor}
+     */
+    static ThreadPoolExecutor createExecutor(final int threadsCount,
+            final String threadName) {
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+                threadsCount, threadsCount, IDLE_THREAD_KEEP_ALIVE,
+                TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    @Override
+                    public Thread newThread(final Runnable runnable) {
+                        final Thread thread = new Thread(runnable,
+                                threadName);
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Performs OCR of the provided regions of the page image.
+     * Each region is cropped to a temporary image which is OCRed
+     * separately, then the retrieved text is moved to the page coordinates.
+     *
+     * @param pix page image {@link net.sourceforge.lept4j.Pix}
+     * @param pageNumber number of the page
+     * @param regions {@link java.util.List} of regions to be recognized
+     * @return {@link PageText} with text of all regions of the page
+     */
+    private PageText doRegionsOcr(final Pix pix, final int pageNumber,
+            final List<Rectangle> regions) {
+        final float pageHeight = TesseractHelper.toPoints(pix.h);
+        PageText pageText = new PageText(pageHeight);
+        for (Rectangle region : regions) {
+            // regions are lower-left based and expressed in points while
+            // leptonica expects upper-left based pixel coordinates
+            final int left = Math.max(0,
+                    Math.round(TesseractHelper.toPixels(region.getLeft())));
+            final int top = Math.max(0, Math.round(
+                    TesseractHelper.toPixels(pageHeight - region.getTop())));
+            final int right = Math.min(pix.w,
+                    Math.round(TesseractHelper.toPixels(region.getRight())));
+            final int bottom = Math.min(pix.h, Math.round(
+                    TesseractHelper.toPixels(pageHeight - region.getBottom())));
+            final Pix regionPix = right > left && bottom > top
+                    ? TesseractOcrUtil.cropPix(pix, left, top,
+                            right - left, bottom - top)
+                    : null;
+            if (regionPix == null) {
+                LoggerFactory.getLogger(getClass()).warn(MessageFormatUtil
+                        .format(Tesseract4LogMessageConstant
+                                        .REGION_IS_OUT_OF_IMAGE,
+                                region, pageNumber));
+                continue;
+            }
+            final File regionFile = createTempFile(".png");
+            try (ScopedPix scopedRegionPix = new ScopedPix(regionPix)) {
+                TesseractOcrUtil.savePixToPngFile(
+                        regionFile.getAbsolutePath(), scopedRegionPix.get());
+                ITesseractOcrResult result = processInputFiles(regionFile,
+                        null, getTextInfosOutputFormat(), false, false);
+                if (result != null) {
+                    TesseractHelper.addTranslatedTextInfos(pageText,
+                            ((TextInfoTesseractOcrResult) result)
+                                    .getTextInfos().get(1),
+                            TesseractHelper.toPoints(left),
+                            TesseractHelper.toPoints(pix.h - bottom));
+                }
+            } finally {
+                TesseractHelper.deleteFile(regionFile.getAbsolutePath());
+            }
+        }
+        return pageText;
+    }
+
+    /**
+     * Performs OCR either for the input file or for the input bytes,
+     * depending on which of them is passed.
+     *
+     * @param input input image {@link java.io.File}
+     * @param inputBytes input image as a byte array
+     * @param outputFiles {@link java.util.List} of output files
+     *                                          (one per each page)
+     * @param outputFormat selected {@link OutputFormat} for tesseract
+     * @param pageNumber number of page to be processed
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     */
+    private void doTesseractOcr(final File input, final byte[] inputBytes,
+            final List<File> outputFiles, final OutputFormat outputFormat,
+            final int pageNumber, final boolean dispatchEvent) {
+        if (inputBytes == null) {
+            doTesseractOcr(input, outputFiles, outputFormat, pageNumber,
+                    dispatchEvent);
+        } else {
+            doTesseractOcr(inputBytes, outputFiles, outputFormat, pageNumber,
+                    dispatchEvent);
+        }
+    }
+
+    /**
+     * Checks whether the page of the input image is blank according to
+     * {@link Tesseract4OcrEngineProperties#getBlankPageThreshold()}.
+     *
+     * @param input input image {@link java.io.File}
+     * @param inputBytes input image as a byte array
+     * @param pageNumber number of page to be checked
+     * @return true if blank page detection is enabled and page is blank
+     */
+    private boolean isBlankPage(final File input, final byte[] inputBytes,
+            final int pageNumber) {
+        final float threshold = getTesseract4OcrEngineProperties()
+                .getBlankPageThreshold();
+        if (threshold <= 0) {
+            return false;
+        }
+        return inputBytes == null
+                ? ImagePreprocessingUtil.isBlankPage(input, pageNumber,
+                        threshold)
+                : ImagePreprocessingUtil.isBlankPage(inputBytes, pageNumber,
+                        threshold);
     }
 
     /**
@@ -475,9 +1800,106 @@ public abstract class AbstractTesseract4OcrEngine implements IOcrEngine, IThread
         }
     }
 
+    /**
+     * Validates format of the input image passed as a byte array.
+     * Allowed image formats are listed
+     * in {@link AbstractTesseract4OcrEngine#SUPPORTED_IMAGE_FORMATS}
+     *
+     * @param image input image as a byte array
+     * @throws Tesseract4OcrException if image format is invalid
+     */
+    private void verifyImageFormatValidity(final byte[] image)
+            throws Tesseract4OcrException {
+        ImageType type = ImagePreprocessingUtil.getImageType(image);
+        if (!SUPPORTED_IMAGE_FORMATS.contains(type)) {
+            LoggerFactory.getLogger(getClass()).error(MessageFormatUtil
+                    .format(Tesseract4LogMessageConstant
+                                    .CANNOT_READ_INPUT_IMAGE,
+                            ImagePreprocessingUtil.IN_MEMORY_IMAGE));
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException.INCORRECT_INPUT_IMAGE_FORMAT)
+                    .setMessageParams(String.valueOf(type));
+        }
+    }
+
     interface ITesseractOcrResult {
     }
 
+    /**
+     * OCRs a single page of the multi-page image in a worker thread.
+     */
+    private class PageOcrTask implements Callable<ITesseractOcrResult> {
+        private final File input;
+        private final byte[] inputBytes;
+        private final OutputFormat outputFormat;
+        private final int page;
+        private final boolean dispatchEvent;
+        private final boolean analyzePage;
+        private final IMetaInfo metaInfo;
+        private final Long deadline;
+
+        PageOcrTask(final File input, final byte[] inputBytes,
+                final OutputFormat outputFormat, final int page,
+                final boolean dispatchEvent, final boolean analyzePage,
+                final IMetaInfo metaInfo, final Long deadline) {
+            this.input = input;
+            this.inputBytes = inputBytes;
+            this.outputFormat = outputFormat;
+            this.page = page;
+            this.dispatchEvent = dispatchEvent;
+            this.analyzePage = analyzePage;
+            this.metaInfo = metaInfo;
+            this.deadline = deadline;
+        }
+
+        @Override
+        public ITesseractOcrResult call() throws IOException {
+            final IMetaInfo storedMetaInfo = getThreadLocalMetaInfo();
+            final Long storedDeadline = documentDeadline.get();
+            setThreadLocalMetaInfo(metaInfo);
+            documentDeadline.set(deadline);
+            try {
+                return processPage(input, inputBytes, outputFormat, page, 1,
+                        dispatchEvent, analyzePage);
+            } finally {
+                setThreadLocalMetaInfo(storedMetaInfo);
+                documentDeadline.set(storedDeadline);
+            }
+        }
+    }
+
+    /**
+     * State of the {@link com.itextpdf.pdfocr.OcrPdfCreator} run in progress.
+     */
+    private static final class DocumentRun {
+        /**
+         * Number of threads in which meta info of the run is set.
+         */
+        private int threadsCount;
+
+        /**
+         * Indicates whether document level event has been dispatched.
+         */
+        private boolean eventDispatched;
+    }
+
+    /**
+     * Thread local state of the OCR: meta info of the processed document,
+     * languages of the processed page and tess data of the cascade.
+     */
+    static final class OcrThreadContext {
+        private final IMetaInfo metaInfo;
+        private final File cascadeTessData;
+        private final List<String> pageLanguages;
+
+        OcrThreadContext(final IMetaInfo metaInfo, final File cascadeTessData,
+                final List<String> pageLanguages) {
+            this.metaInfo = metaInfo;
+            this.cascadeTessData = cascadeTessData;
+            this.pageLanguages = pageLanguages;
+        }
+    }
+
     static class StringTesseractOcrResult implements ITesseractOcrResult {
         private String data;
 
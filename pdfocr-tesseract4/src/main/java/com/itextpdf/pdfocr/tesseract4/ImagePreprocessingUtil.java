@@ -23,14 +23,10 @@
 package com.itextpdf.pdfocr.tesseract4;
 
 import com.itextpdf.io.image.ImageType;
-import com.itextpdf.io.image.ImageTypeDetector;
-import com.itextpdf.io.image.TiffImageData;
-import com.itextpdf.io.util.UrlUtil;
-import com.itextpdf.io.source.RandomAccessFileOrArray;
-import com.itextpdf.io.source.RandomAccessSourceFactory;
 import com.itextpdf.io.util.MessageFormatUtil;
 
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -45,6 +41,12 @@ import org.slf4j.LoggerFactory;
  */
 class ImagePreprocessingUtil {
 
+    /**
+     * Description of an image passed as a byte array,
+     * used in log and exception messages instead of a file path.
+     */
+    static final String IN_MEMORY_IMAGE = "<in-memory image>";
+
     /**
      * Creates a new {@link ImagePreprocessingUtil} instance.
      */
@@ -56,19 +58,23 @@ class ImagePreprocessingUtil {
      *
      * @param inputImage input image {@link java.io.File}
      * @return number of pages in the provided TIFF image
-     * @throws IOException if error occurred during creating a
-     * {@link com.itextpdf.io.source.IRandomAccessSource} based on a filename
-     * string
+     * @throws IOException if error occurred during reading the image
      */
     static int getNumberOfPageTiff(final File inputImage)
             throws IOException {
-        RandomAccessFileOrArray raf = new RandomAccessFileOrArray(
-                new RandomAccessSourceFactory()
-                        .createBestSource(
-                                inputImage.getAbsolutePath()));
-        int numOfPages = TiffImageData.getNumberOfPages(raf);
-        raf.close();
-        return numOfPages;
+        return ImageProbe.probe(inputImage).getNumberOfPages();
+    }
+
+    /**
+     * Counts number of pages in the provided tiff image.
+     *
+     * @param inputImage input image as a byte array
+     * @return number of pages in the provided TIFF image
+     * @throws IOException if error occurred during reading the image
+     */
+    static int getNumberOfPageTiff(final byte[] inputImage)
+            throws IOException {
+        return ImageProbe.probe(inputImage).getNumberOfPages();
     }
 
     /**
@@ -81,6 +87,16 @@ class ImagePreprocessingUtil {
         return getImageType(inputImage) == ImageType.TIFF;
     }
 
+    /**
+     * Checks whether image format is TIFF.
+     *
+     * @param inputImage input image as a byte array
+     * @return true if provided image is a TIFF image
+     */
+    static boolean isTiffImage(final byte[] inputImage) {
+        return getImageType(inputImage) == ImageType.TIFF;
+    }
+
     /**
      * Gets the image type.
      *
@@ -88,20 +104,17 @@ class ImagePreprocessingUtil {
      * @return image type {@link com.itextpdf.io.image.ImageType}
      */
     static ImageType getImageType(final File inputImage) {
-        ImageType type;
-        try {
-            type = ImageTypeDetector.detectImageType(UrlUtil.toURL(inputImage.getAbsolutePath()));
-        } catch (Exception e) { // NOSONAR
-            LoggerFactory.getLogger(ImagePreprocessingUtil.class).error(MessageFormatUtil
-                    .format(Tesseract4LogMessageConstant
-                                    .CANNOT_READ_INPUT_IMAGE,
-                            e.getMessage()));
-            throw new Tesseract4OcrException(
-                    Tesseract4OcrException.CANNOT_READ_PROVIDED_IMAGE)
-                    .setMessageParams(inputImage.getAbsolutePath());
-        }
+        return ImageProbe.probe(inputImage).getImageType();
+    }
 
-        return type;
+    /**
+     * Gets the image type from the leading bytes of the image.
+     *
+     * @param inputImage input image as a byte array
+     * @return image type {@link com.itextpdf.io.image.ImageType}
+     */
+    static ImageType getImageType(final byte[] inputImage) {
+        return ImageProbe.probe(inputImage).getImageType();
     }
 
     /**
@@ -133,9 +146,10 @@ class ImagePreprocessingUtil {
     static BufferedImage readAsPixAndConvertToBufferedImage(
             final File inputImage)
             throws IOException {
-        Pix pix = Leptonica.INSTANCE
-                .pixRead(inputImage.getAbsolutePath());
-        return TesseractOcrUtil.convertPixToImage(pix);
+        try (ScopedPix pix = new ScopedPix(PixMemoryStatistics.register(
+                Leptonica.INSTANCE.pixRead(inputImage.getAbsolutePath())))) {
+            return TesseractOcrUtil.convertPixToImage(pix.get());
+        }
     }
 
     /**
@@ -153,20 +167,162 @@ class ImagePreprocessingUtil {
                                final int pageNumber,
                                final ImagePreprocessingOptions imagePreprocessingOptions)
             throws Tesseract4OcrException {
-        Pix pix = null;
-        // read image
+        try (ScopedPix pix = new ScopedPix(readPixPage(inputFile, pageNumber))) {
+            if (pix.get() == null) {
+                throw new Tesseract4OcrException(
+                        Tesseract4OcrException.CANNOT_READ_PROVIDED_IMAGE)
+                        .setMessageParams(inputFile.getAbsolutePath());
+            }
+            pix.replace(TesseractOcrUtil.scalePix(pix.get(),
+                    getDpiScale(inputFile, pageNumber,
+                            imagePreprocessingOptions)));
+            pix.replace(TesseractOcrUtil.preprocessPix(pix.get(),
+                    imagePreprocessingOptions));
+            return pix.release();
+        }
+    }
+
+    /**
+     * Performs basic image preprocessing for the image passed as a byte array.
+     *
+     * @param inputImage input image as a byte array
+     * @param pageNumber number of page to be preprocessed
+     * @param imagePreprocessingOptions {@link ImagePreprocessingOptions}
+     * @return created preprocessed image as {@link net.sourceforge.lept4j.Pix}
+     * @throws Tesseract4OcrException if it was not possible to read or convert
+     * input image
+     */
+    static Pix preprocessImage(final byte[] inputImage,
+                               final int pageNumber,
+                               final ImagePreprocessingOptions imagePreprocessingOptions)
+            throws Tesseract4OcrException {
+        try (ScopedPix pix = new ScopedPix(readPixPage(inputImage, pageNumber))) {
+            if (pix.get() == null) {
+                throw new Tesseract4OcrException(
+                        Tesseract4OcrException.CANNOT_READ_PROVIDED_IMAGE)
+                        .setMessageParams(IN_MEMORY_IMAGE);
+            }
+            pix.replace(TesseractOcrUtil.scalePix(pix.get(),
+                    getDpiScale(inputImage, pageNumber,
+                            imagePreprocessingOptions)));
+            pix.replace(TesseractOcrUtil.preprocessPix(pix.get(),
+                    imagePreprocessingOptions));
+            return pix.release();
+        }
+    }
+
+    /**
+     * Calculates how the image should be scaled to be resampled to
+     * {@link ImagePreprocessingOptions#getTargetDpi()}. Images are only
+     * downsampled, resolution of the page is read from image metadata, so
+     * pages of multi-page TIFF images are scaled separately.
+     *
+     * @param inputFile input image {@link java.io.File}
+     * @param pageNumber number of page whose resolution is used
+     * @param imagePreprocessingOptions {@link ImagePreprocessingOptions}
+     * @return scale factor, 1 if page should not be resampled
+     */
+    static float getDpiScale(final File inputFile, final int pageNumber,
+            final ImagePreprocessingOptions imagePreprocessingOptions) {
+        if (imagePreprocessingOptions == null
+                || imagePreprocessingOptions.getTargetDpi() <= 0) {
+            return 1;
+        }
+        return getDpiScale(ImageProbe.probe(inputFile)
+                        .getDpi(pageNumber - 1),
+                imagePreprocessingOptions.getTargetDpi());
+    }
+
+    /**
+     * Calculates how the image passed as a byte array should be scaled to
+     * be resampled to {@link ImagePreprocessingOptions#getTargetDpi()}.
+     * Images are only downsampled, resolution of the page is read from
+     * image metadata.
+     *
+     * @param inputImage input image as a byte array
+     * @param pageNumber number of page whose resolution is used
+     * @param imagePreprocessingOptions {@link ImagePreprocessingOptions}
+     * @return scale factor, 1 if page should not be resampled
+     */
+    static float getDpiScale(final byte[] inputImage, final int pageNumber,
+            final ImagePreprocessingOptions imagePreprocessingOptions) {
+        if (imagePreprocessingOptions == null
+                || imagePreprocessingOptions.getTargetDpi() <= 0) {
+            return 1;
+        }
+        return getDpiScale(ImageProbe.probe(inputImage)
+                        .getDpi(pageNumber - 1),
+                imagePreprocessingOptions.getTargetDpi());
+    }
+
+    /**
+     * Checks whether the page of the image is blank, i.e. whether ratio of
+     * dark pixels on it is less than provided threshold.
+     *
+     * @param inputFile input image {@link java.io.File}
+     * @param pageNumber number of page to be checked
+     * @param inkRatioThreshold ratio of dark pixels below which page is
+     *                          considered blank
+     * @return true if page is blank, false if it is not blank or cannot be
+     * read
+     */
+    static boolean isBlankPage(final File inputFile, final int pageNumber,
+            final float inkRatioThreshold) {
+        return isBlankPage(readPixPage(inputFile, pageNumber), pageNumber,
+                inkRatioThreshold);
+    }
+
+    /**
+     * Checks whether the page of the image passed as a byte array is blank,
+     * i.e. whether ratio of dark pixels on it is less than provided
+     * threshold.
+     *
+     * @param inputImage input image as a byte array
+     * @param pageNumber number of page to be checked
+     * @param inkRatioThreshold ratio of dark pixels below which page is
+     *                          considered blank
+     * @return true if page is blank, false if it is not blank or cannot be
+     * read
+     */
+    static boolean isBlankPage(final byte[] inputImage, final int pageNumber,
+            final float inkRatioThreshold) {
+        return isBlankPage(readPixPage(inputImage, pageNumber), pageNumber,
+                inkRatioThreshold);
+    }
+
+    /**
+     * Reads required page of the image as {@link net.sourceforge.lept4j.Pix}.
+     *
+     * @param inputFile input image {@link java.io.File}
+     * @param pageNumber number of page to be read
+     * @return {@link net.sourceforge.lept4j.Pix} object or null if image
+     * cannot be read
+     */
+    static Pix readPixPage(final File inputFile, final int pageNumber) {
         if (isTiffImage(inputFile)) {
-            pix = TesseractOcrUtil.readPixPageFromTiff(inputFile,
+            return TesseractOcrUtil.readPixPageFromTiff(inputFile,
                     pageNumber - 1);
         } else {
-            pix = TesseractOcrUtil.readPix(inputFile);
+            return TesseractOcrUtil.readPix(inputFile);
         }
-        if (pix == null) {
-            throw new Tesseract4OcrException(
-                    Tesseract4OcrException.CANNOT_READ_PROVIDED_IMAGE)
-                    .setMessageParams(inputFile.getAbsolutePath());
+    }
+
+    /**
+     * Reads required page of the image passed as a byte array as
+     * {@link net.sourceforge.lept4j.Pix}.
+     *
+     * @param inputImage input image as a byte array
+     * @param pageNumber number of page to be read
+     * @return {@link net.sourceforge.lept4j.Pix} object or null if image
+     * cannot be read
+     */
+    static Pix readPixPage(final byte[] inputImage, final int pageNumber) {
+        if (isTiffImage(inputImage)) {
+            return TesseractOcrUtil.readPixPageFromTiff(inputImage,
+                    pageNumber - 1);
+        } else {
+            return TesseractOcrUtil.readPix(inputImage);
         }
-        return TesseractOcrUtil.preprocessPix(pix, imagePreprocessingOptions);
     }
 
     /**
@@ -204,4 +360,73 @@ class ImagePreprocessingUtil {
         }
         return bufferedImage;
     }
+
+    /**
+     * Reads input image passed as a byte array as a
+     * {@link java.awt.image.BufferedImage}.
+     * If it is not possible to read {@link java.awt.image.BufferedImage}
+     * directly, image will be read as a {@link net.sourceforge.lept4j.Pix}
+     * and then converted to {@link java.awt.image.BufferedImage}.
+     * @param inputImage original input image as a byte array
+     * @return input image as a {@link java.awt.image.BufferedImage}
+     */
+    static BufferedImage readImage(final byte[] inputImage) {
+        BufferedImage bufferedImage = null;
+        try {
+            bufferedImage = ImageIO.read(new ByteArrayInputStream(inputImage));
+        } catch (IllegalArgumentException | IOException ex) {
+            LoggerFactory.getLogger(ImagePreprocessingUtil.class).info(
+                    MessageFormatUtil.format(
+                            Tesseract4LogMessageConstant
+                                    .CANNOT_CREATE_BUFFERED_IMAGE,
+                            ex.getMessage()));
+        }
+        if (bufferedImage == null) {
+            try (ScopedPix pix = new ScopedPix(
+                    TesseractOcrUtil.readPix(inputImage))) {
+                bufferedImage = TesseractOcrUtil.convertPixToImage(pix.get());
+            } catch (IOException ex) {
+                LoggerFactory.getLogger(ImagePreprocessingUtil.class)
+                        .info(MessageFormatUtil.format(
+                                Tesseract4LogMessageConstant
+                                        .CANNOT_READ_INPUT_IMAGE,
+                                ex.getMessage()));
+            }
+        }
+        return bufferedImage;
+    }
+
+    /**
+     * Checks whether the ratio of dark pixels in the image is less than
+     * provided threshold. Provided image is destroyed.
+     */
+    private static boolean isBlankPage(final Pix pix, final int pageNumber,
+            final float inkRatioThreshold) {
+        if (pix == null) {
+            return false;
+        }
+        try (ScopedPix page = new ScopedPix(pix)) {
+            final float inkRatio = TesseractOcrUtil.getInkRatio(page.get());
+            if (inkRatio < inkRatioThreshold) {
+                LoggerFactory.getLogger(ImagePreprocessingUtil.class).info(
+                        MessageFormatUtil.format(
+                                Tesseract4LogMessageConstant
+                                        .BLANK_PAGE_IS_SKIPPED,
+                                pageNumber, inkRatio));
+                return true;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Calculates scale factor from the image resolution and target
+     * resolution. Images without resolution in metadata are not resampled.
+     */
+    private static float getDpiScale(final int dpi, final int targetDpi) {
+        if (dpi <= targetDpi) {
+            return 1;
+        }
+        return (float) targetDpi / dpi;
+    }
 }
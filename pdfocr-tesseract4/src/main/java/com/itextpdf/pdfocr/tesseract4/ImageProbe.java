@@ -0,0 +1,428 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.tesseract4;
+
+import com.itextpdf.io.codec.TIFFConstants;
+import com.itextpdf.io.codec.TIFFDirectory;
+import com.itextpdf.io.codec.TIFFField;
+import com.itextpdf.io.image.ImageType;
+import com.itextpdf.io.image.ImageTypeDetector;
+import com.itextpdf.io.image.TiffImageData;
+import com.itextpdf.io.source.RandomAccessFileOrArray;
+import com.itextpdf.io.source.RandomAccessSourceFactory;
+import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.io.util.UrlUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import org.apache.commons.imaging.ImageInfo;
+import org.apache.commons.imaging.Imaging;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Header-only description of an input image: its type, number of pages,
+ * per-page dimensions and resolution and the rotation specified by its
+ * metadata.
+ *
+ * Probes are memoized, so the several places that need to know something
+ * about the same input (type detection, page counting, dpi scaling,
+ * rotation detection) parse its header only once. Files are keyed by path,
+ * length and modification time, byte arrays are keyed by identity and
+ * released together with the array.
+ */
+final class ImageProbe {
+
+    /**
+     * The logger.
+     */
+    private static final Logger LOGGER = LoggerFactory
+            .getLogger(ImageProbe.class);
+
+    /**
+     * Maximum number of probes of files kept in memory.
+     */
+    private static final int MAX_CACHED_FILE_PROBES = 256;
+
+    /**
+     * Default resolution unit of TIFF images as per TIFF specification.
+     */
+    private static final int DEFAULT_TIFF_RESOLUTION_UNIT =
+            TIFFConstants.RESUNIT_INCH;
+
+    /**
+     * Centimeters in one inch.
+     */
+    private static final float CM_PER_INCH = 2.54f;
+
+    /**
+     * Probes of files, least recently used are evicted first.
+     */
+    private static final Map<String, ImageProbe> FILE_PROBES =
+            Collections.synchronizedMap(new ProbeCache());
+
+    /**
+     * Probes of images passed as byte arrays.
+     */
+    private static final Map<byte[], ImageProbe> BYTES_PROBES =
+            Collections.synchronizedMap(new WeakHashMap<byte[], ImageProbe>());
+
+    /**
+     * Type of the image.
+     */
+    private final ImageType imageType;
+
+    /**
+     * Number of pages, 1 for all formats except TIFF.
+     */
+    private int numberOfPages = 1;
+
+    /**
+     * Width of each page in pixels, 0 if unknown.
+     */
+    private int[] widths = new int[] {0};
+
+    /**
+     * Height of each page in pixels, 0 if unknown.
+     */
+    private int[] heights = new int[] {0};
+
+    /**
+     * Horizontal resolution of each page in dpi, 0 if unknown.
+     */
+    private int[] dpis = new int[] {0};
+
+    /**
+     * Rotation specified by the image metadata in degrees.
+     */
+    private int rotation = 0;
+
+    /**
+     * Message of the error occurred while reading pages of a TIFF image,
+     * null if pages were read successfully.
+     */
+    private String pagesReadError;
+
+    /**
+     * Creates a new {@link ImageProbe} instance.
+     *
+     * @param imageType type of the image
+     */
+    private ImageProbe(final ImageType imageType) {
+        this.imageType = imageType;
+    }
+
+    /**
+     * Probes the provided image file or returns the cached probe if the
+     * file was not changed since it was probed.
+     *
+     * @param inputImage input image {@link java.io.File}
+     * @return {@link ImageProbe} of the image
+     * @throws Tesseract4OcrException if image type cannot be detected
+     */
+    static ImageProbe probe(final File inputImage) {
+        final String key = inputImage.getAbsolutePath() + "|"
+                + inputImage.length() + "|" + inputImage.lastModified();
+        ImageProbe probe = FILE_PROBES.get(key);
+        if (probe == null) {
+            probe = new ImageProbe(detectImageType(inputImage));
+            probe.readHeader(inputImage);
+            FILE_PROBES.put(key, probe);
+        }
+        return probe;
+    }
+
+    /**
+     * Probes the image passed as a byte array or returns the cached probe
+     * if the same array was already probed. The array must not be modified
+     * after it was probed.
+     *
+     * @param inputImage input image as a byte array
+     * @return {@link ImageProbe} of the image
+     * @throws Tesseract4OcrException if image type cannot be detected
+     */
+    static ImageProbe probe(final byte[] inputImage) {
+        ImageProbe probe = BYTES_PROBES.get(inputImage);
+        if (probe == null) {
+            probe = new ImageProbe(detectImageType(inputImage));
+            probe.readHeader(inputImage);
+            BYTES_PROBES.put(inputImage, probe);
+        }
+        return probe;
+    }
+
+    /**
+     * Gets the image type.
+     *
+     * @return image type {@link com.itextpdf.io.image.ImageType}
+     */
+    ImageType getImageType() {
+        return imageType;
+    }
+
+    /**
+     * Gets number of pages in the image.
+     *
+     * @return number of pages, 1 for all formats except TIFF
+     * @throws IOException if pages of the TIFF image cannot be read
+     */
+    int getNumberOfPages() throws IOException {
+        if (pagesReadError != null) {
+            throw new IOException(pagesReadError);
+        }
+        return numberOfPages;
+    }
+
+    /**
+     * Gets width of the page.
+     *
+     * @param page number of page (0-based)
+     * @return width in pixels, 0 if unknown
+     */
+    int getWidth(final int page) {
+        return page >= 0 && page < widths.length ? widths[page] : 0;
+    }
+
+    /**
+     * Gets height of the page.
+     *
+     * @param page number of page (0-based)
+     * @return height in pixels, 0 if unknown
+     */
+    int getHeight(final int page) {
+        return page >= 0 && page < heights.length ? heights[page] : 0;
+    }
+
+    /**
+     * Gets horizontal resolution of the page.
+     *
+     * @param page number of page (0-based)
+     * @return resolution in dpi, 0 if unknown
+     */
+    int getDpi(final int page) {
+        return page >= 0 && page < dpis.length ? dpis[page] : 0;
+    }
+
+    /**
+     * Gets rotation specified by the image metadata. For TIFF images
+     * orientation of the first page is used.
+     *
+     * @return rotation in degrees
+     */
+    int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Reads header of the image file.
+     */
+    private void readHeader(final File inputImage) {
+        if (imageType == ImageType.TIFF) {
+            try {
+                readTiffHeader(new RandomAccessFileOrArray(
+                        new RandomAccessSourceFactory()
+                                .createBestSource(
+                                        inputImage.getAbsolutePath())));
+            } catch (Exception e) { // NOSONAR
+                pagesReadError = String.valueOf(e.getMessage());
+            }
+        } else {
+            try {
+                readImageInfo(Imaging.getImageInfo(inputImage));
+            } catch (Exception e) { // NOSONAR
+                logMetadataError(e);
+            }
+            try {
+                rotation = TesseractOcrUtil.detectRotation(
+                        Imaging.getMetadata(inputImage));
+            } catch (Exception e) { // NOSONAR
+                logMetadataError(e);
+            }
+        }
+    }
+
+    /**
+     * Reads header of the image passed as a byte array.
+     */
+    private void readHeader(final byte[] inputImage) {
+        if (imageType == ImageType.TIFF) {
+            try {
+                readTiffHeader(new RandomAccessFileOrArray(
+                        new RandomAccessSourceFactory()
+                                .createSource(inputImage)));
+            } catch (Exception e) { // NOSONAR
+                pagesReadError = String.valueOf(e.getMessage());
+            }
+        } else {
+            try {
+                readImageInfo(Imaging.getImageInfo(inputImage));
+            } catch (Exception e) { // NOSONAR
+                logMetadataError(e);
+            }
+            try {
+                rotation = TesseractOcrUtil.detectRotation(
+                        Imaging.getMetadata(inputImage));
+            } catch (Exception e) { // NOSONAR
+                logMetadataError(e);
+            }
+        }
+    }
+
+    /**
+     * Stores dimensions and resolution of a single page image.
+     */
+    private void readImageInfo(final ImageInfo imageInfo) {
+        widths[0] = imageInfo.getWidth();
+        heights[0] = imageInfo.getHeight();
+        dpis[0] = Math.max(0, imageInfo.getPhysicalWidthDpi());
+    }
+
+    /**
+     * Reads image file directories of all pages of the TIFF image. Only
+     * directories are read, image data is not decoded.
+     */
+    private void readTiffHeader(final RandomAccessFileOrArray raf)
+            throws IOException {
+        try {
+            numberOfPages = TiffImageData.getNumberOfPages(raf);
+            widths = new int[numberOfPages];
+            heights = new int[numberOfPages];
+            dpis = new int[numberOfPages];
+            for (int page = 0; page < numberOfPages; page++) {
+                try {
+                    final TIFFDirectory dir = new TIFFDirectory(raf, page);
+                    widths[page] = (int) dir.getFieldAsLong(
+                            TIFFConstants.TIFFTAG_IMAGEWIDTH);
+                    heights[page] = (int) dir.getFieldAsLong(
+                            TIFFConstants.TIFFTAG_IMAGELENGTH);
+                    dpis[page] = readTiffDpi(dir);
+                    if (page == 0 && dir.isTagPresent(
+                            TIFFConstants.TIFFTAG_ORIENTATION)) {
+                        rotation = TesseractOcrUtil
+                                .convertOrientationToRotation(
+                                        (int) dir.getFieldAsLong(
+                                                TIFFConstants.TIFFTAG_ORIENTATION));
+                    }
+                } catch (Exception e) { // NOSONAR
+                    logMetadataError(e);
+                }
+            }
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Reads horizontal resolution from TIFF image file directory.
+     *
+     * @return resolution in dpi, 0 if unknown
+     */
+    private static int readTiffDpi(final TIFFDirectory dir) {
+        final TIFFField resolution =
+                dir.getField(TIFFConstants.TIFFTAG_XRESOLUTION);
+        if (resolution == null) {
+            return 0;
+        }
+        final long[] rational = resolution.getAsRational(0);
+        if (rational[1] == 0) {
+            return 0;
+        }
+        float dpi = (float) rational[0] / rational[1];
+        final int unit = dir.isTagPresent(TIFFConstants.TIFFTAG_RESOLUTIONUNIT)
+                ? (int) dir.getFieldAsLong(TIFFConstants.TIFFTAG_RESOLUTIONUNIT)
+                : DEFAULT_TIFF_RESOLUTION_UNIT;
+        if (unit == TIFFConstants.RESUNIT_CENTIMETER) {
+            dpi *= CM_PER_INCH;
+        } else if (unit != TIFFConstants.RESUNIT_INCH) {
+            return 0;
+        }
+        return Math.round(dpi);
+    }
+
+    /**
+     * Detects type of the image file.
+     */
+    private static ImageType detectImageType(final File inputImage) {
+        try {
+            return ImageTypeDetector.detectImageType(
+                    UrlUtil.toURL(inputImage.getAbsolutePath()));
+        } catch (Exception e) { // NOSONAR
+            LOGGER.error(MessageFormatUtil.format(
+                    Tesseract4LogMessageConstant.CANNOT_READ_INPUT_IMAGE,
+                    e.getMessage()));
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException.CANNOT_READ_PROVIDED_IMAGE)
+                    .setMessageParams(inputImage.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Detects type of the image from its leading bytes.
+     */
+    private static ImageType detectImageType(final byte[] inputImage) {
+        try {
+            return ImageTypeDetector.detectImageType(inputImage);
+        } catch (Exception e) { // NOSONAR
+            LOGGER.error(MessageFormatUtil.format(
+                    Tesseract4LogMessageConstant.CANNOT_READ_INPUT_IMAGE,
+                    e.getMessage()));
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException.CANNOT_READ_PROVIDED_IMAGE)
+                    .setMessageParams(
+                            ImagePreprocessingUtil.IN_MEMORY_IMAGE);
+        }
+    }
+
+    /**
+     * Logs that image metadata cannot be read.
+     */
+    private static void logMetadataError(final Exception e) {
+        LOGGER.info(MessageFormatUtil.format(
+                Tesseract4LogMessageConstant.CANNOT_READ_IMAGE_METADATA,
+                e.getMessage()));
+    }
+
+    /**
+     * Map of file probes limited to {@link #MAX_CACHED_FILE_PROBES}
+     * entries, least recently used entries are evicted first.
+     */
+    private static final class ProbeCache
+            extends LinkedHashMap<String, ImageProbe> {
+
+        private static final long serialVersionUID = 1L;
+
+        ProbeCache() {
+            super(16, 0.75f, true);
+        }
+
+        @Override
+        protected boolean removeEldestEntry(
+                final Map.Entry<String, ImageProbe> eldest) {
+            return size() > MAX_CACHED_FILE_PROBES;
+        }
+    }
+}
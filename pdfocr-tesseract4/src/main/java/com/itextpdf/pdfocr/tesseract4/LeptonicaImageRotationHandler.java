@@ -23,16 +23,71 @@
 package com.itextpdf.pdfocr.tesseract4;
 
 import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageType;
 import com.itextpdf.pdfocr.IImageRotationHandler;
 
 /**
  * Leptonica based implementation of {@link com.itextpdf.pdfocr.IImageRotationHandler}.
+ *
+ * By default image is decoded, rotated and re-encoded as PNG. In
+ * metadata-only mode only the orientation stored in image metadata is read:
+ * image without rotation is returned untouched and rotation of other images
+ * is stored via {@link ImageData#setRotation(float)}, so that it is applied
+ * by the image placement matrix and original compressed image bytes are
+ * embedded into the result document unchanged.
  */
 public class LeptonicaImageRotationHandler implements IImageRotationHandler {
 
+    /**
+     * True if rotation should be applied via image placement instead of
+     * re-encoding the image.
+     */
+    private final boolean metadataOnly;
+
+    /**
+     * Creates a new {@link LeptonicaImageRotationHandler} instance which
+     * rotates image pixels.
+     */
+    public LeptonicaImageRotationHandler() {
+        this(false);
+    }
+
+    /**
+     * Creates a new {@link LeptonicaImageRotationHandler} instance.
+     *
+     * @param metadataOnly true if only image metadata should be read and
+     *                     rotation should be applied via image placement,
+     *                     false if image pixels should be rotated
+     */
+    public LeptonicaImageRotationHandler(final boolean metadataOnly) {
+        this.metadataOnly = metadataOnly;
+    }
+
+    /**
+     * Checks whether rotation is applied via image placement instead of
+     * re-encoding the image.
+     *
+     * @return true if only image metadata is read
+     */
+    public final boolean isMetadataOnly() {
+        return metadataOnly;
+    }
+
     @Override
     public ImageData applyRotation(ImageData imageData) {
-        return TesseractOcrUtil.applyRotation(imageData);
+        if (!metadataOnly) {
+            return TesseractOcrUtil.applyRotation(imageData);
+        }
+        // text of tiff pages is recognized without applying orientation
+        if (imageData.getOriginalType() == ImageType.TIFF) {
+            return imageData;
+        }
+        final int rotation = TesseractOcrUtil.detectRotation(imageData);
+        if (rotation != 0) {
+            // image data rotation is counterclockwise and in radians
+            imageData.setRotation((float) -Math.toRadians(rotation));
+        }
+        return imageData;
     }
 
 }
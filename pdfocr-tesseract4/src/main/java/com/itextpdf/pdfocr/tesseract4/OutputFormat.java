@@ -40,5 +40,21 @@ public enum OutputFormat {
     /**
      * Reader will produce plain txt file.
      */
-    TXT
+    TXT,
+    /**
+     * Reader will produce tab separated values file with the same
+     * page/block/paragraph/line/word hierarchy, bboxes and confidences
+     * as hOCR output.
+     * Output will be parsed and represented as {@link java.util.List} of
+     * {@link TextInfo} objects
+     */
+    TSV,
+    /**
+     * Reader will produce PDF document containing only invisible recognized
+     * text without images ("textonly_pdf" tesseract option).
+     * Output is not parsed, see
+     * {@link AbstractTesseract4OcrEngine#createTextLayerPdf(java.io.File,
+     * java.io.File)}
+     */
+    PDF
 }
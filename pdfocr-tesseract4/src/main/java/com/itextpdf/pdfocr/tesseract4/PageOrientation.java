@@ -0,0 +1,161 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.tesseract4;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Result of tesseract orientation and script detection.
+ */
+final class PageOrientation {
+
+    /**
+     * Pattern of the rotation line of tesseract OSD output.
+     */
+    private static final Pattern ROTATE_PATTERN =
+            Pattern.compile("Rotate:\\s*(\\d+)");
+
+    /**
+     * Pattern of the orientation confidence line of tesseract OSD output.
+     */
+    private static final Pattern ORIENTATION_CONFIDENCE_PATTERN =
+            Pattern.compile("Orientation confidence:\\s*([-\\d.]+)");
+
+    /**
+     * Pattern of the script line of tesseract OSD output.
+     */
+    private static final Pattern SCRIPT_PATTERN =
+            Pattern.compile("Script:\\s*(\\S+)");
+
+    /**
+     * Pattern of the script confidence line of tesseract OSD output.
+     */
+    private static final Pattern SCRIPT_CONFIDENCE_PATTERN =
+            Pattern.compile("Script confidence:\\s*([-\\d.]+)");
+
+    /**
+     * Clockwise rotation in degrees which makes the page upright.
+     */
+    private final int rotation;
+
+    /**
+     * Confidence of the detected orientation.
+     */
+    private final float confidence;
+
+    /**
+     * Name of the detected script, may be null.
+     */
+    private final String script;
+
+    /**
+     * Confidence of the detected script.
+     */
+    private final float scriptConfidence;
+
+    /**
+     * Creates a new {@link PageOrientation} instance.
+     *
+     * @param rotation clockwise rotation in degrees which makes the page
+     *                 upright
+     * @param confidence confidence of the detected orientation
+     * @param script name of the detected script, may be null
+     * @param scriptConfidence confidence of the detected script
+     */
+    PageOrientation(final int rotation, final float confidence,
+            final String script, final float scriptConfidence) {
+        this.rotation = ((rotation % 360) + 360) % 360;
+        this.confidence = confidence;
+        this.script = script;
+        this.scriptConfidence = scriptConfidence;
+    }
+
+    /**
+     * Parses orientation and script detection output of tesseract
+     * executable ("Rotate: 90", "Orientation confidence: 5.2", ...).
+     *
+     * @param osd content of tesseract OSD output
+     * @return parsed {@link PageOrientation} or null if output doesn't
+     * contain rotation
+     */
+    static PageOrientation parse(final String osd) {
+        final Matcher rotate = ROTATE_PATTERN.matcher(osd);
+        if (!rotate.find()) {
+            return null;
+        }
+        final Matcher script = SCRIPT_PATTERN.matcher(osd);
+        return new PageOrientation(Integer.parseInt(rotate.group(1)),
+                parseFloat(ORIENTATION_CONFIDENCE_PATTERN, osd),
+                script.find() ? script.group(1) : null,
+                parseFloat(SCRIPT_CONFIDENCE_PATTERN, osd));
+    }
+
+    /**
+     * Gets clockwise rotation which makes the page upright.
+     *
+     * @return rotation in degrees: 0, 90, 180 or 270
+     */
+    int getRotation() {
+        return rotation;
+    }
+
+    /**
+     * Gets confidence of the detected orientation.
+     *
+     * @return orientation confidence
+     */
+    float getConfidence() {
+        return confidence;
+    }
+
+    /**
+     * Gets name of the detected script, e.g. "Latin" or "Cyrillic".
+     *
+     * @return script name or null if script is not detected
+     */
+    String getScript() {
+        return script;
+    }
+
+    /**
+     * Gets confidence of the detected script.
+     *
+     * @return script confidence
+     */
+    float getScriptConfidence() {
+        return scriptConfidence;
+    }
+
+    private static float parseFloat(final Pattern pattern, final String osd) {
+        final Matcher matcher = pattern.matcher(osd);
+        if (!matcher.find()) {
+            return 0;
+        }
+        try {
+            return Float.parseFloat(matcher.group(1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
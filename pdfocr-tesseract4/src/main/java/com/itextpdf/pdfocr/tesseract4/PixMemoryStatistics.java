@@ -0,0 +1,106 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.tesseract4;
+
+import com.sun.jna.Pointer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import net.sourceforge.lept4j.Pix;
+
+/**
+ * Accounting of native memory allocated for Leptonica
+ * {@link net.sourceforge.lept4j.Pix} images.
+ *
+ * All images created by pdfOCR during image reading and preprocessing are
+ * registered here and unregistered when they are destroyed, so number of
+ * live images and amount of memory occupied by their pixel data can be used
+ * to detect native memory leaks.
+ */
+public final class PixMemoryStatistics {
+
+    /**
+     * Live images: native pointer of the image to the size of its pixel data
+     * in bytes.
+     */
+    private static final Map<Pointer, Long> LIVE_PIXES =
+            new ConcurrentHashMap<Pointer, Long>();
+
+    /**
+     * Total size of pixel data of live images in bytes.
+     */
+    private static final AtomicLong LIVE_BYTES = new AtomicLong();
+
+    private PixMemoryStatistics() {
+    }
+
+    /**
+     * Gets number of images which were created and not destroyed yet.
+     *
+     * @return number of live images
+     */
+    public static int getLivePixCount() {
+        return LIVE_PIXES.size();
+    }
+
+    /**
+     * Gets total size of pixel data of images which were created and not
+     * destroyed yet.
+     *
+     * @return size of pixel data of live images in bytes
+     */
+    public static long getLivePixBytes() {
+        return LIVE_BYTES.get();
+    }
+
+    /**
+     * Registers created image. Registering of the same image twice
+     * (e.g. if it was processed in place) has no effect.
+     *
+     * @param pix created {@link net.sourceforge.lept4j.Pix}, may be null
+     * @return the same {@link net.sourceforge.lept4j.Pix}
+     */
+    static Pix register(final Pix pix) {
+        if (pix != null && pix.getPointer() != null) {
+            final long bytes = (long) pix.h * pix.wpl * 4;
+            if (LIVE_PIXES.putIfAbsent(pix.getPointer(), bytes) == null) {
+                LIVE_BYTES.addAndGet(bytes);
+            }
+        }
+        return pix;
+    }
+
+    /**
+     * Unregisters image which is going to be destroyed.
+     *
+     * @param pix {@link net.sourceforge.lept4j.Pix} to be destroyed
+     */
+    static void unregister(final Pix pix) {
+        if (pix != null && pix.getPointer() != null) {
+            final Long bytes = LIVE_PIXES.remove(pix.getPointer());
+            if (bytes != null) {
+                LIVE_BYTES.addAndGet(-bytes);
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.tesseract4;
+
+import net.sourceforge.lept4j.Pix;
+
+/**
+ * Scoped owner of a Leptonica {@link net.sourceforge.lept4j.Pix} image.
+ *
+ * Owned image is destroyed when the scope is closed unless it was released.
+ * Intermediate images of a processing chain are destroyed as soon as they
+ * are replaced by the result of the next processing step:
+ * <pre>
+ * try (ScopedPix pix = new ScopedPix(TesseractOcrUtil.readPix(file))) {
+ *     pix.replace(TesseractOcrUtil.convertToGrayscale(pix.get()));
+ *     return pix.release();
+ * }
+ * </pre>
+ */
+final class ScopedPix implements AutoCloseable {
+
+    /**
+     * Current image, may be null.
+     */
+    private Pix pix;
+
+    /**
+     * Indicates if the current image is owned by this scope.
+     */
+    private boolean owned;
+
+    /**
+     * Creates a new {@link ScopedPix} instance which owns the image.
+     *
+     * @param pix {@link net.sourceforge.lept4j.Pix} to be owned, may be null
+     */
+    ScopedPix(final Pix pix) {
+        this(pix, true);
+    }
+
+    private ScopedPix(final Pix pix, final boolean owned) {
+        this.pix = pix;
+        this.owned = owned;
+    }
+
+    /**
+     * Creates a new {@link ScopedPix} instance for the image owned by the
+     * caller. Borrowed image is never destroyed by the scope, while results
+     * of its processing are.
+     *
+     * @param pix borrowed {@link net.sourceforge.lept4j.Pix}, may be null
+     * @return new {@link ScopedPix} instance
+     */
+    static ScopedPix borrow(final Pix pix) {
+        return new ScopedPix(pix, false);
+    }
+
+    /**
+     * Gets current image.
+     *
+     * @return current {@link net.sourceforge.lept4j.Pix}, may be null
+     */
+    Pix get() {
+        return pix;
+    }
+
+    /**
+     * Replaces current image with the result of its processing. Current
+     * image is destroyed if it is owned and the result is a different image.
+     * Processing functions are expected to leave their input intact.
+     *
+     * @param result processed {@link net.sourceforge.lept4j.Pix}, the result
+     *               is owned by the scope
+     * @return this {@link ScopedPix} instance
+     */
+    ScopedPix replace(final Pix result) {
+        if (isSameImage(pix, result)) {
+            return this;
+        }
+        if (owned) {
+            TesseractOcrUtil.destroyPix(pix);
+        }
+        pix = result;
+        owned = true;
+        return this;
+    }
+
+    /**
+     * Releases current image from the scope, so that it is not destroyed
+     * when the scope is closed. Caller becomes responsible for destroying
+     * the image if it was owned by the scope.
+     *
+     * @return current {@link net.sourceforge.lept4j.Pix}, may be null
+     */
+    Pix release() {
+        final Pix result = pix;
+        pix = null;
+        owned = false;
+        return result;
+    }
+
+    /**
+     * Destroys current image if it is owned by the scope.
+     */
+    @Override
+    public void close() {
+        if (owned) {
+            TesseractOcrUtil.destroyPix(pix);
+        }
+        pix = null;
+        owned = false;
+    }
+
+    private static boolean isSameImage(final Pix first, final Pix second) {
+        if (first == null || second == null) {
+            return first == second;
+        }
+        return first.getPointer().equals(second.getPointer());
+    }
+}
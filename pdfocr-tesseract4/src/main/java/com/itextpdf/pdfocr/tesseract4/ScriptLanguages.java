@@ -0,0 +1,175 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.tesseract4;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Maps scripts detected by tesseract orientation and script detection to
+ * the tesseract languages which are written in these scripts.
+ */
+final class ScriptLanguages {
+
+    /**
+     * Prefix of tesseract script models, e.g. "script/Latin".
+     */
+    private static final String SCRIPT_MODEL_PREFIX = "script/";
+
+    /**
+     * Script names reported by tesseract mapped to the script groups.
+     */
+    private static final Map<String, String> SCRIPT_GROUPS;
+
+    /**
+     * Tesseract languages mapped to the script groups.
+     */
+    private static final Map<String, String> LANGUAGE_SCRIPTS;
+
+    static {
+        Map<String, String> scriptGroups = new HashMap<String, String>();
+        for (String script : new String[] {"Latin", "Cyrillic", "Greek",
+                "Arabic", "Hebrew", "Devanagari", "Bengali", "Thai",
+                "Armenian", "Georgian", "Tamil", "Telugu", "Kannada",
+                "Malayalam", "Gujarati", "Gurmukhi", "Oriya", "Sinhala",
+                "Khmer", "Lao", "Myanmar", "Ethiopic", "Tibetan", "Syriac",
+                "Thaana", "Cherokee", "Canadian_Aboriginal"}) {
+            scriptGroups.put(script, script);
+        }
+        // chinese and japanese pages are not reliably distinguished
+        scriptGroups.put("Han", "Han");
+        scriptGroups.put("HanS", "Han");
+        scriptGroups.put("HanT", "Han");
+        scriptGroups.put("Japanese", "Han");
+        scriptGroups.put("Katakana", "Han");
+        scriptGroups.put("Hiragana", "Han");
+        scriptGroups.put("Hangul", "Hangul");
+        scriptGroups.put("Korean", "Hangul");
+        scriptGroups.put("Fraktur", "Latin");
+        scriptGroups.put("Vietnamese", "Latin");
+        SCRIPT_GROUPS = Collections.unmodifiableMap(scriptGroups);
+
+        Map<String, String> languageScripts = new HashMap<String, String>();
+        putLanguages(languageScripts, "Latin", "afr", "aze", "bos", "bre",
+                "cat", "ceb", "ces", "cos", "cym", "dan", "deu", "deu_frak",
+                "eng", "enm", "epo", "est", "eus", "fao", "fil", "fin", "fra",
+                "frk", "frm", "fry", "gla", "gle", "glg", "hat", "hrv", "hun",
+                "ind", "isl", "ita", "ita_old", "jav", "lat", "lav", "lit",
+                "ltz", "mlt", "mri", "msa", "nld", "nor", "oci", "pol", "por",
+                "que", "ron", "slk", "slk_frak", "slv", "spa", "spa_old",
+                "sqi", "srp_latn", "sun", "swa", "swe", "tgl", "ton", "tur",
+                "uzb", "vie", "yor");
+        putLanguages(languageScripts, "Cyrillic", "aze_cyrl", "bel", "bul",
+                "kaz", "kir", "mkd", "mon", "rus", "srp", "tat", "tgk", "ukr",
+                "uzb_cyrl");
+        putLanguages(languageScripts, "Greek", "ell", "grc");
+        putLanguages(languageScripts, "Arabic", "ara", "fas", "kur", "kur_ara",
+                "pus", "snd", "uig", "urd");
+        putLanguages(languageScripts, "Hebrew", "heb", "yid");
+        putLanguages(languageScripts, "Devanagari", "hin", "mar", "nep",
+                "san");
+        putLanguages(languageScripts, "Bengali", "asm", "ben");
+        putLanguages(languageScripts, "Thai", "tha");
+        putLanguages(languageScripts, "Armenian", "hye");
+        putLanguages(languageScripts, "Georgian", "kat", "kat_old");
+        putLanguages(languageScripts, "Tamil", "tam");
+        putLanguages(languageScripts, "Telugu", "tel");
+        putLanguages(languageScripts, "Kannada", "kan");
+        putLanguages(languageScripts, "Malayalam", "mal");
+        putLanguages(languageScripts, "Gujarati", "guj");
+        putLanguages(languageScripts, "Gurmukhi", "pan");
+        putLanguages(languageScripts, "Oriya", "ori");
+        putLanguages(languageScripts, "Sinhala", "sin");
+        putLanguages(languageScripts, "Khmer", "khm");
+        putLanguages(languageScripts, "Lao", "lao");
+        putLanguages(languageScripts, "Myanmar", "mya");
+        putLanguages(languageScripts, "Ethiopic", "amh", "tir");
+        putLanguages(languageScripts, "Tibetan", "bod", "dzo");
+        putLanguages(languageScripts, "Syriac", "syr");
+        putLanguages(languageScripts, "Thaana", "div");
+        putLanguages(languageScripts, "Cherokee", "chr");
+        putLanguages(languageScripts, "Canadian_Aboriginal", "iku");
+        putLanguages(languageScripts, "Han", "chi_sim", "chi_sim_vert",
+                "chi_tra", "chi_tra_vert", "jpn", "jpn_vert");
+        putLanguages(languageScripts, "Hangul", "kor", "kor_vert");
+        LANGUAGE_SCRIPTS = Collections.unmodifiableMap(languageScripts);
+    }
+
+    private ScriptLanguages() {
+    }
+
+    /**
+     * Selects languages which are written in the provided script.
+     * Languages of unknown script are always selected. If none of the
+     * languages is known to be written in the provided script or the
+     * script itself is unknown, all the languages are selected.
+     *
+     * @param languages {@link java.util.List} of tesseract languages
+     * @param script script name reported by tesseract, e.g. "Cyrillic"
+     * @return {@link java.util.List} of selected languages in the original
+     * order
+     */
+    static List<String> selectLanguages(final List<String> languages,
+            final String script) {
+        final String scriptGroup = SCRIPT_GROUPS.get(script);
+        if (scriptGroup == null) {
+            return languages;
+        }
+        List<String> selectedLanguages = new ArrayList<String>();
+        boolean isScriptLanguageFound = false;
+        for (String language : languages) {
+            final String languageScript = getLanguageScript(language);
+            if (scriptGroup.equals(languageScript)) {
+                isScriptLanguageFound = true;
+                selectedLanguages.add(language);
+            } else if (languageScript == null) {
+                selectedLanguages.add(language);
+            }
+        }
+        return isScriptLanguageFound ? selectedLanguages : languages;
+    }
+
+    /**
+     * Gets script group of the tesseract language.
+     *
+     * @param language tesseract language, e.g. "eng" or "script/Latin"
+     * @return script group or null if script of the language is unknown
+     */
+    static String getLanguageScript(final String language) {
+        if (language.startsWith(SCRIPT_MODEL_PREFIX)) {
+            return SCRIPT_GROUPS.get(
+                    language.substring(SCRIPT_MODEL_PREFIX.length()));
+        }
+        return LANGUAGE_SCRIPTS.get(language);
+    }
+
+    private static void putLanguages(final Map<String, String> languageScripts,
+            final String script, final String... languages) {
+        for (String language : languages) {
+            languageScripts.put(language, script);
+        }
+    }
+}
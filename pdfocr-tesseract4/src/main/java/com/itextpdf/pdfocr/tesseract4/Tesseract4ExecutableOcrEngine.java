@@ -22,6 +22,7 @@
  */
 package com.itextpdf.pdfocr.tesseract4;
 
+import com.itextpdf.io.image.ImageType;
 import com.itextpdf.io.util.MessageFormatUtil;
 
 import java.awt.image.BufferedImage;
@@ -116,13 +117,57 @@ public class Tesseract4ExecutableOcrEngine extends AbstractTesseract4OcrEngine {
     void doTesseractOcr(final File inputImage,
             final List<File> outputFiles, final OutputFormat outputFormat,
             final int pageNumber, final boolean dispatchEvent) {
+        doTesseractOcr(inputImage, null, outputFiles, outputFormat,
+                pageNumber, dispatchEvent);
+    }
+
+    /**
+     * Performs tesseract OCR using command line tool for the selected page
+     * of input image passed as a byte array (by default 1st).
+     * The image (or its preprocessed version) is written to a single
+     * temporary file which is passed to tesseract.
+     *
+     * See {@link #doTesseractOcr(File, List, OutputFormat, int, boolean)}
+     * for the details about the list of output files.
+     *
+     * @param inputImage input image as a byte array
+     * @param outputFiles {@link java.util.List} of output files
+     *                                          (one per each page)
+     * @param outputFormat selected {@link OutputFormat} for tesseract
+     * @param pageNumber number of page to be processed
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     */
+    void doTesseractOcr(final byte[] inputImage,
+            final List<File> outputFiles, final OutputFormat outputFormat,
+            final int pageNumber, final boolean dispatchEvent) {
+        doTesseractOcr(null, inputImage, outputFiles, outputFormat,
+                pageNumber, dispatchEvent);
+    }
+
+    /**
+     * Performs tesseract OCR either for the input file or for the input
+     * bytes, depending on which of them is passed.
+     *
+     * @param inputImage input image {@link java.io.File}
+     * @param inputImageBytes input image as a byte array
+     * @param outputFiles {@link java.util.List} of output files
+     *                                          (one per each page)
+     * @param outputFormat selected {@link OutputFormat} for tesseract
+     * @param pageNumber number of page to be processed
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     */
+    private void doTesseractOcr(final File inputImage,
+            final byte[] inputImageBytes,
+            final List<File> outputFiles, final OutputFormat outputFormat,
+            final int pageNumber, final boolean dispatchEvent) {
         scheduledCheck();
         List<String> params = new ArrayList<String>();
         String execPath = null;
         String imagePath = null;
         String workingDirectory = null;
         try {
-            imagePath = inputImage.getAbsolutePath();
+            imagePath = inputImage == null
+                    ? null : inputImage.getAbsolutePath();
             // path to tesseract executable
             if (getPathToExecutable() == null
                     || getPathToExecutable().isEmpty()) {
@@ -145,7 +190,9 @@ public class Tesseract4ExecutableOcrEngine extends AbstractTesseract4OcrEngine {
                     .getLanguages());
 
             // preprocess input file if needed
-            imagePath = preprocessImage(inputImage, pageNumber);
+            imagePath = inputImageBytes == null
+                    ? preprocessImage(inputImage, pageNumber)
+                    : preprocessImage(inputImageBytes, pageNumber);
 
             // get the input file parent directory as working directory
             // as tesseract cannot parse non ascii characters in input path
@@ -178,15 +225,16 @@ public class Tesseract4ExecutableOcrEngine extends AbstractTesseract4OcrEngine {
             }
 
             // run tesseract process
-            TesseractHelper.runCommand(execPath, params, workingDirectory);
+            TesseractHelper.runCommand(execPath, params, workingDirectory,
+                    getOcrTimeout());
         } catch (Tesseract4OcrException e) {
             LoggerFactory.getLogger(getClass())
                     .error(e.getMessage());
-            throw new Tesseract4OcrException(e.getMessage(), e);
+            throw e;
         } finally {
             try {
-                if (imagePath != null
-                        && !inputImage.getAbsolutePath().equals(imagePath)) {
+                if (imagePath != null && (inputImage == null
+                        || !inputImage.getAbsolutePath().equals(imagePath))) {
                     TesseractHelper.deleteFile(imagePath);
                 }
             } catch (SecurityException e) {
@@ -195,22 +243,54 @@ public class Tesseract4ExecutableOcrEngine extends AbstractTesseract4OcrEngine {
                                 Tesseract4LogMessageConstant.CANNOT_DELETE_FILE,
                                 imagePath, e.getMessage()));
             }
-            try {
-                if (getTesseract4OcrEngineProperties()
-                        .getPathToUserWordsFile() != null
-                        && getTesseract4OcrEngineProperties().isUserWordsFileTemporary()) {
-                    TesseractHelper.deleteFile(
-                            getTesseract4OcrEngineProperties()
-                                    .getPathToUserWordsFile());
-                }
-            } catch (SecurityException e) {
-                LoggerFactory.getLogger(getClass())
-                        .error(MessageFormatUtil.format(
-                                Tesseract4LogMessageConstant.CANNOT_DELETE_FILE,
-                                getTesseract4OcrEngineProperties()
-                                        .getPathToUserWordsFile(),
-                                e.getMessage()));
-            }
+        }
+    }
+
+    /**
+     * Runs tesseract orientation and script detection for the provided
+     * image. The image is written to a temporary PNG file and tesseract
+     * is run in "--psm 0" mode which writes the result to ".osd" file.
+     *
+     * @param pix image {@link net.sourceforge.lept4j.Pix}, it is not changed
+     *            or destroyed
+     * @return detected {@link PageOrientation} or null if orientation
+     * cannot be detected
+     * @throws Tesseract4OcrException if tesseract failed
+     */
+    @Override
+    PageOrientation detectOrientation(final Pix pix) {
+        if (getPathToExecutable() == null
+                || getPathToExecutable().isEmpty()) {
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException
+                            .CANNOT_FIND_PATH_TO_TESSERACT_EXECUTABLE);
+        }
+        final String execPath = isWindows()
+                ? addQuotes(getPathToExecutable()) : getPathToExecutable();
+        final String imagePath = TesseractOcrUtil.getTempFilePath(
+                UUID.randomUUID().toString(), ".png");
+        final String outputBase = new File(imagePath).getName()
+                .replace(".png", "");
+        final File osdFile = new File(new File(imagePath).getParentFile(),
+                outputBase + ".osd");
+        try {
+            TesseractOcrUtil.savePixToPngFile(imagePath, pix);
+            List<String> params = new ArrayList<String>();
+            addTessData(params);
+            addInputFile(params, imagePath);
+            params.add(addQuotes(outputBase));
+            params.add("--psm");
+            params.add("0");
+            addDefaultDpi(params);
+            TesseractHelper.runCommand(execPath, params,
+                    TesseractOcrUtil.getParentDirectory(imagePath),
+                    getOcrTimeout());
+            final String osd = osdFile.exists()
+                    ? TesseractHelper.readTxtFile(osdFile) : null;
+            return osd == null ? null : PageOrientation.parse(osd);
+        } finally {
+            TesseractHelper.deleteFile(imagePath);
+            TesseractHelper.deleteFile(osdFile.getAbsolutePath());
         }
     }
 
@@ -224,6 +304,28 @@ public class Tesseract4ExecutableOcrEngine extends AbstractTesseract4OcrEngine {
         command.add("tessedit_create_hocr=1");
     }
 
+    /**
+     * Sets tsv output format.
+     *
+     * @param command result command as list of strings
+     */
+    private void setTsvOutput(final List<String> command) {
+        command.add("-c");
+        command.add("tessedit_create_tsv=1");
+    }
+
+    /**
+     * Sets text-only pdf output format.
+     *
+     * @param command result command as list of strings
+     */
+    private void setTextOnlyPdfOutput(final List<String> command) {
+        command.add("-c");
+        command.add("tessedit_create_pdf=1");
+        command.add("-c");
+        command.add("textonly_pdf=1");
+    }
+
     /**
      * Sets preserve_interword_spaces option.
      *
@@ -245,6 +347,10 @@ public class Tesseract4ExecutableOcrEngine extends AbstractTesseract4OcrEngine {
     private void addOutputFormat(final List<String> command, OutputFormat outputFormat) {
         if (outputFormat == OutputFormat.HOCR) {
             setHocrOutput(command);
+        } else if (outputFormat == OutputFormat.TSV) {
+            setTsvOutput(command);
+        } else if (outputFormat == OutputFormat.PDF) {
+            setTextOnlyPdfOutput(command);
         }
     }
 
@@ -255,11 +361,9 @@ public class Tesseract4ExecutableOcrEngine extends AbstractTesseract4OcrEngine {
      */
     private void addUserWords(final List<String> command,
             final String imgPath) {
-        if (getTesseract4OcrEngineProperties().getPathToUserWordsFile() != null
-                && !getTesseract4OcrEngineProperties()
-                .getPathToUserWordsFile().isEmpty()) {
-            File userWordsFile = new File(getTesseract4OcrEngineProperties()
-                    .getPathToUserWordsFile());
+        final String userWordsFilePath = getUserWordsFile();
+        if (userWordsFilePath != null && !userWordsFilePath.isEmpty()) {
+            File userWordsFile = new File(userWordsFilePath);
             // Workaround for a non-ASCII characters in path
             // Currently works only if the user words (or output files) reside in the same directory as the input image
             // Leaves only a filename in this case, otherwise - absolute path to output file
@@ -340,8 +444,8 @@ public class Tesseract4ExecutableOcrEngine extends AbstractTesseract4OcrEngine {
     private void addOutputFile(final List<String> command,
             final File outputFile, final OutputFormat outputFormat,
             final String inputImagePath) {
-        String extension = outputFormat.equals(OutputFormat.HOCR)
-                ? ".hocr" : ".txt";
+        String extension = TesseractHelper
+                .getOutputFileExtension(outputFormat);
         try {
             // Workaround for a non-ASCII characters in path
             // Currently works only if the user words (or output files) reside in the same directory as the input image
@@ -396,19 +500,25 @@ public class Tesseract4ExecutableOcrEngine extends AbstractTesseract4OcrEngine {
         String path = inputImage.getAbsolutePath();
         try {
             if (getTesseract4OcrEngineProperties().isPreprocessingImages()) {
-                Pix pix = ImagePreprocessingUtil
+                try (ScopedPix pix = new ScopedPix(ImagePreprocessingUtil
                         .preprocessImage(inputImage, pageNumber,
-                                getTesseract4OcrEngineProperties().getImagePreprocessingOptions());
-                TesseractOcrUtil.savePixToPngFile(tmpFileName, pix);
-                if (!Files.exists(Paths.get(tmpFileName))) {
-                    BufferedImage img = TesseractOcrUtil.convertPixToImage(pix);
-                    if (img != null) {
-                        TesseractOcrUtil.saveImageToTempPngFile(tmpFileName,
-                                img);
+                                getTesseract4OcrEngineProperties().getImagePreprocessingOptions()))) {
+                    TesseractOcrUtil.savePixToPngFile(tmpFileName, pix.get());
+                    if (!Files.exists(Paths.get(tmpFileName))) {
+                        BufferedImage img = TesseractOcrUtil.convertPixToImage(pix.get());
+                        if (img != null) {
+                            TesseractOcrUtil.saveImageToTempPngFile(tmpFileName,
+                                    img);
+                        }
                     }
                 }
+            } else if (isPageOcr(ImagePreprocessingUtil
+                    .isTiffImage(inputImage))) {
+                savePageToFile(ImagePreprocessingUtil.readPixPage(inputImage,
+                        pageNumber), tmpFileName);
             }
-            if (!getTesseract4OcrEngineProperties().isPreprocessingImages()
+            if ((!getTesseract4OcrEngineProperties().isPreprocessingImages()
+                    && !isPageOcr(ImagePreprocessingUtil.isTiffImage(inputImage)))
                     || !Files.exists(Paths.get(tmpFileName))) {
                 TesseractOcrUtil.createTempFileCopy(path, tmpFileName);
             }
@@ -425,6 +535,85 @@ public class Tesseract4ExecutableOcrEngine extends AbstractTesseract4OcrEngine {
         return path;
     }
 
+    /**
+     * Writes the image passed as a byte array to a temporary file,
+     * preprocessing it if it is needed. Only one temporary file is created.
+     *
+     * @param inputImage original input image as a byte array
+     * @param pageNumber number of page to be OCRed
+     * @return path to output image as {@link java.lang.String}
+     * @throws Tesseract4OcrException if preprocessing cannot be done or
+     * the image cannot be written
+     */
+    private String preprocessImage(final byte[] inputImage,
+            final int pageNumber) throws Tesseract4OcrException {
+        String tmpFileName = TesseractOcrUtil
+                .getTempFilePath(UUID.randomUUID().toString(),
+                        getExtension(ImagePreprocessingUtil
+                                .getImageType(inputImage)));
+        try {
+            if (getTesseract4OcrEngineProperties().isPreprocessingImages()) {
+                try (ScopedPix pix = new ScopedPix(ImagePreprocessingUtil
+                        .preprocessImage(inputImage, pageNumber,
+                                getTesseract4OcrEngineProperties().getImagePreprocessingOptions()))) {
+                    TesseractOcrUtil.savePixToPngFile(tmpFileName, pix.get());
+                    if (!Files.exists(Paths.get(tmpFileName))) {
+                        BufferedImage img = TesseractOcrUtil.convertPixToImage(pix.get());
+                        if (img != null) {
+                            TesseractOcrUtil.saveImageToTempPngFile(tmpFileName,
+                                    img);
+                        }
+                    }
+                }
+            } else if (isPageOcr(ImagePreprocessingUtil
+                    .isTiffImage(inputImage))) {
+                savePageToFile(ImagePreprocessingUtil.readPixPage(inputImage,
+                        pageNumber), tmpFileName);
+            }
+            if ((!getTesseract4OcrEngineProperties().isPreprocessingImages()
+                    && !isPageOcr(ImagePreprocessingUtil.isTiffImage(inputImage)))
+                    || !Files.exists(Paths.get(tmpFileName))) {
+                Files.write(Paths.get(tmpFileName), inputImage);
+            }
+        } catch (IOException e) {
+            LoggerFactory.getLogger(getClass())
+                    .error(MessageFormatUtil.format(
+                            Tesseract4LogMessageConstant
+                                    .CANNOT_READ_INPUT_IMAGE,
+                            e.getMessage()));
+            TesseractHelper.deleteFile(tmpFileName);
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException.CANNOT_READ_PROVIDED_IMAGE, e)
+                    .setMessageParams(ImagePreprocessingUtil.IN_MEMORY_IMAGE);
+        }
+        return tmpFileName;
+    }
+
+    /**
+     * Checks whether only the required page of the not preprocessed TIFF
+     * image is passed to tesseract, i.e. pages are OCRed separately.
+     *
+     * @param isTiff true if the input image is a TIFF image
+     * @return true if page of the image needs to be extracted
+     */
+    private boolean isPageOcr(final boolean isTiff) {
+        return isTiff && !isMultiPageOcr(true);
+    }
+
+    /**
+     * Saves the page of the multi-page image to the temporary file.
+     * Page image is destroyed.
+     *
+     * @param pix page image {@link net.sourceforge.lept4j.Pix}
+     * @param tmpFileName path to the temporary file
+     */
+    private static void savePageToFile(final Pix pix,
+            final String tmpFileName) {
+        try (ScopedPix page = new ScopedPix(pix)) {
+            TesseractOcrUtil.savePixToPngFile(tmpFileName, page.get());
+        }
+    }
+
     /**
      * Check whether tesseract executable is installed on the machine and
      * provided path to tesseract executable is correct.
@@ -463,6 +652,24 @@ public class Tesseract4ExecutableOcrEngine extends AbstractTesseract4OcrEngine {
         return ".png";
     }
 
+    /**
+     * Gets file extension for the given image type.
+     *
+     * @param imageType {@link ImageType} of the input image
+     * @return file extension as a {@link java.lang.String}
+     */
+    private static String getExtension(final ImageType imageType) {
+        if (ImageType.BMP == imageType) {
+            return ".bmp";
+        } else if (ImageType.JPEG == imageType) {
+            return ".jpg";
+        } else if (ImageType.TIFF == imageType) {
+            return ".tiff";
+        } else {
+            return ".png";
+        }
+    }
+
     /**
      * Checks whether parent directories are equal for the passed file paths.
      *
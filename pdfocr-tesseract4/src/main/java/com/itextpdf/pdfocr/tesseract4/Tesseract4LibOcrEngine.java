@@ -23,6 +23,8 @@
 package com.itextpdf.pdfocr.tesseract4;
 
 import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.pdfocr.OcrException;
+import com.sun.jna.ptr.PointerByReference;
 
 import java.awt.image.BufferedImage;
 import java.io.File;
@@ -30,14 +32,31 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import com.itextpdf.pdfocr.tesseract4.events.PdfOcrTesseract4Event;
+import net.sourceforge.lept4j.Pix;
+import net.sourceforge.tess4j.ITessAPI;
 import net.sourceforge.tess4j.ITesseract;
+import net.sourceforge.tess4j.TessAPI1;
 import net.sourceforge.tess4j.TesseractException;
 import org.slf4j.LoggerFactory;
 
@@ -47,16 +66,41 @@ import org.slf4j.LoggerFactory;
  * This class provides possibilities to use features of "tesseract"
  * using tess4j.
  *
- * Please note that this class is not thread-safe, in other words this Tesseract engine cannot
- * be used for multithreaded processing. You should create one instance per thread
+ * Each thread uses its own tesseract instance, which allows to OCR pages
+ * of a multi-page image in parallel
+ * (see {@link Tesseract4OcrEngineProperties#setPageParallelism(int)}).
+ * Please note that engine properties are shared, so they should not be
+ * changed while OCR is in progress.
  */
 public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
 
     /**
-     * {@link net.sourceforge.tess4j.ITesseract} Instance.
+     * {@link net.sourceforge.tess4j.ITesseract} Instance per thread.
      * (depends on OS type)
      */
-    private ITesseract tesseractInstance = null;
+    private final ThreadLocal<ITesseract> tesseractInstance =
+            new ThreadLocal<ITesseract>();
+
+    /**
+     * Executor performing OCR which time is limited, created on demand.
+     */
+    private ThreadPoolExecutor timedOcrExecutor;
+
+    /**
+     * Number of regular worker threads of {@link #timedOcrExecutor}.
+     */
+    private int timedOcrThreadsCount;
+
+    /**
+     * Number of workers of {@link #timedOcrExecutor} abandoned by the callers
+     * as the time is expired which are still running.
+     */
+    private int abandonedOcrWorkers;
+
+    /**
+     * Lock guarding {@link #timedOcrExecutor} and its state.
+     */
+    private final Object timedOcrExecutorLock = new Object();
 
     /**
      * Pattern for matching ASCII string.
@@ -71,18 +115,25 @@ public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
     public Tesseract4LibOcrEngine(
             final Tesseract4OcrEngineProperties tesseract4OcrEngineProperties) {
         super(tesseract4OcrEngineProperties);
-        tesseractInstance = TesseractOcrUtil
+        tesseractInstance.set(TesseractOcrUtil
                 .initializeTesseractInstance(isWindows(), null,
-                        null, null);
+                        null, null));
     }
 
     /**
-     * Gets tesseract instance.
+     * Gets tesseract instance of the current thread. The instance is
+     * initialized if it hasn't been initialized in the current thread yet.
      *
      * @return initialized {@link net.sourceforge.tess4j.ITesseract} instance
      */
     public ITesseract getTesseractInstance() {
-        return tesseractInstance;
+        ITesseract instance = tesseractInstance.get();
+        if (instance == null) {
+            instance = TesseractOcrUtil.initializeTesseractInstance(
+                    isWindows(), null, null, null);
+            tesseractInstance.set(instance);
+        }
+        return instance;
     }
 
     /**
@@ -93,26 +144,28 @@ public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
      * @param outputFormat selected {@link OutputFormat} for tesseract
      */
     public void initializeTesseract(final OutputFormat outputFormat) {
-        if (getTesseractInstance() == null
-                || TesseractOcrUtil
+        final String userWordsFile = getUserWordsFile();
+        if (TesseractOcrUtil
                 .isTesseractInstanceDisposed(getTesseractInstance())) {
-            tesseractInstance = TesseractOcrUtil
+            tesseractInstance.set(TesseractOcrUtil
                     .initializeTesseractInstance(isWindows(), getTessData(),
                             getLanguagesAsString(),
-                            getTesseract4OcrEngineProperties()
-                                    .getPathToUserWordsFile());
+                            userWordsFile));
         }
         getTesseractInstance()
                 .setTessVariable("tessedit_create_hocr",
                         outputFormat.equals(OutputFormat.HOCR) ? "1" : "0");
+        // read by tess4j when PDF renderer is created
+        getTesseractInstance()
+                .setTessVariable("textonly_pdf",
+                        outputFormat.equals(OutputFormat.PDF) ? "1" : "0");
 
         if (getTesseract4OcrEngineProperties().isUseTxtToImproveHocrParsing()) {
             getTesseractInstance().setTessVariable("preserve_interword_spaces", "1");
         }
 
         getTesseractInstance().setTessVariable("user_defined_dpi", "300");
-        if (getTesseract4OcrEngineProperties()
-                .getPathToUserWordsFile() != null) {
+        if (userWordsFile != null) {
             getTesseractInstance()
                     .setTessVariable("load_system_dawg", "0");
             getTesseractInstance()
@@ -122,15 +175,13 @@ public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
                             getTesseract4OcrEngineProperties()
                                     .getDefaultUserWordsSuffix());
             getTesseractInstance()
-                    .setTessVariable("user_words_file",
-                            getTesseract4OcrEngineProperties()
-                                    .getPathToUserWordsFile());
+                    .setTessVariable("user_words_file", userWordsFile);
         }
 
         TesseractOcrUtil.setTesseractProperties(getTesseractInstance(),
                 getTessData(), getLanguagesAsString(),
                 getTesseract4OcrEngineProperties().getPageSegMode(),
-                getTesseract4OcrEngineProperties().getPathToUserWordsFile());
+                userWordsFile);
     }
 
     /**
@@ -153,6 +204,213 @@ public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
     void doTesseractOcr(final File inputImage,
             final List<File> outputFiles, final OutputFormat outputFormat,
             final int pageNumber, final boolean dispatchEvent) {
+        doTesseractOcr(inputImage, null, outputFiles, outputFormat,
+                pageNumber, dispatchEvent);
+    }
+
+    /**
+     * Performs tesseract OCR using wrapper for Tesseract OCR API for the
+     * selected page of input image passed as a byte array (by default 1st).
+     * The image is decoded in memory, no temporary image file is created.
+     *
+     * See {@link #doTesseractOcr(File, List, OutputFormat, int, boolean)}
+     * for the details about the list of output files.
+     *
+     * @param inputImage input image as a byte array
+     * @param outputFiles {@link java.util.List} of output files
+     *                                          (one per each page)
+     * @param outputFormat selected {@link OutputFormat} for tesseract
+     * @param pageNumber number of page to be processed
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     */
+    void doTesseractOcr(final byte[] inputImage,
+            final List<File> outputFiles, final OutputFormat outputFormat,
+            final int pageNumber, final boolean dispatchEvent) {
+        doTesseractOcr(null, inputImage, outputFiles, outputFormat,
+                pageNumber, dispatchEvent);
+    }
+
+    /**
+     * Performs tesseract OCR either for the input file or for the input
+     * bytes, depending on which of them is passed.
+     * If OCR time is limited (see
+     * {@link Tesseract4OcrEngineProperties#setPageTimeout(long)}), OCR is
+     * performed by a worker thread of the engine and the time is measured
+     * from the moment the worker starts the task. Native tesseract call
+     * cannot be interrupted, so when the time is expired the worker is
+     * abandoned and replaced: it completes in the background, deletes its
+     * own output files and discards its tesseract instance then.
+     *
+     * @param inputImage input image {@link java.io.File}
+     * @param inputImageBytes input image as a byte array
+     * @param outputFiles {@link java.util.List} of output files
+     *                                          (one per each page)
+     * @param outputFormat selected {@link OutputFormat} for tesseract
+     * @param pageNumber number of page to be processed
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     */
+    private void doTesseractOcr(final File inputImage,
+            final byte[] inputImageBytes,
+            final List<File> outputFiles, final OutputFormat outputFormat,
+            final int pageNumber, final boolean dispatchEvent) {
+        final long timeout = getOcrTimeout();
+        if (timeout <= 0) {
+            doTesseractOcrInCurrentThread(inputImage, inputImageBytes,
+                    outputFiles, outputFormat, pageNumber, dispatchEvent);
+            return;
+        }
+        final TimedOcrTask task = new TimedOcrTask(inputImage,
+                inputImageBytes, outputFiles, outputFormat, pageNumber,
+                dispatchEvent, getOcrThreadContext());
+        final FutureTask<Void> future = new FutureTask<Void>(task) {
+            @Override
+            protected void done() {
+                // wakes up the caller if the task is cancelled
+                // before it has started
+                task.started.countDown();
+            }
+        };
+        submitTimedOcrTask(task, future);
+        long runTimeout = timeout;
+        try {
+            try {
+                // time spent in the queue isn't counted against the page
+                // timeout, document timeout is checked by getOcrTimeout
+                while (!task.started.await(runTimeout,
+                        TimeUnit.MILLISECONDS)) {
+                    runTimeout = getOcrTimeout();
+                }
+                runTimeout = getOcrTimeout();
+                future.get(runTimeout, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                LoggerFactory.getLogger(getClass()).error(MessageFormatUtil
+                        .format(Tesseract4LogMessageConstant.TESSERACT_TIMEOUT,
+                                runTimeout, inputImage == null
+                                        ? ImagePreprocessingUtil.IN_MEMORY_IMAGE
+                                        : inputImage.getAbsolutePath()));
+                throw new Tesseract4OcrException(
+                        Tesseract4OcrException.TESSERACT_TIMEOUT, e)
+                        .setMessageParams(String.valueOf(runTimeout));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new Tesseract4OcrException(
+                        OcrException.OCR_WAS_INTERRUPTED, e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new Tesseract4OcrException(
+                        Tesseract4OcrException.TESSERACT_FAILED, e.getCause());
+            } catch (CancellationException e) {
+                // the engine has been closed while the task was queued
+                throw new Tesseract4OcrException(
+                        Tesseract4OcrException.TESSERACT_FAILED, e);
+            }
+            task.moveOutputFiles();
+        } finally {
+            // has no effect if the task is completed
+            future.cancel(true);
+            task.release();
+        }
+    }
+
+    /**
+     * Releases temporary user words files used by this engine and stops
+     * worker threads performing OCR which time is limited. The engine may
+     * still be used after it has been closed.
+     */
+    @Override
+    public void close() {
+        super.close();
+        synchronized (timedOcrExecutorLock) {
+            if (timedOcrExecutor != null) {
+                // callers waiting for the queued tasks are woken up
+                for (Runnable queued : timedOcrExecutor.shutdownNow()) {
+                    ((Future<?>) queued).cancel(false);
+                }
+                timedOcrExecutor = null;
+            }
+        }
+    }
+
+    /**
+     * Submits the task to the executor performing OCR which time is limited.
+     * The number of worker threads is bounded, idle workers are stopped.
+     * A worker abandoned by the caller as the time is expired is replaced
+     * with a new one until it completes, but the number of such workers is
+     * limited by the number of regular ones.
+     *
+     * @param task task to be performed
+     * @param future {@link FutureTask} wrapping the task
+     * @throws Tesseract4OcrException if there are too many abandoned workers
+     */
+    private void submitTimedOcrTask(final TimedOcrTask task,
+            final FutureTask<Void> future) {
+        synchronized (timedOcrExecutorLock) {
+            if (timedOcrExecutor == null) {
+                timedOcrThreadsCount = Math.max(
+                        Runtime.getRuntime().availableProcessors(),
+                        getTesseract4OcrEngineProperties()
+                                .getPageParallelism());
+                abandonedOcrWorkers = 0;
+                timedOcrExecutor = createExecutor(timedOcrThreadsCount,
+                        "pdfocr-tesseract4-ocr");
+            }
+            if (abandonedOcrWorkers >= timedOcrThreadsCount) {
+                throw new Tesseract4OcrException(Tesseract4OcrException
+                        .TOO_MANY_TIMED_OUT_TESSERACT_CALLS)
+                        .setMessageParams(String.valueOf(abandonedOcrWorkers));
+            }
+            task.executor = timedOcrExecutor;
+            timedOcrExecutor.execute(future);
+        }
+    }
+
+    /**
+     * Updates the number of abandoned workers of the executor performing
+     * OCR which time is limited and resizes the executor accordingly.
+     *
+     * @param executor executor the worker belongs to
+     * @param delta 1 if the worker is abandoned, -1 if it is completed
+     */
+    private void updateAbandonedOcrWorkers(final ThreadPoolExecutor executor,
+            final int delta) {
+        synchronized (timedOcrExecutorLock) {
+            // workers of the executor which is already shut down
+            // are not replaced
+            if (executor != timedOcrExecutor) {
+                return;
+            }
+            abandonedOcrWorkers += delta;
+            final int poolSize = timedOcrThreadsCount + abandonedOcrWorkers;
+            if (poolSize > executor.getMaximumPoolSize()) {
+                executor.setMaximumPoolSize(poolSize);
+                executor.setCorePoolSize(poolSize);
+            } else {
+                executor.setCorePoolSize(poolSize);
+                executor.setMaximumPoolSize(poolSize);
+            }
+        }
+    }
+
+    /**
+     * Performs tesseract OCR either for the input file or for the input
+     * bytes, depending on which of them is passed.
+     * Each thread uses its own tesseract instance, so several images
+     * (or pages of the same image) may be OCRed simultaneously.
+     *
+     * @param inputImage input image {@link java.io.File}
+     * @param inputImageBytes input image as a byte array
+     * @param outputFiles {@link java.util.List} of output files
+     *                                          (one per each page)
+     * @param outputFormat selected {@link OutputFormat} for tesseract
+     * @param pageNumber number of page to be processed
+     * @param dispatchEvent indicates if {@link PdfOcrTesseract4Event} needs to be dispatched
+     */
+    private void doTesseractOcrInCurrentThread(final File inputImage,
+            final byte[] inputImageBytes,
+            final List<File> outputFiles, final OutputFormat outputFormat,
+            final int pageNumber, final boolean dispatchEvent) {
         scheduledCheck();
         try {
             // check tess data path for non ASCII characters
@@ -163,16 +421,24 @@ public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
             if (dispatchEvent) {
                 onEvent();
             }
+            if (outputFormat == OutputFormat.PDF) {
+                // pdf is binary, so it's written by tesseract directly
+                createTextLayerPdf(inputImage, outputFiles.get(0),
+                        pageNumber);
+                return;
+            }
             // if preprocessing is not needed and provided image is tiff,
             // the image will be paginated and separate pages will be OCRed
             List<String> resultList = new ArrayList<String>();
-            if (!getTesseract4OcrEngineProperties().isPreprocessingImages()
-                    && ImagePreprocessingUtil.isTiffImage(inputImage)) {
+            boolean isTiff = inputImageBytes == null
+                    ? ImagePreprocessingUtil.isTiffImage(inputImage)
+                    : ImagePreprocessingUtil.isTiffImage(inputImageBytes);
+            if (isMultiPageOcr(isTiff)) {
                 resultList = getOcrResultForMultiPage(inputImage,
-                        outputFormat);
+                        inputImageBytes, outputFormat);
             } else {
                 resultList.add(getOcrResultForSinglePage(inputImage,
-                        outputFormat, pageNumber));
+                        inputImageBytes, outputFormat, pageNumber));
             }
 
             // list of result strings is written to separate files
@@ -200,18 +466,56 @@ public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
         } catch (Tesseract4OcrException e) {
             LoggerFactory.getLogger(getClass())
                     .error(e.getMessage());
-            throw new Tesseract4OcrException(e.getMessage(), e);
+            throw e;
         } finally {
-            if (tesseractInstance != null) {
-                TesseractOcrUtil.disposeTesseractInstance(tesseractInstance);
+            TesseractOcrUtil.disposeTesseractInstance(
+                    getTesseractInstance());
+        }
+    }
+
+    /**
+     * Runs tesseract orientation and script detection for the provided
+     * image using a separate tesseract API instance initialized with
+     * "osd" data.
+     *
+     * @param pix image {@link net.sourceforge.lept4j.Pix}, it is not changed
+     *            or destroyed
+     * @return detected {@link PageOrientation} or null if orientation
+     * cannot be detected
+     * @throws Tesseract4OcrException if tesseract cannot be initialized
+     */
+    @Override
+    PageOrientation detectOrientation(final Pix pix) {
+        validateTessDataPath(getTessData());
+        final TessAPI1.TessBaseAPI handle = TessAPI1.TessBaseAPICreate();
+        try {
+            if (TessAPI1.TessBaseAPIInit3(handle, getTessData(),
+                    OSD_LANGUAGE) != 0) {
+                throw new Tesseract4OcrException(
+                        Tesseract4OcrException.TESSERACT_FAILED);
             }
-            if (getTesseract4OcrEngineProperties().getPathToUserWordsFile()
-                    != null
-                    && getTesseract4OcrEngineProperties().isUserWordsFileTemporary()) {
-                TesseractHelper.deleteFile(
-                        getTesseract4OcrEngineProperties()
-                                .getPathToUserWordsFile());
+            TessAPI1.TessBaseAPISetPageSegMode(handle,
+                    ITessAPI.TessPageSegMode.PSM_OSD_ONLY);
+            TessAPI1.TessBaseAPISetImage2(handle, pix);
+            final IntBuffer orientation = IntBuffer.allocate(1);
+            final FloatBuffer orientationConfidence = FloatBuffer.allocate(1);
+            final PointerByReference script = new PointerByReference();
+            final FloatBuffer scriptConfidence = FloatBuffer.allocate(1);
+            if (TessAPI1.TessBaseAPIDetectOrientationScript(handle,
+                    orientation, orientationConfidence, script,
+                    scriptConfidence) != ITessAPI.TRUE) {
+                return null;
             }
+            // tesseract reports clockwise orientation of the page,
+            // the page is made upright by the opposite rotation
+            return new PageOrientation(360 - orientation.get(0),
+                    orientationConfidence.get(0),
+                    script.getValue() == null
+                            ? null : script.getValue().getString(0),
+                    scriptConfidence.get(0));
+        } finally {
+            TessAPI1.TessBaseAPIEnd(handle);
+            TessAPI1.TessBaseAPIDelete(handle);
         }
     }
 
@@ -238,17 +542,23 @@ public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
      * when preprocessing is not needed.
      *
      * @param inputImage input image {@link java.io.File}
+     * @param inputImageBytes input image as a byte array, if passed
+     *                        it is used instead of the input file
      * @param outputFormat selected {@link OutputFormat} for tesseract
      * @return list of result string that will be written to a temporary files
      * later
      */
     private List<String> getOcrResultForMultiPage(final File inputImage,
-            final OutputFormat outputFormat) {
+            final byte[] inputImageBytes, final OutputFormat outputFormat) {
         List<String> resultList = new ArrayList<String>();
         try {
             initializeTesseract(outputFormat);
             TesseractOcrUtil util = new TesseractOcrUtil();
-            util.initializeImagesListFromTiff(inputImage);
+            if (inputImageBytes == null) {
+                util.initializeImagesListFromTiff(inputImage);
+            } else {
+                util.initializeImagesListFromTiff(inputImageBytes);
+            }
             int numOfPages = util.getListOfPages().size();
             for (int i = 0; i < numOfPages; i++) {
                 String result = util.getOcrResultAsString(
@@ -278,11 +588,14 @@ public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
      * it is needed.
      *
      * @param inputImage input image {@link java.io.File}
+     * @param inputImageBytes input image as a byte array, if passed
+     *                        it is used instead of the input file
      * @param outputFormat selected {@link OutputFormat} for tesseract
      * @param pageNumber number of page to be OCRed
      * @return result as string that will be written to a temporary file later
      */
     private String getOcrResultForSinglePage(final File inputImage,
+            final byte[] inputImageBytes,
             final OutputFormat outputFormat,
             final int pageNumber) {
         String result = null;
@@ -290,16 +603,35 @@ public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
             // preprocess if required
             if (getTesseract4OcrEngineProperties().isPreprocessingImages()) {
                 // preprocess and try to ocr
-                result = new TesseractOcrUtil().getOcrResultAsString(
-                        getTesseractInstance(),
-                        ImagePreprocessingUtil
-                                .preprocessImage(inputImage, pageNumber,
-                                        getTesseract4OcrEngineProperties().getImagePreprocessingOptions()),
-                        outputFormat);
+                try (ScopedPix pix = new ScopedPix(inputImageBytes == null
+                        ? ImagePreprocessingUtil.preprocessImage(inputImage,
+                                pageNumber, getTesseract4OcrEngineProperties()
+                                        .getImagePreprocessingOptions())
+                        : ImagePreprocessingUtil.preprocessImage(
+                                inputImageBytes, pageNumber,
+                                getTesseract4OcrEngineProperties()
+                                        .getImagePreprocessingOptions()))) {
+                    result = new TesseractOcrUtil().getOcrResultAsString(
+                            getTesseractInstance(), pix.get(), outputFormat);
+                }
+            } else if (inputImageBytes == null
+                    ? ImagePreprocessingUtil.isTiffImage(inputImage)
+                    : ImagePreprocessingUtil.isTiffImage(inputImageBytes)) {
+                // pages of the multi-page image are OCRed separately,
+                // so only the required page is read
+                try (ScopedPix pix = new ScopedPix(inputImageBytes == null
+                        ? ImagePreprocessingUtil.readPixPage(inputImage,
+                                pageNumber)
+                        : ImagePreprocessingUtil.readPixPage(inputImageBytes,
+                                pageNumber))) {
+                    result = new TesseractOcrUtil().getOcrResultAsString(
+                            getTesseractInstance(), pix.get(), outputFormat);
+                }
             }
             if (result == null) {
-                BufferedImage bufferedImage = ImagePreprocessingUtil
-                        .readImage(inputImage);
+                BufferedImage bufferedImage = inputImageBytes == null
+                        ? ImagePreprocessingUtil.readImage(inputImage)
+                        : ImagePreprocessingUtil.readImage(inputImageBytes);
                 if (bufferedImage != null) {
                     try {
                         result = new TesseractOcrUtil()
@@ -313,7 +645,7 @@ public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
                                         e.getMessage()));
                     }
                 }
-                if (result == null) {
+                if (result == null && inputImage != null) {
                     // perform ocr using original input image
                     result = new TesseractOcrUtil()
                             .getOcrResultAsString(getTesseractInstance(),
@@ -333,4 +665,179 @@ public class Tesseract4LibOcrEngine extends AbstractTesseract4OcrEngine {
 
         return result;
     }
+
+    /**
+     * Performs OCR of the selected page of input image and writes recognized
+     * text to a text-only PDF document. Image is preprocessed if it's
+     * required in the same way as for
+     * {@link #getOcrResultForSinglePage(File, byte[], OutputFormat, int)}.
+     * If pages of the multi-page image are not OCRed separately, all of them
+     * are written to the document.
+     *
+     * @param inputImage input image {@link java.io.File}
+     * @param outputFile {@link java.io.File} to write PDF document to
+     * @param pageNumber number of page to be processed
+     */
+    private void createTextLayerPdf(final File inputImage,
+            final File outputFile, final int pageNumber) {
+        try {
+            final boolean isTiff =
+                    ImagePreprocessingUtil.isTiffImage(inputImage);
+            if (getTesseract4OcrEngineProperties().isPreprocessingImages()
+                    || (isTiff && !isMultiPageOcr(true))) {
+                try (ScopedPix pix = new ScopedPix(getTesseract4OcrEngineProperties()
+                        .isPreprocessingImages()
+                        ? ImagePreprocessingUtil.preprocessImage(inputImage,
+                                pageNumber, getTesseract4OcrEngineProperties()
+                                        .getImagePreprocessingOptions())
+                        : ImagePreprocessingUtil.readPixPage(inputImage,
+                                pageNumber))) {
+                    new TesseractOcrUtil().createTextLayerPdf(
+                            getTesseractInstance(), pix.get(), outputFile);
+                }
+            } else {
+                new TesseractOcrUtil().createTextLayerPdf(
+                        getTesseractInstance(), inputImage, outputFile);
+            }
+        } catch (Exception e) { // NOSONAR
+            LoggerFactory.getLogger(getClass())
+                    .error(MessageFormatUtil
+                            .format(Tesseract4LogMessageConstant
+                                            .TESSERACT_FAILED,
+                                    e.getMessage()));
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException
+                            .TESSERACT_FAILED);
+        }
+    }
+
+    /**
+     * Performs OCR which time is limited in a worker thread. The task writes
+     * results to its own temporary files which are moved to the requested
+     * output files only if the task is completed in time, so abandoned task
+     * never writes to the files of the caller.
+     */
+    private class TimedOcrTask implements Callable<Void> {
+        private final File inputImage;
+        private final byte[] inputImageBytes;
+        private final List<File> outputFiles;
+        private final List<File> taskOutputFiles;
+        private final OutputFormat outputFormat;
+        private final int pageNumber;
+        private final boolean dispatchEvent;
+        private final OcrThreadContext context;
+        private final CountDownLatch started = new CountDownLatch(1);
+        private ThreadPoolExecutor executor;
+        private boolean running;
+        private boolean completed;
+        private boolean released;
+        private boolean abandoned;
+
+        TimedOcrTask(final File inputImage, final byte[] inputImageBytes,
+                final List<File> outputFiles, final OutputFormat outputFormat,
+                final int pageNumber, final boolean dispatchEvent,
+                final OcrThreadContext context) {
+            this.inputImage = inputImage;
+            this.inputImageBytes = inputImageBytes;
+            this.outputFiles = outputFiles;
+            this.outputFormat = outputFormat;
+            this.pageNumber = pageNumber;
+            this.dispatchEvent = dispatchEvent;
+            this.context = context;
+            this.taskOutputFiles = new ArrayList<File>(outputFiles.size());
+            for (File outputFile : outputFiles) {
+                final String name = outputFile.getName();
+                final int extensionIndex = name.lastIndexOf('.');
+                taskOutputFiles.add(new File(TesseractOcrUtil.getTempFilePath(
+                        UUID.randomUUID().toString(), extensionIndex < 0
+                                ? "" : name.substring(extensionIndex))));
+            }
+        }
+
+        @Override
+        public Void call() {
+            synchronized (this) {
+                running = true;
+            }
+            started.countDown();
+            final OcrThreadContext storedContext =
+                    setOcrThreadContext(context);
+            try {
+                doTesseractOcrInCurrentThread(inputImage, inputImageBytes,
+                        taskOutputFiles, outputFormat, pageNumber,
+                        dispatchEvent);
+                return null;
+            } finally {
+                setOcrThreadContext(storedContext);
+                final boolean wasReleased;
+                final boolean wasAbandoned;
+                synchronized (this) {
+                    completed = true;
+                    wasReleased = released;
+                    wasAbandoned = abandoned;
+                }
+                if (wasReleased) {
+                    // the caller has given up waiting, so the instance
+                    // which might be left in an inconsistent state is
+                    // not reused by the next task of this worker
+                    tesseractInstance.remove();
+                    deleteTaskOutputFiles();
+                }
+                if (wasAbandoned) {
+                    updateAbandonedOcrWorkers(executor, -1);
+                }
+            }
+        }
+
+        /**
+         * Moves results of the completed task to the requested output files.
+         */
+        void moveOutputFiles() {
+            for (int i = 0; i < outputFiles.size(); i++) {
+                final File taskOutputFile = taskOutputFiles.get(i);
+                if (taskOutputFile.exists()) {
+                    try {
+                        Files.move(taskOutputFile.toPath(),
+                                outputFiles.get(i).toPath(),
+                                StandardCopyOption.REPLACE_EXISTING);
+                    } catch (IOException e) {
+                        LoggerFactory.getLogger(getClass()).error(
+                                MessageFormatUtil.format(
+                                        Tesseract4LogMessageConstant
+                                                .CANNOT_WRITE_TO_FILE,
+                                        e.getMessage()));
+                        throw new Tesseract4OcrException(
+                                Tesseract4OcrException.TESSERACT_FAILED);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Releases the task: its output files are deleted as soon as it is
+         * completed, which may happen in the background if the caller has
+         * stopped waiting for it. The worker running such task is abandoned.
+         */
+        void release() {
+            final boolean wasCompleted;
+            synchronized (this) {
+                released = true;
+                wasCompleted = completed;
+                if (running && !completed) {
+                    // worker is replaced until the task is completed
+                    abandoned = true;
+                    updateAbandonedOcrWorkers(executor, 1);
+                }
+            }
+            if (wasCompleted) {
+                deleteTaskOutputFiles();
+            }
+        }
+
+        private void deleteTaskOutputFiles() {
+            for (File taskOutputFile : taskOutputFiles) {
+                TesseractHelper.deleteFile(taskOutputFile.getAbsolutePath());
+            }
+        }
+    }
 }
@@ -75,6 +75,20 @@ public class Tesseract4LogMessageConstant {
             "Cannot read image metadata {0}";
     public static final String UNSUPPORTED_EXIF_ORIENTATION_VALUE =
             "Unsuppoted EXIF Orientation value {0}. 1 is used by default";
+    public static final String BLANK_PAGE_IS_SKIPPED =
+            "Page {0} is considered blank (ink ratio {1}), OCR is skipped";
+    public static final String REGION_IS_OUT_OF_IMAGE =
+            "Region {0} is out of bounds of page {1}, it is skipped";
+    public static final String TESSERACT_TIMEOUT =
+            "Tesseract did not finish in {0} ms: {1}";
+    public static final String CANNOT_DETECT_ORIENTATION =
+            "Cannot detect orientation of page {0}: {1}";
+    public static final String PAGE_ORIENTATION_IS_CORRECTED =
+            "Page {0} is rotated by {1} degrees before OCR";
+    public static final String LOW_CONFIDENCE_LINES_ARE_RECOGNIZED_AGAIN =
+            "{0} low confidence lines of page {1} are recognized again using accurate tess data";
+    public static final String PAGE_LANGUAGES_ARE_SELECTED =
+            "Page {0} is OCRed using languages {1} of detected script {2}";
 
 
     private Tesseract4LogMessageConstant() {
@@ -24,18 +24,15 @@ package com.itextpdf.pdfocr.tesseract4;
 
 import com.itextpdf.io.util.FileUtil;
 import com.itextpdf.io.util.MessageFormatUtil;
+import com.itextpdf.io.util.StreamUtil;
 import com.itextpdf.pdfocr.IOcrEngine;
 import com.itextpdf.pdfocr.OcrEngineProperties;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.OutputStreamWriter;
-import java.io.Reader;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import org.slf4j.LoggerFactory;
@@ -80,10 +77,17 @@ public class Tesseract4OcrEngineProperties extends OcrEngineProperties {
     private String pathToUserWordsFile = null;
 
     /**
-     * Indicates if user words file is temporary and has to be removed.
+     * Indicates if user words file is temporary and has to be removed
+     * when the engines which used it are closed.
      */
     private boolean isUserWordsFileTemporary = false;
 
+    /**
+     * Content of the temporary user words file, which is written by the
+     * engine when it is needed, null if user words file is not temporary.
+     */
+    private byte[] userWords = null;
+
     /**
      * Used to make HOCR recognition result more precise.
      * This is needed for cases of Thai language or some Chinese dialects
@@ -105,6 +109,77 @@ public class Tesseract4OcrEngineProperties extends OcrEngineProperties {
      */
     private int minimalConfidenceLevel;
 
+    /**
+     * Ratio of dark pixels below which a page is considered blank and is not
+     * OCRed.
+     * Default value is 0 which means that blank pages are not detected.
+     */
+    private float blankPageThreshold;
+
+    /**
+     * Maximal number of pages of a multi-page image which are OCRed
+     * simultaneously.
+     * Default value is 1 which means that pages are OCRed one by one.
+     */
+    private int pageParallelism = 1;
+
+    /**
+     * Maximal time in milliseconds a single tesseract invocation may take.
+     * Default value is 0 which means that time is not limited.
+     */
+    private long pageTimeout;
+
+    /**
+     * Maximal time in milliseconds OCR of a single input image (with all
+     * its pages) may take.
+     * Default value is 0 which means that time is not limited.
+     */
+    private long documentTimeout;
+
+    /**
+     * Defines whether page orientation should be detected and corrected
+     * before OCR.
+     * Default value is false.
+     */
+    private boolean detectOrientation = false;
+
+    /**
+     * Resolution in dpi of the thumbnail which is used to detect page
+     * orientation.
+     * Default value is 150.
+     */
+    private int orientationDetectionDpi = 150;
+
+    /**
+     * Defines whether each page should be OCRed using only the languages
+     * of its detected script.
+     * Default value is false.
+     */
+    private boolean detectLanguages = false;
+
+    /**
+     * Path to the directory with accurate (but slower) tess data which is
+     * used to re-recognize lines of low confidence.
+     * Default value is null which means that every line is recognized only
+     * once using tess data from {@link #tessDataDir}.
+     */
+    private File pathToAccurateTessData = null;
+
+    /**
+     * Confidence level below which the line recognized using tess data from
+     * {@link #tessDataDir} is re-recognized using accurate tess data.
+     * Default value is 70.
+     * Value may vary in range of 0-100
+     */
+    private int cascadeConfidenceLevel = 70;
+
+    /**
+     * Defines whether tesseract TSV output is used instead of hOCR to
+     * retrieve text and its coordinates.
+     * Default value is false.
+     */
+    private boolean useTsvOutput = false;
+
     /**
      * Creates a new {@link Tesseract4OcrEngineProperties} instance.
      */
@@ -124,9 +199,21 @@ public class Tesseract4OcrEngineProperties extends OcrEngineProperties {
         this.pageSegMode = other.pageSegMode;
         this.textPositioning = other.textPositioning;
         this.pathToUserWordsFile = other.pathToUserWordsFile;
+        this.isUserWordsFileTemporary = other.isUserWordsFileTemporary;
+        this.userWords = other.userWords;
         this.useTxtToImproveHocrParsing = other.useTxtToImproveHocrParsing;
         this.imagePreprocessingOptions = other.imagePreprocessingOptions;
         this.minimalConfidenceLevel = other.minimalConfidenceLevel;
+        this.blankPageThreshold = other.blankPageThreshold;
+        this.pageParallelism = other.pageParallelism;
+        this.pageTimeout = other.pageTimeout;
+        this.documentTimeout = other.documentTimeout;
+        this.detectOrientation = other.detectOrientation;
+        this.orientationDetectionDpi = other.orientationDetectionDpi;
+        this.detectLanguages = other.detectLanguages;
+        this.pathToAccurateTessData = other.pathToAccurateTessData;
+        this.cascadeConfidenceLevel = other.cascadeConfidenceLevel;
+        this.useTsvOutput = other.useTsvOutput;
     }
 
     /**
@@ -281,10 +368,10 @@ public class Tesseract4OcrEngineProperties extends OcrEngineProperties {
             try {
                 ByteArrayOutputStream baos = new ByteArrayOutputStream();
                 for (String word : userWords) {
-                    byte[] bytesWord = word.getBytes();
+                    byte[] bytesWord = word.getBytes(StandardCharsets.UTF_8);
                     baos.write(bytesWord, 0, bytesWord.length);
                     byte[] bytesSeparator = System.lineSeparator()
-                            .getBytes();
+                            .getBytes(StandardCharsets.UTF_8);
                     baos.write(bytesSeparator, 0, bytesSeparator.length);
                 }
                 InputStream inputStream = new ByteArrayInputStream(
@@ -307,6 +394,9 @@ public class Tesseract4OcrEngineProperties extends OcrEngineProperties {
      * containing words (one per line) which ends with
      * a new line character. Train data for provided language
      * should exist in specified tess data directory.
+     * The file is written once for the same language and words when it is
+     * needed by the engine and is deleted when all the engines which used
+     * it are closed.
      *
      * NOTE:
      * User words dictionary doesn't work properly in tesseract4
@@ -334,18 +424,15 @@ public class Tesseract4OcrEngineProperties extends OcrEngineProperties {
                         .setMessageParams(language);
             }
         }
-        String userWordsFileName = TesseractOcrUtil.getTempFilePath(language,
-                "." + DEFAULT_USER_WORDS_SUFFIX);
-        try (OutputStreamWriter writer =
-                new FileWriter(userWordsFileName)) {
-            Reader reader = new InputStreamReader(inputStream,
-                    StandardCharsets.UTF_8);
-            int data;
-            while ((data = reader.read()) != -1) {
-                writer.write(data);
-            }
-            writer.write(System.lineSeparator());
-            setPathToUserWordsFile(userWordsFileName, true);
+        try {
+            ByteArrayOutputStream words = new ByteArrayOutputStream();
+            words.write(StreamUtil.inputStreamToArray(inputStream));
+            words.write(System.lineSeparator()
+                    .getBytes(StandardCharsets.UTF_8));
+            userWords = words.toByteArray();
+            pathToUserWordsFile = UserWordsRegistry.getPath(language,
+                    userWords);
+            isUserWordsFileTemporary = true;
         } catch (IOException e) {
             setPathToUserWordsFile(null);
             LoggerFactory.getLogger(getClass())
@@ -398,9 +485,20 @@ public class Tesseract4OcrEngineProperties extends OcrEngineProperties {
             String pathToUserWordsFile, boolean isTempFile) {
         this.pathToUserWordsFile = pathToUserWordsFile;
         this.isUserWordsFileTemporary = isTempFile;
+        this.userWords = null;
         return this;
     }
 
+    /**
+     * Gets content of the temporary user words file.
+     *
+     * @return user words, one per line, encoded in UTF-8 or null if user
+     * words file is not temporary
+     */
+    final byte[] getUserWords() {
+        return userWords;
+    }
+
     /**
      * Indicates if user words file is temporary and has to be removed.
      *
@@ -477,5 +575,302 @@ public class Tesseract4OcrEngineProperties extends OcrEngineProperties {
         return this;
     }
 
+    /**
+     * Gets ratio of dark pixels below which a page is considered blank.
+     *
+     * @return blank page threshold
+     */
+    final public float getBlankPageThreshold() {
+        return blankPageThreshold;
+    }
+
+    /**
+     * Sets ratio of dark pixels below which a page is considered blank.
+     * Blank pages (e.g. separator pages or empty backsides in scanned
+     * batches) are not OCRed, an empty list of {@link com.itextpdf.pdfocr.TextInfo}
+     * is returned for them. Ratio is calculated on a downsampled binarized
+     * image before recognition, so it's much cheaper than OCR.
+     * Default value is 0 which means that blank pages are not detected.
+     * Value may vary in range of 0-1, reasonable values are about 0.001-0.005.
+     * Note that detection is not performed for multi-page TIFF images if
+     * image preprocessing is disabled and pages are not OCRed in parallel,
+     * as all pages are OCRed at once.
+     *
+     * @param blankPageThreshold blank page threshold
+     * @return the {@link Tesseract4OcrEngineProperties} instance
+     */
+    final public Tesseract4OcrEngineProperties setBlankPageThreshold(
+            float blankPageThreshold) {
+        this.blankPageThreshold = blankPageThreshold;
+        return this;
+    }
+
+    /**
+     * Gets maximal number of pages of a multi-page image which are OCRed
+     * simultaneously.
+     *
+     * @return page parallelism
+     */
+    final public int getPageParallelism() {
+        return pageParallelism;
+    }
+
+    /**
+     * Sets maximal number of pages of a multi-page image (e.g. TIFF) which
+     * are OCRed simultaneously. Each page is OCRed by a separate worker
+     * thread with its own tesseract instance, so memory consumption grows
+     * with the number of workers. Page numbering of the result is not
+     * affected.
+     * Default value is 1 which means that pages are OCRed one by one.
+     * If the value is greater than 1, pages of multi-page TIFF images are
+     * always OCRed separately, even if image preprocessing is disabled.
+     *
+     * @param pageParallelism maximal number of pages OCRed simultaneously
+     * @return the {@link Tesseract4OcrEngineProperties} instance
+     */
+    final public Tesseract4OcrEngineProperties setPageParallelism(
+            int pageParallelism) {
+        this.pageParallelism = pageParallelism;
+        return this;
+    }
+
+    /**
+     * Gets maximal time in milliseconds a single tesseract invocation (i.e.
+     * OCR of one page) may take.
+     *
+     * @return page timeout in milliseconds, 0 if time is not limited
+     */
+    final public long getPageTimeout() {
+        return pageTimeout;
+    }
+
+    /**
+     * Sets maximal time in milliseconds a single tesseract invocation (i.e.
+     * OCR of one page, or of all pages of a multi-page TIFF image if they
+     * are OCRed at once) may take.
+     * When the time is expired, tesseract process is killed by
+     * {@link Tesseract4ExecutableOcrEngine}, while
+     * {@link Tesseract4LibOcrEngine} abandons the call together with its
+     * tesseract instance, and {@link Tesseract4OcrException} with
+     * {@link Tesseract4OcrException#TESSERACT_TIMEOUT} message is thrown.
+     * Default value is 0 which means that time is not limited.
+     *
+     * @param pageTimeout page timeout in milliseconds
+     * @return the {@link Tesseract4OcrEngineProperties} instance
+     */
+    final public Tesseract4OcrEngineProperties setPageTimeout(
+            long pageTimeout) {
+        this.pageTimeout = pageTimeout;
+        return this;
+    }
+
+    /**
+     * Gets maximal time in milliseconds OCR of a single input image (with
+     * all its pages) may take.
+     *
+     * @return document timeout in milliseconds, 0 if time is not limited
+     */
+    final public long getDocumentTimeout() {
+        return documentTimeout;
+    }
+
+    /**
+     * Sets maximal time in milliseconds OCR of a single input image (with
+     * all its pages) may take. Each tesseract invocation is limited by the
+     * time left for the image, expiry is handled in the same way as for
+     * {@link #setPageTimeout(long)}.
+     * Default value is 0 which means that time is not limited.
+     *
+     * @param documentTimeout document timeout in milliseconds
+     * @return the {@link Tesseract4OcrEngineProperties} instance
+     */
+    final public Tesseract4OcrEngineProperties setDocumentTimeout(
+            long documentTimeout) {
+        this.documentTimeout = documentTimeout;
+        return this;
+    }
+
+    /**
+     * Checks whether page orientation is detected and corrected before OCR.
+     *
+     * @return true if page orientation is detected
+     */
+    final public boolean isDetectOrientation() {
+        return detectOrientation;
+    }
+
+    /**
+     * Sets whether page orientation should be detected and corrected
+     * before OCR.
+     * If set to true, tesseract orientation and script detection is run
+     * on a downsampled grayscale thumbnail of each page (see
+     * {@link #setOrientationDetectionDpi(int)}). Page which is detected as
+     * rotated is rotated before OCR and coordinates of the recognized text
+     * are mapped back to the original page. Note that "osd.traineddata"
+     * is required in the tess data directory.
+     * Default value is false.
+     *
+     * @param detectOrientation true if page orientation should be detected
+     * @return the {@link Tesseract4OcrEngineProperties} instance
+     */
+    final public Tesseract4OcrEngineProperties setDetectOrientation(
+            boolean detectOrientation) {
+        this.detectOrientation = detectOrientation;
+        return this;
+    }
+
+    /**
+     * Gets resolution in dpi of the thumbnail which is used to detect page
+     * orientation.
+     *
+     * @return resolution in dpi
+     */
+    final public int getOrientationDetectionDpi() {
+        return orientationDetectionDpi;
+    }
+
+    /**
+     * Sets resolution in dpi of the thumbnail which is used to detect page
+     * orientation. Images with lower resolution are not upsampled,
+     * resolution of images without resolution in metadata is considered
+     * to be 300 dpi.
+     * Default value is 150.
+     *
+     * @param orientationDetectionDpi resolution in dpi
+     * @return the {@link Tesseract4OcrEngineProperties} instance
+     */
+    final public Tesseract4OcrEngineProperties setOrientationDetectionDpi(
+            int orientationDetectionDpi) {
+        this.orientationDetectionDpi = orientationDetectionDpi;
+        return this;
+    }
+
+    /**
+     * Checks whether each page should be OCRed using only the languages
+     * of its detected script.
+     *
+     * @return true if languages of the page are detected
+     */
+    final public boolean isDetectLanguages() {
+        return detectLanguages;
+    }
+
+    /**
+     * Sets whether each page should be OCRed using only the languages of
+     * its detected script. If set to true, script of each page is detected
+     * on a downsampled grayscale thumbnail (see
+     * {@link #setOrientationDetectionDpi(int)}) and the page is OCRed using
+     * only those of the provided languages which are written in the
+     * detected script, e.g. only "rus" and "ukr" of "eng+deu+rus+ukr" for a
+     * cyrillic page. Languages of unknown script are always used. If none
+     * of the provided languages is written in the detected script or the
+     * script cannot be detected, all the languages are used.
+     * Note that "osd.traineddata" is required in the tess data directory.
+     * Default value is false.
+     *
+     * @param detectLanguages true if languages of the page should be
+     *                        detected
+     * @return the {@link Tesseract4OcrEngineProperties} instance
+     */
+    final public Tesseract4OcrEngineProperties setDetectLanguages(
+            boolean detectLanguages) {
+        this.detectLanguages = detectLanguages;
+        return this;
+    }
+
+    /**
+     * Gets path to the directory with accurate tess data which is used to
+     * re-recognize lines of low confidence.
+     *
+     * @return path to accurate tess data directory as {@link java.io.File}
+     * or null if lines are not re-recognized
+     */
+    final public File getPathToAccurateTessData() {
+        return pathToAccurateTessData;
+    }
 
+    /**
+     * Sets path to the directory with accurate tess data (e.g. "tessdata_best")
+     * which is used to re-recognize lines of low confidence.
+     * If the path is set, every page is recognized using fast tess data
+     * from {@link #setPathToTessData(File)} (e.g. "tessdata_fast") first,
+     * then only lines which confidence level is lower than
+     * {@link #getCascadeConfidenceLevel()} are recognized once again using
+     * accurate tess data. Clean pages are thus recognized using fast tess
+     * data only. Accurate tess data directory should contain all the
+     * provided languages.
+     * Default value is null which means that lines are not re-recognized.
+     * Please note that lines are re-recognized only if output format is
+     * {@link OutputFormat#HOCR} and pages of the image are OCRed separately.
+     *
+     * @param pathToAccurateTessData path to accurate tess data directory
+     *                               as {@link java.io.File} or null
+     * @return the {@link Tesseract4OcrEngineProperties} instance
+     * @throws Tesseract4OcrException if provided directory does not exist
+     * or it is not a directory
+     */
+    final public Tesseract4OcrEngineProperties setPathToAccurateTessData(
+            final File pathToAccurateTessData) {
+        if (pathToAccurateTessData != null && !FileUtil.directoryExists(
+                pathToAccurateTessData.getAbsolutePath())) {
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException
+                            .PATH_TO_TESS_DATA_DIRECTORY_IS_INVALID);
+        }
+        this.pathToAccurateTessData = pathToAccurateTessData;
+        return this;
+    }
+
+    /**
+     * Gets confidence level below which the line is re-recognized using
+     * accurate tess data.
+     *
+     * @return confidence level in range of 0-100
+     */
+    final public int getCascadeConfidenceLevel() {
+        return cascadeConfidenceLevel;
+    }
+
+    /**
+     * Sets confidence level below which the line is re-recognized using
+     * accurate tess data (see {@link #setPathToAccurateTessData(File)}).
+     * Default value is 70.
+     * Value may vary in range of 0-100
+     *
+     * @param cascadeConfidenceLevel confidence level
+     * @return the {@link Tesseract4OcrEngineProperties} instance
+     */
+    final public Tesseract4OcrEngineProperties setCascadeConfidenceLevel(
+            int cascadeConfidenceLevel) {
+        this.cascadeConfidenceLevel = cascadeConfidenceLevel;
+        return this;
+    }
+
+    /**
+     * Checks whether tesseract TSV output is used instead of hOCR to
+     * retrieve text and its coordinates.
+     *
+     * @return true if TSV output is used
+     */
+    final public boolean isUseTsvOutput() {
+        return useTsvOutput;
+    }
+
+    /**
+     * Sets whether tesseract TSV output ({@link OutputFormat#TSV}) is used
+     * instead of hOCR ({@link OutputFormat#HOCR}) to retrieve text and its
+     * coordinates. TSV output contains the same lines, words, bboxes and
+     * confidences, but it is parsed considerably faster than hOCR.
+     * {@link #getTextPositioning()} and {@link #getMinimalConfidenceLevel()}
+     * are respected, {@link #isUseTxtToImproveHocrParsing()} is not.
+     * Default value is false.
+     *
+     * @param useTsvOutput true if TSV output should be used
+     * @return the {@link Tesseract4OcrEngineProperties} instance
+     */
+    final public Tesseract4OcrEngineProperties setUseTsvOutput(
+            boolean useTsvOutput) {
+        this.useTsvOutput = useTsvOutput;
+        return this;
+    }
 }
@@ -52,6 +52,18 @@ public class Tesseract4OcrException extends OcrException {
                     + "to a valid directory";
     public static final String PATH_TO_TESS_DATA_DIRECTORY_CONTAINS_NON_ASCII_CHARACTERS =
             "Path to tess data should contain only ASCII characters";
+    public static final String CANNOT_WRITE_OCR_RESULT =
+            "Cannot write OCR result: {0}";
+    public static final String TESSERACT_TIMEOUT =
+            "Tesseract did not finish in {0} ms and was stopped";
+    public static final String TOO_MANY_TIMED_OUT_TESSERACT_CALLS =
+            "Tesseract cannot be started as {0} calls which exceeded "
+                    + "the time limit are still running";
+    public static final String PDF_FONT_IS_NOT_FOUND =
+            "Tesseract PDF renderer requires {0} font file in tess data "
+                    + "directory";
+    public static final String OUTPUT_FORMAT_IS_NOT_SUPPORTED =
+            "{0} output format is not supported for the operation";
 
     /**
      * Creates a new TesseractException.
@@ -25,6 +25,11 @@ package com.itextpdf.pdfocr.tesseract4;
 import com.itextpdf.io.util.MessageFormatUtil;
 import com.itextpdf.io.util.SystemUtil;
 import com.itextpdf.kernel.geom.Rectangle;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.kernel.utils.PdfMerger;
+import com.itextpdf.pdfocr.PageText;
 import com.itextpdf.pdfocr.TextInfo;
 import com.itextpdf.styledxmlparser.jsoup.Jsoup;
 import com.itextpdf.styledxmlparser.jsoup.nodes.Document;
@@ -32,6 +37,7 @@ import com.itextpdf.styledxmlparser.jsoup.nodes.Element;
 import com.itextpdf.styledxmlparser.jsoup.nodes.Node;
 import com.itextpdf.styledxmlparser.jsoup.select.Elements;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
@@ -46,6 +52,7 @@ import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
@@ -101,6 +108,19 @@ public class TesseractHelper {
     private static final String TITLE = "title";
     private static final String X_WCONF = "x_wconf";
 
+    /**
+     * Levels of the rows of tesseract TSV output.
+     */
+    private static final int TSV_PAGE_LEVEL = 1;
+    private static final int TSV_LINE_LEVEL = 4;
+    private static final int TSV_WORD_LEVEL = 5;
+
+    /**
+     * Number of columns of tesseract TSV output: level, page_num, block_num,
+     * par_num, line_num, word_num, left, top, width, height, conf, text.
+     */
+    private static final int TSV_COLUMNS_COUNT = 12;
+
 
     /**
      * Creates a new {@link TesseractHelper} instance.
@@ -205,6 +225,122 @@ public class TesseractHelper {
         return imageData;
     }
 
+    /**
+     * Parses each tsv file from the provided list, retrieves text, and
+     * returns data in the same format as
+     * {@link #parseHocrFile(List, List, Tesseract4OcrEngineProperties)}.
+     * {@link Tesseract4OcrEngineProperties#getTextPositioning()} and
+     * {@link Tesseract4OcrEngineProperties#getMinimalConfidenceLevel()}
+     * are respected.
+     *
+     * @param inputFiles list of input files
+     * @param tesseract4OcrEngineProperties {@link Tesseract4OcrEngineProperties}
+     * @return {@link java.util.Map} where key is {@link java.lang.Integer}
+     * representing the number of the page and value is
+     * {@link java.util.List} of {@link TextInfo} elements where each
+     * {@link TextInfo} element contains a word or a line and its 4
+     * coordinates(bbox)
+     * @throws IOException if error occurred during reading one the provided
+     * files
+     */
+    static Map<Integer, List<TextInfo>> parseTsvFile(
+            final List<File> inputFiles,
+            final Tesseract4OcrEngineProperties tesseract4OcrEngineProperties)
+            throws IOException {
+        Map<Integer, List<TextInfo>> imageData =
+                new LinkedHashMap<Integer, List<TextInfo>>();
+        for (File inputFile : inputFiles) {
+            if (inputFile == null || !inputFile.exists()) {
+                continue;
+            }
+            for (TsvPage page : readTsvFile(inputFile)) {
+                final List<TextInfo> textData = getTextData(page,
+                        tesseract4OcrEngineProperties);
+                if (textData.size() > 0) {
+                    int pageNumber = page.pageNumber;
+                    if (imageData.containsKey(pageNumber)) {
+                        pageNumber = Collections.max(imageData.keySet()) + 1;
+                    }
+                    imageData.put(pageNumber, textData);
+                }
+            }
+        }
+        return imageData;
+    }
+
+    /**
+     * Finds lines of the first page of the tsv file which average
+     * confidence level is lower than the provided one.
+     *
+     * @param inputFile tsv file
+     * @param confidenceLevel confidence level in range of 0-100
+     * @return {@link java.util.List} of bboxes of the found lines
+     * in points (the origin is in the lower left corner of the page)
+     * @throws IOException if error occurred during reading the file
+     */
+    static List<Rectangle> findLowConfidenceTsvLines(final File inputFile,
+            final int confidenceLevel) throws IOException {
+        List<Rectangle> lines = new ArrayList<Rectangle>();
+        if (inputFile == null || !inputFile.exists()) {
+            return lines;
+        }
+        final List<TsvPage> pages = readTsvFile(inputFile);
+        if (pages.isEmpty()) {
+            return lines;
+        }
+        final TsvPage page = pages.get(0);
+        for (TsvLine line : page.lines) {
+            final int confidence = line.getConfidence();
+            if (!line.words.isEmpty() && confidence >= 0
+                    && confidence < confidenceLevel) {
+                lines.add(page.toRectangle(line.bbox));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Gets extension of the file which tesseract produces for the provided
+     * output format.
+     *
+     * @param outputFormat {@link OutputFormat}
+     * @return file extension including leading dot
+     */
+    static String getOutputFileExtension(final OutputFormat outputFormat) {
+        if (outputFormat.equals(OutputFormat.HOCR)) {
+            return ".hocr";
+        } else if (outputFormat.equals(OutputFormat.TSV)) {
+            return ".tsv";
+        } else if (outputFormat.equals(OutputFormat.PDF)) {
+            return ".pdf";
+        } else {
+            return ".txt";
+        }
+    }
+
+    /**
+     * Merges pages of the provided PDF documents to a single PDF document
+     * keeping the order of the documents.
+     *
+     * @param inputFiles {@link java.util.List} of PDF documents to merge
+     * @param outputFile result PDF document
+     * @throws IOException if input documents cannot be read or result
+     * document cannot be written
+     */
+    static void mergePdfFiles(final List<File> inputFiles,
+            final File outputFile) throws IOException {
+        try (PdfDocument result = new PdfDocument(
+                new PdfWriter(outputFile.getAbsolutePath()))) {
+            PdfMerger merger = new PdfMerger(result);
+            for (File inputFile : inputFiles) {
+                try (PdfDocument input = new PdfDocument(
+                        new PdfReader(inputFile.getAbsolutePath()))) {
+                    merger.merge(input, 1, input.getNumberOfPages());
+                }
+            }
+        }
+    }
+
     /**
      * Get and align (if needed) bbox of the element.
      */
@@ -427,6 +563,96 @@ public class TesseractHelper {
         }
     }
 
+    /**
+     * Runs given command from the specific working directory and kills the
+     * process if it doesn't finish in time.
+     *
+     * @param execPath path to the executable
+     * @param paramsList {@link java.util.List} of command line arguments,
+     *                   each element is a single argument which may be quoted
+     * @param workingDirPath path to the working directory
+     * @param timeout maximal time in milliseconds the command may take,
+     *                if it is not positive time is not limited
+     * @throws Tesseract4OcrException if provided command failed or timed out
+     */
+    static void runCommand(final String execPath,
+                           final List<String> paramsList,
+                           final String workingDirPath,
+                           final long timeout) throws Tesseract4OcrException {
+        if (timeout <= 0) {
+            runCommand(execPath, paramsList, workingDirPath);
+            return;
+        }
+        final List<String> command = new ArrayList<String>();
+        command.add(removeQuotes(execPath));
+        for (String param : paramsList) {
+            command.add(removeQuotes(param));
+        }
+        final ProcessBuilder processBuilder = new ProcessBuilder(command)
+                .redirectErrorStream(true)
+                .redirectOutput(ProcessBuilder.Redirect.INHERIT);
+        if (workingDirPath != null) {
+            processBuilder.directory(new File(workingDirPath));
+        }
+        Process process = null;
+        try {
+            process = processBuilder.start();
+            if (!process.waitFor(timeout, TimeUnit.MILLISECONDS)) {
+                LOGGER.error(MessageFormatUtil
+                        .format(Tesseract4LogMessageConstant.TESSERACT_TIMEOUT,
+                                timeout, String.join(" ", command)));
+                throw new Tesseract4OcrException(
+                        Tesseract4OcrException.TESSERACT_TIMEOUT)
+                        .setMessageParams(String.valueOf(timeout));
+            }
+            if (process.exitValue() != 0) {
+                LOGGER.error(MessageFormatUtil
+                        .format(Tesseract4LogMessageConstant.COMMAND_FAILED,
+                                String.join(" ", command)));
+                throw new Tesseract4OcrException(
+                        Tesseract4OcrException
+                                .TESSERACT_FAILED);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            LOGGER.error(MessageFormatUtil
+                    .format(Tesseract4LogMessageConstant.COMMAND_FAILED,
+                            e.getMessage()));
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException
+                            .TESSERACT_FAILED);
+        } catch (IOException e) {
+            LOGGER.error(MessageFormatUtil
+                    .format(Tesseract4LogMessageConstant.COMMAND_FAILED,
+                            e.getMessage()));
+            throw new Tesseract4OcrException(
+                    Tesseract4OcrException
+                            .TESSERACT_FAILED);
+        } finally {
+            // process is still alive only if it has timed out
+            // or waiting was interrupted
+            if (process != null && process.isAlive()) {
+                process.destroyForcibly();
+            }
+        }
+    }
+
+    /**
+     * Removes quotes surrounding the command line argument as it is passed
+     * to the process as is.
+     *
+     * @param value command line argument which may be quoted
+     * @return command line argument without surrounding quotes
+     */
+    private static String removeQuotes(final String value) {
+        if (value.length() >= 2
+                && (value.startsWith("\"") && value.endsWith("\"")
+                        || value.startsWith("'") && value.endsWith("'"))) {
+            return value.substring(1, value.length() - 1);
+        }
+        return value;
+    }
+
     /**
      * Gets list of text infos from hocr page.
      */
@@ -460,33 +686,162 @@ public class TesseractHelper {
                                               List<String> txt,
                                               Rectangle pageBbox,
                                               Map<String, Node> unparsedBBoxes) {
-        List<TextInfo> textData = new ArrayList<TextInfo>();
+        PageText textData = new PageText(pageBbox.getTop());
         for (Element lineOrCaption : pageObjects) {
             if (!lineOrCaption.text().isEmpty() && isElementConfident(lineOrCaption,
                     tesseract4OcrEngineProperties.getMinimalConfidenceLevel())) {
                 String hocrLineInTxt = findHocrLineInTxt(lineOrCaption, txt);
                 if (tesseract4OcrEngineProperties.getTextPositioning() == TextPositioning.BY_WORDS
                         || tesseract4OcrEngineProperties.getTextPositioning() == TextPositioning.BY_WORDS_AND_LINES) {
-                    for (TextInfo ti : getTextDataForWords(lineOrCaption,
+                    addTextDataForWords(textData,
+                            lineOrCaption,
                             hocrLineInTxt,
                             tesseract4OcrEngineProperties.getTextPositioning(),
                             pageBbox,
-                            unparsedBBoxes)) {
-                        textData.add(ti);
-                    }
+                            unparsedBBoxes);
                 } else {
-                    for (TextInfo ti : getTextDataForLines(lineOrCaption,
+                    addTextDataForLines(textData,
+                            lineOrCaption,
                             hocrLineInTxt,
                             pageBbox,
-                            unparsedBBoxes)) {
-                        textData.add(ti);
+                            unparsedBBoxes);
+                }
+            }
+        }
+        return textData;
+    }
+
+    /**
+     * Gets list of text infos from tsv page.
+     */
+    private static List<TextInfo> getTextData(TsvPage page,
+            Tesseract4OcrEngineProperties tesseract4OcrEngineProperties) {
+        final TextPositioning textPositioning =
+                tesseract4OcrEngineProperties.getTextPositioning();
+        final int minimalConfidenceLevel =
+                tesseract4OcrEngineProperties.getMinimalConfidenceLevel();
+        PageText textData = new PageText(page.getTop());
+        for (TsvLine line : page.lines) {
+            if (line.words.isEmpty()) {
+                continue;
+            }
+            if (minimalConfidenceLevel != 0) {
+                final int confidence = line.getConfidence();
+                if (confidence >= 0 && confidence < minimalConfidenceLevel) {
+                    continue;
+                }
+            }
+            if (textPositioning == TextPositioning.BY_WORDS
+                    || textPositioning == TextPositioning.BY_WORDS_AND_LINES) {
+                for (TsvWord word : line.words) {
+                    final int[] bbox = textPositioning == TextPositioning.BY_WORDS
+                            ? word.bbox
+                            : new int[] {word.bbox[LEFT_IDX],
+                                    line.bbox[TOP_IDX], word.bbox[RIGHT_IDX],
+                                    line.bbox[BOTTOM_IDX]};
+                    textData.addText(word.text, page.toRectangle(bbox));
+                }
+            } else {
+                StringBuilder text = new StringBuilder();
+                for (TsvWord word : line.words) {
+                    if (text.length() > 0) {
+                        text.append(' ');
                     }
+                    text.append(word.text);
                 }
+                textData.addText(text.toString(),
+                        page.toRectangle(line.bbox));
             }
         }
         return textData;
     }
 
+    /**
+     * Reads pages, lines and words from tesseract TSV output. Rows are
+     * scanned column by column without regular expressions, blocks and
+     * paragraphs are skipped.
+     */
+    private static List<TsvPage> readTsvFile(final File inputFile)
+            throws IOException {
+        List<TsvPage> pages = new ArrayList<TsvPage>();
+        TsvPage page = null;
+        TsvLine line = null;
+        final String[] columns = new String[TSV_COLUMNS_COUNT];
+        try (BufferedReader reader = Files.newBufferedReader(
+                inputFile.toPath(), StandardCharsets.UTF_8)) {
+            String row;
+            while ((row = reader.readLine()) != null) {
+                if (splitTsvRow(row, columns) < TSV_COLUMNS_COUNT - 1
+                        || !isDigits(columns[0])) {
+                    // header or broken row
+                    continue;
+                }
+                final int level = Integer.parseInt(columns[0]);
+                final int[] bbox = new int[BBOX_ARRAY_SIZE];
+                bbox[LEFT_IDX] = Integer.parseInt(columns[6]);
+                bbox[TOP_IDX] = Integer.parseInt(columns[7]);
+                bbox[RIGHT_IDX] = bbox[LEFT_IDX] + Integer.parseInt(columns[8]);
+                bbox[BOTTOM_IDX] = bbox[TOP_IDX] + Integer.parseInt(columns[9]);
+                if (level == TSV_PAGE_LEVEL) {
+                    page = new TsvPage(Integer.parseInt(columns[1]), bbox);
+                    pages.add(page);
+                    line = null;
+                } else if (level == TSV_LINE_LEVEL && page != null) {
+                    line = new TsvLine(bbox);
+                    page.lines.add(line);
+                } else if (level == TSV_WORD_LEVEL && line != null) {
+                    final String text = columns[11] == null
+                            ? "" : columns[11].trim();
+                    if (!text.isEmpty()) {
+                        line.words.add(new TsvWord(bbox,
+                                (int) Float.parseFloat(columns[10]), text));
+                    }
+                }
+            }
+        }
+        return pages;
+    }
+
+    /**
+     * Splits tab separated row to the provided array of columns. The last
+     * column gets the rest of the row.
+     *
+     * @return number of found columns
+     */
+    private static int splitTsvRow(final String row, final String[] columns) {
+        int start = 0;
+        int count = 0;
+        while (count < columns.length) {
+            final int end = count == columns.length - 1
+                    ? -1 : row.indexOf('\t', start);
+            if (end < 0) {
+                columns[count++] = row.substring(start);
+                break;
+            }
+            columns[count++] = row.substring(start, end);
+            start = end + 1;
+        }
+        for (int i = count; i < columns.length; ++i) {
+            columns[i] = null;
+        }
+        return count;
+    }
+
+    /**
+     * Checks whether the string is a non-empty sequence of ASCII digits.
+     */
+    private static boolean isDigits(final String value) {
+        if (value == null || value.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); ++i) {
+            if (value.charAt(i) < '0' || value.charAt(i) > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Decides if <code>lineOrCaption</code> is confident or not given into account
      * minimalConfidenceLevel property of {@link Tesseract4OcrEngineProperties}.
@@ -495,50 +850,56 @@ public class TesseractHelper {
         if (minimalConfidenceLevel == 0) {
             return true;
         } else {
-            int wconfTotal = 0;
-            int wconfCount = 0;
-            for (Node node : lineOrCaption.childNodes()) {
-                if (node instanceof Element) {
-                    String title = ((Element)node).attr(TITLE);
-                    Matcher matcher = WCONF_PATTERN.matcher(title);
-                    if (matcher.matches()) {
-                        String wconf = null;
-                        try {
-                            wconf = matcher.group(1);
-                        } catch (Exception e) {
-                            //No need to do anything here
-                        }
-                        if (wconf != null) {
-                            wconf = wconf.replaceAll(X_WCONF, "").trim();
-                            wconfTotal += Integer.parseInt(wconf);
-                            wconfCount++;
-                        }
+            final int confidence = getElementConfidence(lineOrCaption);
+            return confidence < 0 || confidence >= minimalConfidenceLevel;
+        }
+    }
+
+    /**
+     * Gets average x_wconf of the words of <code>lineOrCaption</code>.
+     *
+     * @return average confidence level or -1 if the words have no x_wconf
+     */
+    private static int getElementConfidence(Element lineOrCaption) {
+        int wconfTotal = 0;
+        int wconfCount = 0;
+        for (Node node : lineOrCaption.childNodes()) {
+            if (node instanceof Element) {
+                String title = ((Element)node).attr(TITLE);
+                Matcher matcher = WCONF_PATTERN.matcher(title);
+                if (matcher.matches()) {
+                    String wconf = null;
+                    try {
+                        wconf = matcher.group(1);
+                    } catch (Exception e) {
+                        //No need to do anything here
+                    }
+                    if (wconf != null) {
+                        wconf = wconf.replaceAll(X_WCONF, "").trim();
+                        wconfTotal += Integer.parseInt(wconf);
+                        wconfCount++;
                     }
                 }
             }
-            if (wconfCount > 0) {
-                return wconfTotal / wconfCount >= minimalConfidenceLevel;
-            } else {
-                return true;
-            }
         }
+        return wconfCount > 0 ? wconfTotal / wconfCount : -1;
     }
 
     /**
-     * Gets list of words represented by text infos from hocr line.
+     * Adds words from hocr line to page text data.
      */
-    private static List<TextInfo> getTextDataForWords(Element lineOrCaption,
-                                                      String txtLine,
-                                                      TextPositioning textPositioning,
-                                                      Rectangle pageBbox,
-                                                      Map<String, Node> unparsedBBoxes) {
-        List<TextInfo> textData = new ArrayList<TextInfo>();
+    private static void addTextDataForWords(PageText textData,
+                                            Element lineOrCaption,
+                                            String txtLine,
+                                            TextPositioning textPositioning,
+                                            Rectangle pageBbox,
+                                            Map<String, Node> unparsedBBoxes) {
         if (txtLine == null) {
             for (Element word : lineOrCaption.getElementsByClass(OCRX_WORD)) {
                 final Rectangle bboxRect = getAlignedBBox(word,
                         textPositioning, pageBbox,
                         unparsedBBoxes);
-                addToTextData(textData, word.text(), bboxRect, pageBbox);
+                textData.addText(word.text(), bboxRect);
             }
         } else {
             List<TextInfo> textInfos = new ArrayList<>();
@@ -554,57 +915,261 @@ public class TesseractHelper {
                 if (lineItems[0].replaceAll(NEW_LINE_OR_SPACE_PATTERN, "")
                         .equals(getTextInfosText(textInfos).replaceAll(SPACE_PATTERN, ""))) {
                     lineItems = Arrays.copyOfRange(lineItems, 1, lineItems.length);
-                    addToTextData(textData, mergeTextInfos(textInfos), pageBbox);
+                    final TextInfo merged = mergeTextInfos(textInfos);
+                    textData.addText(merged.getText(), merged.getBboxRect());
                     textInfos.clear();
                 }
             }
         }
-        return textData;
     }
 
     /**
-     * Gets list of lines represented by text infos from hocr line.
+     * Adds hocr line to page text data.
      */
-    private static List<TextInfo> getTextDataForLines(Element lineOrCaption,
-                                                      String txtLine,
-                                                      Rectangle pageBbox,
-                                                      Map<String, Node> unparsedBBoxes) {
-        List<TextInfo> textData = new ArrayList<TextInfo>();
+    private static void addTextDataForLines(PageText textData,
+                                            Element lineOrCaption,
+                                            String txtLine,
+                                            Rectangle pageBbox,
+                                            Map<String, Node> unparsedBBoxes) {
         final Rectangle bboxRect = getAlignedBBox(lineOrCaption,
                 TextPositioning.BY_LINES, pageBbox,
                 unparsedBBoxes);
         if (txtLine == null) {
-            addToTextData(textData, lineOrCaption.text(), bboxRect, pageBbox);
+            textData.addText(lineOrCaption.text(), bboxRect);
         } else {
-            addToTextData(textData, txtLine, bboxRect, pageBbox);
+            textData.addText(txtLine, bboxRect);
         }
-        return textData;
     }
 
     /**
-     * Add text chunk represented by text and bbox to list of text infos.
+     * Scales coordinates of the recognized text.
+     *
+     * @param textInfos {@link java.util.List} of {@link TextInfo} to scale,
+     *                  may be null
+     * @param scale scale factor
+     * @return new {@link java.util.List} of {@link TextInfo} with scaled
+     * coordinates or the same list if scale factor is 1
+     */
+    static List<TextInfo> scaleTextInfos(final List<TextInfo> textInfos,
+            final float scale) {
+        if (textInfos == null || scale == 1) {
+            return textInfos;
+        }
+        if (textInfos instanceof PageText) {
+            final PageText pageText = (PageText) textInfos;
+            PageText scaledText = new PageText(
+                    pageText.getPageHeight() * scale);
+            for (int i = 0; i < pageText.size(); ++i) {
+                final Rectangle bboxRect = pageText.getBboxRect(i);
+                scaledText.addText(pageText.getText(i),
+                        bboxRect.getX() * scale, bboxRect.getY() * scale,
+                        bboxRect.getWidth() * scale,
+                        bboxRect.getHeight() * scale);
+            }
+            return scaledText;
+        }
+        List<TextInfo> scaledText = new ArrayList<TextInfo>(textInfos.size());
+        for (TextInfo textInfo : textInfos) {
+            final Rectangle bboxRect = textInfo.getBboxRect();
+            if (bboxRect != null) {
+                scaledText.add(new TextInfo(textInfo.getText(),
+                        new Rectangle(bboxRect.getX() * scale,
+                                bboxRect.getY() * scale,
+                                bboxRect.getWidth() * scale,
+                                bboxRect.getHeight() * scale)));
+            } else {
+                List<Float> bbox = new ArrayList<Float>();
+                for (Float coordinate : textInfo.getBbox()) {
+                    bbox.add(coordinate * scale);
+                }
+                scaledText.add(new TextInfo(textInfo.getText(), bbox));
+            }
+        }
+        return scaledText;
+    }
+
+    /**
+     * Appends recognized text to the page text shifting its coordinates.
+     * Used to put text recognized in a region of the page to the
+     * coordinate space of the whole page.
+     *
+     * @param pageText {@link PageText} to append text to
+     * @param textInfos {@link java.util.List} of {@link TextInfo} to append,
+     *                  may be null
+     * @param dx horizontal shift in points
+     * @param dy vertical shift in points
+     */
+    static void addTranslatedTextInfos(final PageText pageText,
+            final List<TextInfo> textInfos, final float dx, final float dy) {
+        if (textInfos == null) {
+            return;
+        }
+        if (textInfos instanceof PageText) {
+            final PageText regionText = (PageText) textInfos;
+            for (int i = 0; i < regionText.size(); ++i) {
+                pageText.addText(regionText.getText(i),
+                        regionText.getLeft(i) + dx,
+                        regionText.getBottom(i) + dy,
+                        regionText.getRight(i) - regionText.getLeft(i),
+                        regionText.getTop(i) - regionText.getBottom(i));
+            }
+        } else {
+            for (TextInfo textInfo : textInfos) {
+                final Rectangle bboxRect = textInfo.getBboxRect();
+                if (bboxRect != null) {
+                    pageText.addText(textInfo.getText(),
+                            bboxRect.getX() + dx, bboxRect.getY() + dy,
+                            bboxRect.getWidth(), bboxRect.getHeight());
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds lines and captions of the first page of the hocr file which
+     * average confidence level is lower than the provided one.
+     *
+     * @param inputFile hocr file
+     * @param confidenceLevel confidence level in range of 0-100
+     * @return {@link java.util.List} of bboxes of the found lines
+     * in points (the origin is in the lower left corner of the page)
+     * @throws IOException if error occurred during reading the file
+     */
+    static List<Rectangle> findLowConfidenceLines(final File inputFile,
+            final int confidenceLevel) throws IOException {
+        List<Rectangle> lines = new ArrayList<Rectangle>();
+        if (inputFile == null || !inputFile.exists()) {
+            return lines;
+        }
+        final Map<String, Node> unparsedBBoxes = new LinkedHashMap<>();
+        try (FileInputStream fileInputStream =
+                new FileInputStream(inputFile.getAbsolutePath())) {
+            Document doc = Jsoup.parse(fileInputStream,
+                    StandardCharsets.UTF_8.name(),
+                    inputFile.getAbsolutePath());
+            Elements pages = doc.getElementsByClass(OCR_PAGE);
+            if (pages.isEmpty()) {
+                return lines;
+            }
+            final Element page = pages.get(0);
+            final Rectangle pageBbox = parseBBox(page, null, unparsedBBoxes);
+            for (String searchedClass : Arrays.<String>asList(OCR_LINE,
+                    OCR_CAPTION)) {
+                for (Element lineOrCaption
+                        : page.getElementsByClass(searchedClass)) {
+                    final int confidence = getElementConfidence(lineOrCaption);
+                    if (!lineOrCaption.text().isEmpty() && confidence >= 0
+                            && confidence < confidenceLevel) {
+                        lines.add(getAlignedBBox(lineOrCaption,
+                                TextPositioning.BY_LINES, pageBbox,
+                                unparsedBBoxes));
+                    }
+                }
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Replaces text recognized in the provided lines of the page with the
+     * text recognized once again in these lines. Text is considered to
+     * belong to a line if the center of its bbox is inside the line bbox.
+     * Recognized once again text is put in place of the first text which
+     * belongs to the line, so the order of the text is preserved. If no
+     * text has been recognized in a line once again, the original text of
+     * the line is kept.
+     *
+     * @param textInfos {@link java.util.List} of {@link TextInfo} of the page
+     * @param lines {@link java.util.List} of line bboxes in points
+     * @param linesText {@link java.util.List} of recognized once again
+     *                  text for each line
+     * @param pageHeight height of the page in points
+     * @return {@link PageText} with merged text of the page
      */
-    private static void addToTextData(List<TextInfo> textData,
-                                      String text,
-                                      Rectangle bboxRect,
-                                      Rectangle pageBbox) {
-        final List<Float> bbox = Arrays.asList(toPixels(bboxRect.getLeft()),
-                toPixels(pageBbox.getTop() - bboxRect.getTop()),
-                toPixels(bboxRect.getRight()),
-                toPixels(pageBbox.getTop() - bboxRect.getBottom()));
-        final TextInfo textInfo = new TextInfo(text, bboxRect, bbox);
-        textData.add(textInfo);
+    static PageText replaceLinesText(final List<TextInfo> textInfos,
+            final List<Rectangle> lines, final List<List<TextInfo>> linesText,
+            final float pageHeight) {
+        final PageText pageText = new PageText(pageHeight);
+        final PageText originalText = new PageText(pageHeight);
+        addTranslatedTextInfos(originalText, textInfos, 0, 0);
+        final boolean[] isLineAdded = new boolean[lines.size()];
+        for (int i = 0; i < originalText.size(); ++i) {
+            final float x = (originalText.getLeft(i)
+                    + originalText.getRight(i)) / 2;
+            final float y = (originalText.getBottom(i)
+                    + originalText.getTop(i)) / 2;
+            int lineIdx = -1;
+            for (int j = 0; j < lines.size() && lineIdx < 0; ++j) {
+                final List<TextInfo> lineText = linesText.get(j);
+                final Rectangle line = lines.get(j);
+                if (lineText != null && !lineText.isEmpty()
+                        && x >= line.getLeft() && x <= line.getRight()
+                        && y >= line.getBottom() && y <= line.getTop()) {
+                    lineIdx = j;
+                }
+            }
+            if (lineIdx < 0) {
+                pageText.addText(originalText.getText(i),
+                        originalText.getLeft(i), originalText.getBottom(i),
+                        originalText.getRight(i) - originalText.getLeft(i),
+                        originalText.getTop(i) - originalText.getBottom(i));
+            } else if (!isLineAdded[lineIdx]) {
+                addTranslatedTextInfos(pageText, linesText.get(lineIdx), 0, 0);
+                isLineAdded[lineIdx] = true;
+            }
+        }
+        // lines which text has been skipped because of minimal confidence
+        // level are added to the end of the page
+        for (int j = 0; j < lines.size(); ++j) {
+            if (!isLineAdded[j]) {
+                addTranslatedTextInfos(pageText, linesText.get(j), 0, 0);
+            }
+        }
+        return pageText;
     }
 
     /**
-     * Add text chunk represented by text info to list of text infos.
+     * Maps recognized text of the page which was rotated clockwise before
+     * OCR back to the coordinate space of the original page.
+     *
+     * @param textInfos {@link java.util.List} of {@link TextInfo} recognized
+     *                  in the rotated page, may be null
+     * @param rotation clockwise rotation in degrees which was applied to the
+     *                 page: 90, 180 or 270
+     * @param pageWidth width of the original page in points
+     * @param pageHeight height of the original page in points
+     * @return {@link PageText} in the coordinate space of the original page
      */
-    private static void addToTextData(List<TextInfo> textData,
-                                      TextInfo textInfo,
-                                      Rectangle pageBbox) {
-        String text = textInfo.getText();
-        Rectangle bboxRect = textInfo.getBboxRect();
-        addToTextData(textData, text, bboxRect, pageBbox);
+    static PageText rotateTextInfos(final List<TextInfo> textInfos,
+            final int rotation, final float pageWidth,
+            final float pageHeight) {
+        final PageText rotatedText = new PageText(pageHeight);
+        if (textInfos == null) {
+            return rotatedText;
+        }
+        final PageText pageText = new PageText(
+                rotation % 180 == 0 ? pageHeight : pageWidth);
+        addTranslatedTextInfos(pageText, textInfos, 0, 0);
+        for (int i = 0; i < pageText.size(); ++i) {
+            final float left = pageText.getLeft(i);
+            final float bottom = pageText.getBottom(i);
+            final float right = pageText.getRight(i);
+            final float top = pageText.getTop(i);
+            if (rotation == 90) {
+                rotatedText.addText(pageText.getText(i), pageWidth - top,
+                        left, top - bottom, right - left);
+            } else if (rotation == 180) {
+                rotatedText.addText(pageText.getText(i), pageWidth - right,
+                        pageHeight - top, right - left, top - bottom);
+            } else if (rotation == 270) {
+                rotatedText.addText(pageText.getText(i), bottom,
+                        pageHeight - right, top - bottom, right - left);
+            } else {
+                rotatedText.addText(pageText.getText(i), left, bottom,
+                        right - left, top - bottom);
+            }
+        }
+        return rotatedText;
     }
 
     /**
@@ -660,4 +1225,83 @@ public class TesseractHelper {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    /**
+     * Page of tesseract TSV output.
+     */
+    private static final class TsvPage {
+        private final int pageNumber;
+        private final int[] bbox;
+        private final List<TsvLine> lines = new ArrayList<TsvLine>();
+
+        TsvPage(final int pageNumber, final int[] bbox) {
+            this.pageNumber = pageNumber;
+            this.bbox = bbox;
+        }
+
+        /**
+         * Gets top of the page in points.
+         */
+        float getTop() {
+            return toPoints(bbox[BOTTOM_IDX]);
+        }
+
+        /**
+         * Converts upper-left based bbox in pixels to lower-left based
+         * rectangle in points.
+         */
+        Rectangle toRectangle(final int[] elementBbox) {
+            final float top = getTop();
+            return new Rectangle(0, 0).setBbox(
+                    toPoints(elementBbox[LEFT_IDX]),
+                    top - toPoints(elementBbox[TOP_IDX]),
+                    toPoints(elementBbox[RIGHT_IDX]),
+                    top - toPoints(elementBbox[BOTTOM_IDX]));
+        }
+    }
+
+    /**
+     * Line of tesseract TSV output.
+     */
+    private static final class TsvLine {
+        private final int[] bbox;
+        private final List<TsvWord> words = new ArrayList<TsvWord>();
+
+        TsvLine(final int[] bbox) {
+            this.bbox = bbox;
+        }
+
+        /**
+         * Gets average confidence of the words of the line.
+         *
+         * @return average confidence level or -1 if the words have no
+         * confidence
+         */
+        int getConfidence() {
+            int confTotal = 0;
+            int confCount = 0;
+            for (TsvWord word : words) {
+                if (word.confidence >= 0) {
+                    confTotal += word.confidence;
+                    confCount++;
+                }
+            }
+            return confCount > 0 ? confTotal / confCount : -1;
+        }
+    }
+
+    /**
+     * Word of tesseract TSV output.
+     */
+    private static final class TsvWord {
+        private final int[] bbox;
+        private final int confidence;
+        private final String text;
+
+        TsvWord(final int[] bbox, final int confidence, final String text) {
+            this.bbox = bbox;
+            this.confidence = confidence;
+            this.text = text;
+        }
+    }
+}
@@ -37,6 +37,8 @@ import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -45,6 +47,7 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import javax.imageio.ImageIO;
+import net.sourceforge.lept4j.Box;
 import net.sourceforge.lept4j.ILeptonica;
 import net.sourceforge.lept4j.Leptonica;
 import net.sourceforge.lept4j.Pix;
@@ -86,6 +89,17 @@ class TesseractOcrUtil {
     private static final int EXIF_ROTATION_180 = 3;
     private static final int EXIF_ROTATION_270 = 8;
 
+    /**
+     * Size of the longest side of the downsampled image (in pixels) which
+     * is used to calculate ink ratio.
+     */
+    private static final int INK_RATIO_IMAGE_SIZE = 600;
+
+    /**
+     * Gray level below which pixel is considered dark when ink ratio
+     * is calculated.
+     */
+    private static final int INK_RATIO_GRAY_THRESHOLD = 128;
 
     /**
      * List of pages of the image that is being processed.
@@ -100,7 +114,8 @@ class TesseractOcrUtil {
     }
 
     /**
-     * Reads required page from provided tiff image.
+     * Reads required page from provided tiff image. Only this page is
+     * decoded unless the image cannot be read by leptonica.
      * Note that rotation is always applied when image read.
      *
      * @param inputFile input image as {@link java.io.File}
@@ -110,7 +125,14 @@ class TesseractOcrUtil {
      */
     static Pix readPixPageFromTiff(final File inputFile,
             final int pageNumber) {
-        Pix pix = null;
+        // only the required page is decoded, all the pages are decoded
+        // only if leptonica cannot read the page, e.g. if the path
+        // cannot be opened or compression isn't supported
+        Pix pix = PixMemoryStatistics.register(Leptonica.INSTANCE
+                .pixReadTiff(inputFile.getAbsolutePath(), pageNumber));
+        if (pix != null) {
+            return pix;
+        }
         BufferedImage img = TesseractOcrUtil
                 .getImagePage(inputFile, pageNumber);
         if (img != null) {
@@ -126,15 +148,21 @@ class TesseractOcrUtil {
      * converting to grayscale,
      * thresholding.
      *
+     * Original pix is not destroyed, intermediate images are.
+     *
      * @param pix {@link Pix} object to be processed
      * @param imagePreprocessingOptions {@link ImagePreprocessingOptions}
-     * @return preprocessed {@link net.sourceforge.lept4j.Pix} object
+     * @return preprocessed {@link net.sourceforge.lept4j.Pix} object or
+     * the original one if it wasn't changed
      */
     static Pix preprocessPix(final Pix pix,
                              final ImagePreprocessingOptions imagePreprocessingOptions) {
-        Pix pix1 = convertToGrayscale(pix);
-        pix1 = otsuImageThresholding(pix1, imagePreprocessingOptions);
-        return pix1;
+        try (ScopedPix processedPix = ScopedPix.borrow(pix)) {
+            processedPix.replace(convertToGrayscale(processedPix.get()));
+            processedPix.replace(otsuImageThresholding(processedPix.get(),
+                    imagePreprocessingOptions));
+            return processedPix.release();
+        }
     }
 
     /**
@@ -143,8 +171,13 @@ class TesseractOcrUtil {
      * converted anyway using different Leptonica methods depending on
      * image depth.
      *
-     * @param pix {@link net.sourceforge.lept4j.Pix} object to be processed
-     * @return preprocessed {@link net.sourceforge.lept4j.Pix} object
+     * Images of other depth without colormap are already grayscale or
+     * bilevel, so they are returned as is.
+     *
+     * @param pix {@link net.sourceforge.lept4j.Pix} object to be processed,
+     *            it is not changed or destroyed
+     * @return new preprocessed {@link net.sourceforge.lept4j.Pix} object
+     * or the original one if conversion is not needed
      */
     static Pix convertToGrayscale(final Pix pix) {
         Leptonica instance = Leptonica.INSTANCE;
@@ -152,10 +185,16 @@ class TesseractOcrUtil {
             int depth = instance.pixGetDepth(pix);
 
             if (depth == 32) {
-                return instance.pixConvertRGBToLuminance(pix);
+                return PixMemoryStatistics.register(
+                        instance.pixConvertRGBToLuminance(pix));
+            } else if (instance.pixGetColormap(pix) == null) {
+                // pixRemoveColormap would return a clone of the same image
+                // with an extra reference which is never released
+                return pix;
             } else {
-                return instance.pixRemoveColormap(pix,
-                        instance.REMOVE_CMAP_TO_GRAYSCALE);
+                return PixMemoryStatistics.register(
+                        instance.pixRemoveColormap(pix,
+                                instance.REMOVE_CMAP_TO_GRAYSCALE));
             }
         } else {
             return pix;
@@ -167,9 +206,11 @@ class TesseractOcrUtil {
      * {@link net.sourceforge.lept4j.Leptonica#pixOtsuAdaptiveThreshold}
      * method.
      *
-     * @param pix {@link Pix} object to be processed
+     * @param pix {@link Pix} object to be processed,
+     *            it is not changed or destroyed
      * @param imagePreprocessingOptions {@link ImagePreprocessingOptions}
-     * @return {@link net.sourceforge.lept4j.Pix} object after thresholding
+     * @return new {@link net.sourceforge.lept4j.Pix} object after thresholding
+     * or the original one if thresholding is not possible
      */
     static Pix otsuImageThresholding(final Pix pix,
                                      final ImagePreprocessingOptions imagePreprocessingOptions) {
@@ -188,10 +229,9 @@ class TesseractOcrUtil {
                                 getOtsuAdaptiveThresholdSmoothingTileSize(pix.h,
                                         imagePreprocessingOptions.isSmoothTiling()),
                                 0,null, pointer);
-                thresholdPix = new Pix(pointer.getValue());
+                thresholdPix = PixMemoryStatistics.register(
+                        new Pix(pointer.getValue()));
                 if (thresholdPix.w > 0 && thresholdPix.h > 0) {
-                    // destroying original pix
-                    destroyPix(pix);
                     return thresholdPix;
                 } else {
                     LOGGER.info(MessageFormatUtil.format(
@@ -243,13 +283,95 @@ class TesseractOcrUtil {
     }
 
     /**
-     * Destroys {@link net.sourceforge.lept4j.Pix} object.
+     * Scales {@link net.sourceforge.lept4j.Pix} using
+     * {@link net.sourceforge.lept4j.Leptonica#pixScale} method.
+     *
+     * @param pix {@link net.sourceforge.lept4j.Pix} object to be processed,
+     *            it is not changed or destroyed
+     * @param scale scale factor
+     * @return new scaled {@link net.sourceforge.lept4j.Pix} object or the
+     * original one if scale factor is 1 or scaling failed
+     */
+    static Pix scalePix(final Pix pix, final float scale) {
+        if (pix == null || scale == 1) {
+            return pix;
+        }
+        Pix scaledPix = PixMemoryStatistics.register(
+                Leptonica.INSTANCE.pixScale(pix, scale, scale));
+        return scaledPix == null ? pix : scaledPix;
+    }
+
+    /**
+     * Crops the specified rectangle of the image. Rectangle is expected to be
+     * within the image bounds.
+     *
+     * @param pix {@link net.sourceforge.lept4j.Pix} object to be cropped,
+     *            it is not changed or destroyed
+     * @param x left coordinate of the rectangle in pixels
+     * @param y top coordinate of the rectangle in pixels
+     * @param width width of the rectangle in pixels
+     * @param height height of the rectangle in pixels
+     * @return cropped {@link net.sourceforge.lept4j.Pix} object or null
+     * if image cannot be cropped
+     */
+    static Pix cropPix(final Pix pix, final int x, final int y,
+            final int width, final int height) {
+        Leptonica instance = Leptonica.INSTANCE;
+        Box box = instance.boxCreate(x, y, width, height);
+        if (box == null) {
+            return null;
+        }
+        try {
+            return PixMemoryStatistics.register(
+                    instance.pixClipRectangle(pix, box, null));
+        } finally {
+            instance.boxDestroy(new PointerByReference(box.getPointer()));
+        }
+    }
+
+    /**
+     * Calculates ratio of dark pixels in the image. Image is downsampled
+     * and binarized first, so calculation is cheap even for large images.
+     *
+     * @param pix {@link net.sourceforge.lept4j.Pix} object to be processed,
+     *            it is not changed or destroyed
+     * @return ratio of dark pixels in range 0-1
+     */
+    static float getInkRatio(final Pix pix) {
+        Leptonica instance = Leptonica.INSTANCE;
+        final int maxSide = Math.max(pix.w, pix.h);
+        if (maxSide <= 0) {
+            return 0;
+        }
+        final float scale = Math.min(1f,
+                (float) INK_RATIO_IMAGE_SIZE / maxSide);
+        // intermediate images are destroyed, the original one is intact
+        try (ScopedPix binaryPix = ScopedPix.borrow(pix)) {
+            binaryPix.replace(scalePix(binaryPix.get(), scale));
+            binaryPix.replace(PixMemoryStatistics.register(
+                    instance.pixConvertTo1(binaryPix.get(),
+                            INK_RATIO_GRAY_THRESHOLD)));
+            final Pix result = binaryPix.get();
+            if (result == null || result.w <= 0 || result.h <= 0) {
+                return 0;
+            }
+            IntBuffer count = IntBuffer.allocate(1);
+            instance.pixCountPixels(result, count, null);
+            return (float) count.get(0) / ((float) result.w * result.h);
+        }
+    }
+
+    /**
+     * Destroys {@link net.sourceforge.lept4j.Pix} object and releases
+     * its pixel data.
      *
      * @param pix {@link net.sourceforge.lept4j.Pix} object to be destroyed
      */
     static void destroyPix(Pix pix) {
         if (pix != null) {
-            Leptonica.INSTANCE.lept_free(pix.getPointer());
+            PixMemoryStatistics.unregister(pix);
+            Leptonica.INSTANCE.pixDestroy(
+                    new PointerByReference(pix.getPointer()));
         }
     }
 
@@ -485,6 +607,65 @@ class TesseractOcrUtil {
         return new File(path).getParent();
     }
 
+    /**
+     * Reads required page from provided tiff image passed as a byte array.
+     * Only this page is decoded unless the image cannot be read by
+     * leptonica.
+     *
+     * @param inputImage input image as a byte array
+     * @param pageNumber number of page
+     * @return result {@link net.sourceforge.lept4j.Pix} object created from
+     * given image
+     */
+    static Pix readPixPageFromTiff(final byte[] inputImage,
+            final int pageNumber) {
+        // only the required page is decoded, see
+        // readPixPageFromTiff(File, int)
+        Pix pix = PixMemoryStatistics.register(Leptonica.INSTANCE
+                .pixReadMemTiff(ByteBuffer.wrap(inputImage),
+                        new NativeSize(inputImage.length), pageNumber));
+        if (pix != null) {
+            return pix;
+        }
+        BufferedImage img = TesseractOcrUtil
+                .getImagePage(inputImage, pageNumber);
+        if (img != null) {
+            pix = readPix(img);
+        }
+        // return required page to be preprocessed
+        return pix;
+    }
+
+    /**
+     * Gets the page of the image passed as a byte array.
+     *
+     * @param inputImage input image as a byte array
+     * @param page number of page (0-based)
+     * @return result {@link java.awt.image.BufferedImage} or null if the page
+     * cannot be read
+     */
+    static BufferedImage getImagePage(final byte[] inputImage, final int page) {
+        BufferedImage img = null;
+        try {
+            List<BufferedImage> pages = Imaging.getAllBufferedImages(inputImage);
+            if (page >= pages.size()) {
+                LOGGER.warn(MessageFormatUtil.format(
+                        Tesseract4LogMessageConstant.PAGE_NUMBER_IS_INCORRECT,
+                        page,
+                        ImagePreprocessingUtil.IN_MEMORY_IMAGE));
+                return null;
+            }
+            img = pages.get(page);
+        } catch (ImageReadException | IOException e) {
+            LOGGER.error(MessageFormatUtil.format(
+                    Tesseract4LogMessageConstant
+                            .CANNOT_RETRIEVE_PAGES_FROM_IMAGE,
+                    ImagePreprocessingUtil.IN_MEMORY_IMAGE,
+                    e.getMessage()));
+        }
+        return img;
+    }
+
     /**
      * Retrieves list of pages from provided image as list of
      * {@link java.awt.image.BufferedImage}, one per page and updates
@@ -508,6 +689,25 @@ class TesseractOcrUtil {
         }
     }
 
+    /**
+     * Retrieves list of pages from provided image passed as a byte array
+     * and updates this list for the image using {@link #setListOfPages} method.
+     *
+     * @param inputImage input image as a byte array
+     */
+    void initializeImagesListFromTiff(
+            final byte[] inputImage) {
+        try {
+            setListOfPages(Imaging.getAllBufferedImages(inputImage));
+        } catch (Exception e) { // NOSONAR
+            LOGGER.error(MessageFormatUtil.format(
+                    Tesseract4LogMessageConstant
+                            .CANNOT_RETRIEVE_PAGES_FROM_IMAGE,
+                    ImagePreprocessingUtil.IN_MEMORY_IMAGE,
+                    e.getMessage()));
+        }
+    }
+
     /**
      * Gets list of page of processing image as list of
      * {@link java.awt.image.BufferedImage}, one per page.
@@ -545,10 +745,23 @@ class TesseractOcrUtil {
             final ITesseract tesseractInstance,
             final BufferedImage image, final OutputFormat outputFormat)
             throws TesseractException {
-        if (image != null) {
-            return tesseractInstance.doOCR(image);
-        } else {
+        if (image == null) {
             return null;
+        } else if (outputFormat == OutputFormat.TSV) {
+            // tsv is produced only by tesseract renderers,
+            // so the image is passed to tesseract as a file
+            final File imageFile = new File(getTempFilePath("ocr", ".png"));
+            try {
+                ImageIO.write(image, "png", imageFile);
+                return getOcrResultAsString(tesseractInstance, imageFile,
+                        outputFormat);
+            } catch (IOException e) {
+                throw new TesseractException(e);
+            } finally {
+                TesseractHelper.deleteFile(imageFile.getAbsolutePath());
+            }
+        } else {
+            return tesseractInstance.doOCR(image);
         }
     }
 
@@ -570,10 +783,80 @@ class TesseractOcrUtil {
             final ITesseract tesseractInstance,
             final File image, final OutputFormat outputFormat)
             throws TesseractException {
-        if (image != null) {
-            return tesseractInstance.doOCR(image);
-        } else {
+        if (image == null) {
             return null;
+        } else if (outputFormat == OutputFormat.TSV) {
+            final String outputBase = getTempFilePath("ocr", "");
+            final String outputFile = outputBase + ".tsv";
+            try {
+                tesseractInstance.createDocuments(image.getAbsolutePath(),
+                        outputBase, Collections.<ITesseract.RenderedFormat>
+                                singletonList(ITesseract.RenderedFormat.TSV));
+                return new String(Files.readAllBytes(Paths.get(outputFile)),
+                        StandardCharsets.UTF_8);
+            } catch (IOException e) {
+                throw new TesseractException(e);
+            } finally {
+                TesseractHelper.deleteFile(outputBase);
+                TesseractHelper.deleteFile(outputFile);
+            }
+        } else {
+            return tesseractInstance.doOCR(image);
+        }
+    }
+
+    /**
+     * Performs ocr for the provided image and writes recognized text to
+     * a text-only PDF document using tesseract PDF renderer. "textonly_pdf"
+     * variable is expected to be already set for the tesseract instance.
+     *
+     * @param tesseractInstance {@link net.sourceforge.tess4j.ITesseract}
+     *                          object to perform OCR
+     * @param image input image as {@link java.io.File} to be processed
+     * @param outputFile {@link java.io.File} to write PDF document to
+     * @throws TesseractException if tesseract recognition failed
+     */
+    void createTextLayerPdf(final ITesseract tesseractInstance,
+            final File image, final File outputFile)
+            throws TesseractException {
+        final String outputBase = getTempFilePath("ocr", "");
+        final String pdfFile = outputBase + ".pdf";
+        try {
+            tesseractInstance.createDocuments(image.getAbsolutePath(),
+                    outputBase, Collections.<ITesseract.RenderedFormat>
+                            singletonList(ITesseract.RenderedFormat.PDF));
+            Files.copy(Paths.get(pdfFile), outputFile.toPath(),
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            throw new TesseractException(e);
+        } finally {
+            TesseractHelper.deleteFile(outputBase);
+            TesseractHelper.deleteFile(pdfFile);
+        }
+    }
+
+    /**
+     * Performs ocr for the provided image and writes recognized text to
+     * a text-only PDF document using tesseract PDF renderer. The image is
+     * passed to tesseract as a temporary PNG file.
+     *
+     * @param tesseractInstance {@link net.sourceforge.tess4j.ITesseract}
+     *                          object to perform OCR
+     * @param pix input image as {@link net.sourceforge.lept4j.Pix} to be
+     *            processed
+     * @param outputFile {@link java.io.File} to write PDF document to
+     * @throws TesseractException if tesseract recognition failed
+     */
+    void createTextLayerPdf(final ITesseract tesseractInstance,
+            final Pix pix, final File outputFile)
+            throws TesseractException {
+        final String imageFile = getTempFilePath("ocr", ".png");
+        try {
+            savePixToPngFile(imageFile, pix);
+            createTextLayerPdf(tesseractInstance, new File(imageFile),
+                    outputFile);
+        } finally {
+            TesseractHelper.deleteFile(imageFile);
         }
     }
 
@@ -634,7 +917,8 @@ class TesseractOcrUtil {
      */
     static Pix readPix(final File inputFile) {
         try {
-            return readPix(Files.readAllBytes(inputFile.toPath()));
+            return readPix(Files.readAllBytes(inputFile.toPath()),
+                    detectRotation(inputFile));
         } catch (IOException e) {
             LOGGER.error(MessageFormatUtil.format(
                     Tesseract4LogMessageConstant.CANNOT_READ_INPUT_IMAGE,
@@ -651,19 +935,33 @@ class TesseractOcrUtil {
      * @return Pix result {@link net.sourceforge.lept4j.Pix}
      */
     static Pix readPix(final byte[] imageBytes) {
+        return readPix(imageBytes, detectRotation(imageBytes));
+    }
+
+    /**
+     * Read {@link net.sourceforge.lept4j.Pix} from byte array and rotate it
+     * by the provided angle.
+     *
+     * @param imageBytes to read from
+     * @param rotation to rotate image at
+     * @return Pix result {@link net.sourceforge.lept4j.Pix}
+     */
+    private static Pix readPix(final byte[] imageBytes, final int rotation) {
         Pix pix = null;
         try {
             ByteBuffer bb = ByteBuffer.wrap(imageBytes);
             NativeSize size = new NativeSize(imageBytes.length);
-            pix = Leptonica.INSTANCE.pixReadMem(bb, size);
+            pix = PixMemoryStatistics.register(
+                    Leptonica.INSTANCE.pixReadMem(bb, size));
         } catch (Exception e) {
             LOGGER.error(MessageFormatUtil.format(
                     Tesseract4LogMessageConstant.CANNOT_READ_INPUT_IMAGE,
                     e.getMessage()));
         }
         if (pix != null) {
-            int rotation = detectRotation(imageBytes);
-            pix = rotate(pix, rotation);
+            try (ScopedPix rotatedPix = new ScopedPix(pix)) {
+                return rotatedPix.replace(rotate(pix, rotation)).release();
+            }
         }
         return pix;
     }
@@ -676,7 +974,7 @@ class TesseractOcrUtil {
      */
     static int detectRotation(final File file) {
         try {
-            return detectRotation(Files.readAllBytes(file.toPath()));
+            return ImageProbe.probe(file).getRotation();
         } catch (Exception e) {
             LOGGER.error(MessageFormatUtil.format(
                     Tesseract4LogMessageConstant.CANNOT_READ_INPUT_IMAGE,
@@ -702,26 +1000,34 @@ class TesseractOcrUtil {
      * @return image rotation as specified in metadata
      */
     static int detectRotation(final byte[] data) {
-        int rotation = ROTATION_0;
         try {
-            final ImageMetadata metadata = Imaging.getMetadata(data);
-            TiffImageMetadata tiffImageMetadata;
-            if (metadata instanceof JpegImageMetadata) {
-                tiffImageMetadata = ((JpegImageMetadata) metadata).getExif();
-            } else if (metadata instanceof TiffImageMetadata) {
-                tiffImageMetadata = (TiffImageMetadata) metadata;
-            } else {
-                tiffImageMetadata = null;
-            }
-            if (tiffImageMetadata != null) {
-                rotation = readRotationFromMetadata(tiffImageMetadata);
-            }
+            return ImageProbe.probe(data).getRotation();
         } catch (Exception e) {
             LOGGER.info(MessageFormatUtil.format(
                     Tesseract4LogMessageConstant.CANNOT_READ_IMAGE_METADATA,
                     e.getMessage()));
+            return ROTATION_0;
+        }
+    }
+
+    /**
+     * Detect rotation specified by already read image metadata.
+     *
+     * @param metadata image metadata, may be null
+     * @return image rotation as specified in metadata
+     */
+    static int detectRotation(final ImageMetadata metadata) {
+        TiffImageMetadata tiffImageMetadata;
+        if (metadata instanceof JpegImageMetadata) {
+            tiffImageMetadata = ((JpegImageMetadata) metadata).getExif();
+        } else if (metadata instanceof TiffImageMetadata) {
+            tiffImageMetadata = (TiffImageMetadata) metadata;
+        } else {
+            tiffImageMetadata = null;
         }
-        return rotation;
+        return tiffImageMetadata == null
+                ? ROTATION_0
+                : readRotationFromMetadata(tiffImageMetadata);
     }
 
     /**
@@ -735,29 +1041,41 @@ class TesseractOcrUtil {
             if (item instanceof TiffImageMetadata.TiffMetadataItem &&
                     "Orientation".equals(((TiffImageMetadata.TiffMetadataItem) item).getKeyword())) {
                 int orientation = Integer.parseInt(((TiffImageMetadata.TiffMetadataItem) item).getText());
-                switch (orientation) {
-                    case EXIF_ROTATION_0:
-                        return ROTATION_0;
-                    case EXIF_ROTATION_90:
-                        return ROTATION_90;
-                    case EXIF_ROTATION_180:
-                        return ROTATION_180;
-                    case EXIF_ROTATION_270:
-                        return ROTATION_270;
-                    default:
-                        LOGGER.warn(MessageFormatUtil.format(
-                                Tesseract4LogMessageConstant.UNSUPPORTED_EXIF_ORIENTATION_VALUE,
-                                orientation));
-                        return ROTATION_0;
-                }
+                return convertOrientationToRotation(orientation);
             }
         }
         return ROTATION_0;
     }
 
+    /**
+     * Converts EXIF/TIFF orientation value to rotation.
+     * @param orientation orientation value
+     * @return rotation
+     */
+    static int convertOrientationToRotation(final int orientation) {
+        switch (orientation) {
+            case EXIF_ROTATION_0:
+                return ROTATION_0;
+            case EXIF_ROTATION_90:
+                return ROTATION_90;
+            case EXIF_ROTATION_180:
+                return ROTATION_180;
+            case EXIF_ROTATION_270:
+                return ROTATION_270;
+            default:
+                LOGGER.warn(MessageFormatUtil.format(
+                        Tesseract4LogMessageConstant.UNSUPPORTED_EXIF_ORIENTATION_VALUE,
+                        orientation));
+                return ROTATION_0;
+        }
+    }
+
     /**
      * Rotates image by specified angle.
      *
+     * Image rotated by 180 degrees is rotated in place, otherwise original
+     * image is not changed or destroyed.
+     *
      * @param pix image source represented by {@link net.sourceforge.lept4j.Pix}
      * @param rotation to rotate image at
      * @return rotated image, if rotation differs from 0
@@ -766,11 +1084,13 @@ class TesseractOcrUtil {
         final Leptonica instance = Leptonica.INSTANCE;
         switch (rotation) {
             case ROTATION_90:
-                return instance.pixRotate90(pix, 1);
+                return PixMemoryStatistics.register(
+                        instance.pixRotate90(pix, 1));
             case ROTATION_180:
                 return instance.pixRotate180(pix, pix);
             case ROTATION_270:
-                return instance.pixRotate90(pix, -1);
+                return PixMemoryStatistics.register(
+                        instance.pixRotate90(pix, -1));
             default:
                 return pix;
         }
@@ -0,0 +1,167 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.tesseract4;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Registry of temporary user words files.
+ *
+ * Path to the file is derived from the language and content of the
+ * dictionary, so properties with the same user words share the same file.
+ * Nothing is written when user words are set, the file is written when the
+ * first engine acquires it and is kept on disk while at least one engine
+ * which used it is not closed, i.e. it is shared across pages and threads.
+ * It is deleted and unregistered when the last such engine is closed (see
+ * {@link AbstractTesseract4OcrEngine#close()}). If the deleted file is
+ * needed again, it is written once again.
+ */
+final class UserWordsRegistry {
+
+    /**
+     * Token distinguishing files of this JVM from the files of other
+     * processes using the same temporary directory.
+     */
+    private static final String INSTANCE_TOKEN =
+            UUID.randomUUID().toString();
+
+    /**
+     * Acquired dictionaries by path to their files.
+     */
+    private static final Map<String, Entry> ENTRIES_BY_PATH =
+            new HashMap<String, Entry>();
+
+    private UserWordsRegistry() {
+    }
+
+    /**
+     * Gets path to the temporary file for user words of the language.
+     * The file itself is not written.
+     *
+     * @param language language of the user words
+     * @param words user words, one per line, encoded in UTF-8
+     * @return path to the temporary file with user words
+     */
+    static String getPath(final String language, final byte[] words) {
+        return Paths.get(System.getProperty("java.io.tmpdir"),
+                language + "." + INSTANCE_TOKEN + "." + getHash(words)
+                        + "." + Tesseract4OcrEngineProperties
+                        .DEFAULT_USER_WORDS_SUFFIX).toString();
+    }
+
+    /**
+     * Marks the file as used by one more engine and writes it if it isn't
+     * used by any engine yet.
+     *
+     * @param path path to the user words file, see
+     * {@link #getPath(String, byte[])}
+     * @param words user words, one per line, encoded in UTF-8
+     * @throws IOException if the file cannot be written
+     */
+    static synchronized void acquire(final String path, final byte[] words)
+            throws IOException {
+        Entry entry = ENTRIES_BY_PATH.get(path);
+        if (entry == null) {
+            entry = new Entry(path);
+            entry.write(words);
+            ENTRIES_BY_PATH.put(path, entry);
+        } else if (!new File(path).exists()) {
+            entry.write(words);
+        }
+        entry.references++;
+    }
+
+    /**
+     * Marks the file as no longer used by one of the engines, the file is
+     * deleted and unregistered if it isn't used by any engine.
+     * Files which are not acquired are ignored.
+     *
+     * @param path path to the user words file
+     */
+    static synchronized void release(final String path) {
+        final Entry entry = ENTRIES_BY_PATH.get(path);
+        if (entry == null) {
+            return;
+        }
+        entry.references--;
+        if (entry.references == 0) {
+            ENTRIES_BY_PATH.remove(path);
+            TesseractHelper.deleteFile(path);
+        }
+    }
+
+    /**
+     * Gets number of engines which use the file.
+     *
+     * @param path path to the user words file
+     * @return number of engines or 0 if the file is not registered
+     */
+    static synchronized int getReferences(final String path) {
+        final Entry entry = ENTRIES_BY_PATH.get(path);
+        return entry == null ? 0 : entry.references;
+    }
+
+    /**
+     * Gets hex encoded SHA-256 hash of the content.
+     */
+    private static String getHash(final byte[] content) {
+        try {
+            final byte[] hash = MessageDigest.getInstance("SHA-256")
+                    .digest(content);
+            StringBuilder builder = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                builder.append(String.format("%02x", b & 0xff));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // SHA-256 is supported by every java platform
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Acquired dictionary.
+     */
+    private static final class Entry {
+        private final String path;
+        private int references;
+
+        Entry(final String path) {
+            this.path = path;
+        }
+
+        void write(final byte[] words) throws IOException {
+            Files.write(Paths.get(path), words);
+            // the file is kept if no engine using it is closed
+            new File(path).deleteOnExit();
+        }
+    }
+}
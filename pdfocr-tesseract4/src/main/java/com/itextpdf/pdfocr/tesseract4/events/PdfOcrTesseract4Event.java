@@ -32,6 +32,7 @@ public class PdfOcrTesseract4Event implements IGenericEvent {
     public static final PdfOcrTesseract4Event TESSERACT4_IMAGE_OCR = new PdfOcrTesseract4Event("tesseract4-image-ocr");
     public static final PdfOcrTesseract4Event TESSERACT4_IMAGE_TO_PDF = new PdfOcrTesseract4Event("tesseract4-image-to-pdf");
     public static final PdfOcrTesseract4Event TESSERACT4_IMAGE_TO_PDFA = new PdfOcrTesseract4Event("tesseract4-image-to-pdfa");
+    public static final PdfOcrTesseract4Event TESSERACT4_BLANK_PAGE_SKIPPED = new PdfOcrTesseract4Event("tesseract4-blank-page-skipped");
 
     private static final String PDF_OCR_TESSERACT4_ORIGIN_ID = "com.itextpdf.pdfocr.tesseract4";
 
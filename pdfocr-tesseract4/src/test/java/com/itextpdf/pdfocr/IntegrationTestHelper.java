@@ -50,6 +50,7 @@ import com.itextpdf.pdfocr.tesseract4.LeptonicaImageRotationHandler;
 import com.itextpdf.test.ExtendedITextTest;
 import com.itextpdf.test.annotations.type.IntegrationTest;
 
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -60,6 +61,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
 import org.junit.Assert;
 import org.junit.experimental.categories.Category;
 import org.slf4j.Logger;
@@ -167,6 +176,37 @@ public class IntegrationTestHelper extends ExtendedITextTest {
         return new File(LANG_TESS_DATA_DIRECTORY);
     }
 
+    /**
+     * Saves image as PNG file with the provided resolution in its metadata.
+     */
+    protected static File savePngWithDpi(BufferedImage image, String path,
+            int dpi) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        ImageWriteParam writeParam = writer.getDefaultWriteParam();
+        IIOMetadata metadata = writer.getDefaultImageMetadata(
+                ImageTypeSpecifier.createFromRenderedImage(image), writeParam);
+        // pixel size is set in millimeters
+        IIOMetadataNode horizontalPixelSize = new IIOMetadataNode("HorizontalPixelSize");
+        horizontalPixelSize.setAttribute("value", Double.toString(25.4 / dpi));
+        IIOMetadataNode verticalPixelSize = new IIOMetadataNode("VerticalPixelSize");
+        verticalPixelSize.setAttribute("value", Double.toString(25.4 / dpi));
+        IIOMetadataNode dimension = new IIOMetadataNode("Dimension");
+        dimension.appendChild(horizontalPixelSize);
+        dimension.appendChild(verticalPixelSize);
+        IIOMetadataNode root = new IIOMetadataNode("javax_imageio_1.0");
+        root.appendChild(dimension);
+        metadata.mergeTree("javax_imageio_1.0", root);
+
+        File file = new File(path);
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(file)) {
+            writer.setOutput(stream);
+            writer.write(metadata, new IIOImage(image, null, metadata), writeParam);
+        } finally {
+            writer.dispose();
+        }
+        return file;
+    }
+
     /**
      * Retrieve text from specified page from given PDF document.
      */
@@ -34,19 +34,26 @@ import com.itextpdf.metainfo.TestMetaInfo;
 import com.itextpdf.pdfocr.IntegrationTestHelper;
 import com.itextpdf.pdfocr.OcrPdfCreator;
 import com.itextpdf.pdfocr.OcrPdfCreatorProperties;
+import com.itextpdf.pdfocr.TextInfo;
 import com.itextpdf.pdfocr.tesseract4.AbstractTesseract4OcrEngine;
 import com.itextpdf.pdfocr.tesseract4.Tesseract4OcrEngineProperties;
 import com.itextpdf.pdfocr.tesseract4.TextPositioning;
 import com.itextpdf.pdfocr.tesseract4.events.PdfOcrTesseract4Event;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
+import javax.imageio.ImageIO;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -180,6 +187,30 @@ public abstract class EventCountingTest extends IntegrationTestHelper {
         }
     }
 
+    @Test
+    public void testEventCountingMultipageImageInParallelEvent() {
+        String imgPath = TEST_IMAGES_DIRECTORY + "multîpage.tiff";
+        File file = new File(imgPath);
+
+        tesseractReader.setTesseract4OcrEngineProperties(
+                tesseractReader.getTesseract4OcrEngineProperties()
+                        .setPreprocessingImages(false)
+                        .setPageParallelism(3));
+
+        TestEventCounter eventCounter = new TestEventCounter();
+        IEventCounterFactory factory = new SimpleEventCounterFactory(eventCounter);
+        EventCounterHandler.getInstance().register(factory);
+        try {
+            doImageOcr(tesseractReader, file);
+
+            Assert.assertEquals(1, eventCounter.getEvents().size());
+            Assert.assertSame(PdfOcrTesseract4Event.TESSERACT4_IMAGE_OCR, eventCounter.getEvents().get(0));
+            Assert.assertNull(eventCounter.getMetaInfos().get(0));
+        } finally {
+            EventCounterHandler.getInstance().unregister(factory);
+        }
+    }
+
     @Test
     public void testEventCountingImageEventCustomMetaInfo() {
         String imgPath = TEST_IMAGES_DIRECTORY + "numbers_01.jpg";
@@ -247,6 +278,49 @@ public abstract class EventCountingTest extends IntegrationTestHelper {
         EventCounterHandler.getInstance().unregister(factory);
     }
 
+    @Test
+    public void testEventCountingBlankPageSkipped() throws IOException {
+        String blankImgPath = getTargetDirectory() + "blank_page.png";
+        BufferedImage blankImage = new BufferedImage(1240, 1754,
+                BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = blankImage.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, blankImage.getWidth(), blankImage.getHeight());
+        // a few specks of dust which should not prevent detection
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(100, 100, 3, 3);
+        graphics.fillRect(800, 1500, 2, 2);
+        graphics.dispose();
+        ImageIO.write(blankImage, "png", new File(blankImgPath));
+        File textFile = new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg");
+
+        TestEventCounter eventCounter = new TestEventCounter();
+        IEventCounterFactory factory = new SimpleEventCounterFactory(eventCounter);
+        EventCounterHandler.getInstance().register(factory);
+
+        Tesseract4OcrEngineProperties properties =
+                tesseractReader.getTesseract4OcrEngineProperties();
+        properties.setBlankPageThreshold(0.002f);
+        tesseractReader.setTesseract4OcrEngineProperties(properties);
+        try {
+            Map<Integer, List<TextInfo>> result =
+                    tesseractReader.doImageOcr(new File(blankImgPath));
+            Assert.assertEquals(1, result.size());
+            Assert.assertTrue(result.get(1).isEmpty());
+
+            result = tesseractReader.doImageOcr(textFile);
+            Assert.assertFalse(result.get(1).isEmpty());
+
+            Assert.assertEquals(2, eventCounter.getEvents().size());
+            Assert.assertSame(PdfOcrTesseract4Event.TESSERACT4_BLANK_PAGE_SKIPPED,
+                    eventCounter.getEvents().get(0));
+            Assert.assertSame(PdfOcrTesseract4Event.TESSERACT4_IMAGE_OCR,
+                    eventCounter.getEvents().get(1));
+        } finally {
+            EventCounterHandler.getInstance().unregister(factory);
+        }
+    }
+
 
     public void testEventCountingCustomMetaInfoError() {
         String imgPath = TEST_IMAGES_DIRECTORY + "numbers_101.jpg";
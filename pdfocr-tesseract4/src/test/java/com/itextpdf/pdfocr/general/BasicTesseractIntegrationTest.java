@@ -42,6 +42,7 @@ import com.itextpdf.pdfocr.tesseract4.Tesseract4LogMessageConstant;
 import com.itextpdf.pdfocr.tesseract4.Tesseract4OcrEngineProperties;
 import com.itextpdf.pdfocr.tesseract4.Tesseract4OcrException;
 import com.itextpdf.pdfocr.tesseract4.TesseractHelper;
+import com.itextpdf.pdfocr.tesseract4.TextPositioning;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
 
@@ -212,6 +213,30 @@ public abstract class BasicTesseractIntegrationTest extends IntegrationTestHelpe
         Assert.assertTrue(realOutputHocr.equals(expectedOutput));
     }
 
+    @Test
+    public void testTextLayerPdfRequiresPdfFont() {
+        // test tess data directory doesn't contain tesseract pdf.ttf font
+        File pdfFont = new File(getTessDataDirectory(), "pdf.ttf");
+        junitExpectedException.expect(Tesseract4OcrException.class);
+        junitExpectedException.expectMessage(MessageFormatUtil.format(
+                Tesseract4OcrException.PDF_FONT_IS_NOT_FOUND,
+                pdfFont.getAbsolutePath()));
+        File file = new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg");
+        tesseractReader.createTextLayerPdf(file,
+                new File(getTargetDirectory() + "textLayerWithoutFont.pdf"));
+    }
+
+    @Test
+    public void testPdfOutputFormatIsNotSupportedForText() {
+        junitExpectedException.expect(Tesseract4OcrException.class);
+        junitExpectedException.expectMessage(MessageFormatUtil.format(
+                Tesseract4OcrException.OUTPUT_FORMAT_IS_NOT_SUPPORTED,
+                OutputFormat.PDF));
+        tesseractReader.doImageOcr(
+                new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg"),
+                OutputFormat.PDF);
+    }
+
     @Test
     public void testNullPathToTessData() {
         junitExpectedException.expect(Tesseract4OcrException.class);
@@ -402,6 +427,154 @@ public abstract class BasicTesseractIntegrationTest extends IntegrationTestHelpe
         Assert.assertTrue(realOutputHocr.contains(expectedOutput));
     }
 
+    @Test
+    public void testRegionOcrReturnsPageCoordinates() {
+        File file = new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg");
+        tesseractReader.getTesseract4OcrEngineProperties()
+                .setTextPositioning(TextPositioning.BY_WORDS);
+        TextInfo word = tesseractReader.doImageOcr(file).get(1).get(0);
+        Rectangle wordBbox = word.getBboxRect();
+
+        Rectangle region = new Rectangle(wordBbox.getX() - 10,
+                wordBbox.getY() - 10, wordBbox.getWidth() + 20,
+                wordBbox.getHeight() + 20);
+        Map<Integer, List<TextInfo>> regions = tesseractReader.doImageOcr(
+                file, Collections.<Integer, List<Rectangle>>singletonMap(1,
+                        Collections.<Rectangle>singletonList(region)));
+
+        Assert.assertEquals(1, regions.size());
+        TextInfo regionWord = regions.get(1).get(0);
+        Assert.assertEquals(word.getText(), regionWord.getText());
+        Assert.assertTrue(regionWord.getBboxRect().getX() >= region.getX());
+        Assert.assertTrue(regionWord.getBboxRect().getY() >= region.getY());
+        Assert.assertEquals(wordBbox.getX(), regionWord.getBboxRect().getX(), 3);
+        Assert.assertEquals(wordBbox.getY(), regionWord.getBboxRect().getY(), 3);
+    }
+
+    @LogMessages(messages = {
+            @LogMessage(messageTemplate = Tesseract4LogMessageConstant.REGION_IS_OUT_OF_IMAGE,
+                    count = 1)
+    })
+    @Test
+    public void testRegionOutOfImageIsSkipped() {
+        File file = new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg");
+        Map<Integer, List<TextInfo>> regions = tesseractReader.doImageOcr(
+                file, Collections.<Integer, List<Rectangle>>singletonMap(1,
+                        Collections.<Rectangle>singletonList(
+                                new Rectangle(-100, -100, 50, 50))));
+
+        Assert.assertEquals(0, regions.get(1).size());
+    }
+
+    @LogMessages(messages = {
+        @LogMessage(messageTemplate = Tesseract4LogMessageConstant.TESSERACT_TIMEOUT)
+    })
+    @Test
+    public void testPageTimeout() {
+        junitExpectedException.expect(Tesseract4OcrException.class);
+        junitExpectedException.expectMessage(MessageFormatUtil
+                .format(Tesseract4OcrException.TESSERACT_TIMEOUT, "1"));
+
+        File file = new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg");
+        tesseractReader.setTesseract4OcrEngineProperties(
+                new Tesseract4OcrEngineProperties(
+                        tesseractReader.getTesseract4OcrEngineProperties())
+                        .setPathToTessData(getTessDataDirectory())
+                        .setPageTimeout(1));
+        tesseractReader.doImageOcr(file);
+    }
+
+    @LogMessages(messages = {
+        @LogMessage(messageTemplate = Tesseract4LogMessageConstant.TESSERACT_TIMEOUT)
+    })
+    @Test
+    public void testPageTimeoutExceptionIsNotWrapped() {
+        File file = new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg");
+        Tesseract4OcrEngineProperties properties =
+                new Tesseract4OcrEngineProperties(
+                        tesseractReader.getTesseract4OcrEngineProperties())
+                        .setPathToTessData(getTessDataDirectory());
+        tesseractReader.setTesseract4OcrEngineProperties(
+                new Tesseract4OcrEngineProperties(properties)
+                        .setPageTimeout(1));
+        Tesseract4OcrException timeoutException = null;
+        try {
+            tesseractReader.doImageOcr(file);
+        } catch (Tesseract4OcrException e) {
+            timeoutException = e;
+        }
+        Assert.assertNotNull(timeoutException);
+        Assert.assertEquals(MessageFormatUtil.format(
+                Tesseract4OcrException.TESSERACT_TIMEOUT, "1"),
+                timeoutException.getMessage());
+        Assert.assertFalse(timeoutException.getCause()
+                instanceof Tesseract4OcrException);
+
+        // engine remains usable after the timed out invocation
+        tesseractReader.setTesseract4OcrEngineProperties(
+                new Tesseract4OcrEngineProperties(properties)
+                        .setPageTimeout(60000));
+        Assert.assertEquals("619121",
+                getTextUsingTesseractFromImage(tesseractReader, file).trim());
+    }
+
+    @Test
+    public void testQueuedPagesDoNotTimeOut() throws InterruptedException {
+        final File file = new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg");
+        Tesseract4OcrEngineProperties properties =
+                new Tesseract4OcrEngineProperties(
+                        tesseractReader.getTesseract4OcrEngineProperties())
+                        .setPathToTessData(getTessDataDirectory());
+        tesseractReader.setTesseract4OcrEngineProperties(properties);
+        long start = System.currentTimeMillis();
+        Assert.assertEquals("619121",
+                getTextUsingTesseractFromImage(tesseractReader, file).trim());
+        final long pageTime = System.currentTimeMillis() - start;
+
+        // callers outnumber worker threads, so most of the pages wait
+        // longer than the page timeout before tesseract is started
+        tesseractReader.setTesseract4OcrEngineProperties(
+                new Tesseract4OcrEngineProperties(properties)
+                        .setPageTimeout(5 * pageTime + 1000));
+        final int callersCount =
+                8 * Runtime.getRuntime().availableProcessors();
+        final List<Throwable> failures =
+                Collections.synchronizedList(new ArrayList<Throwable>());
+        Thread[] callers = new Thread[callersCount];
+        for (int i = 0; i < callersCount; i++) {
+            callers[i] = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        tesseractReader.doImageOcr(file);
+                    } catch (Throwable e) {
+                        failures.add(e);
+                    }
+                }
+            });
+            callers[i].start();
+        }
+        for (Thread caller : callers) {
+            caller.join();
+        }
+        Assert.assertEquals(Collections.<Throwable>emptyList(), failures);
+    }
+
+    @Test
+    public void testRecognizedTextIsMutable() {
+        File file = new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg");
+        List<TextInfo> pageText = tesseractReader.doImageOcr(file).get(1);
+        int size = pageText.size();
+
+        pageText.get(0).setText("changed");
+        pageText.remove(size - 1);
+        pageText.add(new TextInfo("added", new Rectangle(0, 0, 10, 10)));
+
+        Assert.assertEquals("changed", pageText.get(0).getText());
+        Assert.assertEquals(size, pageText.size());
+        Assert.assertEquals("added", pageText.get(size - 1).getText());
+    }
+
     /**
      * Parse text from given image using tesseract.
      */
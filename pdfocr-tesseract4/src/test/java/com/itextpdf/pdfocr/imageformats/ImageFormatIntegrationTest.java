@@ -26,6 +26,7 @@ import com.itextpdf.io.util.MessageFormatUtil;
 import com.itextpdf.kernel.colors.DeviceCmyk;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.pdfocr.IntegrationTestHelper;
+import com.itextpdf.pdfocr.TextInfo;
 import com.itextpdf.pdfocr.tesseract4.AbstractTesseract4OcrEngine;
 import com.itextpdf.pdfocr.tesseract4.Tesseract4LogMessageConstant;
 import com.itextpdf.pdfocr.tesseract4.Tesseract4OcrEngineProperties;
@@ -37,6 +38,8 @@ import com.itextpdf.test.annotations.LogMessages;
 import java.io.File;
 import java.io.IOException;
 import java.util.Collections;
+import java.util.List;
+import java.util.Map;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -269,6 +272,29 @@ public abstract class ImageFormatIntegrationTest extends IntegrationTestHelper {
         Assert.assertEquals(expectedOutput, realOutputHocr);
     }
 
+    @Test
+    public void testInputMultipagesTIFFInParallel() {
+        String path = TEST_IMAGES_DIRECTORY + "multîpage.tiff";
+        String expectedOutput = "Multipage\nTIFF\nExample\nPage 4";
+
+        File file = new File(path);
+
+        tesseractReader.setTesseract4OcrEngineProperties(
+                tesseractReader.getTesseract4OcrEngineProperties()
+                        .setPreprocessingImages(false)
+                        .setPageParallelism(3));
+        Map<Integer, List<TextInfo>> pages = tesseractReader.doImageOcr(file);
+        Assert.assertTrue(pages.size() >= 5);
+        int expectedPage = 1;
+        for (Integer page : pages.keySet()) {
+            Assert.assertEquals(expectedPage++, (int) page);
+        }
+
+        String realOutputHocr = getTextFromPdf(tesseractReader, file, 4,
+                Collections.<String>singletonList("eng"));
+        Assert.assertEquals(expectedOutput, realOutputHocr);
+    }
+
     @LogMessages(messages = {
         @LogMessage(messageTemplate = Tesseract4LogMessageConstant.CANNOT_READ_INPUT_IMAGE, count = 1)
     })
@@ -22,8 +22,19 @@
  */
 package com.itextpdf.pdfocr.tesseract4;
 
+import com.itextpdf.io.image.ImageData;
+import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.kernel.pdf.PdfDictionary;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfName;
+import com.itextpdf.kernel.pdf.PdfPage;
+import com.itextpdf.kernel.pdf.PdfReader;
+import com.itextpdf.kernel.pdf.PdfStream;
+import com.itextpdf.kernel.pdf.PdfWriter;
 import com.itextpdf.kernel.utils.CompareTool;
 import com.itextpdf.pdfocr.IntegrationTestHelper;
+import com.itextpdf.pdfocr.OcrPdfCreator;
+import com.itextpdf.pdfocr.OcrPdfCreatorProperties;
 import com.itextpdf.pdfocr.TextInfo;
 import org.junit.Assert;
 import org.junit.Before;
@@ -33,8 +44,14 @@ import org.junit.rules.ExpectedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
@@ -92,6 +109,50 @@ public abstract class ImageIntegrationTest extends IntegrationTestHelper {
         Assert.assertTrue(pageData.get(1).get(1).getBbox().get(3) - pageData.get(1).get(0).getBbox().get(1) < 100);
     }
 
+    @Test
+    public void testImageBytesOcr() throws IOException {
+        String[] paths = {TEST_IMAGES_DIRECTORY + "numbers_01.jpg",
+                TEST_IMAGES_DIRECTORY + "numbers_01.tif"};
+        for (String path : paths) {
+            File imgFile = new File(path);
+            Map<Integer, List<TextInfo>> expected =
+                    tesseractReader.doImageOcr(imgFile);
+
+            byte[] imageBytes = Files.readAllBytes(imgFile.toPath());
+            Map<Integer, List<TextInfo>> fromBytes = tesseractReader
+                    .doImageOcr(imageBytes);
+            assertSameText(expected, fromBytes);
+
+            Map<Integer, List<TextInfo>> fromBuffer = tesseractReader
+                    .doImageOcr(ByteBuffer.wrap(imageBytes));
+            assertSameText(expected, fromBuffer);
+
+            try (InputStream is = new FileInputStream(imgFile)) {
+                Map<Integer, List<TextInfo>> fromStream =
+                        tesseractReader.doImageOcr(is);
+                assertSameText(expected, fromStream);
+            }
+        }
+    }
+
+    @Test
+    public void testCreateTxtFileToStream() throws IOException {
+        List<File> images = Arrays.<File>asList(
+                new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg"),
+                new File(TEST_IMAGES_DIRECTORY + "numbers_02.jpg"));
+        File txtFile = new File(getTargetDirectory()
+                + "testCreateTxtFileToStream.txt");
+        tesseractReader.createTxtFile(images, txtFile);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        tesseractReader.createTxtFile(images, baos);
+
+        Assert.assertEquals(
+                new String(Files.readAllBytes(txtFile.toPath()),
+                        StandardCharsets.UTF_8),
+                new String(baos.toByteArray(), StandardCharsets.UTF_8));
+    }
+
     @Test
     public void compareRotatedImage() throws InterruptedException, IOException {
         String testName = "compareRotatedImage";
@@ -158,4 +219,59 @@ public abstract class ImageIntegrationTest extends IntegrationTestHelper {
         Assert.assertTrue(javaTest || dotNetTest);
     }
 
+
+    @Test
+    public void testMetadataOnlyRotationKeepsOriginalImage()
+            throws IOException {
+        String filename = "90_degrees_rotated";
+        String path = TEST_IMAGES_DIRECTORY + filename + ".jpg";
+        String resultPdfPath = getTargetDirectory() + filename
+                + "_testMetadataOnlyRotationKeepsOriginalImage.pdf";
+
+        OcrPdfCreatorProperties properties = new OcrPdfCreatorProperties()
+                .setImageRotationHandler(
+                        new LeptonicaImageRotationHandler(true));
+        OcrPdfCreator ocrPdfCreator =
+                new OcrPdfCreator(tesseractReader, properties);
+        try (PdfWriter pdfWriter = getPdfWriter(resultPdfPath)) {
+            ocrPdfCreator.createPdf(
+                    Collections.<File>singletonList(new File(path)),
+                    pdfWriter).close();
+        }
+
+        ImageData imageData = ImageDataFactory.create(path);
+        try (PdfDocument pdfDocument =
+                new PdfDocument(new PdfReader(resultPdfPath))) {
+            PdfPage page = pdfDocument.getPage(1);
+            // page is rotated, image is not
+            Assert.assertEquals(imageData.getHeight() * 0.75f,
+                    page.getPageSize().getWidth(), 0.01);
+            Assert.assertEquals(imageData.getWidth() * 0.75f,
+                    page.getPageSize().getHeight(), 0.01);
+            PdfDictionary xObjects = page.getResources()
+                    .getResource(PdfName.XObject);
+            PdfStream image = xObjects.getAsStream(
+                    xObjects.keySet().iterator().next());
+            Assert.assertEquals(PdfName.DCTDecode,
+                    image.get(PdfName.Filter));
+            Assert.assertEquals(imageData.getWidth(),
+                    image.getAsNumber(PdfName.Width).floatValue(), 0.01);
+            Assert.assertArrayEquals(Files.readAllBytes(new File(path).toPath()),
+                    image.getBytes(false));
+        }
+    }
+
+
+    private static void assertSameText(Map<Integer, List<TextInfo>> expected,
+            Map<Integer, List<TextInfo>> actual) {
+        Assert.assertEquals(expected.keySet(), actual.keySet());
+        for (int page : expected.keySet()) {
+            Assert.assertEquals(expected.get(page).size(),
+                    actual.get(page).size());
+            for (int i = 0; i < expected.get(page).size(); i++) {
+                Assert.assertEquals(expected.get(page).get(i).getText(),
+                        actual.get(page).get(i).getText());
+            }
+        }
+    }
 }
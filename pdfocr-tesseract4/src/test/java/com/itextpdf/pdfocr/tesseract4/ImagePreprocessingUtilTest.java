@@ -24,13 +24,21 @@ package com.itextpdf.pdfocr.tesseract4;
 
 import com.itextpdf.io.image.ImageData;
 import com.itextpdf.io.image.ImageDataFactory;
+import com.itextpdf.io.image.ImageType;
 import com.itextpdf.pdfocr.IntegrationTestHelper;
 import com.itextpdf.test.annotations.LogMessage;
 import com.itextpdf.test.annotations.LogMessages;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import javax.imageio.ImageIO;
+import net.sourceforge.lept4j.ILeptonica;
+import net.sourceforge.lept4j.Leptonica;
+import net.sourceforge.lept4j.Pix;
 
 import org.junit.Assert;
 import org.junit.Rule;
@@ -95,6 +103,130 @@ public class ImagePreprocessingUtilTest extends IntegrationTestHelper{
         compareImagesWithPrecision(compareImg, processedImg, 0.1);
     }
 
+    @Test
+    public void testDownsamplingToTargetDpi() throws IOException {
+        File image = createImageWithDpi(getTargetDirectory() + "dpi_600.png",
+                1200, 800, 600);
+
+        Assert.assertEquals(1, ImagePreprocessingUtil.getDpiScale(image, 1,
+                new ImagePreprocessingOptions()), 0.0001);
+        Assert.assertEquals(1, ImagePreprocessingUtil.getDpiScale(image, 1,
+                new ImagePreprocessingOptions().setTargetDpi(600)), 0.0001);
+        Assert.assertEquals(0.5, ImagePreprocessingUtil.getDpiScale(image, 1,
+                new ImagePreprocessingOptions().setTargetDpi(300)), 0.0001);
+        Assert.assertEquals(0.5, ImagePreprocessingUtil.getDpiScale(
+                Files.readAllBytes(image.toPath()), 1,
+                new ImagePreprocessingOptions().setTargetDpi(300)), 0.0001);
+
+        Pix pix = ImagePreprocessingUtil.preprocessImage(image, 1,
+                new ImagePreprocessingOptions().setTargetDpi(300));
+        Assert.assertEquals(600, pix.w);
+        Assert.assertEquals(400, pix.h);
+        TesseractOcrUtil.destroyPix(pix);
+    }
+
+    @Test
+    public void testTiffPagesAreDownsampledByTheirOwnDpi() throws IOException {
+        File tiff = new File(getTargetDirectory() + "mixed_dpi.tiff");
+        writeTiffPageWithDpi(tiff, 1200, 800, 600, "w");
+        writeTiffPageWithDpi(tiff, 600, 400, 300, "a");
+        ImagePreprocessingOptions options = new ImagePreprocessingOptions()
+                .setTargetDpi(300);
+
+        Assert.assertEquals(0.5, ImagePreprocessingUtil.getDpiScale(tiff, 1,
+                options), 0.0001);
+        Assert.assertEquals(1, ImagePreprocessingUtil.getDpiScale(tiff, 2,
+                options), 0.0001);
+        byte[] tiffBytes = Files.readAllBytes(tiff.toPath());
+        Assert.assertEquals(0.5, ImagePreprocessingUtil.getDpiScale(
+                tiffBytes, 1, options), 0.0001);
+        Assert.assertEquals(1, ImagePreprocessingUtil.getDpiScale(
+                tiffBytes, 2, options), 0.0001);
+
+        // both pages have the same physical size after preprocessing
+        for (int page = 1; page <= 2; page++) {
+            Pix pix = ImagePreprocessingUtil.preprocessImage(tiff, page,
+                    options);
+            Assert.assertEquals(600, pix.w);
+            Assert.assertEquals(400, pix.h);
+            TesseractOcrUtil.destroyPix(pix);
+        }
+    }
+
+    @Test
+    public void testImageWithoutDpiIsNotDownsampled() throws IOException {
+        File imgFile = new File(getTargetDirectory() + "no_dpi.png");
+        ImageIO.write(new BufferedImage(1000, 500, BufferedImage.TYPE_BYTE_GRAY),
+                "png", imgFile);
+
+        Assert.assertEquals(1, ImagePreprocessingUtil.getDpiScale(imgFile, 1,
+                new ImagePreprocessingOptions().setTargetDpi(1)), 0.0001);
+        Pix pix = ImagePreprocessingUtil.preprocessImage(imgFile, 1,
+                new ImagePreprocessingOptions().setTargetDpi(1));
+        Assert.assertEquals(1000, pix.w);
+        TesseractOcrUtil.destroyPix(pix);
+    }
+
+    @Test
+    public void testImageProbeIsReusedForSameFile() throws IOException {
+        File image = createImageWithDpi(getTargetDirectory() + "probe_300.png",
+                600, 400, 300);
+
+        ImageProbe probe = ImageProbe.probe(image);
+        Assert.assertSame(probe, ImageProbe.probe(new File(image.getPath())));
+        Assert.assertEquals(ImageType.PNG, probe.getImageType());
+        Assert.assertEquals(1, probe.getNumberOfPages());
+        Assert.assertEquals(600, probe.getWidth(0));
+        Assert.assertEquals(400, probe.getHeight(0));
+        Assert.assertEquals(300, probe.getDpi(0));
+        Assert.assertEquals(0, probe.getRotation());
+    }
+
+    @Test
+    public void testImageProbeOfTiffAndRotatedJpeg() throws IOException {
+        File tiff = new File(TEST_IMAGES_DIRECTORY + "numbers_01.tif");
+        ImageProbe tiffProbe = ImageProbe.probe(tiff);
+        Assert.assertEquals(ImageType.TIFF, tiffProbe.getImageType());
+        Assert.assertEquals(ImagePreprocessingUtil.getNumberOfPageTiff(
+                Files.readAllBytes(tiff.toPath())),
+                tiffProbe.getNumberOfPages());
+        Assert.assertTrue(tiffProbe.getWidth(0) > 0);
+        Assert.assertTrue(tiffProbe.getHeight(0) > 0);
+
+        File jpeg = new File(TEST_IMAGES_DIRECTORY + "90_degrees_rotated.jpg");
+        Assert.assertEquals(90, ImageProbe.probe(jpeg).getRotation());
+        Assert.assertEquals(90, ImageProbe.probe(
+                Files.readAllBytes(jpeg.toPath())).getRotation());
+    }
+
+    private static File createImageWithDpi(String path, int width, int height,
+            int dpi) throws IOException {
+        BufferedImage image = new BufferedImage(width, height,
+                BufferedImage.TYPE_BYTE_GRAY);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setColor(Color.WHITE);
+        graphics.fillRect(0, 0, width, height);
+        graphics.setColor(Color.BLACK);
+        graphics.fillRect(width / 4, height / 4, width / 2, height / 10);
+        graphics.dispose();
+        return savePngWithDpi(image, path, dpi);
+    }
+
+    private static void writeTiffPageWithDpi(File tiff, int width,
+            int height, int dpi, String mode) throws IOException {
+        File png = createImageWithDpi(getTargetDirectory() + "page_" + dpi
+                + ".png", width, height, dpi);
+        Pix pix = TesseractOcrUtil.readPix(png);
+        try {
+            Leptonica.INSTANCE.pixSetResolution(pix, dpi, dpi);
+            Assert.assertEquals(0, Leptonica.INSTANCE.pixWriteTiff(
+                    tiff.getAbsolutePath(), pix, ILeptonica.IFF_TIFF_ZIP,
+                    mode));
+        } finally {
+            TesseractOcrUtil.destroyPix(pix);
+        }
+    }
+
     static private void compareImagesWithPrecision(String img1, String img2, double precisionPercents) throws IOException {
         ImageData imageData1 = ImageDataFactory.create(img1);
         ImageData imageData2 = ImageDataFactory.create(img2);
@@ -0,0 +1,275 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.tesseract4;
+
+import com.itextpdf.kernel.counter.EventCounter;
+import com.itextpdf.kernel.counter.EventCounterHandler;
+import com.itextpdf.kernel.counter.IEventCounterFactory;
+import com.itextpdf.kernel.counter.SimpleEventCounterFactory;
+import com.itextpdf.kernel.counter.event.IEvent;
+import com.itextpdf.kernel.counter.event.IMetaInfo;
+import com.itextpdf.metainfo.TestMetaInfo;
+import com.itextpdf.pdfocr.OcrPdfCreatorMetaInfo;
+import com.itextpdf.pdfocr.OcrPdfCreatorMetaInfo.PdfDocumentType;
+import com.itextpdf.pdfocr.tesseract4.events.PdfOcrTesseract4Event;
+import com.itextpdf.test.ExtendedITextTest;
+import com.itextpdf.test.annotations.type.UnitTest;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+@Category(UnitTest.class)
+public class OnEventMultiThreadingTest extends ExtendedITextTest {
+
+    private static final int THREADS_NUMBER = 32;
+
+    private static final int EVENTS_PER_THREAD = 200;
+
+    @Test
+    public void documentEventIsDispatchedOncePerRunTest()
+            throws InterruptedException {
+        TestEventCounter eventCounter = new TestEventCounter();
+        IEventCounterFactory factory = new SimpleEventCounterFactory(eventCounter);
+        EventCounterHandler.getInstance().register(factory);
+        try {
+            AbstractTesseract4OcrEngine engine = new TestOcrEngine();
+            IMetaInfo wrappedMetaInfo = new TestMetaInfo();
+            int documentsNumber = 4;
+            OcrPdfCreatorMetaInfo[] documents =
+                    new OcrPdfCreatorMetaInfo[documentsNumber];
+            for (int i = 0; i < documentsNumber; i++) {
+                documents[i] = new OcrPdfCreatorMetaInfo(wrappedMetaInfo,
+                        UUID.randomUUID(), 0 == i % 2
+                        ? PdfDocumentType.PDF : PdfDocumentType.PDFA);
+            }
+
+            runConcurrently(engine, documents);
+
+            Assert.assertEquals(documentsNumber,
+                    eventCounter.getEvents().size());
+            int foundPdfEvents = 0;
+            int foundPdfAEvents = 0;
+            for (int i = 0; i < eventCounter.getEvents().size(); i++) {
+                if (PdfOcrTesseract4Event.TESSERACT4_IMAGE_TO_PDF
+                        == eventCounter.getEvents().get(i)) {
+                    foundPdfEvents++;
+                } else if (PdfOcrTesseract4Event.TESSERACT4_IMAGE_TO_PDFA
+                        == eventCounter.getEvents().get(i)) {
+                    foundPdfAEvents++;
+                }
+                Assert.assertEquals(wrappedMetaInfo,
+                        eventCounter.getMetaInfos().get(i));
+            }
+            Assert.assertEquals(documentsNumber / 2, foundPdfEvents);
+            Assert.assertEquals(documentsNumber / 2, foundPdfAEvents);
+        } finally {
+            EventCounterHandler.getInstance().unregister(factory);
+        }
+    }
+
+    @Test
+    public void imageEventsAreNotDeduplicatedTest()
+            throws InterruptedException {
+        TestEventCounter eventCounter = new TestEventCounter();
+        IEventCounterFactory factory = new SimpleEventCounterFactory(eventCounter);
+        EventCounterHandler.getInstance().register(factory);
+        try {
+            AbstractTesseract4OcrEngine engine = new TestOcrEngine();
+            IMetaInfo[] metaInfos = new IMetaInfo[] {new TestMetaInfo()};
+
+            runConcurrently(engine, metaInfos);
+
+            Assert.assertEquals(THREADS_NUMBER * EVENTS_PER_THREAD,
+                    eventCounter.getEvents().size());
+            for (IEvent event : eventCounter.getEvents()) {
+                Assert.assertEquals(PdfOcrTesseract4Event.TESSERACT4_IMAGE_OCR,
+                        event);
+            }
+        } finally {
+            EventCounterHandler.getInstance().unregister(factory);
+        }
+    }
+
+    @Test
+    public void newRunIsCountedAfterPreviousOneCompletedTest() {
+        TestEventCounter eventCounter = new TestEventCounter();
+        IEventCounterFactory factory = new SimpleEventCounterFactory(eventCounter);
+        EventCounterHandler.getInstance().register(factory);
+        try {
+            AbstractTesseract4OcrEngine engine = new TestOcrEngine();
+            IMetaInfo wrappedMetaInfo = new TestMetaInfo();
+            for (int i = 0; i < 3; i++) {
+                engine.setThreadLocalMetaInfo(new OcrPdfCreatorMetaInfo(
+                        wrappedMetaInfo, UUID.randomUUID(),
+                        PdfDocumentType.PDF));
+                engine.onEvent();
+                engine.onEvent();
+                engine.setThreadLocalMetaInfo(null);
+            }
+            Assert.assertEquals(3, eventCounter.getEvents().size());
+        } finally {
+            EventCounterHandler.getInstance().unregister(factory);
+        }
+    }
+
+    @Test
+    public void documentIsIdentifiedByIdTest() {
+        TestEventCounter eventCounter = new TestEventCounter();
+        IEventCounterFactory factory = new SimpleEventCounterFactory(eventCounter);
+        EventCounterHandler.getInstance().register(factory);
+        try {
+            AbstractTesseract4OcrEngine engine = new TestOcrEngine();
+            IMetaInfo wrappedMetaInfo = new TestMetaInfo();
+            UUID documentId = UUID.randomUUID();
+            OcrPdfCreatorMetaInfo documentMetaInfo = new OcrPdfCreatorMetaInfo(
+                    wrappedMetaInfo, documentId, PdfDocumentType.PDF);
+
+            // images of the same run may be OCRed with different meta info
+            // instances which share the document id
+            engine.setThreadLocalMetaInfo(documentMetaInfo);
+            engine.onEvent();
+            engine.setThreadLocalMetaInfo(new OcrPdfCreatorMetaInfo(
+                    wrappedMetaInfo, documentId, PdfDocumentType.PDF));
+            engine.onEvent();
+            engine.setThreadLocalMetaInfo(null);
+            Assert.assertEquals(1, eventCounter.getEvents().size());
+
+            // the run is completed, so the document is counted again
+            engine.setThreadLocalMetaInfo(documentMetaInfo);
+            engine.onEvent();
+            engine.setThreadLocalMetaInfo(null);
+            Assert.assertEquals(2, eventCounter.getEvents().size());
+        } finally {
+            EventCounterHandler.getInstance().unregister(factory);
+        }
+    }
+
+    private static void runConcurrently(AbstractTesseract4OcrEngine engine,
+            IMetaInfo[] metaInfos) throws InterruptedException {
+        // meta infos are set in all the threads before any of them starts,
+        // the same way the calling thread holds it during a document run
+        CountDownLatch readySignal = new CountDownLatch(THREADS_NUMBER);
+        CountDownLatch startSignal = new CountDownLatch(1);
+        OnEventRunnable[] runnables = new OnEventRunnable[THREADS_NUMBER];
+        Thread[] threads = new Thread[THREADS_NUMBER];
+        for (int i = 0; i < THREADS_NUMBER; i++) {
+            runnables[i] = new OnEventRunnable(engine,
+                    metaInfos[i % metaInfos.length], readySignal,
+                    startSignal);
+            threads[i] = new Thread(runnables[i]);
+            threads[i].start();
+        }
+        readySignal.await();
+        startSignal.countDown();
+        for (int i = 0; i < THREADS_NUMBER; i++) {
+            threads[i].join();
+        }
+        for (int i = 0; i < THREADS_NUMBER; i++) {
+            Assert.assertNull(runnables[i].getFailure());
+        }
+    }
+
+    private static class OnEventRunnable implements Runnable {
+        private final AbstractTesseract4OcrEngine engine;
+        private final IMetaInfo metaInfo;
+        private final CountDownLatch readySignal;
+        private final CountDownLatch startSignal;
+        private Throwable failure;
+
+        OnEventRunnable(AbstractTesseract4OcrEngine engine, IMetaInfo metaInfo,
+                CountDownLatch readySignal, CountDownLatch startSignal) {
+            this.engine = engine;
+            this.metaInfo = metaInfo;
+            this.readySignal = readySignal;
+            this.startSignal = startSignal;
+        }
+
+        Throwable getFailure() {
+            return failure;
+        }
+
+        public void run() {
+            try {
+                engine.setThreadLocalMetaInfo(metaInfo);
+                readySignal.countDown();
+                startSignal.await();
+                for (int i = 0; i < EVENTS_PER_THREAD; i++) {
+                    engine.onEvent();
+                }
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                engine.setThreadLocalMetaInfo(null);
+            }
+        }
+    }
+
+    private static class TestOcrEngine extends AbstractTesseract4OcrEngine {
+        TestOcrEngine() {
+            super(new Tesseract4OcrEngineProperties());
+        }
+
+        @Override
+        void doTesseractOcr(File inputImage, List<File> outputFiles,
+                OutputFormat outputFormat, int pageNumber,
+                boolean dispatchEvent) {
+            if (dispatchEvent) {
+                onEvent();
+            }
+        }
+
+        @Override
+        void doTesseractOcr(byte[] inputImage, List<File> outputFiles,
+                OutputFormat outputFormat, int pageNumber,
+                boolean dispatchEvent) {
+            if (dispatchEvent) {
+                onEvent();
+            }
+        }
+    }
+
+    private static class TestEventCounter extends EventCounter {
+        private List<IEvent> events = new ArrayList<IEvent>();
+        private List<IMetaInfo> metaInfos = new ArrayList<IMetaInfo>();
+
+        public List<IEvent> getEvents() {
+            return events;
+        }
+
+        public List<IMetaInfo> getMetaInfos() {
+            return metaInfos;
+        }
+
+        @Override
+        synchronized protected void onEvent(IEvent event, IMetaInfo metaInfo) {
+            this.events.add(event);
+            this.metaInfos.add(metaInfo);
+        }
+    }
+}
@@ -22,8 +22,11 @@
  */
 package com.itextpdf.pdfocr.tesseract4;
 
+import com.itextpdf.kernel.geom.Rectangle;
 import com.itextpdf.pdfocr.IntegrationTestHelper;
+import com.itextpdf.pdfocr.PageText;
 import com.itextpdf.pdfocr.TextInfo;
+import net.sourceforge.lept4j.Pix;
 import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Rule;
@@ -32,11 +35,17 @@ import org.junit.rules.ExpectedException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import javax.imageio.ImageIO;
 
 public abstract class TesseractHelperTest extends IntegrationTestHelper {
 
@@ -89,6 +98,247 @@ public abstract class TesseractHelperTest extends IntegrationTestHelper {
         Assert.assertEquals(expected, result.trim());
     }
 
+    @Test
+    public void testTesseract4OcrForOnePageWithTsvFormat()
+            throws IOException {
+        String path = TEST_IMAGES_DIRECTORY + "numbers_01.jpg";
+        String expected = "619121";
+        File imgFile = new File(path);
+        File outputFile = new File(getTargetDirectory()
+                + "testTesseract4OcrForOnePage.tsv");
+
+        tesseractReader.doTesseractOcr(imgFile, outputFile, OutputFormat.TSV);
+        Map<Integer, List<TextInfo>> pageData = TesseractHelper
+                .parseTsvFile(Collections.<File>singletonList(outputFile),
+                        tesseractReader.getTesseract4OcrEngineProperties());
+
+        String result = getTextFromPage(pageData.get(1));
+        Assert.assertEquals(expected, result.trim());
+
+        tesseractReader.getTesseract4OcrEngineProperties()
+                .setUseTsvOutput(true);
+        try {
+            pageData = tesseractReader.doImageOcr(imgFile);
+            Assert.assertEquals(expected, getTextFromPage(pageData.get(1)));
+        } finally {
+            tesseractReader.getTesseract4OcrEngineProperties()
+                    .setUseTsvOutput(false);
+        }
+    }
+
+    @Test
+    public void testTsvParsingMatchesHocrParsing() throws IOException {
+        final int linesCount = 200;
+        final int wordsCount = 10;
+        File hocrFile = new File(getTargetDirectory() + "parsing.hocr");
+        File tsvFile = new File(getTargetDirectory() + "parsing.tsv");
+        TsvParsingBenchmark.writeSyntheticPage(hocrFile, tsvFile, linesCount,
+                wordsCount);
+
+        for (TextPositioning textPositioning : TextPositioning.values()) {
+            for (int minimalConfidenceLevel : new int[] {0, 60}) {
+                Tesseract4OcrEngineProperties properties =
+                        new Tesseract4OcrEngineProperties()
+                                .setTextPositioning(textPositioning)
+                                .setMinimalConfidenceLevel(
+                                        minimalConfidenceLevel);
+                List<TextInfo> hocrText = TesseractHelper.parseHocrFile(
+                        Collections.<File>singletonList(hocrFile), null,
+                        properties).get(1);
+                List<TextInfo> tsvText = TesseractHelper.parseTsvFile(
+                        Collections.<File>singletonList(tsvFile),
+                        properties).get(1);
+                Assert.assertEquals(hocrText.size(), tsvText.size());
+                for (int i = 0; i < hocrText.size(); ++i) {
+                    Assert.assertEquals(hocrText.get(i).getText(),
+                            tsvText.get(i).getText());
+                    Assert.assertTrue(hocrText.get(i).getBboxRect()
+                            .equalsWithEpsilon(tsvText.get(i).getBboxRect()));
+                }
+            }
+        }
+        Assert.assertEquals(TesseractHelper.findLowConfidenceLines(hocrFile,
+                60).size(), TesseractHelper.findLowConfidenceTsvLines(tsvFile,
+                60).size());
+    }
+
+    @Test
+    public void testRotatedTextIsMappedBackToOriginalPage() {
+        // page 200x100pt rotated clockwise by 90 degrees is 100x200pt
+        PageText rotatedPageText = new PageText(200);
+        rotatedPageText.addText("text", 10, 150, 50, 20);
+
+        List<TextInfo> textInfos = TesseractHelper.rotateTextInfos(
+                rotatedPageText, 90, 200, 100);
+        Assert.assertTrue(new Rectangle(30, 10, 20, 50)
+                .equalsWithEpsilon(textInfos.get(0).getBboxRect()));
+
+        textInfos = TesseractHelper.rotateTextInfos(
+                Collections.<TextInfo>singletonList(new TextInfo("text",
+                        new Rectangle(10, 20, 50, 10))), 180, 200, 100);
+        Assert.assertTrue(new Rectangle(140, 70, 50, 10)
+                .equalsWithEpsilon(textInfos.get(0).getBboxRect()));
+
+        textInfos = TesseractHelper.rotateTextInfos(
+                rotatedPageText, 270, 200, 100);
+        Assert.assertTrue(new Rectangle(150, 40, 20, 50)
+                .equalsWithEpsilon(textInfos.get(0).getBboxRect()));
+    }
+
+    @Test
+    public void testParseOrientationAndScriptDetectionOutput() {
+        PageOrientation orientation = PageOrientation.parse(
+                "Page number: 0\nOrientation in degrees: 270\nRotate: 90\n"
+                        + "Orientation confidence: 12.34\nScript: Cyrillic\n"
+                        + "Script confidence: 3.50\n");
+        Assert.assertEquals(90, orientation.getRotation());
+        Assert.assertEquals(12.34, orientation.getConfidence(), 0.001);
+        Assert.assertEquals("Cyrillic", orientation.getScript());
+        Assert.assertEquals(3.5, orientation.getScriptConfidence(), 0.001);
+        Assert.assertNull(PageOrientation.parse("Too few characters"));
+    }
+
+    @Test
+    public void testLowConfidenceLinesAreReplaced() throws IOException {
+        File hocrFile = new File(getTargetDirectory() + "cascade.hocr");
+        Files.write(hocrFile.toPath(), ("<html><body>"
+                + "<div class='ocr_page' id='page_1' title='bbox 0 0 400 200'>"
+                + "<span class='ocr_line' id='line_1_1' title='bbox 10 10 200 30'>"
+                + "<span class='ocrx_word' id='word_1_1' title='bbox 10 10 100 30; x_wconf 95'>clean</span> "
+                + "<span class='ocrx_word' id='word_1_2' title='bbox 110 10 200 30; x_wconf 91'>line</span>"
+                + "</span>"
+                + "<span class='ocr_line' id='line_1_2' title='bbox 10 100 300 130'>"
+                + "<span class='ocrx_word' id='word_1_3' title='bbox 10 100 150 130; x_wconf 40'>b1urry</span> "
+                + "<span class='ocrx_word' id='word_1_4' title='bbox 160 100 300 130; x_wconf 50'>1ine</span>"
+                + "</span></div></body></html>")
+                .getBytes(StandardCharsets.UTF_8));
+
+        List<Rectangle> lines = TesseractHelper.findLowConfidenceLines(
+                hocrFile, 70);
+        Assert.assertEquals(1, lines.size());
+        Assert.assertTrue(new Rectangle(7.5f, 52.5f, 217.5f, 22.5f)
+                .equalsWithEpsilon(lines.get(0)));
+        Assert.assertTrue(TesseractHelper.findLowConfidenceLines(
+                hocrFile, 40).isEmpty());
+
+        PageText pageText = new PageText(150);
+        pageText.addText("clean line", 7.5f, 127.5f, 142.5f, 15);
+        pageText.addText("b1urry 1ine", 7.5f, 52.5f, 217.5f, 22.5f);
+        pageText.addText("footer", 7.5f, 7.5f, 50, 10);
+        List<TextInfo> accurateText = Collections.<TextInfo>singletonList(
+                new TextInfo("blurry line", new Rectangle(8, 53, 210, 20)));
+
+        List<TextInfo> merged = TesseractHelper.replaceLinesText(pageText,
+                lines, Collections.<List<TextInfo>>singletonList(accurateText),
+                150);
+        Assert.assertEquals("clean line blurry line footer",
+                getTextFromPage(merged));
+        Assert.assertTrue(new Rectangle(8, 53, 210, 20)
+                .equalsWithEpsilon(merged.get(1).getBboxRect()));
+
+        // original text is kept if nothing is recognized again
+        merged = TesseractHelper.replaceLinesText(pageText, lines,
+                Collections.<List<TextInfo>>singletonList(
+                        Collections.<TextInfo>emptyList()), 150);
+        Assert.assertEquals("clean line b1urry 1ine footer",
+                getTextFromPage(merged));
+    }
+
+    @Test
+    public void testLanguagesAreSelectedByDetectedScript() {
+        List<String> languages = Arrays.<String>asList("eng", "deu", "rus",
+                "ukr", "chi_sim", "custom");
+        Assert.assertEquals(Arrays.<String>asList("rus", "ukr", "custom"),
+                ScriptLanguages.selectLanguages(languages, "Cyrillic"));
+        Assert.assertEquals(Arrays.<String>asList("eng", "deu", "custom"),
+                ScriptLanguages.selectLanguages(languages, "Latin"));
+        Assert.assertEquals(Arrays.<String>asList("chi_sim", "custom"),
+                ScriptLanguages.selectLanguages(languages, "Japanese"));
+        // all languages are used if none of them is of the detected script
+        Assert.assertEquals(languages,
+                ScriptLanguages.selectLanguages(languages, "Arabic"));
+        Assert.assertEquals(languages,
+                ScriptLanguages.selectLanguages(languages, "Unknown"));
+        Assert.assertEquals("Latin",
+                ScriptLanguages.getLanguageScript("script/Latin"));
+    }
+
+    @Test
+    public void testRotatedPageIsScaledBackToOriginalDpi() throws IOException {
+        // page is rotated counterclockwise, so it needs to be rotated
+        // clockwise by 90 degrees to be upright
+        BufferedImage source = ImageIO.read(
+                new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg"));
+        BufferedImage rotated = new BufferedImage(source.getHeight() * 2,
+                source.getWidth() * 2, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rotated.createGraphics();
+        graphics.scale(2, 2);
+        graphics.translate(0, source.getWidth());
+        graphics.rotate(-Math.PI / 2);
+        graphics.drawImage(source, 0, 0, null);
+        graphics.dispose();
+        File imgFile = savePngWithDpi(rotated, getTargetDirectory()
+                + "testRotatedPageIsScaledBackToOriginalDpi.png", 600);
+
+        TextInfo fullDpiText = getFirstTextInfo(
+                getRotatedPageOcrEngine(new ImagePreprocessingOptions())
+                        .doImageOcr(imgFile));
+        TextInfo targetDpiText = getFirstTextInfo(
+                getRotatedPageOcrEngine(new ImagePreprocessingOptions()
+                        .setTargetDpi(300)).doImageOcr(imgFile));
+
+        Assert.assertEquals("619121", fullDpiText.getText());
+        Assert.assertEquals("619121", targetDpiText.getText());
+        Rectangle fullDpiBbox = fullDpiText.getBboxRect();
+        Rectangle targetDpiBbox = targetDpiText.getBboxRect();
+        float tolerance = 0.1f * fullDpiBbox.getHeight();
+        Assert.assertEquals(fullDpiBbox.getLeft(), targetDpiBbox.getLeft(),
+                tolerance);
+        Assert.assertEquals(fullDpiBbox.getBottom(),
+                targetDpiBbox.getBottom(), tolerance);
+        Assert.assertEquals(fullDpiBbox.getWidth(), targetDpiBbox.getWidth(),
+                tolerance);
+        Assert.assertEquals(fullDpiBbox.getHeight(),
+                targetDpiBbox.getHeight(), tolerance);
+    }
+
+    /**
+     * Creates engine of the tested type which detects every page as rotated
+     * counterclockwise by 90 degrees.
+     */
+    private AbstractTesseract4OcrEngine getRotatedPageOcrEngine(
+            ImagePreprocessingOptions imagePreprocessingOptions) {
+        Tesseract4OcrEngineProperties properties =
+                new Tesseract4OcrEngineProperties()
+                        .setPathToTessData(getTessDataDirectory())
+                        .setDetectOrientation(true)
+                        .setImagePreprocessingOptions(imagePreprocessingOptions);
+        if (isExecutableReaderType) {
+            return new Tesseract4ExecutableOcrEngine(properties) {
+                @Override
+                PageOrientation detectOrientation(Pix pix) {
+                    return new PageOrientation(90, 100, null, 0);
+                }
+            };
+        } else {
+            return new Tesseract4LibOcrEngine(properties) {
+                @Override
+                PageOrientation detectOrientation(Pix pix) {
+                    return new PageOrientation(90, 100, null, 0);
+                }
+            };
+        }
+    }
+
+    /**
+     * Gets the only text item of the first page.
+     */
+    private static TextInfo getFirstTextInfo(
+            Map<Integer, List<TextInfo>> imageData) {
+        Assert.assertEquals(1, imageData.get(1).size());
+        return imageData.get(1).get(0);
+    }
+
     /**
      * Concatenates provided text items to one string.
      */
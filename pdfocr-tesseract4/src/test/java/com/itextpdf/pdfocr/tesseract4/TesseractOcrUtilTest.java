@@ -35,7 +35,9 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import javax.imageio.ImageIO;
+import net.sourceforge.lept4j.Leptonica;
 import net.sourceforge.lept4j.Pix;
+import net.sourceforge.tess4j.ITesseract;
 import net.sourceforge.tess4j.TesseractException;
 import org.junit.Assert;
 import org.junit.Test;
@@ -62,6 +64,26 @@ public class TesseractOcrUtilTest extends IntegrationTestHelper {
         Assert.assertTrue(result.contains(expected));
     }
 
+    @Test
+    public void testTesseractInstanceIsInitializedInAnotherThread()
+            throws InterruptedException {
+        final Tesseract4LibOcrEngine tesseract4LibOcrEngine =
+                getTesseract4LibOcrEngine();
+        final ITesseract[] instances = new ITesseract[1];
+        Thread thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                instances[0] = tesseract4LibOcrEngine.getTesseractInstance();
+            }
+        });
+        thread.start();
+        thread.join();
+
+        Assert.assertNotNull(instances[0]);
+        Assert.assertNotSame(tesseract4LibOcrEngine.getTesseractInstance(),
+                instances[0]);
+    }
+
     @Test
     public void testGetOcrResultAsStringForFile()
             throws TesseractException {
@@ -81,6 +103,30 @@ public class TesseractOcrUtilTest extends IntegrationTestHelper {
         Assert.assertTrue(result.contains(expected));
     }
 
+    @Test
+    public void testReadingPagesFromMultipageTiff() throws IOException {
+        String path = TEST_IMAGES_DIRECTORY + "multîpage.tiff";
+        File imgFile = new File(path);
+        byte[] imgBytes = Files.readAllBytes(imgFile.toPath());
+        TesseractOcrUtil tesseractOcrUtil = new TesseractOcrUtil();
+        tesseractOcrUtil.initializeImagesListFromTiff(imgFile);
+        int numOfPages = tesseractOcrUtil.getListOfPages().size();
+        Assert.assertTrue(numOfPages > 1);
+
+        for (int page = 0; page < numOfPages; page++) {
+            BufferedImage expected = tesseractOcrUtil.getListOfPages().get(page);
+            Pix[] pages = new Pix[] {
+                    TesseractOcrUtil.readPixPageFromTiff(imgFile, page),
+                    TesseractOcrUtil.readPixPageFromTiff(imgBytes, page)};
+            for (Pix pix : pages) {
+                Assert.assertNotNull(pix);
+                Assert.assertEquals(expected.getWidth(), pix.w);
+                Assert.assertEquals(expected.getHeight(), pix.h);
+                TesseractOcrUtil.destroyPix(pix);
+            }
+        }
+    }
+
     @LogMessages(messages = {
             @LogMessage(messageTemplate = Tesseract4LogMessageConstant.PAGE_NUMBER_IS_INCORRECT)
     })
@@ -185,6 +231,76 @@ public class TesseractOcrUtilTest extends IntegrationTestHelper {
         Assert.assertFalse(Files.exists(Paths.get(tmpFileName)));
     }
 
+    @Test
+    public void testPreprocessingReleasesIntermediatePixes() {
+        File imgFile = new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg");
+        int livePixCount = PixMemoryStatistics.getLivePixCount();
+        long livePixBytes = PixMemoryStatistics.getLivePixBytes();
+
+        Pix pix = ImagePreprocessingUtil.preprocessImage(imgFile, 1,
+                new ImagePreprocessingOptions());
+        Assert.assertEquals(livePixCount + 1,
+                PixMemoryStatistics.getLivePixCount());
+        Assert.assertTrue(PixMemoryStatistics.getLivePixBytes() > livePixBytes);
+
+        TesseractOcrUtil.destroyPix(pix);
+        Assert.assertEquals(livePixCount, PixMemoryStatistics.getLivePixCount());
+        Assert.assertEquals(livePixBytes, PixMemoryStatistics.getLivePixBytes());
+    }
+
+    @Test
+    public void testScopedPixDestroysOwnedPixOnly() {
+        File imgFile = new File(TEST_IMAGES_DIRECTORY + "numbers_01.jpg");
+        int livePixCount = PixMemoryStatistics.getLivePixCount();
+        Pix pix = TesseractOcrUtil.readPix(imgFile);
+
+        try (ScopedPix scopedPix = ScopedPix.borrow(pix)) {
+            scopedPix.replace(TesseractOcrUtil.scalePix(scopedPix.get(), 0.5f));
+            scopedPix.replace(TesseractOcrUtil.convertToGrayscale(scopedPix.get()));
+            Assert.assertEquals(livePixCount + 2,
+                    PixMemoryStatistics.getLivePixCount());
+        }
+        Assert.assertEquals(livePixCount + 1,
+                PixMemoryStatistics.getLivePixCount());
+
+        TesseractOcrUtil.destroyPix(pix);
+        Assert.assertEquals(livePixCount, PixMemoryStatistics.getLivePixCount());
+    }
+
+    @Test
+    public void testGrayscaleAndBilevelPixAreNotCloned() throws IOException {
+        File imgFile = new File(getTargetDirectory()
+                + "testGrayscaleAndBilevelPixAreNotCloned.png");
+        ImageIO.write(new BufferedImage(200, 100, BufferedImage.TYPE_BYTE_GRAY),
+                "png", imgFile);
+        int livePixCount = PixMemoryStatistics.getLivePixCount();
+        Pix grayPix = TesseractOcrUtil.readPix(imgFile);
+        Pix bilevelPix = PixMemoryStatistics.register(
+                Leptonica.INSTANCE.pixConvertTo1(grayPix, 128));
+        Assert.assertEquals(8, Leptonica.INSTANCE.pixGetDepth(grayPix));
+        Assert.assertEquals(1, Leptonica.INSTANCE.pixGetDepth(bilevelPix));
+
+        for (Pix pix : new Pix[] {grayPix, bilevelPix}) {
+            try (ScopedPix scopedPix = ScopedPix.borrow(pix)) {
+                scopedPix.replace(TesseractOcrUtil.convertToGrayscale(
+                        scopedPix.get()));
+                Assert.assertEquals(pix.getPointer(),
+                        scopedPix.get().getPointer());
+            }
+            Assert.assertEquals(1, Leptonica.INSTANCE.pixGetRefcount(pix));
+        }
+
+        Pix preprocessedPix = ImagePreprocessingUtil.preprocessImage(imgFile,
+                1, new ImagePreprocessingOptions());
+        Assert.assertEquals(1,
+                Leptonica.INSTANCE.pixGetRefcount(preprocessedPix));
+
+        TesseractOcrUtil.destroyPix(preprocessedPix);
+        TesseractOcrUtil.destroyPix(bilevelPix);
+        TesseractOcrUtil.destroyPix(grayPix);
+        Assert.assertEquals(livePixCount, PixMemoryStatistics.getLivePixCount());
+    }
+
     @LogMessages(messages = {
         @LogMessage(messageTemplate = Tesseract4LogMessageConstant.CANNOT_PROCESS_IMAGE)
     })
@@ -226,6 +342,31 @@ public class TesseractOcrUtilTest extends IntegrationTestHelper {
         Assert.assertEquals(0, rotation);
     }
 
+    @Test
+    public void testMetadataOnlyRotationHandler() throws Exception {
+        LeptonicaImageRotationHandler handler =
+                new LeptonicaImageRotationHandler(true);
+        Assert.assertTrue(handler.isMetadataOnly());
+        Assert.assertFalse(new LeptonicaImageRotationHandler().isMetadataOnly());
+
+        ImageData imageData = ImageDataFactory.create(
+                TEST_IMAGES_DIRECTORY + "numbers_01.jpg");
+        Assert.assertSame(imageData, handler.applyRotation(imageData));
+        Assert.assertEquals(0, imageData.getRotation(), 0.0001);
+
+        imageData = ImageDataFactory.create(
+                TEST_IMAGES_DIRECTORY + "90_degrees_rotated.jpg");
+        byte[] originalData = imageData.getData();
+        ImageData rotated = handler.applyRotation(imageData);
+        Assert.assertSame(originalData, rotated.getData());
+        Assert.assertEquals(-Math.PI / 2, rotated.getRotation(), 0.0001);
+
+        imageData = ImageDataFactory.create(
+                TEST_IMAGES_DIRECTORY + "270_degrees_rotated.jpg");
+        Assert.assertEquals(-3 * Math.PI / 2,
+                handler.applyRotation(imageData).getRotation(), 0.0001);
+    }
+
     @LogMessages(messages = {
             @LogMessage(messageTemplate = Tesseract4LogMessageConstant.CANNOT_READ_INPUT_IMAGE)
     }, ignore = true)
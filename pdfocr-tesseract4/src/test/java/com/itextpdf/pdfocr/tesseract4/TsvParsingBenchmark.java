@@ -0,0 +1,150 @@
+/*
+    This file is part of the iText (R) project.
+    Copyright (c) 1998-2020 iText Group NV
+    Authors: iText Software.
+
+    This program is offered under a commercial and under the AGPL license.
+    For commercial licensing, contact us at https://itextpdf.com/sales.  For AGPL licensing, see below.
+
+    AGPL licensing:
+    This program is free software: you can redistribute it and/or modify
+    it under the terms of the GNU Affero General Public License as published by
+    the Free Software Foundation, either version 3 of the License, or
+    (at your option) any later version.
+
+    This program is distributed in the hope that it will be useful,
+    but WITHOUT ANY WARRANTY; without even the implied warranty of
+    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+    GNU Affero General Public License for more details.
+
+    You should have received a copy of the GNU Affero General Public License
+    along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+package com.itextpdf.pdfocr.tesseract4;
+
+import com.itextpdf.io.util.MessageFormatUtil;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+
+/**
+ * Measures parsing throughput of tesseract TSV output compared to hOCR
+ * output for the same synthetic page.
+ *
+ * This is not a test and is not run by the build. It can be run from the
+ * module directory after test classes are compiled, e.g.
+ * <pre>
+ * mvn test-compile exec:java -Dexec.classpathScope=test
+ *     -Dexec.mainClass=com.itextpdf.pdfocr.tesseract4.TsvParsingBenchmark
+ *     -Dexec.args="200 10 50"
+ * </pre>
+ * Arguments are number of lines on the page, number of words in a line
+ * and number of measured iterations.
+ */
+public final class TsvParsingBenchmark {
+
+    private TsvParsingBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        final int linesCount = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        final int wordsCount = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        final int iterations = args.length > 2 ? Integer.parseInt(args[2]) : 50;
+
+        File hocrFile = File.createTempFile("benchmark", ".hocr");
+        File tsvFile = File.createTempFile("benchmark", ".tsv");
+        try {
+            writeSyntheticPage(hocrFile, tsvFile, linesCount, wordsCount);
+            Tesseract4OcrEngineProperties properties =
+                    new Tesseract4OcrEngineProperties();
+            // warm up both parsers before measuring
+            measure(hocrFile, tsvFile, properties, iterations);
+            long[] times = measure(hocrFile, tsvFile, properties, iterations);
+            System.out.println(MessageFormatUtil.format(
+                    "Parsing of {0} words, average of {1} iterations: "
+                            + "hOCR {2} ms, TSV {3} ms",
+                    linesCount * wordsCount, iterations,
+                    times[0] / iterations / 1000000.0,
+                    times[1] / iterations / 1000000.0));
+        } finally {
+            TesseractHelper.deleteFile(hocrFile.getAbsolutePath());
+            TesseractHelper.deleteFile(tsvFile.getAbsolutePath());
+        }
+    }
+
+    /**
+     * Writes the same synthetic page as hOCR and TSV files. Every third line
+     * has words of low confidence.
+     *
+     * @param hocrFile file to write hOCR output to
+     * @param tsvFile file to write TSV output to
+     * @param linesCount number of lines on the page
+     * @param wordsCount number of words in each line
+     * @throws IOException if the files cannot be written
+     */
+    static void writeSyntheticPage(File hocrFile, File tsvFile,
+            int linesCount, int wordsCount) throws IOException {
+        StringBuilder hocr = new StringBuilder("<html><body>"
+                + "<div class='ocr_page' id='page_1' title='bbox 0 0 2480 3508'>");
+        StringBuilder tsv = new StringBuilder("level\tpage_num\tblock_num"
+                + "\tpar_num\tline_num\tword_num\tleft\ttop\twidth\theight"
+                + "\tconf\ttext\n"
+                + "1\t1\t0\t0\t0\t0\t0\t0\t2480\t3508\t-1\t\n"
+                + "2\t1\t1\t0\t0\t0\t100\t100\t2200\t3200\t-1\t\n"
+                + "3\t1\t1\t1\t0\t0\t100\t100\t2200\t3200\t-1\t\n");
+        for (int line = 0; line < linesCount; ++line) {
+            final int top = 100 + line * 16;
+            hocr.append(MessageFormatUtil.format("<span class='ocr_line' "
+                    + "id='line_1_{0}' title='bbox 100 {1} 2300 {2}'>",
+                    line, top, top + 14));
+            tsv.append(MessageFormatUtil.format(
+                    "4\t1\t1\t1\t{0}\t0\t100\t{1}\t2200\t14\t-1\t\n",
+                    line + 1, top));
+            for (int word = 0; word < wordsCount; ++word) {
+                final int left = 100 + word * 220;
+                final int confidence = line % 3 == 0 ? 40 + word : 90 + word;
+                hocr.append(MessageFormatUtil.format("<span class='ocrx_word' "
+                        + "id='word_1_{0}_{1}' title='bbox {2} {3} {4} {5}; "
+                        + "x_wconf {6}'>w{0}x{1}</span> ", line, word, left,
+                        top + 1, left + 200, top + 13, confidence));
+                tsv.append(MessageFormatUtil.format("5\t1\t1\t1\t{0}\t{1}"
+                        + "\t{2}\t{3}\t200\t12\t{4}.000000\tw{5}x{6}\n",
+                        line + 1, word + 1, left, top + 1, confidence,
+                        line, word));
+            }
+            hocr.append("</span>");
+        }
+        hocr.append("</div></body></html>");
+        Files.write(hocrFile.toPath(),
+                hocr.toString().getBytes(StandardCharsets.UTF_8));
+        Files.write(tsvFile.toPath(),
+                tsv.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Parses both files the given number of times.
+     *
+     * @return total time of hOCR and TSV parsing in nanoseconds
+     */
+    private static long[] measure(File hocrFile, File tsvFile,
+            Tesseract4OcrEngineProperties properties, int iterations)
+            throws IOException {
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            TesseractHelper.parseHocrFile(
+                    Collections.<File>singletonList(hocrFile), null,
+                    properties);
+        }
+        final long hocrTime = System.nanoTime() - start;
+        start = System.nanoTime();
+        for (int i = 0; i < iterations; ++i) {
+            TesseractHelper.parseTsvFile(
+                    Collections.<File>singletonList(tsvFile), properties);
+        }
+        final long tsvTime = System.nanoTime() - start;
+        return new long[] {hocrTime, tsvTime};
+    }
+}
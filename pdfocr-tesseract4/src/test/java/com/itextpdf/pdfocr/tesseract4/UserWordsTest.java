@@ -154,4 +154,45 @@ public abstract class UserWordsTest extends IntegrationTestHelper {
         tesseractReader.doImageOcr(new File(imgPath));
         Assert.assertTrue(new File(userWords).exists());
     }
+
+    @Test
+    public void testUserWordsFileIsSharedAndDeletedOnClose() {
+        List<String> userWords = Arrays.<String>asList("he23llo",
+                "qwetyrtyqpwe-rty");
+        Tesseract4OcrEngineProperties properties =
+                new Tesseract4OcrEngineProperties()
+                        .setPathToTessData(getTessDataDirectory());
+        properties.setLanguages(Arrays.<String>asList("eng"));
+        properties.setUserWords("eng", userWords);
+        Tesseract4OcrEngineProperties otherProperties =
+                new Tesseract4OcrEngineProperties(properties)
+                        .setUserWords("eng", userWords);
+        String userWordsFile = properties.getPathToUserWordsFile();
+        Assert.assertEquals(userWordsFile,
+                otherProperties.getPathToUserWordsFile());
+        // file is written only when it is needed by the engine
+        Assert.assertFalse(new File(userWordsFile).exists());
+        Assert.assertEquals(0, UserWordsRegistry.getReferences(userWordsFile));
+
+        AbstractTesseract4OcrEngine engine = isExecutableReaderType
+                ? new Tesseract4ExecutableOcrEngine(properties)
+                : new Tesseract4LibOcrEngine(properties);
+        String imgPath = TEST_IMAGES_DIRECTORY + "numbers_01.jpg";
+        engine.doImageOcr(new File(imgPath));
+        // file is kept for the following pages
+        Assert.assertTrue(new File(userWordsFile).exists());
+        engine.doImageOcr(new File(imgPath));
+        Assert.assertTrue(new File(userWordsFile).exists());
+        Assert.assertEquals(1, UserWordsRegistry.getReferences(userWordsFile));
+
+        engine.close();
+        Assert.assertFalse(new File(userWordsFile).exists());
+        Assert.assertEquals(0, UserWordsRegistry.getReferences(userWordsFile));
+
+        // file is written once again if it is needed after close
+        engine.doImageOcr(new File(imgPath));
+        Assert.assertTrue(new File(userWordsFile).exists());
+        engine.close();
+        Assert.assertFalse(new File(userWordsFile).exists());
+    }
 }